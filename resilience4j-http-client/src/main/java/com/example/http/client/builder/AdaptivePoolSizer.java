@@ -0,0 +1,302 @@
+package com.example.http.client.builder;
+
+import com.example.http.client.property.HttpClientProperties;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Connection manager that sizes each route's connection limit from the route's demand, see
+ * {@link HttpClientProperties.Pool.Adaptive}.
+ * <p>
+ * Demand is the number of leases holding or waiting for a connection, integrated over time as leases start,
+ * are granted and are released; divided by the interval it is the average concurrency the route needed, so
+ * lease wait time, in-flight count and exchange latency all count without sampling individual calls. A
+ * daemon thread applies the new limits through {@link ConnPoolControl#setMaxPerRoute} and tells the
+ * {@link ResizeListener}. Closing the manager stops the thread and closes the wrapped manager.
+ */
+@Slf4j
+public final class AdaptivePoolSizer implements HttpClientConnectionManager, ConnPoolControl<HttpRoute> {
+
+    /**
+     * Told about every route limit the sizer changes, on the sizer's thread.
+     */
+    @FunctionalInterface
+    public interface ResizeListener {
+        void resized(HttpRoute route, int previousMax, int newMax);
+    }
+
+    private final HttpClientConnectionManager manager;
+    private final ConnPoolControl<HttpRoute> pool;
+    private final RouteOverrides routes;
+    private final int minPerRoute;
+    private final int maxPerRoute;
+    private final double headroom;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService scheduler;
+    private final Map<HttpRoute, Demand> demand = new ConcurrentHashMap<>();
+    private final Map<ConnectionEndpoint, Demand> leased = new ConcurrentHashMap<>();
+    private volatile ResizeListener listener;
+
+    <M extends HttpClientConnectionManager & ConnPoolControl<HttpRoute>> AdaptivePoolSizer(
+            M manager, HttpClientProperties.Pool.Adaptive settings, RouteOverrides routes) {
+        this(manager, settings, routes, System::nanoTime, true);
+    }
+
+    <M extends HttpClientConnectionManager & ConnPoolControl<HttpRoute>> AdaptivePoolSizer(
+            M manager,
+            HttpClientProperties.Pool.Adaptive settings,
+            RouteOverrides routes,
+            LongSupplier clock,
+            boolean schedule) {
+        this.manager = manager;
+        this.pool = manager;
+        this.routes = routes;
+        this.minPerRoute = settings.getMinPerRoute();
+        this.maxPerRoute = Math.max(settings.getMinPerRoute(), settings.getMaxPerRoute());
+        this.headroom = settings.getHeadroom();
+        this.clock = clock;
+        if (schedule) {
+            long intervalNanos = settings.getInterval().toNanos();
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "adaptive-pool-sizer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.scheduler.scheduleWithFixedDelay(
+                    this::resizeSafely, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public void setResizeListener(ResizeListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        Demand routeDemand = demand.computeIfAbsent(route, r -> new Demand(clock.getAsLong()));
+        routeDemand.change(clock.getAsLong(), 0, 1);
+        LeaseRequest request;
+        try {
+            request = manager.lease(id, route, requestTimeout, state);
+        } catch (RuntimeException ex) {
+            routeDemand.change(clock.getAsLong(), 0, -1);
+            throw ex;
+        }
+        return new LeaseRequest() {
+            private boolean settled;
+
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                try {
+                    ConnectionEndpoint endpoint = request.get(timeout);
+                    settle(1);
+                    leased.put(endpoint, routeDemand);
+                    return endpoint;
+                } catch (InterruptedException | ExecutionException | TimeoutException | RuntimeException ex) {
+                    settle(0);
+                    throw ex;
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                settle(0);
+                return request.cancel();
+            }
+
+            private synchronized void settle(int granted) {
+                if (!settled) {
+                    settled = true;
+                    routeDemand.change(clock.getAsLong(), granted, -1);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+        Demand routeDemand = leased.remove(endpoint);
+        try {
+            manager.release(endpoint, newState, validDuration);
+        } finally {
+            if (routeDemand != null) {
+                routeDemand.change(clock.getAsLong(), -1, 0);
+            }
+        }
+    }
+
+    @Override
+    public void connect(ConnectionEndpoint endpoint, TimeValue connectTimeout, HttpContext context) throws IOException {
+        manager.connect(endpoint, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+        manager.upgrade(endpoint, context);
+    }
+
+    @Override
+    public void close() throws IOException {
+        close(CloseMode.GRACEFUL);
+    }
+
+    @Override
+    public void close(CloseMode closeMode) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        manager.close(closeMode);
+    }
+
+    /**
+     * Sets every active route's limit from its demand since the previous call.
+     */
+    void resize() {
+        long now = clock.getAsLong();
+        demand.forEach((route, routeDemand) -> {
+            double concurrency = routeDemand.drain(now);
+            if (routes != null && routes.pins(route)) {
+                return;
+            }
+            int current = pool.getMaxPerRoute(route);
+            int target = (int) Math.ceil(concurrency * headroom);
+            if (target > current) {
+                target = Math.min(target, current * 2);
+            } else if (target < current) {
+                target = Math.max(target, current - Math.max(1, current / 4));
+            }
+            target = Math.max(minPerRoute, Math.min(maxPerRoute, target));
+            if (target != current) {
+                pool.setMaxPerRoute(route, target);
+                ResizeListener resizeListener = listener;
+                if (resizeListener != null) {
+                    resizeListener.resized(route, current, target);
+                }
+            }
+        });
+    }
+
+    private void resizeSafely() {
+        try {
+            resize();
+        } catch (RuntimeException ex) {
+            log.warn("Failed to resize connection pool routes", ex);
+        }
+    }
+
+    @Override
+    public void setMaxTotal(int max) {
+        pool.setMaxTotal(max);
+    }
+
+    @Override
+    public int getMaxTotal() {
+        return pool.getMaxTotal();
+    }
+
+    @Override
+    public void setDefaultMaxPerRoute(int max) {
+        pool.setDefaultMaxPerRoute(max);
+    }
+
+    @Override
+    public int getDefaultMaxPerRoute() {
+        return pool.getDefaultMaxPerRoute();
+    }
+
+    @Override
+    public void setMaxPerRoute(HttpRoute route, int max) {
+        pool.setMaxPerRoute(route, max);
+    }
+
+    @Override
+    public int getMaxPerRoute(HttpRoute route) {
+        return pool.getMaxPerRoute(route);
+    }
+
+    @Override
+    public void closeIdle(TimeValue idleTime) {
+        pool.closeIdle(idleTime);
+    }
+
+    @Override
+    public void closeExpired() {
+        pool.closeExpired();
+    }
+
+    @Override
+    public Set<HttpRoute> getRoutes() {
+        return pool.getRoutes();
+    }
+
+    @Override
+    public PoolStats getTotalStats() {
+        return pool.getTotalStats();
+    }
+
+    @Override
+    public PoolStats getStats(HttpRoute route) {
+        return pool.getStats(route);
+    }
+
+    /**
+     * Time integral of the leases holding or waiting for a connection to one route.
+     */
+    private static final class Demand {
+        private int holding;
+        private int waiting;
+        private long area;
+        private long since;
+        private long windowStart;
+
+        private Demand(long now) {
+            this.since = now;
+            this.windowStart = now;
+        }
+
+        private synchronized void change(long now, int holdingDelta, int waitingDelta) {
+            accumulate(now);
+            holding += holdingDelta;
+            waiting += waitingDelta;
+        }
+
+        /**
+         * @return the average number of leases holding or waiting since the previous drain
+         */
+        private synchronized double drain(long now) {
+            accumulate(now);
+            long window = now - windowStart;
+            double concurrency = window > 0 ? (double) area / window : holding + waiting;
+            area = 0;
+            windowStart = now;
+            return concurrency;
+        }
+
+        private void accumulate(long now) {
+            area += (long) (holding + waiting) * (now - since);
+            since = now;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.http.client.builder;
+
+import java.io.IOException;
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecChainHandler;
+import org.apache.hc.client5.http.async.AsyncExecRuntime;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+/**
+ * Lets the caller of an async client built by {@link HttpClientConfigurer#configureAsync} abort an
+ * in-flight exchange so that its connection is discarded at once.
+ * <p>
+ * Cancelling the future returned by the client is not enough: when the pool hands out an already
+ * connected endpoint, the client loses track of the running exchange and the connection stays leased
+ * until the server answers. This handler, first in the exec chain, records each exchange's runtime in
+ * its context so {@link #abort(HttpContext)} can discard the endpoint directly.
+ */
+public final class AsyncExchangeAbort implements AsyncExecChainHandler {
+
+    static final String NAME = "exchange-abort";
+    private static final String RUNTIME = AsyncExchangeAbort.class.getName() + ".runtime";
+
+    AsyncExchangeAbort() {}
+
+    @Override
+    public void execute(
+            HttpRequest request,
+            AsyncEntityProducer entityProducer,
+            AsyncExecChain.Scope scope,
+            AsyncExecChain chain,
+            AsyncExecCallback asyncExecCallback)
+            throws HttpException, IOException {
+        scope.clientContext.setAttribute(RUNTIME, scope.execRuntime);
+        chain.proceed(request, entityProducer, scope, asyncExecCallback);
+    }
+
+    /**
+     * Discards the connection of the exchange executed with {@code context}, if it still holds one;
+     * the exchange then fails. Safe to call from any thread, and a no-op once the exchange completed.
+     */
+    public static void abort(HttpContext context) {
+        if (context != null && context.getAttribute(RUNTIME) instanceof AsyncExecRuntime runtime) {
+            runtime.discardEndpoint();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.http.client.builder;
+
+import com.example.http.client.property.HttpClientProperties;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.apache.hc.client5.http.io.DetachedSocketFactory;
+
+/**
+ * {@link DnsResolver} with a bounded cache of its own, see {@link HttpClientProperties.Dns}.
+ * <p>
+ * Each lookup returns the host's usable addresses starting at the next one in turn, and the client tries
+ * them in that order, so new connections spread over every address instead of pinning to the first.
+ * Connect failures are reported through the sockets of {@link #socketFactory()}; a failed address is left
+ * out until {@code failureTimeout} passes or it connects again, unless every address of the host failed.
+ * <p>
+ * Entries used shortly before they expire are refreshed on a background thread, which exits when idle.
+ * A failed refresh keeps the cached addresses until they expire; the next lookup then waits for DNS.
+ */
+@Slf4j
+public final class CachingDnsResolver implements DnsResolver {
+
+    private final DnsResolver delegate;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final int maxEntries;
+    private final long failureTimeoutNanos;
+    private final LongSupplier clock;
+    private final ThreadPoolExecutor refresher;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final Map<InetAddress, Long> failed = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    CachingDnsResolver(HttpClientProperties.Dns settings) {
+        this(SystemDefaultDnsResolver.INSTANCE, settings, System::nanoTime);
+    }
+
+    CachingDnsResolver(DnsResolver delegate, HttpClientProperties.Dns settings, LongSupplier clock) {
+        this.delegate = delegate;
+        this.ttlNanos = settings.getTtl().toNanos();
+        this.refreshAheadNanos = Math.max(0L, settings.getRefreshAhead().toNanos());
+        this.maxEntries = settings.getMaxEntries();
+        this.failureTimeoutNanos = Math.max(0L, settings.getFailureTimeout().toNanos());
+        this.clock = clock;
+        this.refresher = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "dns-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        long now = clock.getAsLong();
+        Entry entry = cache.get(host);
+        if (entry == null || now - entry.expiresAt >= 0) {
+            misses.increment();
+            entry = lookup(host, now);
+        } else {
+            hits.increment();
+            if (entry.expiresAt - now <= refreshAheadNanos && entry.refreshing.compareAndSet(false, true)) {
+                refresher.execute(() -> refresh(host));
+            }
+        }
+        return usable(entry, now);
+    }
+
+    @Override
+    public String resolveCanonicalHostname(String host) throws UnknownHostException {
+        return delegate.resolveCanonicalHostname(host);
+    }
+
+    /**
+     * @return a socket factory for the client's connection operator whose sockets report connect
+     *     failures and successes to this resolver
+     */
+    public DetachedSocketFactory socketFactory() {
+        return socksProxy -> socksProxy == null ? new TrackingSocket() : new TrackingSocket(socksProxy);
+    }
+
+    /**
+     * @return lookups answered from the cache
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return lookups that waited for DNS because the host was not cached or its entry expired
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of hosts cached
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    void connectFailed(InetAddress address) {
+        failed.put(address, clock.getAsLong() + failureTimeoutNanos);
+    }
+
+    void connected(InetAddress address) {
+        failed.remove(address);
+    }
+
+    private Entry lookup(String host, long now) throws UnknownHostException {
+        InetAddress[] addresses = delegate.resolve(host);
+        if (addresses == null || addresses.length == 0) {
+            throw new UnknownHostException(host);
+        }
+        Entry entry = new Entry(addresses, now + ttlNanos);
+        if (cache.size() >= maxEntries && !cache.containsKey(host)) {
+            evict(now);
+        }
+        cache.put(host, entry);
+        return entry;
+    }
+
+    private void refresh(String host) {
+        Entry current = cache.get(host);
+        try {
+            Entry refreshed = lookup(host, clock.getAsLong());
+            if (current != null) {
+                // keep the rotation going rather than sending the next connections to the first address again
+                refreshed.next.set(current.next.get());
+            }
+        } catch (UnknownHostException | RuntimeException ex) {
+            log.debug("Failed to refresh addresses of {}, keeping the cached ones", host, ex);
+            if (current != null) {
+                current.refreshing.set(false);
+            }
+        }
+    }
+
+    /**
+     * Drops expired entries, or the entry closest to expiring if none has expired.
+     */
+    private void evict(long now) {
+        cache.values().removeIf(entry -> now - entry.expiresAt >= 0);
+        if (cache.size() < maxEntries) {
+            return;
+        }
+        cache.entrySet().stream()
+                .min((a, b) -> Long.compare(a.getValue().expiresAt - now, b.getValue().expiresAt - now))
+                .ifPresent(oldest -> cache.remove(oldest.getKey(), oldest.getValue()));
+    }
+
+    private InetAddress[] usable(Entry entry, long now) {
+        InetAddress[] addresses = entry.addresses;
+        int start = Math.floorMod(entry.next.getAndIncrement(), addresses.length);
+        InetAddress[] rotated = new InetAddress[addresses.length];
+        List<InetAddress> usable = new ArrayList<>(addresses.length);
+        for (int i = 0; i < addresses.length; i++) {
+            InetAddress address = addresses[(start + i) % addresses.length];
+            rotated[i] = address;
+            Long until = failed.get(address);
+            if (until == null) {
+                usable.add(address);
+            } else if (now - until >= 0) {
+                failed.remove(address, until);
+                usable.add(address);
+            }
+        }
+        // every address failed recently; trying them all beats failing without a connect attempt
+        return usable.isEmpty() ? rotated : usable.toArray(new InetAddress[0]);
+    }
+
+    private static final class Entry {
+        private final InetAddress[] addresses;
+        private final long expiresAt;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(InetAddress[] addresses, long expiresAt) {
+            this.addresses = addresses;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final class TrackingSocket extends Socket {
+
+        private TrackingSocket() {}
+
+        private TrackingSocket(Proxy proxy) {
+            super(proxy);
+        }
+
+        @Override
+        public void connect(SocketAddress endpoint, int timeout) throws IOException {
+            InetAddress address =
+                    endpoint instanceof InetSocketAddress socketAddress ? socketAddress.getAddress() : null;
+            try {
+                super.connect(endpoint, timeout);
+            } catch (IOException ex) {
+                if (address != null) {
+                    connectFailed(address);
+                }
+                throw ex;
+            }
+            if (address != null) {
+                connected(address);
+            }
+        }
+    }
+}
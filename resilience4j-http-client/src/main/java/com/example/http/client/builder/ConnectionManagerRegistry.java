@@ -0,0 +1,258 @@
+package com.example.http.client.builder;
+
+import com.example.http.client.property.HttpClientProperties;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.ssl.HostnameVerificationPolicy;
+import org.apache.hc.core5.io.CloseMode;
+
+/**
+ * Shares pooling connection managers between clients whose {@link HttpClientProperties} describe the
+ * same pool: concurrency policy, total size, connection, socket, SSL and DNS settings, and the connection
+ * settings of route overrides. SSL settings compare by the shared {@code SSLContext}, which stands for the
+ * stores' content and password digests, and by hostname verification, protocols, cipher suites, JSSE
+ * provider, session and reload settings; no store password is kept. Clients pointing at the same origins then reuse each other's idle
+ * connections and TLS sessions, so sockets scale with origins rather than with the number of clients.
+ * <p>
+ * Each client receives its own view of the shared manager which enforces the client's
+ * {@code maxConnectionsPerRoute}. For every route the shared pool allows the sum of its clients' limits
+ * for that route (capped at the total), so sharing never takes capacity away from a client. Views are reference counted: closing
+ * the last one closes the shared pool.
+ * <p>
+ * The registry also owns the {@link SslContextRegistry} of its clients, so SSL contexts and their store
+ * reloaders live as long as the registry and are released when it is closed.
+ */
+public final class ConnectionManagerRegistry implements AutoCloseable {
+
+    private final Map<Key, Entry> entries = new HashMap<>();
+    private final SslContextRegistry sslContexts = new SslContextRegistry();
+
+    /**
+     * @return the SSL contexts shared by the clients of this registry, whether their pools are shared or not
+     */
+    public SslContextRegistry sslContexts() {
+        return sslContexts;
+    }
+
+    /**
+     * @return a connection manager for a client with {@code props}, backed by a shared pool
+     */
+    public HttpClientConnectionManager acquire(HttpClientProperties props) {
+        return acquire(props, HttpClientConfigurer.dnsResolver(props));
+    }
+
+    /**
+     * Same as {@link #acquire(HttpClientProperties)}; a pool created for this client resolves host names
+     * through {@code dnsResolver} ({@code null} for the system resolver).
+     */
+    public synchronized HttpClientConnectionManager acquire(
+            HttpClientProperties props, CachingDnsResolver dnsResolver) {
+        // the context is cached by a fingerprint of the stores' content and password digests, so keying on
+        // it keeps store secrets out of the key
+        Key key = Key.of(props, sslContexts.context(props.getSsl()));
+        Entry entry = entries.computeIfAbsent(
+                key,
+                k -> new Entry(
+                        k,
+                        HttpClientConfigurer.pool(
+                                props, HttpClientConfigurer.routeOverrides(props), dnsResolver, sslContexts)));
+        RouteLimitedConnectionManager view = new RouteLimitedConnectionManager(
+                entry.pool,
+                props.getPool().getMaxConnectionsPerRoute(),
+                route -> resize(entry, route),
+                closed -> release(entry, closed));
+        entry.join(view);
+        return view;
+    }
+
+    /**
+     * @return the number of shared pools currently open
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Closes every shared pool, including those still referenced by clients, and the SSL contexts.
+     */
+    @Override
+    public synchronized void close() {
+        entries.values().forEach(entry -> entry.pool.close(CloseMode.GRACEFUL));
+        entries.clear();
+        sslContexts.close();
+    }
+
+    private synchronized void resize(Entry entry, HttpRoute route) {
+        if (route == null) {
+            entry.resize();
+        } else {
+            entry.resize(route);
+        }
+    }
+
+    private synchronized void release(Entry entry, RouteLimitedConnectionManager view) {
+        if (entries.get(entry.key) != entry) {
+            return;
+        }
+        if (entry.leave(view)) {
+            entries.remove(entry.key);
+            entry.pool.close(CloseMode.GRACEFUL);
+        }
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final PoolingHttpClientConnectionManager pool;
+        private final Set<RouteLimitedConnectionManager> views = new HashSet<>();
+
+        private Entry(Key key, PoolingHttpClientConnectionManager pool) {
+            this.key = key;
+            this.pool = pool;
+        }
+
+        private void join(RouteLimitedConnectionManager view) {
+            views.add(view);
+            resize();
+        }
+
+        /**
+         * @return {@code true} if this was the last reference
+         */
+        private boolean leave(RouteLimitedConnectionManager view) {
+            views.remove(view);
+            if (views.isEmpty()) {
+                return true;
+            }
+            resize();
+            return false;
+        }
+
+        /**
+         * Sets the pool's default and every route the clients know of to the sum of their limits.
+         */
+        private void resize() {
+            pool.setDefaultMaxPerRoute(capped(views.stream()
+                    .mapToInt(RouteLimitedConnectionManager::getDefaultMaxPerRoute)
+                    .sum()));
+            Set<HttpRoute> routes = new HashSet<>();
+            views.forEach(view -> routes.addAll(view.routes()));
+            routes.forEach(this::resize);
+        }
+
+        private void resize(HttpRoute route) {
+            pool.setMaxPerRoute(
+                    route,
+                    capped(views.stream()
+                            .mapToInt(view -> view.getMaxPerRoute(route))
+                            .sum()));
+        }
+
+        private int capped(int capacity) {
+            return Math.max(1, Math.min(capacity, key.maxTotalConnections()));
+        }
+    }
+
+    /**
+     * Snapshot of the settings that shape a connection manager. The property objects are mutable, so
+     * their values are copied rather than the objects kept.
+     */
+    private record Key(
+            String concurrencyPolicy,
+            int maxTotalConnections,
+            Duration connectTimeout,
+            Duration timeToLive,
+            Duration validateAfterInactivity,
+            Duration soLinger,
+            int rcvBuffSize,
+            int sndBuffSize,
+            Duration soTimeout,
+            boolean tcpNoDelay,
+            SSLContext sslContext,
+            boolean trustAll,
+            String hostnameVerifierBeanName,
+            HostnameVerifier hostnameVerifier,
+            HostnameVerificationPolicy hostnameVerificationPolicy,
+            List<String> protocols,
+            List<String> cipherSuites,
+            String sslProvider,
+            int sessionCacheSize,
+            Duration sessionTimeout,
+            Duration reloadInterval,
+            Map<String, RouteKey> routes,
+            DnsKey dns) {
+
+        static Key of(HttpClientProperties props, SSLContext sslContext) {
+            HttpClientProperties.Pool pool = props.getPool();
+            HttpClientProperties.Pool.Connection conn = pool.getConnection();
+            HttpClientProperties.Pool.Socket sock = pool.getSocket();
+            HttpClientProperties.Ssl ssl = props.getSsl();
+            return new Key(
+                    pool.getConcurrencyPolicy(),
+                    pool.getMaxTotalConnections(),
+                    conn.getConnectTimeout(),
+                    conn.getTimeToLive(),
+                    conn.getValidateAfterInactivity(),
+                    sock.getSoLinger(),
+                    sock.getRcvBuffSize(),
+                    sock.getSndBuffSize(),
+                    sock.getSoTimeout(),
+                    sock.isTcpNoDelay(),
+                    sslContext,
+                    ssl.isTrustAll(),
+                    ssl.getHostnameVerifierBeanName(),
+                    ssl.getHostnameVerifier(),
+                    ssl.getHostnameVerificationPolicy(),
+                    copyOf(ssl.getProtocols()),
+                    copyOf(ssl.getCipherSuites()),
+                    ssl.getProvider(),
+                    ssl.getSessionCacheSize(),
+                    ssl.getSessionTimeout(),
+                    ssl.getReload() != null && ssl.getReload().isEnabled()
+                            ? ssl.getReload().getInterval()
+                            : null,
+                    RouteKey.of(pool.getRoutes()),
+                    DnsKey.of(props.getDns()));
+        }
+
+        private static List<String> copyOf(List<String> values) {
+            return values != null ? List.copyOf(values) : null;
+        }
+    }
+
+    private record DnsKey(Duration ttl, Duration refreshAhead, int maxEntries, Duration failureTimeout) {
+
+        static DnsKey of(HttpClientProperties.Dns dns) {
+            return dns == null || !dns.isEnabled()
+                    ? null
+                    : new DnsKey(dns.getTtl(), dns.getRefreshAhead(), dns.getMaxEntries(), dns.getFailureTimeout());
+        }
+    }
+
+    /**
+     * Connection settings of a route override; route limits are per client and do not shape the pool.
+     */
+    private record RouteKey(Duration timeToLive, Duration validateAfterInactivity) {
+
+        static Map<String, RouteKey> of(Map<String, HttpClientProperties.Pool.Route> routes) {
+            Map<String, RouteKey> keys = new HashMap<>();
+            if (routes != null) {
+                routes.forEach((origin, route) -> {
+                    if (route != null
+                            && (route.getTimeToLive() != null || route.getValidateAfterInactivity() != null)) {
+                        keys.put(origin, new RouteKey(route.getTimeToLive(), route.getValidateAfterInactivity()));
+                    }
+                });
+            }
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.example.http.client.builder;
+
+import com.example.http.client.property.HttpClientProperties;
+import com.github.luben.zstd.RecyclingBufferPool;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import lombok.experimental.UtilityClass;
+import org.apache.hc.client5.http.entity.DeflateInputStreamFactory;
+import org.apache.hc.client5.http.entity.InputStreamFactory;
+
+/**
+ * Content codings of {@link HttpClientProperties.Compression}: streaming decoders for responses and
+ * encoders for request bodies.
+ * <p>
+ * Encoders take their {@link Deflater} and output buffer from a small pool and return them when closed,
+ * so compressing a request allocates neither native zlib state nor buffers once the pool is warm. zstd
+ * is used when zstd-jni is on the classpath, with its recycling buffer pool.
+ */
+@UtilityClass
+public final class ContentCodings {
+
+    public static final String GZIP = "gzip";
+    public static final String X_GZIP = "x-gzip";
+    public static final String DEFLATE = "deflate";
+    public static final String ZSTD = "zstd";
+
+    static final int BUFFER_SIZE = 8192;
+
+    private static final boolean ZSTD_PRESENT = isPresent("com.github.luben.zstd.ZstdOutputStream");
+    private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final BlockingQueue<Encoder> GZIP_ENCODERS = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final BlockingQueue<Encoder> DEFLATE_ENCODERS = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final Map<String, InputStreamFactory> DECODERS = createDecoders();
+    private static final String ACCEPT_ENCODING = String.join(", ", DECODERS.keySet());
+
+    /**
+     * @return {@code true} if zstd-jni is on the classpath
+     */
+    public boolean zstdAvailable() {
+        return ZSTD_PRESENT;
+    }
+
+    /**
+     * @return the response decoders by coding, in the order they are advertised in {@code Accept-Encoding}
+     */
+    public LinkedHashMap<String, InputStreamFactory> decoders() {
+        return new LinkedHashMap<>(DECODERS);
+    }
+
+    /**
+     * @return the value of the {@code Accept-Encoding} header for {@link #decoders()}
+     */
+    public String acceptEncoding() {
+        return ACCEPT_ENCODING;
+    }
+
+    /**
+     * @return {@code true} if responses in {@code contentEncoding} can be decoded
+     */
+    public boolean decodes(String contentEncoding) {
+        return DECODERS.containsKey(contentEncoding.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Wraps {@code in} to decode it from {@code contentEncoding}.
+     *
+     * @return the decoding stream, or {@code null} if the coding is not supported
+     */
+    public InputStream decode(String contentEncoding, InputStream in) throws IOException {
+        InputStreamFactory decoder = DECODERS.get(contentEncoding.trim().toLowerCase(Locale.ROOT));
+        return decoder != null ? decoder.create(in) : null;
+    }
+
+    /**
+     * @return the coding token of {@code encoding}, as sent in {@code Content-Encoding}
+     * @throws IllegalStateException for {@code zstd} without zstd-jni on the classpath
+     */
+    public String token(HttpClientProperties.Compression.Encoding encoding) {
+        return switch (encoding) {
+            case GZIP -> GZIP;
+            case DEFLATE -> DEFLATE;
+            case ZSTD -> {
+                if (!ZSTD_PRESENT) {
+                    throw new IllegalStateException("zstd request compression requires com.github.luben:zstd-jni");
+                }
+                yield ZSTD;
+            }
+        };
+    }
+
+    /**
+     * Opens a stream that writes {@code out} encoded with {@code encoding}. Closing it writes the trailer,
+     * closes {@code out} and returns the pooled state; {@link EncodingOutputStream#abandon()} returns the
+     * state without writing anything more, e.g. after a write failed.
+     */
+    public EncodingOutputStream encode(HttpClientProperties.Compression.Encoding encoding, OutputStream out)
+            throws IOException {
+        return switch (encoding) {
+            case GZIP -> new DeflatingOutputStream(out, GZIP_ENCODERS, true);
+            case DEFLATE -> new DeflatingOutputStream(out, DEFLATE_ENCODERS, false);
+            case ZSTD -> {
+                token(encoding);
+                yield Zstd.encoder(out);
+            }
+        };
+    }
+
+    private static Map<String, InputStreamFactory> createDecoders() {
+        Map<String, InputStreamFactory> decoders = new LinkedHashMap<>();
+        if (ZSTD_PRESENT) {
+            decoders.put(ZSTD, Zstd::decoder);
+        }
+        // the JDK default of 512 bytes means a native inflate call per few hundred bytes of JSON
+        InputStreamFactory gzip = in -> new GZIPInputStream(in, BUFFER_SIZE);
+        decoders.put(GZIP, gzip);
+        decoders.put(X_GZIP, gzip);
+        decoders.put(DEFLATE, DeflateInputStreamFactory.getInstance());
+        return Collections.unmodifiableMap(decoders);
+    }
+
+    private static boolean isPresent(String className) {
+        try {
+            Class.forName(className, false, ContentCodings.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Stream returned by {@link #encode}.
+     */
+    public abstract static class EncodingOutputStream extends OutputStream {
+
+        /**
+         * Releases the encoder without finishing the encoded stream; {@code out} is left open.
+         */
+        public abstract void abandon();
+    }
+
+    /**
+     * Pooled zlib state: a raw (gzip) or zlib-wrapped (deflate) {@link Deflater} and its output buffer.
+     */
+    private static final class Encoder {
+        private final Deflater deflater;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        private Encoder(boolean raw) {
+            this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, raw);
+        }
+
+        static Encoder borrow(BlockingQueue<Encoder> pool, boolean raw) {
+            Encoder encoder = pool.poll();
+            return encoder != null ? encoder : new Encoder(raw);
+        }
+
+        void release(BlockingQueue<Encoder> pool) {
+            deflater.reset();
+            if (!pool.offer(this)) {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * gzip (RFC 1952) or deflate (RFC 1950) encoding on a pooled {@link Encoder}; gzip writes its own
+     * header and trailer around the raw deflate stream.
+     */
+    private static final class DeflatingOutputStream extends EncodingOutputStream {
+
+        private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+        private final OutputStream out;
+        private final BlockingQueue<Encoder> pool;
+        private final CRC32 crc;
+        private final byte[] single = new byte[1];
+        private Encoder encoder;
+
+        DeflatingOutputStream(OutputStream out, BlockingQueue<Encoder> pool, boolean gzip) throws IOException {
+            this.out = out;
+            this.pool = pool;
+            this.crc = gzip ? new CRC32() : null;
+            this.encoder = Encoder.borrow(pool, gzip);
+            if (gzip) {
+                out.write(GZIP_HEADER);
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            Encoder current = open();
+            if (len == 0) {
+                return;
+            }
+            if (crc != null) {
+                crc.update(b, off, len);
+            }
+            current.deflater.setInput(b, off, len);
+            while (!current.deflater.needsInput()) {
+                deflate(current, Deflater.NO_FLUSH);
+            }
+        }
+
+        /**
+         * Sends what was written so far, so a streaming body reaches the server without waiting for more.
+         */
+        @Override
+        public void flush() throws IOException {
+            Encoder current = open();
+            while (deflate(current, Deflater.SYNC_FLUSH) == current.buffer.length) {
+                // the buffer filled up, so there may be more to flush
+            }
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            Encoder current = encoder;
+            if (current == null) {
+                return;
+            }
+            try {
+                current.deflater.finish();
+                while (!current.deflater.finished()) {
+                    deflate(current, Deflater.NO_FLUSH);
+                }
+                if (crc != null) {
+                    writeIntLe((int) crc.getValue());
+                    writeIntLe((int) current.deflater.getBytesRead());
+                }
+            } finally {
+                abandon();
+            }
+            out.close();
+        }
+
+        @Override
+        public void abandon() {
+            Encoder current = encoder;
+            if (current != null) {
+                encoder = null;
+                current.release(pool);
+            }
+        }
+
+        private Encoder open() throws IOException {
+            if (encoder == null) {
+                throw new IOException("Stream closed");
+            }
+            return encoder;
+        }
+
+        private int deflate(Encoder current, int flush) throws IOException {
+            int written = current.deflater.deflate(current.buffer, 0, current.buffer.length, flush);
+            if (written > 0) {
+                out.write(current.buffer, 0, written);
+            }
+            return written;
+        }
+
+        private void writeIntLe(int value) throws IOException {
+            out.write(value & 0xff);
+            out.write((value >>> 8) & 0xff);
+            out.write((value >>> 16) & 0xff);
+            out.write((value >>> 24) & 0xff);
+        }
+    }
+
+    /**
+     * Kept apart so zstd-jni classes are only loaded when present.
+     */
+    private static final class Zstd {
+
+        static InputStream decoder(InputStream in) throws IOException {
+            return new ZstdInputStream(in, RecyclingBufferPool.INSTANCE);
+        }
+
+        static EncodingOutputStream encoder(OutputStream out) throws IOException {
+            ZstdOutputStream zstd = new ZstdOutputStream(out, RecyclingBufferPool.INSTANCE);
+            return new EncodingOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    zstd.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    zstd.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    zstd.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    zstd.close();
+                }
+
+                @Override
+                public void abandon() {
+                    // closing would finish the frame; zstd-jni frees the native context of an unclosed stream
+                }
+            };
+        }
+    }
+}
@@ -1,56 +1,384 @@
 package com.example.http.client.builder;
 
+import com.example.http.client.property.HttpClientDefaultSettings;
 import com.example.http.client.property.HttpClientProperties;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
 import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.SchemePortResolver;
 import org.apache.hc.client5.http.classic.HttpClient;
 import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
 import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.io.DefaultHttpClientConnectionOperator;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
-import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionOperator;
+import org.apache.hc.client5.http.nio.AsyncClientConnectionManager;
+import org.apache.hc.client5.http.routing.RoutingSupport;
+import org.apache.hc.client5.http.ssl.HostnameVerificationPolicy;
 import org.apache.hc.client5.http.ssl.TlsSocketStrategy;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.config.RegistryBuilder;
 import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
 import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.reactor.IOReactorConfig;
 import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 
+@Slf4j
 @UtilityClass
 public final class HttpClientConfigurer {
 
     public HttpClient configure(HttpClientProperties props) {
-        HostnameVerifier verifier = props.getSsl().getHostnameVerifier();
-        if (verifier == null) {
-            verifier = props.getSsl().isTrustAll()
-                    ? (host, session) -> true
-                    : HttpsURLConnection.getDefaultHostnameVerifier();
+        return configure(props, connectionManager(props));
+    }
+
+    /**
+     * Builds a client whose connection manager comes from {@code registry} when the pool is
+     * {@linkplain HttpClientProperties.Pool#isShared() shared}; otherwise the client gets its own pool.
+     */
+    public HttpClient configure(HttpClientProperties props, ConnectionManagerRegistry registry) {
+        return configure(props, connectionManager(props, registry));
+    }
+
+    /**
+     * Builds a client on {@code connectionManager}, e.g. one from {@link #connectionManager(HttpClientProperties,
+     * ConnectionManagerRegistry)} wrapped by the caller. Idle connections are only evicted if the manager
+     * implements {@link org.apache.hc.core5.pool.ConnPoolControl}.
+     */
+    public HttpClient configure(HttpClientProperties props, HttpClientConnectionManager connectionManager) {
+        HttpClientBuilder builder = HttpClientBuilder.create()
+                .disableAutomaticRetries()
+                .setConnectionManager(connectionManager)
+                .evictIdleConnections(
+                        TimeValue.of(props.getPool().getConnection().getIdleEvictionTimeout()));
+        HttpClientProperties.Compression compression = compression(props);
+        if (compression.isResponse()) {
+            // HttpClient advertises its built-in codings whatever the registry holds, unless the header is set
+            String acceptEncoding = ContentCodings.acceptEncoding();
+            builder.setContentDecoderRegistry(ContentCodings.decoders())
+                    .addExecInterceptorBefore(
+                            ChainElement.COMPRESS.name(), HttpHeaders.ACCEPT_ENCODING, (request, scope, chain) -> {
+                                if (!request.containsHeader(HttpHeaders.ACCEPT_ENCODING)) {
+                                    request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+                                }
+                                return chain.proceed(request, scope);
+                            });
+        } else {
+            builder.disableContentCompression();
+        }
+        if (compression.isRequest()) {
+            builder.addExecInterceptorFirst(RequestCompressionExec.NAME, new RequestCompressionExec(compression));
         }
+        return builder.build();
+    }
 
-        SSLContext sslContext = SslContextBuilder.from(props.getSsl()).build();
-        TlsSocketStrategy tlsStrategy = null;
+    /**
+     * @return the compression settings of {@code props}, or the defaults if it has none
+     */
+    public HttpClientProperties.Compression compression(HttpClientProperties props) {
+        return props.getCompression() != null ? props.getCompression() : HttpClientDefaultSettings.defaultCompression();
+    }
+
+    /**
+     * Builds the {@code java.net.http.HttpClient} of the {@link HttpClientProperties.Engine#JDK} engine:
+     * {@code connectTimeout}, the SSL context of {@link SslContextBuilder} and the preferred
+     * {@link HttpClientProperties.Jdk#getVersion() version}, following redirects as the Apache clients do.
+     * Configured TLS protocols and cipher suites are applied as {@link SSLParameters}.
+     * Asynchronous work runs on {@code executor}, e.g. from {@link #jdkExecutor}, or on the client's own
+     * when {@code null}. Hostname verification is always on; the JDK client has no per-client switch.
+     */
+    public java.net.http.HttpClient configureJdk(
+            HttpClientProperties props, Duration connectTimeout, Executor executor) {
+        return configureJdk(props, connectTimeout, executor, null);
+    }
+
+    /**
+     * Same as {@link #configureJdk(HttpClientProperties, Duration, Executor)}, sharing the SSL context of
+     * {@code sslContexts} ({@code null} for a context of its own).
+     */
+    public java.net.http.HttpClient configureJdk(
+            HttpClientProperties props, Duration connectTimeout, Executor executor, SslContextRegistry sslContexts) {
+        java.net.http.HttpClient.Builder builder = java.net.http.HttpClient.newBuilder()
+                .version(props.getJdk().getVersion())
+                .followRedirects(java.net.http.HttpClient.Redirect.NORMAL);
+        if (connectTimeout != null) {
+            builder.connectTimeout(connectTimeout);
+        }
+        SSLContext sslContext = sslContext(props, sslContexts);
         if (sslContext != null) {
-            tlsStrategy = ClientTlsStrategyBuilder.create()
-                    .setSslContext(sslContext)
-                    .setHostnameVerifier(verifier)
-                    .setHostVerificationPolicy(props.getSsl().getHostnameVerificationPolicy())
-                    .buildClassic();
+            builder.sslContext(sslContext);
+            String[] protocols = protocols(props.getSsl(), sslContext);
+            String[] cipherSuites = cipherSuites(props.getSsl(), sslContext);
+            if (protocols != null || cipherSuites != null) {
+                SSLParameters parameters = sslContext.getDefaultSSLParameters();
+                if (protocols != null) {
+                    parameters.setProtocols(protocols);
+                }
+                if (cipherSuites != null) {
+                    parameters.setCipherSuites(cipherSuites);
+                }
+                builder.sslParameters(parameters);
+            }
+            if (props.getSsl().getHostnameVerifier() != null) {
+                log.warn("The jdk engine verifies hostnames itself; the configured HostnameVerifier is ignored");
+            }
+        }
+        if (executor != null) {
+            builder.executor(executor);
         }
+        return builder.build();
+    }
 
-        HttpClientProperties.Pool.Connection conn = props.getPool().getConnection();
+    /**
+     * @return an executor starting a virtual thread per task if {@link HttpClientProperties.Jdk#isVirtualThreads()}
+     *     and the JVM has virtual threads, otherwise {@code null}; the caller shuts it down
+     */
+    public ExecutorService jdkExecutor(HttpClientProperties props) {
+        if (!props.getJdk().isVirtualThreads()) {
+            return null;
+        }
+        try {
+            // looked up reflectively, the build targets Java 17
+            return (ExecutorService)
+                    Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            log.warn(
+                    "Virtual threads need Java 21 or later, running on {}; the jdk engine uses its default executor",
+                    Runtime.version());
+            return null;
+        }
+    }
+
+    /**
+     * Builds and starts the async client of the {@link HttpClientProperties.Engine#ASYNC} engine. Requests
+     * negotiate HTTP/2 over TLS ALPN per {@link HttpClientProperties.Async#getVersionPolicy()}; the pool and
+     * socket settings apply as for the classic client. Async pools are never shared. In-flight exchanges
+     * can be aborted through {@link AsyncExchangeAbort}.
+     */
+    public CloseableHttpAsyncClient configureAsync(HttpClientProperties props) {
+        return configureAsync(props, asyncConnectionManager(props));
+    }
+
+    /**
+     * Builds and starts an async client on {@code connectionManager}, e.g. one from
+     * {@link #asyncConnectionManager(HttpClientProperties)} wrapped by the caller.
+     */
+    public CloseableHttpAsyncClient configureAsync(
+            HttpClientProperties props, AsyncClientConnectionManager connectionManager) {
         HttpClientProperties.Pool.Socket sock = props.getPool().getSocket();
 
-        PoolingHttpClientConnectionManagerBuilder poolBuilder = PoolingHttpClientConnectionManagerBuilder.create()
+        IOReactorConfig.Builder reactor = IOReactorConfig.custom()
+                .setSoTimeout(Timeout.of(sock.getSoTimeout()))
+                .setSoLinger(
+                        sock.getSoLinger().isNegative() ? TimeValue.NEG_ONE_SECOND : TimeValue.of(sock.getSoLinger()))
+                .setRcvBufSize(sock.getRcvBuffSize())
+                .setSndBufSize(sock.getSndBuffSize())
+                .setTcpNoDelay(sock.isTcpNoDelay());
+        if (props.getAsync().getIoThreads() > 0) {
+            reactor.setIoThreadCount(props.getAsync().getIoThreads());
+        }
+
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .addExecInterceptorFirst(AsyncExchangeAbort.NAME, new AsyncExchangeAbort())
+                .disableAutomaticRetries()
+                .setConnectionManager(connectionManager)
+                .setIOReactorConfig(reactor.build())
+                .evictIdleConnections(
+                        TimeValue.of(props.getPool().getConnection().getIdleEvictionTimeout()))
+                .build();
+        client.start();
+        return client;
+    }
+
+    /**
+     * Builds the connection pool of the {@link HttpClientProperties.Engine#ASYNC} engine.
+     */
+    public PoolingAsyncClientConnectionManager asyncConnectionManager(HttpClientProperties props) {
+        return asyncConnectionManager(props, routeOverrides(props));
+    }
+
+    /**
+     * Builds the connection pool of the {@link HttpClientProperties.Engine#ASYNC} engine with its route
+     * overrides applied through {@code routes}, which the caller keeps to change them at runtime.
+     */
+    public PoolingAsyncClientConnectionManager asyncConnectionManager(
+            HttpClientProperties props, RouteOverrides routes) {
+        return asyncConnectionManager(props, routes, dnsResolver(props));
+    }
+
+    /**
+     * Same as {@link #asyncConnectionManager(HttpClientProperties, RouteOverrides)}, resolving host names
+     * through {@code dnsResolver} ({@code null} for the system resolver). The async engine rotates
+     * addresses but does not report failed ones.
+     */
+    public PoolingAsyncClientConnectionManager asyncConnectionManager(
+            HttpClientProperties props, RouteOverrides routes, CachingDnsResolver dnsResolver) {
+        return asyncConnectionManager(props, routes, dnsResolver, null);
+    }
+
+    /**
+     * Same as {@link #asyncConnectionManager(HttpClientProperties, RouteOverrides, CachingDnsResolver)},
+     * sharing the SSL context of {@code sslContexts} ({@code null} for a context of its own).
+     */
+    public PoolingAsyncClientConnectionManager asyncConnectionManager(
+            HttpClientProperties props,
+            RouteOverrides routes,
+            CachingDnsResolver dnsResolver,
+            SslContextRegistry sslContexts) {
+        HttpClientProperties.Async async = props.getAsync();
+        PoolingAsyncClientConnectionManagerBuilder poolBuilder = PoolingAsyncClientConnectionManagerBuilder.create()
                 .setMaxConnTotal(props.getPool().getMaxTotalConnections())
                 .setMaxConnPerRoute(props.getPool().getMaxConnectionsPerRoute())
                 .setPoolConcurrencyPolicy(
                         PoolConcurrencyPolicy.valueOf(props.getPool().getConcurrencyPolicy()))
-                .setDefaultConnectionConfig(ConnectionConfig.custom()
-                        .setConnectTimeout(Timeout.of(conn.getConnectTimeout()))
-                        .setSocketTimeout(Timeout.of(sock.getSoTimeout()))
-                        .setTimeToLive(TimeValue.of(conn.getTimeToLive()))
-                        .setValidateAfterInactivity(TimeValue.of(conn.getValidateAfterInactivity()))
+                .setConnectionConfigResolver(routes)
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(async.getVersionPolicy())
                         .build())
+                .setMessageMultiplexing(
+                        async.isMultiplexing() && async.getVersionPolicy() != HttpVersionPolicy.FORCE_HTTP_1)
+                .setDnsResolver(dnsResolver);
+
+        SessionTrackingTlsStrategy tls = tlsStrategy(props, sslContexts);
+        if (tls != null) {
+            poolBuilder.setTlsStrategy(tls);
+        }
+
+        PoolingAsyncClientConnectionManager pool = poolBuilder.build();
+        routes.bind(pool);
+        return pool;
+    }
+
+    /**
+     * @return the client's pool from {@code registry} when it is {@linkplain HttpClientProperties.Pool#isShared()
+     *     shared}, otherwise a pool of its own
+     */
+    public HttpClientConnectionManager connectionManager(
+            HttpClientProperties props, ConnectionManagerRegistry registry) {
+        return connectionManager(props, registry, routeOverrides(props));
+    }
+
+    /**
+     * Same as {@link #connectionManager(HttpClientProperties, ConnectionManagerRegistry)}, with the client's
+     * route overrides applied through {@code routes}, which the caller keeps to change them at runtime. With
+     * {@linkplain HttpClientProperties.Pool#getAdaptive() adaptive} limits the manager is an
+     * {@link AdaptivePoolSizer}.
+     */
+    public HttpClientConnectionManager connectionManager(
+            HttpClientProperties props, ConnectionManagerRegistry registry, RouteOverrides routes) {
+        return connectionManager(props, registry, routes, dnsResolver(props));
+    }
+
+    /**
+     * Same as {@link #connectionManager(HttpClientProperties, ConnectionManagerRegistry, RouteOverrides)},
+     * resolving host names through {@code dnsResolver} ({@code null} for the system resolver). A shared pool
+     * keeps the resolver of the client that created it.
+     */
+    public HttpClientConnectionManager connectionManager(
+            HttpClientProperties props,
+            ConnectionManagerRegistry registry,
+            RouteOverrides routes,
+            CachingDnsResolver dnsResolver) {
+        HttpClientProperties.Pool.Adaptive adaptive = props.getPool().getAdaptive();
+        if (registry != null && props.getPool().isShared()) {
+            RouteLimitedConnectionManager view = (RouteLimitedConnectionManager) registry.acquire(props, dnsResolver);
+            routes.bind(view);
+            return adaptive.isEnabled() ? new AdaptivePoolSizer(view, adaptive, routes) : view;
+        }
+        PoolingHttpClientConnectionManager pool =
+                pool(props, routes, dnsResolver, registry != null ? registry.sslContexts() : null);
+        routes.bind(pool);
+        return adaptive.isEnabled() ? new AdaptivePoolSizer(pool, adaptive, routes) : pool;
+    }
+
+    /**
+     * @return route overrides starting from {@link HttpClientProperties.Pool#getRoutes()}, to pass to the
+     *     connection manager factories
+     */
+    public RouteOverrides routeOverrides(HttpClientProperties props) {
+        return new RouteOverrides(connectionConfig(props), props.getPool().getRoutes());
+    }
+
+    /**
+     * @return a caching resolver per {@link HttpClientProperties#getDns()}, or {@code null} when disabled so
+     *     the system resolver is used
+     */
+    public CachingDnsResolver dnsResolver(HttpClientProperties props) {
+        HttpClientProperties.Dns dns = props.getDns();
+        return dns != null && dns.isEnabled() ? new CachingDnsResolver(dns) : null;
+    }
+
+    /**
+     * @return the direct route to the origin of {@code uri}, as the client plans it for requests: default
+     *     port filled in, secure for {@code https}
+     * @throws IllegalArgumentException if {@code uri} is not absolute
+     */
+    public HttpRoute route(String uri) {
+        URI parsed = URI.create(uri);
+        if (parsed.getScheme() == null || parsed.getHost() == null) {
+            throw new IllegalArgumentException("Not an absolute URI: " + uri);
+        }
+        HttpHost target = RoutingSupport.normalize(
+                new HttpHost(parsed.getScheme(), parsed.getHost(), parsed.getPort()),
+                DefaultSchemePortResolver.INSTANCE);
+        return new HttpRoute(target, null, "https".equalsIgnoreCase(target.getSchemeName()));
+    }
+
+    PoolingHttpClientConnectionManager connectionManager(HttpClientProperties props) {
+        RouteOverrides routes = routeOverrides(props);
+        PoolingHttpClientConnectionManager pool = pool(props, routes, dnsResolver(props), null);
+        routes.bind(pool);
+        return pool;
+    }
+
+    /**
+     * Builds a pool resolving connection settings through {@code routes}, without applying their limits, and
+     * host names through {@code dnsResolver} unless it is {@code null}. Its SSL context comes from
+     * {@code sslContexts}, or is its own when that is {@code null}.
+     */
+    PoolingHttpClientConnectionManager pool(
+            HttpClientProperties props,
+            RouteOverrides routes,
+            CachingDnsResolver dnsResolver,
+            SslContextRegistry sslContexts) {
+        TlsSocketStrategy tlsStrategy = tlsStrategy(props, sslContexts);
+
+        HttpClientProperties.Pool.Socket sock = props.getPool().getSocket();
+
+        PoolingHttpClientConnectionManagerBuilder poolBuilder = (dnsResolver != null
+                        ? trackingPoolBuilder(dnsResolver)
+                        : PoolingHttpClientConnectionManagerBuilder.create())
+                .setDnsResolver(dnsResolver)
+                .setMaxConnTotal(props.getPool().getMaxTotalConnections())
+                .setMaxConnPerRoute(props.getPool().getMaxConnectionsPerRoute())
+                .setPoolConcurrencyPolicy(
+                        PoolConcurrencyPolicy.valueOf(props.getPool().getConcurrencyPolicy()))
+                .setConnectionConfigResolver(routes)
                 .setDefaultSocketConfig(SocketConfig.custom()
                         .setSoTimeout(Timeout.of(sock.getSoTimeout()))
                         .setSoLinger(
@@ -66,10 +394,108 @@ public final class HttpClientConfigurer {
             poolBuilder.setTlsSocketStrategy(tlsStrategy);
         }
 
-        return HttpClientBuilder.create()
-                .disableAutomaticRetries()
-                .setConnectionManager(poolBuilder.build())
-                .evictIdleConnections(TimeValue.of(conn.getIdleEvictionTimeout()))
+        return poolBuilder.build();
+    }
+
+    /**
+     * Pool builder whose connection operator opens sockets that report connect failures to
+     * {@code dnsResolver}.
+     */
+    private PoolingHttpClientConnectionManagerBuilder trackingPoolBuilder(CachingDnsResolver dnsResolver) {
+        return new PoolingHttpClientConnectionManagerBuilder() {
+            @Override
+            protected HttpClientConnectionOperator createConnectionOperator(
+                    SchemePortResolver schemePortResolver, DnsResolver resolver, TlsSocketStrategy tlsSocketStrategy) {
+                return new DefaultHttpClientConnectionOperator(
+                        dnsResolver.socketFactory(),
+                        schemePortResolver,
+                        resolver,
+                        RegistryBuilder.<TlsSocketStrategy>create()
+                                .register(URIScheme.HTTPS.id, tlsSocketStrategy)
+                                .build());
+            }
+        };
+    }
+
+    private ConnectionConfig connectionConfig(HttpClientProperties props) {
+        HttpClientProperties.Pool.Connection conn = props.getPool().getConnection();
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(conn.getConnectTimeout()))
+                .setSocketTimeout(Timeout.of(props.getPool().getSocket().getSoTimeout()))
+                .setTimeToLive(TimeValue.of(conn.getTimeToLive()))
+                .setValidateAfterInactivity(TimeValue.of(conn.getValidateAfterInactivity()))
                 .build();
     }
+
+    /**
+     * @return the handshake counts of the {@code SSLContext} of {@code props} shared through
+     *     {@code sslContexts}, or {@code null} if SSL is not configured; only connections of the Apache
+     *     engines are counted
+     */
+    public TlsSessionStats tlsSessionStats(HttpClientProperties props, SslContextRegistry sslContexts) {
+        return sslContexts.sessionStats(sslContexts.context(props.getSsl()));
+    }
+
+    private SSLContext sslContext(HttpClientProperties props, SslContextRegistry sslContexts) {
+        return sslContexts != null
+                ? sslContexts.context(props.getSsl())
+                : SslContextBuilder.from(props.getSsl()).build();
+    }
+
+    /**
+     * @return the TLS strategy shared by both engines, or {@code null} if SSL is not configured
+     */
+    private SessionTrackingTlsStrategy tlsStrategy(HttpClientProperties props, SslContextRegistry sslContexts) {
+        SSLContext sslContext = sslContext(props, sslContexts);
+        if (sslContext == null) {
+            return null;
+        }
+        TlsSessionStats stats = sslContexts != null ? sslContexts.sessionStats(sslContext) : new TlsSessionStats();
+
+        HostnameVerifier verifier = props.getSsl().getHostnameVerifier();
+        if (verifier == null) {
+            verifier = props.getSsl().isTrustAll()
+                    ? (host, session) -> true
+                    : HttpsURLConnection.getDefaultHostnameVerifier();
+        }
+        HostnameVerificationPolicy policy = props.getSsl().getHostnameVerificationPolicy();
+        return new SessionTrackingTlsStrategy(
+                sslContext,
+                protocols(props.getSsl(), sslContext),
+                cipherSuites(props.getSsl(), sslContext),
+                policy != null ? policy : HostnameVerificationPolicy.BOTH,
+                verifier,
+                stats);
+    }
+
+    /**
+     * @return the configured TLS protocols, or {@code null} to leave them to the JSSE defaults
+     * @throws IllegalArgumentException if {@code sslContext} supports none or only some of them
+     */
+    private String[] protocols(HttpClientProperties.Ssl ssl, SSLContext sslContext) {
+        return supported(
+                ssl.getProtocols(), sslContext.getSupportedSSLParameters().getProtocols(), "TLS protocols");
+    }
+
+    /**
+     * @return the configured cipher suites, or {@code null} to leave them to the JSSE defaults
+     * @throws IllegalArgumentException if {@code sslContext} supports none or only some of them
+     */
+    private String[] cipherSuites(HttpClientProperties.Ssl ssl, SSLContext sslContext) {
+        return supported(
+                ssl.getCipherSuites(), sslContext.getSupportedSSLParameters().getCipherSuites(), "cipher suites");
+    }
+
+    private String[] supported(List<String> configured, String[] supported, String label) {
+        if (configured == null || configured.isEmpty()) {
+            return null;
+        }
+        List<String> unsupported = new ArrayList<>(configured);
+        unsupported.removeAll(Arrays.asList(supported));
+        if (!unsupported.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Unsupported " + label + " " + unsupported + "; supported are " + Arrays.toString(supported));
+        }
+        return configured.toArray(String[]::new);
+    }
 }
@@ -0,0 +1,123 @@
+package com.example.http.client.builder;
+
+import java.net.Socket;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedKeyManager;
+
+/**
+ * Key manager delegating to the manager of the keystore's current content, which {@link SslStoreReloader}
+ * swaps when the keystore changes. Aliases it hands out carry the generation of the manager that chose
+ * them, as in {@code 3:client}, so a handshake that chose an alias before a swap still gets the key and
+ * chain of that same content. Only the current and the previous generation are kept; an alias of an older
+ * one resolves to nothing.
+ */
+final class ReloadingX509KeyManager extends X509ExtendedKeyManager {
+
+    private static final char SEPARATOR = ':';
+
+    private volatile Snapshot current;
+    private volatile Snapshot previous;
+
+    ReloadingX509KeyManager(X509ExtendedKeyManager delegate) {
+        this.current = new Snapshot(0, delegate);
+    }
+
+    synchronized void update(X509ExtendedKeyManager delegate) {
+        Snapshot replaced = current;
+        previous = replaced;
+        current = new Snapshot(replaced.generation + 1, delegate);
+    }
+
+    @Override
+    public String[] getClientAliases(String keyType, Principal[] issuers) {
+        Snapshot snapshot = current;
+        return snapshot.tag(snapshot.manager.getClientAliases(keyType, issuers));
+    }
+
+    @Override
+    public String chooseClientAlias(String[] keyType, Principal[] issuers, Socket socket) {
+        Snapshot snapshot = current;
+        return snapshot.tag(snapshot.manager.chooseClientAlias(keyType, issuers, socket));
+    }
+
+    @Override
+    public String chooseEngineClientAlias(String[] keyType, Principal[] issuers, SSLEngine engine) {
+        Snapshot snapshot = current;
+        return snapshot.tag(snapshot.manager.chooseEngineClientAlias(keyType, issuers, engine));
+    }
+
+    @Override
+    public String[] getServerAliases(String keyType, Principal[] issuers) {
+        Snapshot snapshot = current;
+        return snapshot.tag(snapshot.manager.getServerAliases(keyType, issuers));
+    }
+
+    @Override
+    public String chooseServerAlias(String keyType, Principal[] issuers, Socket socket) {
+        Snapshot snapshot = current;
+        return snapshot.tag(snapshot.manager.chooseServerAlias(keyType, issuers, socket));
+    }
+
+    @Override
+    public String chooseEngineServerAlias(String keyType, Principal[] issuers, SSLEngine engine) {
+        Snapshot snapshot = current;
+        return snapshot.tag(snapshot.manager.chooseEngineServerAlias(keyType, issuers, engine));
+    }
+
+    @Override
+    public X509Certificate[] getCertificateChain(String alias) {
+        Snapshot snapshot = snapshotOf(alias);
+        return snapshot != null ? snapshot.manager.getCertificateChain(snapshot.untag(alias)) : null;
+    }
+
+    @Override
+    public PrivateKey getPrivateKey(String alias) {
+        Snapshot snapshot = snapshotOf(alias);
+        return snapshot != null ? snapshot.manager.getPrivateKey(snapshot.untag(alias)) : null;
+    }
+
+    /**
+     * @return the snapshot whose generation {@code alias} carries, or {@code null} if it is gone or the alias
+     *     carries none
+     */
+    private Snapshot snapshotOf(String alias) {
+        if (alias == null) {
+            return null;
+        }
+        int end = alias.indexOf(SEPARATOR);
+        if (end <= 0) {
+            return null;
+        }
+        long generation;
+        try {
+            generation = Long.parseLong(alias, 0, end, 10);
+        } catch (NumberFormatException notTagged) {
+            return null;
+        }
+        Snapshot snapshot = current;
+        if (snapshot.generation == generation) {
+            return snapshot;
+        }
+        snapshot = previous;
+        return snapshot != null && snapshot.generation == generation ? snapshot : null;
+    }
+
+    private record Snapshot(long generation, X509ExtendedKeyManager manager) {
+
+        String tag(String alias) {
+            return alias != null ? Long.toString(generation) + SEPARATOR + alias : null;
+        }
+
+        String[] tag(String[] aliases) {
+            return aliases != null ? Arrays.stream(aliases).map(this::tag).toArray(String[]::new) : null;
+        }
+
+        String untag(String alias) {
+            return alias.substring(alias.indexOf(SEPARATOR) + 1);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.http.client.builder;
+
+import com.example.http.client.property.HttpClientProperties;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+
+/**
+ * Encodes request bodies of the classic client per {@link HttpClientProperties.Compression}: bodies of at
+ * least {@code requestThreshold} bytes, or of unknown length, are streamed through the encoder and sent
+ * chunked with {@code Content-Encoding}. Bodies that are already encoded are sent as they are.
+ * <p>
+ * Runs first in the exec chain, so the protocol handlers frame the encoded entity.
+ */
+final class RequestCompressionExec implements ExecChainHandler {
+
+    static final String NAME = "request-compression";
+
+    private final HttpClientProperties.Compression.Encoding encoding;
+    private final String token;
+    private final long threshold;
+
+    RequestCompressionExec(HttpClientProperties.Compression compression) {
+        this.encoding = compression.getRequestEncoding();
+        this.token = ContentCodings.token(encoding);
+        this.threshold = compression.getRequestThreshold();
+    }
+
+    @Override
+    public ClassicHttpResponse execute(ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain)
+            throws IOException, HttpException {
+        HttpEntity entity = request.getEntity();
+        if (entity != null && shouldEncode(request, entity)) {
+            request.setEntity(new EncodingEntity(entity));
+            try {
+                return chain.proceed(request, scope);
+            } finally {
+                request.setEntity(entity);
+            }
+        }
+        return chain.proceed(request, scope);
+    }
+
+    private boolean shouldEncode(ClassicHttpRequest request, HttpEntity entity) {
+        if (entity.getContentEncoding() != null || request.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+            return false;
+        }
+        long length = entity.getContentLength();
+        return length < 0 || length >= threshold;
+    }
+
+    private final class EncodingEntity extends HttpEntityWrapper {
+
+        EncodingEntity(HttpEntity entity) {
+            super(entity);
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return token;
+        }
+
+        @Override
+        public long getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public boolean isChunked() {
+            return true;
+        }
+
+        /**
+         * @return the encoded body, encoded as it is read; only a repeatable entity can be read again
+         */
+        @Override
+        public InputStream getContent() throws IOException {
+            return new EncodingInputStream(super.getContent());
+        }
+
+        @Override
+        public void writeTo(OutputStream outStream) throws IOException {
+            ContentCodings.EncodingOutputStream encoded = ContentCodings.encode(encoding, outStream);
+            try {
+                super.writeTo(encoded);
+            } catch (IOException | RuntimeException ex) {
+                encoded.abandon();
+                throw ex;
+            }
+            // only finish the encoded stream once the whole body was written
+            encoded.close();
+        }
+    }
+
+    /**
+     * Pulls {@code source} through the encoder of {@link ContentCodings#encode} a chunk at a time and serves
+     * what the encoder produced.
+     */
+    private final class EncodingInputStream extends InputStream {
+
+        private final InputStream source;
+        private final byte[] chunk = new byte[ContentCodings.BUFFER_SIZE];
+        private final Sink sink = new Sink();
+        private final ContentCodings.EncodingOutputStream encoder;
+        private int pos;
+        private boolean finished;
+
+        EncodingInputStream(InputStream source) throws IOException {
+            this.source = source;
+            this.encoder = ContentCodings.encode(encoding, sink);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (pos >= sink.size() && !finished) {
+                sink.reset();
+                pos = 0;
+                int n = source.read(chunk);
+                if (n < 0) {
+                    finished = true;
+                    encoder.close();
+                } else {
+                    encoder.write(chunk, 0, n);
+                }
+            }
+            if (pos >= sink.size()) {
+                return -1;
+            }
+            int n = Math.min(len, sink.size() - pos);
+            System.arraycopy(sink.bytes(), pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                finished = true;
+                encoder.abandon();
+            }
+            source.close();
+        }
+    }
+
+    private static final class Sink extends ByteArrayOutputStream {
+
+        byte[] bytes() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.http.client.builder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.ConnPoolStats;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * One client's view of a shared {@link PoolingHttpClientConnectionManager}: leases are limited per route
+ * to this client's own maximum before they reach the shared pool. Closing the view hands the reference
+ * back to the {@link ConnectionManagerRegistry} instead of closing the pool.
+ * <p>
+ * The pool controls change the per-route limits of this client and have the registry recompute the shared
+ * pool's limits from those of all its clients; totals and statistics are those of the shared pool.
+ */
+final class RouteLimitedConnectionManager
+        implements HttpClientConnectionManager, ConnPoolControl<HttpRoute>, ConnPoolStats<HttpRoute> {
+
+    private final PoolingHttpClientConnectionManager pool;
+    private final Consumer<HttpRoute> onResize;
+    private final Consumer<RouteLimitedConnectionManager> onClose;
+    private final Map<HttpRoute, RouteLimit> limits = new ConcurrentHashMap<>();
+    private final Map<ConnectionEndpoint, RouteLimit> leased = new ConcurrentHashMap<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile int defaultMaxPerRoute;
+
+    /**
+     * @param onResize told the route whose limit changed, or {@code null} when the default limit changed
+     * @param onClose told this view when it is closed
+     */
+    RouteLimitedConnectionManager(
+            PoolingHttpClientConnectionManager pool,
+            int defaultMaxPerRoute,
+            Consumer<HttpRoute> onResize,
+            Consumer<RouteLimitedConnectionManager> onClose) {
+        this.pool = pool;
+        this.defaultMaxPerRoute = defaultMaxPerRoute;
+        this.onResize = onResize;
+        this.onClose = onClose;
+    }
+
+    PoolingHttpClientConnectionManager pool() {
+        return pool;
+    }
+
+    /**
+     * @return the routes this client has leased from or set a limit for
+     */
+    Set<HttpRoute> routes() {
+        return limits.keySet();
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        RouteLimit limit = limits.computeIfAbsent(route, r -> new RouteLimit(defaultMaxPerRoute, false));
+        return new LeaseRequest() {
+            private volatile LeaseRequest delegate;
+            private volatile boolean cancelled;
+
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                long start = System.nanoTime();
+                if (TimeValue.isPositive(timeout)) {
+                    if (!limit.tryAcquire(timeout.toNanoseconds(), TimeUnit.NANOSECONDS)) {
+                        throw new TimeoutException("Timeout waiting for a connection to " + route
+                                + ": client route limit of " + limit.max + " reached");
+                    }
+                } else {
+                    limit.acquire();
+                }
+
+                try {
+                    if (cancelled) {
+                        throw new CancellationException("Operation cancelled");
+                    }
+                    LeaseRequest request = pool.lease(id, route, requestTimeout, state);
+                    delegate = request;
+                    if (cancelled) {
+                        request.cancel();
+                    }
+                    ConnectionEndpoint endpoint = request.get(remaining(timeout, start));
+                    leased.put(endpoint, limit);
+                    return endpoint;
+                } catch (InterruptedException | ExecutionException | TimeoutException | RuntimeException ex) {
+                    limit.release();
+                    throw ex;
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                cancelled = true;
+                LeaseRequest request = delegate;
+                return request == null || request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+        RouteLimit limit = leased.remove(endpoint);
+        try {
+            pool.release(endpoint, newState, validDuration);
+        } finally {
+            if (limit != null) {
+                limit.release();
+            }
+        }
+    }
+
+    @Override
+    public void connect(ConnectionEndpoint endpoint, TimeValue connectTimeout, HttpContext context) throws IOException {
+        pool.connect(endpoint, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+        pool.upgrade(endpoint, context);
+    }
+
+    @Override
+    public void close() {
+        close(CloseMode.GRACEFUL);
+    }
+
+    @Override
+    public void close(CloseMode closeMode) {
+        if (closed.compareAndSet(false, true)) {
+            onClose.accept(this);
+        }
+    }
+
+    @Override
+    public void setMaxTotal(int max) {
+        pool.setMaxTotal(max);
+    }
+
+    @Override
+    public int getMaxTotal() {
+        return pool.getMaxTotal();
+    }
+
+    @Override
+    public void setDefaultMaxPerRoute(int max) {
+        defaultMaxPerRoute = max;
+        limits.forEach((route, limit) -> {
+            if (!limit.explicit) {
+                limit.resize(max);
+            }
+        });
+        onResize.accept(null);
+    }
+
+    @Override
+    public int getDefaultMaxPerRoute() {
+        return defaultMaxPerRoute;
+    }
+
+    /**
+     * A negative {@code max} reverts the route to this client's default limit, as it does for the pool.
+     */
+    @Override
+    public void setMaxPerRoute(HttpRoute route, int max) {
+        boolean explicit = max > -1;
+        RouteLimit limit = limits.computeIfAbsent(route, r -> new RouteLimit(defaultMaxPerRoute, explicit));
+        limit.explicit = explicit;
+        limit.resize(explicit ? max : defaultMaxPerRoute);
+        onResize.accept(route);
+    }
+
+    @Override
+    public int getMaxPerRoute(HttpRoute route) {
+        RouteLimit limit = limits.get(route);
+        return limit != null ? limit.max : defaultMaxPerRoute;
+    }
+
+    @Override
+    public void closeIdle(TimeValue idleTime) {
+        pool.closeIdle(idleTime);
+    }
+
+    @Override
+    public void closeExpired() {
+        pool.closeExpired();
+    }
+
+    @Override
+    public Set<HttpRoute> getRoutes() {
+        return pool.getRoutes();
+    }
+
+    @Override
+    public PoolStats getTotalStats() {
+        return pool.getTotalStats();
+    }
+
+    @Override
+    public PoolStats getStats(HttpRoute route) {
+        return pool.getStats(route);
+    }
+
+    private static Timeout remaining(Timeout timeout, long start) {
+        if (!TimeValue.isPositive(timeout)) {
+            return timeout;
+        }
+        long left = timeout.toNanoseconds() - (System.nanoTime() - start);
+        return Timeout.of(Math.max(1L, left), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Semaphore whose number of permits can be changed while leases are outstanding.
+     */
+    private static final class RouteLimit extends Semaphore {
+        private volatile int max;
+        private volatile boolean explicit;
+
+        private RouteLimit(int max, boolean explicit) {
+            super(max, true);
+            this.max = max;
+            this.explicit = explicit;
+        }
+
+        private synchronized void resize(int newMax) {
+            int delta = newMax - max;
+            max = newMax;
+            if (delta > 0) {
+                release(delta);
+            } else if (delta < 0) {
+                reducePermits(-delta);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.http.client.builder;
+
+import com.example.http.client.property.HttpClientProperties;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.core5.function.Resolver;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Route-specific settings of one client's connection pool, from
+ * {@link HttpClientProperties.Pool#getRoutes()}: a connection limit set through
+ * {@link ConnPoolControl#setMaxPerRoute}, and a time-to-live and validation interval resolved per route
+ * whenever the pool opens or leases a connection.
+ * <p>
+ * {@link #update(Map)} replaces the overrides while the pool is in use: new limits apply to subsequent
+ * leases, new connection settings to connections opened or validated afterwards, and routes left out fall
+ * back to the pool's settings. The connection settings of a {@linkplain HttpClientProperties.Pool#isShared()
+ * shared} pool are part of what makes it shareable and stay as configured; only this client's limits change.
+ */
+public final class RouteOverrides implements Resolver<HttpRoute, ConnectionConfig> {
+
+    private final ConnectionConfig defaults;
+    private final Set<HttpRoute> limitedRoutes = new HashSet<>();
+    private volatile Map<HttpRoute, ConnectionConfig> connectionConfigs;
+    private volatile Map<HttpRoute, HttpClientProperties.Pool.Route> routes;
+    private ConnPoolControl<HttpRoute> pool;
+
+    RouteOverrides(ConnectionConfig defaults, Map<String, HttpClientProperties.Pool.Route> routes) {
+        this.defaults = defaults;
+        this.routes = parse(routes);
+        this.connectionConfigs = connectionConfigs(this.routes);
+    }
+
+    /**
+     * Replaces every route override.
+     *
+     * @throws IllegalArgumentException if a key is not an absolute {@code scheme://host[:port]} origin; no
+     *     override is changed then
+     */
+    public synchronized void update(Map<String, HttpClientProperties.Pool.Route> routes) {
+        Map<HttpRoute, HttpClientProperties.Pool.Route> parsed = parse(routes);
+        this.routes = parsed;
+        this.connectionConfigs = connectionConfigs(parsed);
+        if (pool != null) {
+            applyLimits();
+        }
+    }
+
+    /**
+     * @return the connection limit the client's pool currently applies to {@code origin}, or {@code -1}
+     *     while no pool is bound
+     * @throws IllegalArgumentException if {@code origin} is not an absolute {@code scheme://host[:port]} origin
+     */
+    public synchronized int maxConnections(String origin) {
+        HttpRoute route = HttpClientConfigurer.route(origin);
+        return pool != null ? pool.getMaxPerRoute(route) : -1;
+    }
+
+    @Override
+    public ConnectionConfig resolve(HttpRoute route) {
+        Map<HttpRoute, ConnectionConfig> configs = connectionConfigs;
+        if (configs.isEmpty()) {
+            return defaults;
+        }
+        return configs.getOrDefault(route, defaults);
+    }
+
+    /**
+     * @return whether {@code route} has a connection limit of its own
+     */
+    boolean pins(HttpRoute route) {
+        HttpClientProperties.Pool.Route settings = routes.get(route);
+        return settings != null && settings.getMaxConnections() != null;
+    }
+
+    /**
+     * Applies the limits to {@code pool} from now on; the pool may be a client's view of a shared pool.
+     */
+    synchronized void bind(ConnPoolControl<HttpRoute> pool) {
+        this.pool = pool;
+        applyLimits();
+    }
+
+    private void applyLimits() {
+        for (HttpRoute route : limitedRoutes) {
+            if (!routes.containsKey(route) || routes.get(route).getMaxConnections() == null) {
+                // a negative limit reverts the route to the pool's default
+                pool.setMaxPerRoute(route, -1);
+            }
+        }
+        limitedRoutes.clear();
+        routes.forEach((route, settings) -> {
+            if (settings.getMaxConnections() != null) {
+                pool.setMaxPerRoute(route, settings.getMaxConnections());
+                limitedRoutes.add(route);
+            }
+        });
+    }
+
+    private Map<HttpRoute, ConnectionConfig> connectionConfigs(Map<HttpRoute, HttpClientProperties.Pool.Route> routes) {
+        Map<HttpRoute, ConnectionConfig> configs = new HashMap<>();
+        routes.forEach((route, settings) -> {
+            if (settings.getTimeToLive() != null || settings.getValidateAfterInactivity() != null) {
+                ConnectionConfig.Builder config = ConnectionConfig.copy(defaults);
+                if (settings.getTimeToLive() != null) {
+                    config.setTimeToLive(TimeValue.of(settings.getTimeToLive()));
+                }
+                if (settings.getValidateAfterInactivity() != null) {
+                    config.setValidateAfterInactivity(TimeValue.of(settings.getValidateAfterInactivity()));
+                }
+                configs.put(route, config.build());
+            }
+        });
+        return Map.copyOf(configs);
+    }
+
+    private static Map<HttpRoute, HttpClientProperties.Pool.Route> parse(
+            Map<String, HttpClientProperties.Pool.Route> routes) {
+        Map<HttpRoute, HttpClientProperties.Pool.Route> parsed = new HashMap<>();
+        if (routes != null) {
+            routes.forEach((origin, settings) -> {
+                if (settings != null) {
+                    parsed.put(HttpClientConfigurer.route(origin), settings);
+                }
+            });
+        }
+        return parsed;
+    }
+}
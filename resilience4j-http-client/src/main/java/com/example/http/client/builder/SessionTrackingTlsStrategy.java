@@ -0,0 +1,41 @@
+package com.example.http.client.builder;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.client5.http.ssl.HostnameVerificationPolicy;
+import org.apache.hc.core5.reactor.ssl.SSLBufferMode;
+
+/**
+ * TLS strategy of both Apache engines that counts each verified handshake in {@link TlsSessionStats}.
+ * {@code null} protocols or cipher suites leave them to the JSSE defaults.
+ */
+final class SessionTrackingTlsStrategy extends DefaultClientTlsStrategy {
+
+    private final TlsSessionStats stats;
+
+    SessionTrackingTlsStrategy(
+            SSLContext sslContext,
+            String[] supportedProtocols,
+            String[] supportedCipherSuites,
+            HostnameVerificationPolicy hostnameVerificationPolicy,
+            HostnameVerifier hostnameVerifier,
+            TlsSessionStats stats) {
+        super(
+                sslContext,
+                supportedProtocols,
+                supportedCipherSuites,
+                SSLBufferMode.STATIC,
+                hostnameVerificationPolicy,
+                hostnameVerifier);
+        this.stats = stats;
+    }
+
+    @Override
+    protected void verifySession(String hostname, SSLSession sslsession) throws SSLException {
+        super.verifySession(hostname, sslsession);
+        stats.record(sslsession);
+    }
+}
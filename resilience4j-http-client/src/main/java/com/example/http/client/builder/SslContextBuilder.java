@@ -4,14 +4,37 @@ import com.example.http.client.property.HttpClientProperties;
 import com.example.http.client.util.ResourceUtils;
 import com.example.http.client.validation.SslValidator;
 import jakarta.validation.Validator;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.NoSuchProviderException;
+import java.security.Provider;
+import java.security.Security;
+import java.time.Duration;
+import java.util.HexFormat;
 import java.util.Objects;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedKeyManager;
+import javax.net.ssl.X509ExtendedTrustManager;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hc.client5.http.ssl.TrustAllStrategy;
 import org.apache.hc.core5.ssl.SSLContexts;
 
+/**
+ * Builds the {@link SSLContext} of {@link HttpClientProperties.Ssl}. Through an {@link SslContextRegistry}
+ * built contexts are cached by a fingerprint of the configuration: trust mode, JSSE provider, session and
+ * reload settings and, per store, its location, type, provider and a SHA-256 of its password and of its
+ * content. With {@linkplain HttpClientProperties.Ssl#getReload() reload} the content is left out of the
+ * fingerprint: the context stays, and an {@link SslStoreReloader} swaps its key and trust managers instead.
+ */
 @Slf4j
 public class SslContextBuilder {
 
@@ -31,7 +54,19 @@ public class SslContextBuilder {
         return new SslContextBuilder(ssl, validator);
     }
 
+    /**
+     * @return a new context of this configuration, or {@code null} if SSL is disabled. Its stores are not
+     *     reloaded; use {@link SslContextRegistry#context} to share contexts and reload their stores
+     */
     public SSLContext build() {
+        return build(null);
+    }
+
+    /**
+     * @return the context of this configuration cached in {@code registry}, or a new one when
+     *     {@code registry} is {@code null}; {@code null} if SSL is disabled
+     */
+    SSLContext build(SslContextRegistry registry) {
         if (!ssl.isEnabled()) {
             log.debug("SSL is disabled; no SSLContext will be built");
             return null;
@@ -42,38 +77,142 @@ public class SslContextBuilder {
         }
 
         try {
-            if (ssl.isTrustAll()) {
-                log.warn("SSL trustAll is enabled — all certificates will be accepted");
-                return SSLContexts.custom()
-                        .loadTrustMaterial(null, TrustAllStrategy.INSTANCE)
-                        .build();
+            StoreContent truststore = ssl.isTrustAll() ? null : read(ssl.getTruststore(), "truststore");
+            StoreContent keystore = ssl.isTrustAll() ? null : read(ssl.getKeystore(), "keystore");
+            if (registry == null) {
+                if (reloading()) {
+                    log.warn("SSL store reload needs an SslContextRegistry; the stores of this context are not"
+                            + " reloaded");
+                }
+                return create(truststore, keystore).context();
             }
 
-            var customSsl = SSLContexts.custom();
+            Duration reloadInterval = reloading() ? ssl.getReload().getInterval() : null;
+            Fingerprint fingerprint = new Fingerprint(
+                    ssl.isTrustAll(),
+                    fingerprint(truststore, reloadInterval),
+                    fingerprint(keystore, reloadInterval),
+                    ssl.getSessionCacheSize(),
+                    ssl.getSessionTimeout(),
+                    reloadInterval,
+                    ssl.getProvider());
+            return registry.computeIfAbsent(fingerprint, () -> create(truststore, keystore));
+
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to build SSL context due to " + e.getMessage(), e);
+        }
+    }
+
+    private boolean reloading() {
+        return !ssl.isTrustAll() && ssl.getReload() != null && ssl.getReload().isEnabled();
+    }
 
-            KeyStore trustStore = loadKeyStore(ssl.getTruststore(), "truststore");
-            if (trustStore != null) {
-                customSsl.loadTrustMaterial(trustStore, null);
+    private static StoreFingerprint fingerprint(StoreContent store, Duration reloadInterval) {
+        if (store == null) {
+            return null;
+        }
+        // a reloading context follows its stores' content, so it is not part of its identity
+        return reloadInterval != null ? store.fingerprint().withoutContent() : store.fingerprint();
+    }
+
+    private Built create(StoreContent truststore, StoreContent keystore) throws Exception {
+        Provider provider = provider();
+        SSLContext context;
+        SslStoreReloader reloader = null;
+        if (ssl.isTrustAll()) {
+            log.warn("SSL trustAll is enabled — all certificates will be accepted");
+            context = SSLContexts.custom()
+                    .setProvider(provider)
+                    .loadTrustMaterial(null, TrustAllStrategy.INSTANCE)
+                    .build();
+        } else if (reloading()) {
+            ReloadingX509TrustManager trustManager = truststore != null
+                    ? new ReloadingX509TrustManager(trustManager(loadKeyStore(truststore, "truststore")))
+                    : null;
+            ReloadingX509KeyManager keyManager = keystore != null
+                    ? new ReloadingX509KeyManager(
+                            keyManager(loadKeyStore(keystore, "keystore"), getPassword(keystore.store())))
+                    : null;
+            context = provider != null ? SSLContext.getInstance("TLS", provider) : SSLContext.getInstance("TLS");
+            context.init(
+                    keyManager != null ? new KeyManager[] {keyManager} : null,
+                    trustManager != null ? new TrustManager[] {trustManager} : null,
+                    null);
+            reloader = new SslStoreReloader(context, truststore, trustManager, keystore, keyManager);
+        } else {
+            var customSsl = SSLContexts.custom().setProvider(provider);
+
+            if (truststore != null) {
+                customSsl.loadTrustMaterial(loadKeyStore(truststore, "truststore"), null);
             }
 
-            KeyStore keyStore = loadKeyStore(ssl.getKeystore(), "keystore");
-            if (keyStore != null) {
-                customSsl.loadKeyMaterial(keyStore, getPassword(ssl.getKeystore()));
+            if (keystore != null) {
+                customSsl.loadKeyMaterial(loadKeyStore(keystore, "keystore"), getPassword(keystore.store()));
             }
 
-            return customSsl.build();
+            context = customSsl.build();
+        }
+
+        SSLSessionContext sessions = context.getClientSessionContext();
+        sessions.setSessionCacheSize(ssl.getSessionCacheSize());
+        sessions.setSessionTimeout(
+                (int) Math.min(Integer.MAX_VALUE, ssl.getSessionTimeout().toSeconds()));
+        return new Built(context, reloader);
+    }
 
+    /**
+     * @return the configured JSSE provider, or {@code null} for the highest-priority one
+     * @throws NoSuchProviderException if no provider of that name is installed
+     */
+    private Provider provider() throws NoSuchProviderException {
+        if (ssl.getProvider() == null) {
+            return null;
+        }
+        Provider provider = Security.getProvider(ssl.getProvider());
+        if (provider == null) {
+            throw new NoSuchProviderException("No JSSE provider named " + ssl.getProvider());
+        }
+        return provider;
+    }
+
+    private static StoreContent read(HttpClientProperties.Store store, String label) throws Exception {
+        try {
+            return readStore(store, label);
         } catch (Exception e) {
-            throw new RuntimeException("Failed to build SSL context due to " + e.getMessage(), e);
+            log.error("Failed to read {} from {}: {}", label, store.getLocation(), e.getMessage());
+            throw e;
         }
     }
 
-    private KeyStore loadKeyStore(HttpClientProperties.Store store, String label) throws Exception {
+    /**
+     * Reads {@code store} without logging failures, which are left to the caller.
+     */
+    static StoreContent readStore(HttpClientProperties.Store store, String label) throws Exception {
         if (store == null || store.getLocation() == null || store.getPassword() == null || store.getType() == null) {
             log.debug("Skipping {}: incomplete configuration", label);
             return null;
         }
 
+        try (InputStream is = ResourceUtils.resolveStream(store.getLocation())) {
+            byte[] content = is.readAllBytes();
+            return new StoreContent(
+                    store,
+                    content,
+                    new StoreFingerprint(
+                            store.getLocation(),
+                            store.getType(),
+                            store.getProvider(),
+                            sha256(store.getPassword().getBytes(StandardCharsets.UTF_8)),
+                            sha256(content)));
+        }
+    }
+
+    private static String sha256(byte[] bytes) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
+    static KeyStore loadKeyStore(StoreContent content, String label) throws Exception {
+        HttpClientProperties.Store store = content.store();
         log.info("Loading {} from location: {}", label, store.getLocation());
 
         try {
@@ -81,9 +220,9 @@ public class SslContextBuilder {
                     ? KeyStore.getInstance(store.getType(), store.getProvider())
                     : KeyStore.getInstance(store.getType());
 
-            try (InputStream is = ResourceUtils.resolveStream(store.getLocation())) {
-                keyStore.load(is, store.getPassword().toCharArray());
-            }
+            keyStore.load(
+                    new ByteArrayInputStream(content.content()),
+                    store.getPassword().toCharArray());
 
             return keyStore;
 
@@ -93,9 +232,63 @@ public class SslContextBuilder {
         }
     }
 
-    private char[] getPassword(HttpClientProperties.Store store) {
+    /**
+     * @return the trust manager of the default algorithm for {@code trustStore}
+     */
+    static X509ExtendedTrustManager trustManager(KeyStore trustStore) throws Exception {
+        TrustManagerFactory factory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        factory.init(trustStore);
+        for (TrustManager manager : factory.getTrustManagers()) {
+            if (manager instanceof X509ExtendedTrustManager x509) {
+                return x509;
+            }
+        }
+        throw new IllegalStateException("No X509 trust manager for the truststore");
+    }
+
+    /**
+     * @return the key manager of the default algorithm for {@code keyStore}
+     */
+    static X509ExtendedKeyManager keyManager(KeyStore keyStore, char[] password) throws Exception {
+        KeyManagerFactory factory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        factory.init(keyStore, password);
+        for (KeyManager manager : factory.getKeyManagers()) {
+            if (manager instanceof X509ExtendedKeyManager x509) {
+                return x509;
+            }
+        }
+        throw new IllegalStateException("No X509 key manager for the keystore");
+    }
+
+    static char[] getPassword(HttpClientProperties.Store store) {
         return (store != null && store.getPassword() != null)
                 ? store.getPassword().toCharArray()
                 : null;
     }
+
+    record StoreContent(HttpClientProperties.Store store, byte[] content, StoreFingerprint fingerprint) {}
+
+    /**
+     * A built context and, when its stores are reloaded, its reloader, not yet started.
+     */
+    record Built(SSLContext context, SslStoreReloader reloader) {}
+
+    /**
+     * Identity of a store; its password, which also unlocks its keys, is kept as a SHA-256 only.
+     */
+    record StoreFingerprint(String location, String type, String provider, String passwordSha256, String sha256) {
+
+        StoreFingerprint withoutContent() {
+            return new StoreFingerprint(location, type, provider, passwordSha256, null);
+        }
+    }
+
+    record Fingerprint(
+            boolean trustAll,
+            StoreFingerprint truststore,
+            StoreFingerprint keystore,
+            int sessionCacheSize,
+            Duration sessionTimeout,
+            Duration reloadInterval,
+            String provider) {}
 }
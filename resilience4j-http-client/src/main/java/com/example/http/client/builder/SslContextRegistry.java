@@ -0,0 +1,100 @@
+package com.example.http.client.builder;
+
+import com.example.http.client.property.HttpClientProperties;
+import java.util.HashMap;
+import java.util.Map;
+import javax.net.ssl.SSLContext;
+
+/**
+ * Shares the {@link SSLContext}s built by {@link SslContextBuilder} between the clients of one registry.
+ * Contexts are cached by a fingerprint of their configuration, so clients configured alike share one
+ * context and its client session cache, and a store whose content changed gets a new context. The cache
+ * lives as long as the registry: closing it, once its last client is closed, stops the reloaders of its
+ * reloading contexts and forgets every context.
+ */
+public final class SslContextRegistry implements AutoCloseable {
+
+    private final Map<SslContextBuilder.Fingerprint, Entry> entries = new HashMap<>();
+    private final Map<SSLContext, Entry> byContext = new HashMap<>();
+
+    /**
+     * @return the shared context of {@code ssl}, built on first use, or {@code null} if SSL is disabled
+     */
+    public SSLContext context(HttpClientProperties.Ssl ssl) {
+        return SslContextBuilder.from(ssl).build(this);
+    }
+
+    /**
+     * @return the handshake counts of {@code context} if this registry built it, otherwise {@code null}
+     */
+    public synchronized TlsSessionStats sessionStats(SSLContext context) {
+        Entry entry = context != null ? byContext.get(context) : null;
+        return entry != null ? entry.stats : null;
+    }
+
+    /**
+     * @return the number of contexts currently cached
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Stops every reloader and forgets every context; clients still using one keep working with it.
+     */
+    @Override
+    public synchronized void close() {
+        entries.values().forEach(entry -> {
+            if (entry.reloader != null) {
+                entry.reloader.stop();
+            }
+        });
+        entries.clear();
+        byContext.clear();
+    }
+
+    /**
+     * @return the reloader of {@code context} if this registry built it with reload enabled, otherwise
+     *     {@code null}
+     */
+    synchronized SslStoreReloader reloader(SSLContext context) {
+        Entry entry = byContext.get(context);
+        return entry != null ? entry.reloader : null;
+    }
+
+    /**
+     * @return the context cached for {@code fingerprint}, or the one {@code factory} builds, which is then
+     *     cached and has its reloader started
+     */
+    synchronized SSLContext computeIfAbsent(SslContextBuilder.Fingerprint fingerprint, Factory factory)
+            throws Exception {
+        Entry entry = entries.get(fingerprint);
+        if (entry == null) {
+            SslContextBuilder.Built built = factory.create();
+            entry = new Entry(built.context(), built.reloader());
+            if (built.reloader() != null) {
+                built.reloader().start(fingerprint.reloadInterval());
+            }
+            entries.put(fingerprint, entry);
+            byContext.put(entry.context, entry);
+        }
+        return entry.context;
+    }
+
+    @FunctionalInterface
+    interface Factory {
+
+        SslContextBuilder.Built create() throws Exception;
+    }
+
+    private static final class Entry {
+        private final SSLContext context;
+        private final SslStoreReloader reloader;
+        private final TlsSessionStats stats = new TlsSessionStats();
+
+        private Entry(SSLContext context, SslStoreReloader reloader) {
+            this.context = context;
+            this.reloader = reloader;
+        }
+    }
+}
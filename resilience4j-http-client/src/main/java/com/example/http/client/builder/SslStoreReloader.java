@@ -0,0 +1,184 @@
+package com.example.http.client.builder;
+
+import com.example.http.client.builder.SslContextBuilder.StoreContent;
+import com.example.http.client.property.HttpClientProperties;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads the stores of a reloading {@link SSLContext} again every interval and, when one's content changed,
+ * installs the key or trust manager of the new content into the context's {@link ReloadingX509KeyManager} or
+ * {@link ReloadingX509TrustManager}. Cached client sessions are then invalidated, as resuming one would skip
+ * the new material. Pooled connections are left alone and expire as usual, so the pool stays warm.
+ * <p>
+ * A store that fails to read or load is logged and keeps its previous material until its content changes
+ * again. All reloaders share one daemon thread; a reloader runs until the {@link SslContextRegistry} that
+ * started it is closed.
+ */
+@Slf4j
+final class SslStoreReloader {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ssl-store-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final SSLContext context;
+    private final List<WatchedStore> stores = new ArrayList<>();
+    private volatile int reloads;
+    private ScheduledFuture<?> schedule;
+
+    SslStoreReloader(
+            SSLContext context,
+            StoreContent truststore,
+            ReloadingX509TrustManager trustManager,
+            StoreContent keystore,
+            ReloadingX509KeyManager keyManager) {
+        this.context = context;
+        if (trustManager != null) {
+            stores.add(new WatchedStore(
+                    truststore,
+                    "truststore",
+                    keyStore -> trustManager.update(SslContextBuilder.trustManager(keyStore))));
+        }
+        if (keyManager != null) {
+            char[] password = SslContextBuilder.getPassword(keystore.store());
+            stores.add(new WatchedStore(
+                    keystore,
+                    "keystore",
+                    keyStore -> keyManager.update(SslContextBuilder.keyManager(keyStore, password))));
+        }
+    }
+
+    synchronized void start(Duration interval) {
+        long intervalNanos = interval.toNanos();
+        schedule = SCHEDULER.scheduleWithFixedDelay(this::reload, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    synchronized void stop() {
+        if (schedule != null) {
+            schedule.cancel(false);
+            schedule = null;
+        }
+    }
+
+    /**
+     * @return how often new material was installed
+     */
+    int reloads() {
+        return reloads;
+    }
+
+    /**
+     * Checks every store once.
+     *
+     * @return whether new material was installed
+     */
+    synchronized boolean reload() {
+        boolean changed = false;
+        for (WatchedStore store : stores) {
+            changed |= store.reload();
+        }
+        if (changed) {
+            invalidateSessions();
+            reloads++;
+        }
+        return changed;
+    }
+
+    private void invalidateSessions() {
+        SSLSessionContext sessions = context.getClientSessionContext();
+        for (Enumeration<byte[]> ids = sessions.getIds(); ids.hasMoreElements(); ) {
+            SSLSession session = sessions.getSession(ids.nextElement());
+            if (session != null) {
+                session.invalidate();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Installer {
+
+        void install(KeyStore keyStore) throws Exception;
+    }
+
+    private static final class WatchedStore {
+
+        private final HttpClientProperties.Store store;
+        private final String label;
+        private final Installer installer;
+        private String digest;
+        private boolean failing;
+        private boolean unreadable;
+
+        WatchedStore(StoreContent loaded, String label, Installer installer) {
+            this.store = loaded.store();
+            this.label = label;
+            this.installer = installer;
+            this.digest = loaded.fingerprint().sha256();
+        }
+
+        boolean reload() {
+            StoreContent content;
+            try {
+                content = SslContextBuilder.readStore(store, label);
+            } catch (Exception e) {
+                unreadable = true;
+                failed(e);
+                return false;
+            }
+            String current = content.fingerprint().sha256();
+            if (current.equals(digest)) {
+                // unchanged content that failed to load is still broken, only a store readable again has recovered
+                if (unreadable) {
+                    recovered();
+                }
+                return false;
+            }
+            // taken before loading, so a store that does not load is not loaded again until it changes
+            digest = current;
+            try {
+                installer.install(SslContextBuilder.loadKeyStore(content, label));
+            } catch (Exception e) {
+                unreadable = false;
+                failed(e);
+                return false;
+            }
+            recovered();
+            log.info("Reloaded {} from {}", label, store.getLocation());
+            return true;
+        }
+
+        /**
+         * Reports a failure once; until the store recovers, further ones are only logged at debug.
+         */
+        private void failed(Exception e) {
+            if (failing) {
+                log.debug("Still keeping previous {} of {}: {}", label, store.getLocation(), e.getMessage());
+                return;
+            }
+            failing = true;
+            log.warn("Keeping previous {} of {}: {}", label, store.getLocation(), e.getMessage());
+        }
+
+        private void recovered() {
+            unreadable = false;
+            if (failing) {
+                failing = false;
+                log.info("{} at {} can be read again", label, store.getLocation());
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.http.client.builder;
+
+import java.util.concurrent.atomic.LongAdder;
+import javax.net.ssl.SSLSession;
+
+/**
+ * Handshakes of the connections made with one shared {@code SSLContext}, split into full handshakes and
+ * resumptions of a cached session. Counted by the Apache engines' TLS strategies; the JDK engine does not
+ * expose its handshakes.
+ */
+public final class TlsSessionStats {
+
+    /**
+     * Value bound to a session once its full handshake was counted. JSSE binds values to the session's
+     * resumable copies too, so finding it again means the handshake resumed the session.
+     */
+    private static final String ESTABLISHED = TlsSessionStats.class.getName() + ".established";
+
+    private final LongAdder full = new LongAdder();
+    private final LongAdder resumed = new LongAdder();
+
+    /**
+     * Counts the handshake that established {@code session}.
+     */
+    void record(SSLSession session) {
+        if (session.getValue(ESTABLISHED) != null) {
+            resumed.increment();
+        } else {
+            session.putValue(ESTABLISHED, Boolean.TRUE);
+            full.increment();
+        }
+    }
+
+    public long fullHandshakes() {
+        return full.sum();
+    }
+
+    public long resumedHandshakes() {
+        return resumed.sum();
+    }
+
+    /**
+     * @return the share of handshakes that resumed a session, {@code 0} before the first handshake
+     */
+    public double resumptionRatio() {
+        long resumedCount = resumed.sum();
+        long total = resumedCount + full.sum();
+        return total == 0 ? 0 : (double) resumedCount / total;
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.http.client.property;
 
+import java.net.http.HttpClient;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import org.apache.hc.client5.http.ssl.HostnameVerificationPolicy;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
 
 public final class HttpClientDefaultSettings {
 
@@ -9,9 +13,48 @@ public final class HttpClientDefaultSettings {
 
     public static HttpClientProperties defaultHttpClient() {
         return HttpClientProperties.builder()
+                .engine(HttpClientProperties.Engine.CLASSIC)
+                .async(defaultAsync())
+                .jdk(defaultJdk())
                 .pool(defaultPool())
                 .requestFactory(defaultRequestFactory())
                 .ssl(defaultSsl())
+                .dns(defaultDns())
+                .compression(defaultCompression())
+                .build();
+    }
+
+    public static HttpClientProperties.Compression defaultCompression() {
+        return HttpClientProperties.Compression.builder()
+                .response(true)
+                .request(false)
+                .requestEncoding(HttpClientProperties.Compression.Encoding.GZIP)
+                .requestThreshold(1024)
+                .build();
+    }
+
+    public static HttpClientProperties.Dns defaultDns() {
+        return HttpClientProperties.Dns.builder()
+                .enabled(false)
+                .ttl(Duration.ofSeconds(30))
+                .refreshAhead(Duration.ofSeconds(5))
+                .maxEntries(1000)
+                .failureTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    public static HttpClientProperties.Jdk defaultJdk() {
+        return HttpClientProperties.Jdk.builder()
+                .version(HttpClient.Version.HTTP_2)
+                .virtualThreads(false)
+                .build();
+    }
+
+    public static HttpClientProperties.Async defaultAsync() {
+        return HttpClientProperties.Async.builder()
+                .versionPolicy(HttpVersionPolicy.NEGOTIATE)
+                .multiplexing(true)
+                .ioThreads(0)
                 .build();
     }
 
@@ -20,8 +63,21 @@ public final class HttpClientDefaultSettings {
                 .concurrencyPolicy("LAX")
                 .maxConnectionsPerRoute(20)
                 .maxTotalConnections(200)
+                .shared(false)
                 .connection(defaultConnection())
                 .socket(defaultSocket())
+                .routes(new LinkedHashMap<>())
+                .adaptive(defaultAdaptive())
+                .build();
+    }
+
+    public static HttpClientProperties.Pool.Adaptive defaultAdaptive() {
+        return HttpClientProperties.Pool.Adaptive.builder()
+                .enabled(false)
+                .minPerRoute(2)
+                .maxPerRoute(100)
+                .headroom(1.5)
+                .interval(Duration.ofSeconds(10))
                 .build();
     }
 
@@ -56,6 +112,18 @@ public final class HttpClientDefaultSettings {
                 .enabled(false)
                 .trustAll(false)
                 .hostnameVerificationPolicy(HostnameVerificationPolicy.BUILTIN)
+                .sessionCacheSize(20480)
+                .sessionTimeout(Duration.ofHours(24))
+                .protocols(new ArrayList<>())
+                .cipherSuites(new ArrayList<>())
+                .reload(defaultSslReload())
+                .build();
+    }
+
+    public static HttpClientProperties.Ssl.Reload defaultSslReload() {
+        return HttpClientProperties.Ssl.Reload.builder()
+                .enabled(false)
+                .interval(Duration.ofSeconds(10))
                 .build();
     }
 }
@@ -2,17 +2,24 @@ package com.example.http.client.property;
 
 import com.example.http.client.validation.MinDuration;
 import com.example.http.client.validation.SslStoreGroup;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import java.net.http.HttpClient;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import javax.net.ssl.HostnameVerifier;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.apache.hc.client5.http.ssl.HostnameVerificationPolicy;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
 
 @Data
 @Builder
@@ -20,6 +27,19 @@ import org.apache.hc.client5.http.ssl.HostnameVerificationPolicy;
 @AllArgsConstructor
 public class HttpClientProperties {
 
+    /**
+     * What executes requests: Apache HttpClient 5's blocking classic client, its async client that can
+     * multiplex requests over HTTP/2 connections, or the JDK's {@code java.net.http.HttpClient}.
+     */
+    @NotNull @Builder.Default
+    private Engine engine = Engine.CLASSIC;
+
+    @NotNull @Builder.Default
+    private Async async = HttpClientDefaultSettings.defaultAsync();
+
+    @NotNull @Builder.Default
+    private Jdk jdk = HttpClientDefaultSettings.defaultJdk();
+
     @NotNull @Builder.Default
     private Pool pool = HttpClientDefaultSettings.defaultPool();
 
@@ -29,10 +49,127 @@ public class HttpClientProperties {
     @NotNull @Builder.Default
     private Ssl ssl = HttpClientDefaultSettings.defaultSsl();
 
+    @NotNull @Builder.Default
+    private Dns dns = HttpClientDefaultSettings.defaultDns();
+
+    @NotNull @Builder.Default
+    private Compression compression = HttpClientDefaultSettings.defaultCompression();
+
     public static HttpClientProperties defaultConfig() {
         return HttpClientProperties.builder().build();
     }
 
+    public enum Engine {
+        CLASSIC,
+        ASYNC,
+        JDK
+    }
+
+    /**
+     * Settings of the {@link Engine#ASYNC} engine. {@code versionPolicy} chooses between HTTP/1.1, HTTP/2
+     * and negotiation over TLS ALPN (plain-text connections negotiate to HTTP/1.1). With
+     * {@code multiplexing}, concurrent requests to an origin share active HTTP/2 connections instead of
+     * leasing one connection each. {@code ioThreads} of {@code 0} uses one I/O thread per CPU.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Async {
+
+        @NotNull @Builder.Default
+        private HttpVersionPolicy versionPolicy = HttpVersionPolicy.NEGOTIATE;
+
+        @Builder.Default
+        private boolean multiplexing = true;
+
+        @Min(0) @Builder.Default
+        private int ioThreads = 0;
+    }
+
+    /**
+     * Settings of the {@link Engine#JDK} engine. {@code version} is the preferred protocol: {@code HTTP_2}
+     * upgrades over TLS ALPN and plain-text {@code h2c}, falling back to HTTP/1.1. With
+     * {@code virtualThreads}, the client's asynchronous work runs on virtual threads where the JVM has
+     * them (Java 21+), otherwise on the client's default executor. The JDK client pools connections
+     * itself, so the pool, DNS and compression settings do not apply.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Jdk {
+
+        @NotNull @Builder.Default
+        private HttpClient.Version version = HttpClient.Version.HTTP_2;
+
+        @Builder.Default
+        private boolean virtualThreads = false;
+    }
+
+    /**
+     * Host name resolution of new connections through {@code CachingDnsResolver}. Lookups are cached for
+     * {@code ttl}; an entry used within {@code refreshAhead} of expiring is looked up again in the
+     * background, so callers rarely wait for DNS. New connections to a host with several addresses go to
+     * them in turn, and an address that failed to connect is left out for {@code failureTimeout} unless
+     * no other address is left. At most {@code maxEntries} hosts are cached. Failed addresses are only
+     * detected by the {@link Engine#CLASSIC} engine.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Dns {
+
+        @Builder.Default
+        private boolean enabled = false;
+
+        @NotNull @MinDuration(1000)
+        @Builder.Default
+        private Duration ttl = Duration.ofSeconds(30);
+
+        @NotNull @Builder.Default
+        private Duration refreshAhead = Duration.ofSeconds(5);
+
+        @Min(1) @Builder.Default
+        private int maxEntries = 1000;
+
+        @NotNull @Builder.Default
+        private Duration failureTimeout = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Content coding of message bodies. With {@code response}, requests advertise the codings the client
+     * decodes ({@code gzip}, {@code deflate}, and {@code zstd} when zstd-jni is on the classpath) and
+     * responses are decoded while they are read. With {@code request}, request bodies of at least
+     * {@code requestThreshold} bytes, or of unknown length, are sent encoded with {@code requestEncoding};
+     * only enable it for servers known to accept that coding.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Compression {
+
+        @Builder.Default
+        private boolean response = true;
+
+        @Builder.Default
+        private boolean request = false;
+
+        @NotNull @Builder.Default
+        private Encoding requestEncoding = Encoding.GZIP;
+
+        @Min(0) @Builder.Default
+        private int requestThreshold = 1024;
+
+        public enum Encoding {
+            GZIP,
+            DEFLATE,
+            ZSTD
+        }
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -48,12 +185,79 @@ public class HttpClientProperties {
         @Min(1) @Builder.Default
         private int maxTotalConnections = 200;
 
+        /**
+         * Share one connection manager with every other client that has the same pool, socket and SSL
+         * settings (see {@code ConnectionManagerRegistry}); {@code maxConnectionsPerRoute} still limits
+         * this client's own leases.
+         */
+        @Builder.Default
+        private boolean shared = false;
+
         @NotNull @Builder.Default
         private Connection connection = HttpClientDefaultSettings.defaultConnection();
 
         @NotNull @Builder.Default
         private Socket socket = HttpClientDefaultSettings.defaultSocket();
 
+        /**
+         * Overrides for single routes, keyed by origin ({@code scheme://host:port}; the port may be left out
+         * for the scheme's default). Unset values fall back to the pool's settings. Applied through
+         * {@code RouteOverrides}, which can also replace them at runtime.
+         */
+        @NotNull @Builder.Default
+        private Map<String, Route> routes = new LinkedHashMap<>();
+
+        @NotNull @Builder.Default
+        private Adaptive adaptive = HttpClientDefaultSettings.defaultAdaptive();
+
+        /**
+         * Pool settings of one route. {@code maxConnections} may exceed the pool's
+         * {@code maxConnectionsPerRoute}; {@code maxTotalConnections} still caps the pool.
+         */
+        @Data
+        @Builder
+        @NoArgsConstructor
+        @AllArgsConstructor
+        public static class Route {
+
+            @Min(1) private Integer maxConnections;
+
+            private Duration timeToLive;
+
+            private Duration validateAfterInactivity;
+        }
+
+        /**
+         * Adaptive per-route limits of the classic engine. Every {@code interval} the sizer measures each
+         * route's demand, the connections leased or waited for averaged over the interval (by Little's law,
+         * lease rate times the time a lease waits for and holds its connection), and sets the route's limit
+         * to {@code headroom} times that within {@code minPerRoute} and {@code maxPerRoute}. A limit at most
+         * doubles and shrinks by at most a quarter per interval. Routes with a {@code maxConnections}
+         * override keep it. {@code maxTotalConnections} still caps the pool.
+         */
+        @Data
+        @Builder
+        @NoArgsConstructor
+        @AllArgsConstructor
+        public static class Adaptive {
+
+            @Builder.Default
+            private boolean enabled = false;
+
+            @Min(1) @Builder.Default
+            private int minPerRoute = 2;
+
+            @Min(1) @Builder.Default
+            private int maxPerRoute = 100;
+
+            @DecimalMin("1.0") @Builder.Default
+            private double headroom = 1.5;
+
+            @NotNull @MinDuration(value = 100, message = "Adaptive interval must be at least {value} ms")
+            @Builder.Default
+            private Duration interval = Duration.ofSeconds(10);
+        }
+
         @Data
         @Builder
         @NoArgsConstructor
@@ -121,6 +325,18 @@ public class HttpClientProperties {
         private Duration readTimeout = Duration.ofSeconds(10);
     }
 
+    /**
+     * TLS settings. Clients with the same stores (by location, type, provider and content), trust mode and
+     * session settings share one {@code SSLContext}, and with it its client session cache, so a connection
+     * to a host another of them already connected to can resume the TLS session instead of a full
+     * handshake. {@code sessionCacheSize} caps the cached sessions ({@code 0} for no limit) and
+     * {@code sessionTimeout} is how long a session may be resumed ({@code 0} for no limit).
+     * <p>
+     * {@code protocols} and {@code cipherSuites} restrict what a connection may negotiate (e.g.
+     * {@code TLSv1.3} with {@code TLS_AES_128_GCM_SHA256}); empty lists keep the JSSE defaults.
+     * {@code provider} names the JSSE provider of the {@code SSLContext}, the highest-priority one if unset.
+     * Names the context does not support fail the client at build time.
+     */
     @Data
     @Builder
     @NoArgsConstructor
@@ -141,6 +357,44 @@ public class HttpClientProperties {
 
         @NotNull @Builder.Default
         private HostnameVerificationPolicy hostnameVerificationPolicy = HostnameVerificationPolicy.BUILTIN;
+
+        @Min(0) @Builder.Default
+        private int sessionCacheSize = 20480;
+
+        @NotNull @Builder.Default
+        private Duration sessionTimeout = Duration.ofHours(24);
+
+        @NotNull @Builder.Default
+        private List<String> protocols = new ArrayList<>();
+
+        @NotNull @Builder.Default
+        private List<String> cipherSuites = new ArrayList<>();
+
+        private String provider;
+
+        @NotNull @Builder.Default
+        private Reload reload = HttpClientDefaultSettings.defaultSslReload();
+
+        /**
+         * Reloading of the truststore and keystore while the client runs. Every {@code interval} the stores
+         * are read again; when one changed, the key and trust managers of the client's {@code SSLContext} are
+         * swapped for ones of the new content and cached sessions are invalidated, so new handshakes use the
+         * new material while pooled connections carry on until they expire. A store that fails to load keeps
+         * its previous material.
+         */
+        @Data
+        @Builder
+        @NoArgsConstructor
+        @AllArgsConstructor
+        public static class Reload {
+
+            @Builder.Default
+            private boolean enabled = false;
+
+            @NotNull @MinDuration(value = 1000, message = "SSL reload interval must be at least {value} ms")
+            @Builder.Default
+            private Duration interval = Duration.ofSeconds(10);
+        }
     }
 
     @Data
@@ -0,0 +1,139 @@
+package com.example.http.client.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.http.client.property.HttpClientDefaultSettings;
+import com.example.http.client.property.HttpClientProperties;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class AdaptivePoolSizerTest {
+
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("http", "orders.example", 8080));
+    private static final Timeout TIMEOUT = Timeout.ofMilliseconds(200);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<String> resizes = new ArrayList<>();
+    private PoolingHttpClientConnectionManager pool;
+    private AdaptivePoolSizer sizer;
+
+    @AfterEach
+    void closeSizer() {
+        sizer.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    void shouldGrowLimitToDemandTimesHeadroom() throws Exception {
+        sizer(4, null);
+        List<ConnectionEndpoint> endpoints = lease(4);
+
+        advance(Duration.ofSeconds(1));
+        sizer.resize();
+
+        assertThat(pool.getMaxPerRoute(ROUTE)).isEqualTo(6);
+        assertThat(resizes).containsExactly("4->6");
+        release(endpoints);
+    }
+
+    @Test
+    void shouldCountWaitingLeasesAsDemand() throws Exception {
+        sizer(2, null);
+        List<ConnectionEndpoint> endpoints = lease(2);
+        // a third caller is waiting for a connection for the whole interval
+        var waiting = sizer.lease("waiting", ROUTE, TIMEOUT, null);
+
+        advance(Duration.ofSeconds(1));
+        sizer.resize();
+
+        // demand of 3 with headroom asks for 5, growth is capped at twice the limit
+        assertThat(pool.getMaxPerRoute(ROUTE)).isEqualTo(4);
+        waiting.cancel();
+        release(endpoints);
+    }
+
+    @Test
+    void shouldShrinkGraduallyWhenDemandDrops() throws Exception {
+        sizer(20, null);
+        release(lease(1));
+
+        advance(Duration.ofSeconds(1));
+        sizer.resize();
+        advance(Duration.ofSeconds(1));
+        sizer.resize();
+
+        assertThat(resizes).containsExactly("20->15", "15->12");
+    }
+
+    @Test
+    void shouldKeepLimitWithinBounds() throws Exception {
+        sizer(3, null);
+        release(lease(1));
+
+        for (int i = 0; i < 20; i++) {
+            advance(Duration.ofSeconds(1));
+            sizer.resize();
+        }
+
+        assertThat(pool.getMaxPerRoute(ROUTE)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldLeaveRoutesWithOwnLimitAlone() throws Exception {
+        HttpClientProperties.Pool.Route pinned =
+                HttpClientProperties.Pool.Route.builder().maxConnections(7).build();
+        sizer(20, pinned);
+        release(lease(1));
+
+        advance(Duration.ofSeconds(1));
+        sizer.resize();
+
+        assertThat(pool.getMaxPerRoute(ROUTE)).isEqualTo(7);
+        assertThat(resizes).isEmpty();
+    }
+
+    private void sizer(int maxPerRoute, HttpClientProperties.Pool.Route override) {
+        HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+        props.getPool().setConcurrencyPolicy("STRICT");
+        props.getPool().setMaxConnectionsPerRoute(maxPerRoute);
+        if (override != null) {
+            props.getPool().getRoutes().put("http://orders.example:8080", override);
+        }
+        HttpClientProperties.Pool.Adaptive adaptive = props.getPool().getAdaptive();
+        adaptive.setMinPerRoute(2);
+        adaptive.setMaxPerRoute(50);
+        adaptive.setHeadroom(1.5);
+
+        RouteOverrides routes = HttpClientConfigurer.routeOverrides(props);
+        pool = HttpClientConfigurer.pool(props, routes, null, null);
+        routes.bind(pool);
+        sizer = new AdaptivePoolSizer(pool, adaptive, routes, clock::get, false);
+        sizer.setResizeListener((route, previous, next) -> resizes.add(previous + "->" + next));
+    }
+
+    private List<ConnectionEndpoint> lease(int count) throws Exception {
+        List<ConnectionEndpoint> endpoints = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            endpoints.add(sizer.lease(String.valueOf(i), ROUTE, TIMEOUT, null).get(TIMEOUT));
+        }
+        return endpoints;
+    }
+
+    private void release(List<ConnectionEndpoint> endpoints) {
+        endpoints.forEach(endpoint -> sizer.release(endpoint, null, TimeValue.ZERO_MILLISECONDS));
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.http.client.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.http.client.property.HttpClientDefaultSettings;
+import com.example.http.client.property.HttpClientProperties;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hc.client5.http.DnsResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CachingDnsResolverTest {
+
+    private static final InetAddress A = address(10, 0, 0, 1);
+    private static final InetAddress B = address(10, 0, 0, 2);
+    private static final InetAddress C = address(10, 0, 0, 3);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<String, InetAddress[]> records = new HashMap<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+    private HttpClientProperties.Dns settings;
+
+    @BeforeEach
+    void setup() {
+        settings = HttpClientDefaultSettings.defaultDns();
+        settings.setEnabled(true);
+        settings.setTtl(Duration.ofSeconds(30));
+        settings.setRefreshAhead(Duration.ZERO);
+        settings.setFailureTimeout(Duration.ofSeconds(10));
+        records.put("orders.example", new InetAddress[] {A, B, C});
+    }
+
+    @Test
+    void shouldAnswerFromCacheUntilTtlExpires() throws Exception {
+        CachingDnsResolver resolver = resolver();
+
+        resolver.resolve("orders.example");
+        resolver.resolve("orders.example");
+        advance(Duration.ofSeconds(31));
+        resolver.resolve("orders.example");
+
+        assertThat(lookups).hasValue(2);
+        assertThat(resolver.hits()).isEqualTo(1);
+        assertThat(resolver.misses()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRotateAddressesOfNewConnections() throws Exception {
+        CachingDnsResolver resolver = resolver();
+
+        assertThat(resolver.resolve("orders.example")).containsExactly(A, B, C);
+        assertThat(resolver.resolve("orders.example")).containsExactly(B, C, A);
+        assertThat(resolver.resolve("orders.example")).containsExactly(C, A, B);
+        assertThat(resolver.resolve("orders.example")).containsExactly(A, B, C);
+    }
+
+    @Test
+    void shouldLeaveOutFailedAddressUntilFailureTimeout() throws Exception {
+        CachingDnsResolver resolver = resolver();
+
+        resolver.connectFailed(B);
+        assertThat(resolver.resolve("orders.example")).containsExactly(A, C);
+
+        advance(Duration.ofSeconds(10));
+        assertThat(resolver.resolve("orders.example")).containsExactly(B, C, A);
+    }
+
+    @Test
+    void shouldReturnAddressOnceItConnectsAgain() throws Exception {
+        CachingDnsResolver resolver = resolver();
+
+        resolver.connectFailed(A);
+        resolver.connected(A);
+
+        assertThat(resolver.resolve("orders.example")).containsExactly(A, B, C);
+    }
+
+    @Test
+    void shouldTryEveryAddressWhenAllFailed() throws Exception {
+        CachingDnsResolver resolver = resolver();
+
+        resolver.connectFailed(A);
+        resolver.connectFailed(B);
+        resolver.connectFailed(C);
+
+        assertThat(resolver.resolve("orders.example")).containsExactly(A, B, C);
+    }
+
+    @Test
+    void shouldRefreshAheadOfExpiryInBackground() throws Exception {
+        settings.setRefreshAhead(Duration.ofSeconds(5));
+        CachingDnsResolver resolver = resolver();
+        resolver.resolve("orders.example");
+
+        records.put("orders.example", new InetAddress[] {C});
+        advance(Duration.ofSeconds(26));
+        // still answered from the cache while the refresh runs
+        assertThat(resolver.resolve("orders.example")).contains(A, B);
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (lookups.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        advance(Duration.ofSeconds(10));
+        assertThat(resolver.resolve("orders.example")).containsExactly(C);
+        assertThat(resolver.misses()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldBoundCachedHosts() throws Exception {
+        settings.setMaxEntries(2);
+        records.put("a.example", new InetAddress[] {A});
+        records.put("b.example", new InetAddress[] {B});
+        records.put("c.example", new InetAddress[] {C});
+        CachingDnsResolver resolver = resolver();
+
+        resolver.resolve("a.example");
+        advance(Duration.ofSeconds(1));
+        resolver.resolve("b.example");
+        resolver.resolve("c.example");
+
+        assertThat(resolver.size()).isEqualTo(2);
+        resolver.resolve("b.example");
+        assertThat(resolver.hits()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFailForUnknownHost() {
+        CachingDnsResolver resolver = resolver();
+
+        assertThatThrownBy(() -> resolver.resolve("unknown.example")).isInstanceOf(UnknownHostException.class);
+        assertThat(resolver.size()).isZero();
+    }
+
+    private CachingDnsResolver resolver() {
+        DnsResolver delegate = new DnsResolver() {
+            @Override
+            public InetAddress[] resolve(String host) throws UnknownHostException {
+                lookups.incrementAndGet();
+                InetAddress[] addresses = records.get(host);
+                if (addresses == null) {
+                    throw new UnknownHostException(host);
+                }
+                return addresses;
+            }
+
+            @Override
+            public String resolveCanonicalHostname(String host) {
+                return host;
+            }
+        };
+        return new CachingDnsResolver(delegate, settings, clock::get);
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    private static InetAddress address(int... octets) {
+        try {
+            return InetAddress.getByAddress(
+                    new byte[] {(byte) octets[0], (byte) octets[1], (byte) octets[2], (byte) octets[3]});
+        } catch (UnknownHostException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
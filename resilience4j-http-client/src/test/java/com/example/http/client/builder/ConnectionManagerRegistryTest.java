@@ -0,0 +1,237 @@
+package com.example.http.client.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.http.client.property.HttpClientDefaultSettings;
+import com.example.http.client.property.HttpClientProperties;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ConnectionManagerRegistryTest {
+
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("localhost", 8080));
+    private static final Timeout TIMEOUT = Timeout.ofMilliseconds(200);
+
+    private final ConnectionManagerRegistry registry = new ConnectionManagerRegistry();
+
+    @AfterEach
+    void closeRegistry() {
+        registry.close();
+    }
+
+    @Test
+    void shouldShareManagerBetweenCompatibleClients() {
+        var first = (RouteLimitedConnectionManager) registry.acquire(props(5));
+        var second = (RouteLimitedConnectionManager) registry.acquire(props(10));
+
+        assertThat(second.pool()).isSameAs(first.pool());
+        assertThat(registry.size()).isEqualTo(1);
+        // the shared pool makes room for both clients' route limits
+        assertThat(first.pool().getDefaultMaxPerRoute()).isEqualTo(15);
+    }
+
+    @Test
+    void shouldSeparateClientsWithDifferentSettings() {
+        HttpClientProperties other = props(5);
+        other.getPool().getSocket().setSoTimeout(Duration.ofSeconds(3));
+
+        var first = (RouteLimitedConnectionManager) registry.acquire(props(5));
+        var second = (RouteLimitedConnectionManager) registry.acquire(other);
+
+        assertThat(second.pool()).isNotSameAs(first.pool());
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldSeparateClientsWithDifferentTlsProtocols() {
+        HttpClientProperties tls13 = props(5);
+        tls13.getSsl().setEnabled(true);
+        tls13.getSsl().setTrustAll(true);
+        tls13.getSsl().setProtocols(List.of("TLSv1.3"));
+        HttpClientProperties tls12 = props(5);
+        tls12.getSsl().setEnabled(true);
+        tls12.getSsl().setTrustAll(true);
+        tls12.getSsl().setProtocols(List.of("TLSv1.2"));
+
+        var first = (RouteLimitedConnectionManager) registry.acquire(tls13);
+        var second = (RouteLimitedConnectionManager) registry.acquire(tls12);
+
+        assertThat(second.pool()).isNotSameAs(first.pool());
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeySharedPoolsOnStoreContent(@TempDir Path dir) throws Exception {
+        Path truststore = dir.resolve("truststore.p12");
+        copyResource("ssl/truststore.p12", truststore);
+        HttpClientProperties props = props(5);
+        props.getSsl().setEnabled(true);
+        props.getSsl()
+                .setTruststore(HttpClientProperties.Store.builder()
+                        .location(truststore.toString())
+                        .password("changeit")
+                        .type("PKCS12")
+                        .build());
+
+        var first = (RouteLimitedConnectionManager) registry.acquire(props);
+        var same = (RouteLimitedConnectionManager) registry.acquire(props);
+        copyResource("ssl/keystore.p12", truststore);
+        var rotated = (RouteLimitedConnectionManager) registry.acquire(props);
+
+        assertThat(same.pool()).isSameAs(first.pool());
+        assertThat(rotated.pool()).isNotSameAs(first.pool());
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldSeparateClientsWithDifferentRouteConnectionSettings() {
+        HttpClientProperties other = props(5);
+        other.getPool()
+                .getRoutes()
+                .put(
+                        "http://localhost:8080",
+                        HttpClientProperties.Pool.Route.builder()
+                                .timeToLive(Duration.ofSeconds(30))
+                                .build());
+        HttpClientProperties limitOnly = props(5);
+        limitOnly
+                .getPool()
+                .getRoutes()
+                .put(
+                        "http://localhost:8080",
+                        HttpClientProperties.Pool.Route.builder()
+                                .maxConnections(1)
+                                .build());
+
+        var first = (RouteLimitedConnectionManager) registry.acquire(props(5));
+        var second = (RouteLimitedConnectionManager) registry.acquire(other);
+        var third = (RouteLimitedConnectionManager) registry.acquire(limitOnly);
+
+        assertThat(second.pool()).isNotSameAs(first.pool());
+        // route limits are per client and do not keep clients apart
+        assertThat(third.pool()).isSameAs(first.pool());
+    }
+
+    @Test
+    void shouldCloseSharedPoolWithLastReference() throws Exception {
+        var first = registry.acquire(props(5));
+        var second = registry.acquire(props(5));
+
+        first.close();
+        first.close();
+        assertThat(registry.size()).isEqualTo(1);
+
+        second.close();
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void shouldEnforceClientRouteLimitOnSharedPool() throws Exception {
+        var limited = (RouteLimitedConnectionManager) registry.acquire(props(1));
+        var other = (RouteLimitedConnectionManager) registry.acquire(props(5));
+
+        ConnectionEndpoint endpoint = limited.lease("1", ROUTE, TIMEOUT, null).get(TIMEOUT);
+        assertThatThrownBy(() -> limited.lease("2", ROUTE, TIMEOUT, null).get(TIMEOUT))
+                .isInstanceOf(TimeoutException.class)
+                .hasMessageContaining("client route limit of 1");
+
+        // another client on the same pool is not held back by it
+        ConnectionEndpoint otherEndpoint =
+                other.lease("3", ROUTE, TIMEOUT, null).get(TIMEOUT);
+        other.release(otherEndpoint, null, TimeValue.ZERO_MILLISECONDS);
+
+        limited.release(endpoint, null, TimeValue.ZERO_MILLISECONDS);
+        ConnectionEndpoint again = limited.lease("4", ROUTE, TIMEOUT, null).get(TIMEOUT);
+        limited.release(again, null, TimeValue.ZERO_MILLISECONDS);
+    }
+
+    @Test
+    void shouldApplyRouteLimitChangesToClientOnly() throws Exception {
+        var manager = (RouteLimitedConnectionManager) registry.acquire(props(1));
+        manager.setMaxPerRoute(ROUTE, 2);
+
+        ConnectionEndpoint first = manager.lease("1", ROUTE, TIMEOUT, null).get(TIMEOUT);
+        ConnectionEndpoint second = manager.lease("2", ROUTE, TIMEOUT, null).get(TIMEOUT);
+
+        assertThat(manager.getMaxPerRoute(ROUTE)).isEqualTo(2);
+        assertThat(manager.getTotalStats().getLeased()).isEqualTo(2);
+        manager.release(first, null, TimeValue.ZERO_MILLISECONDS);
+        manager.release(second, null, TimeValue.ZERO_MILLISECONDS);
+    }
+
+    @Test
+    void shouldKeepOtherClientsRouteCapacityWhenOneShrinksItsDefault() throws Exception {
+        var shrinking = (RouteLimitedConnectionManager) registry.acquire(props(5));
+        var other = (RouteLimitedConnectionManager) registry.acquire(props(5));
+        ConnectionEndpoint known = shrinking.lease("1", ROUTE, TIMEOUT, null).get(TIMEOUT);
+        shrinking.release(known, null, TimeValue.ZERO_MILLISECONDS);
+
+        shrinking.setDefaultMaxPerRoute(2);
+
+        assertThat(shrinking.getMaxPerRoute(ROUTE)).isEqualTo(2);
+        assertThat(other.getMaxPerRoute(ROUTE)).isEqualTo(5);
+        assertThat(other.pool().getDefaultMaxPerRoute()).isEqualTo(7);
+        assertThat(other.pool().getMaxPerRoute(ROUTE)).isEqualTo(7);
+
+        // the other client still gets all five of its connections alongside the shrunk client's two
+        List<ConnectionEndpoint> endpoints = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            endpoints.add(other.lease("other-" + i, ROUTE, TIMEOUT, null).get(TIMEOUT));
+        }
+        for (int i = 0; i < 2; i++) {
+            endpoints.add(
+                    shrinking.lease("shrinking-" + i, ROUTE, TIMEOUT, null).get(TIMEOUT));
+        }
+        assertThat(other.getTotalStats().getLeased()).isEqualTo(7);
+        for (int i = 0; i < endpoints.size(); i++) {
+            (i < 5 ? other : shrinking).release(endpoints.get(i), null, TimeValue.ZERO_MILLISECONDS);
+        }
+    }
+
+    @Test
+    void shouldSumClientRouteLimitsOnSharedPool() {
+        var first = (RouteLimitedConnectionManager) registry.acquire(props(5));
+        var second = (RouteLimitedConnectionManager) registry.acquire(props(5));
+
+        first.setMaxPerRoute(ROUTE, 8);
+        assertThat(first.pool().getMaxPerRoute(ROUTE)).isEqualTo(13);
+
+        second.setDefaultMaxPerRoute(3);
+        assertThat(first.pool().getMaxPerRoute(ROUTE)).isEqualTo(11);
+
+        first.setMaxPerRoute(ROUTE, -1);
+        assertThat(first.pool().getMaxPerRoute(ROUTE)).isEqualTo(8);
+
+        second.close();
+        assertThat(first.pool().getMaxPerRoute(ROUTE)).isEqualTo(5);
+    }
+
+    private static HttpClientProperties props(int maxPerRoute) {
+        HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+        props.getPool().setShared(true);
+        props.getPool().setMaxConnectionsPerRoute(maxPerRoute);
+        return props;
+    }
+
+    private static void copyResource(String resource, Path target) throws Exception {
+        try (InputStream in =
+                ConnectionManagerRegistryTest.class.getClassLoader().getResourceAsStream(resource)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.http.client.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.http.client.property.HttpClientProperties.Compression.Encoding;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.junit.jupiter.api.Test;
+
+class ContentCodingsTest {
+
+    private static final byte[] BODY =
+            "{\"orders\":[{\"id\":1,\"state\":\"OPEN\"}]}".repeat(500).getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void shouldEncodeGzipReadableByJdk() throws IOException {
+        byte[] encoded = encode(Encoding.GZIP, BODY);
+
+        assertThat(encoded.length).isLessThan(BODY.length / 10);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+            assertThat(in.readAllBytes()).isEqualTo(BODY);
+        }
+    }
+
+    @Test
+    void shouldEncodeZlibWrappedDeflate() throws IOException {
+        byte[] encoded = encode(Encoding.DEFLATE, BODY);
+
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(encoded))) {
+            assertThat(in.readAllBytes()).isEqualTo(BODY);
+        }
+    }
+
+    @Test
+    void shouldRoundTripEveryDecodedCoding() throws IOException {
+        for (Encoding encoding : Encoding.values()) {
+            String token = ContentCodings.token(encoding);
+            byte[] encoded = encode(encoding, BODY);
+
+            try (InputStream in = ContentCodings.decode(token, new ByteArrayInputStream(encoded))) {
+                assertThat(in.readAllBytes()).as(token).isEqualTo(BODY);
+            }
+        }
+    }
+
+    @Test
+    void shouldReuseEncoderAfterAbandonedStream() throws IOException {
+        ContentCodings.EncodingOutputStream abandoned =
+                ContentCodings.encode(Encoding.GZIP, new ByteArrayOutputStream());
+        abandoned.write(BODY, 0, 1000);
+        abandoned.abandon();
+
+        assertThatThrownBy(() -> abandoned.write(BODY)).isInstanceOf(IOException.class);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(encode(Encoding.GZIP, BODY)))) {
+            assertThat(in.readAllBytes()).isEqualTo(BODY);
+        }
+    }
+
+    @Test
+    void shouldFlushWhatWasWrittenSoFar() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OutputStream encoding = ContentCodings.encode(Encoding.GZIP, out);
+
+        encoding.write(BODY, 0, 100);
+        encoding.flush();
+
+        InputStream partial = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertThat(partial.readNBytes(100)).isEqualTo(Arrays.copyOf(BODY, 100));
+        encoding.close();
+    }
+
+    @Test
+    void shouldAdvertiseZstdWhenAvailable() {
+        assertThat(ContentCodings.zstdAvailable()).isTrue();
+        assertThat(ContentCodings.acceptEncoding()).isEqualTo("zstd, gzip, x-gzip, deflate");
+        assertThat(ContentCodings.decoders()).containsKeys("gzip", "deflate", "zstd");
+    }
+
+    private static byte[] encode(Encoding encoding, byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream encoded = ContentCodings.encode(encoding, out)) {
+            encoded.write(body);
+        }
+        return out.toByteArray();
+    }
+}
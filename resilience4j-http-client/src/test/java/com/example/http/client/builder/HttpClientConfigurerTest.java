@@ -2,7 +2,16 @@ package com.example.http.client.builder;
 
 import com.example.http.client.property.HttpClientDefaultSettings;
 import com.example.http.client.property.HttpClientProperties;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorStatus;
+import org.apache.hc.core5.util.TimeValue;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -58,4 +67,101 @@ class HttpClientConfigurerTest {
 
         Assertions.assertThat(client).isNotNull();
     }
+
+    @Test
+    void shouldUseRegistryOnlyForSharedPools() throws Exception {
+        try (ConnectionManagerRegistry registry = new ConnectionManagerRegistry()) {
+            HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+            HttpClientConfigurer.configure(props, registry);
+            Assertions.assertThat(registry.size()).isZero();
+
+            props.getPool().setShared(true);
+            HttpClientConfigurer.configure(props, registry);
+            HttpClientConfigurer.configure(props, registry);
+            Assertions.assertThat(registry.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void shouldStartAsyncClientWithTlsAndHttp2Policy() throws Exception {
+        HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+        props.getSsl().setEnabled(true);
+        props.getSsl().setTrustAll(true);
+        props.getAsync().setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2);
+        props.getAsync().setIoThreads(1);
+
+        CloseableHttpAsyncClient client = HttpClientConfigurer.configureAsync(props);
+        Assertions.assertThat(client.getStatus()).isNotEqualTo(IOReactorStatus.SHUT_DOWN);
+
+        client.close(CloseMode.IMMEDIATE);
+        client.awaitShutdown(TimeValue.ofSeconds(5));
+        Assertions.assertThat(client.getStatus()).isEqualTo(IOReactorStatus.SHUT_DOWN);
+    }
+
+    @Test
+    void shouldConfigureJdkClientFromProperties() {
+        HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+        props.getSsl().setEnabled(true);
+        props.getSsl().setTrustAll(true);
+
+        java.net.http.HttpClient client = HttpClientConfigurer.configureJdk(props, Duration.ofSeconds(3), null);
+
+        Assertions.assertThat(client.version()).isEqualTo(java.net.http.HttpClient.Version.HTTP_2);
+        Assertions.assertThat(client.connectTimeout()).contains(Duration.ofSeconds(3));
+        Assertions.assertThat(client.followRedirects()).isEqualTo(java.net.http.HttpClient.Redirect.NORMAL);
+        Assertions.assertThat(client.sslContext().getProtocol()).isEqualTo("TLS");
+        Assertions.assertThat(client.executor()).isEmpty();
+    }
+
+    @Test
+    void shouldApplyTlsProtocolsAndCipherSuitesToJdkClient() {
+        HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+        props.getSsl().setEnabled(true);
+        props.getSsl().setTrustAll(true);
+        props.getSsl().setProtocols(List.of("TLSv1.3"));
+        props.getSsl().setCipherSuites(List.of("TLS_AES_256_GCM_SHA384"));
+
+        java.net.http.HttpClient client = HttpClientConfigurer.configureJdk(props, null, null);
+
+        Assertions.assertThat(client.sslParameters().getProtocols()).containsExactly("TLSv1.3");
+        Assertions.assertThat(client.sslParameters().getCipherSuites()).containsExactly("TLS_AES_256_GCM_SHA384");
+    }
+
+    @Test
+    void shouldRejectUnsupportedTlsProtocolsAndCipherSuites() {
+        HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+        props.getSsl().setEnabled(true);
+        props.getSsl().setTrustAll(true);
+        props.getSsl().setProtocols(List.of("TLSv1.3", "TLSv9"));
+
+        Assertions.assertThatThrownBy(() -> HttpClientConfigurer.configure(props))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported TLS protocols [TLSv9]");
+
+        props.getSsl().setProtocols(List.of());
+        props.getSsl().setCipherSuites(List.of("TLS_NO_SUCH_CIPHER"));
+
+        Assertions.assertThatThrownBy(() -> HttpClientConfigurer.configureJdk(props, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported cipher suites [TLS_NO_SUCH_CIPHER]");
+    }
+
+    @Test
+    void shouldRunJdkClientOnVirtualThreadsWhereAvailable() throws Exception {
+        HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+        Assertions.assertThat(HttpClientConfigurer.jdkExecutor(props)).isNull();
+
+        props.getJdk().setVirtualThreads(true);
+        ExecutorService executor = HttpClientConfigurer.jdkExecutor(props);
+
+        if (Runtime.version().feature() >= 21) {
+            Assertions.assertThat(executor).isNotNull();
+            Future<Boolean> virtual = executor.submit(
+                    () -> (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+            Assertions.assertThat(virtual.get()).isTrue();
+            executor.shutdown();
+        } else {
+            Assertions.assertThat(executor).isNull();
+        }
+    }
 }
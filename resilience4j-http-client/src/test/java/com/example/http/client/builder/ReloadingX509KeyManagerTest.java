@@ -0,0 +1,103 @@
+package com.example.http.client.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.net.Socket;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import javax.net.ssl.X509ExtendedKeyManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReloadingX509KeyManagerTest {
+
+    private X509ExtendedKeyManager original;
+    private ReloadingX509KeyManager manager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyStore keystore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("ssl/keystore.p12")) {
+            keystore.load(in, "changeit".toCharArray());
+        }
+        original = SslContextBuilder.keyManager(keystore, "changeit".toCharArray());
+        manager = new ReloadingX509KeyManager(original);
+    }
+
+    @Test
+    void shouldResolveChosenAliasAgainstItsOwnSnapshotAfterSwap() throws Exception {
+        String alias = manager.chooseClientAlias(new String[] {"RSA"}, null, (Socket) null);
+        String rawAlias = original.chooseClientAlias(new String[] {"RSA"}, null, (Socket) null);
+
+        manager.update(new SingleKeyManager(rawAlias));
+
+        assertThat(manager.getPrivateKey(alias)).isEqualTo(original.getPrivateKey(rawAlias));
+        assertThat(manager.getCertificateChain(alias)).isEqualTo(original.getCertificateChain(rawAlias));
+        String rotated = manager.chooseClientAlias(new String[] {"RSA"}, null, (Socket) null);
+        assertThat(rotated).isNotEqualTo(alias).endsWith(rawAlias);
+        assertThat(manager.getPrivateKey(rotated)).isNotNull().isNotEqualTo(original.getPrivateKey(rawAlias));
+    }
+
+    @Test
+    void shouldNotResolveAliasOfDroppedSnapshot() throws Exception {
+        String alias = manager.chooseClientAlias(new String[] {"RSA"}, null, (Socket) null);
+        String rawAlias = original.chooseClientAlias(new String[] {"RSA"}, null, (Socket) null);
+
+        manager.update(new SingleKeyManager(rawAlias));
+        manager.update(new SingleKeyManager(rawAlias));
+
+        assertThat(manager.getPrivateKey(alias)).isNull();
+        assertThat(manager.getCertificateChain(alias)).isNull();
+        assertThat(manager.getPrivateKey(rawAlias)).isNull();
+    }
+
+    /**
+     * Serves a freshly generated key under {@code alias}, as a rotated keystore keeping the alias would.
+     */
+    private static final class SingleKeyManager extends X509ExtendedKeyManager {
+
+        private final String alias;
+        private final PrivateKey key;
+
+        private SingleKeyManager(String alias) throws Exception {
+            this.alias = alias;
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            this.key = generator.generateKeyPair().getPrivate();
+        }
+
+        @Override
+        public String[] getClientAliases(String keyType, Principal[] issuers) {
+            return new String[] {alias};
+        }
+
+        @Override
+        public String chooseClientAlias(String[] keyType, Principal[] issuers, Socket socket) {
+            return alias;
+        }
+
+        @Override
+        public String[] getServerAliases(String keyType, Principal[] issuers) {
+            return new String[] {alias};
+        }
+
+        @Override
+        public String chooseServerAlias(String keyType, Principal[] issuers, Socket socket) {
+            return alias;
+        }
+
+        @Override
+        public X509Certificate[] getCertificateChain(String alias) {
+            return this.alias.equals(alias) ? new X509Certificate[0] : null;
+        }
+
+        @Override
+        public PrivateKey getPrivateKey(String alias) {
+            return this.alias.equals(alias) ? key : null;
+        }
+    }
+}
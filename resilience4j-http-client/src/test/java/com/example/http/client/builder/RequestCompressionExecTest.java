@@ -0,0 +1,52 @@
+package com.example.http.client.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.http.client.property.HttpClientProperties;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.message.BasicClassicHttpRequest;
+import org.junit.jupiter.api.Test;
+
+class RequestCompressionExecTest {
+
+    private static final byte[] BODY =
+            "{\"orders\":[{\"id\":1,\"state\":\"OPEN\"}]}".repeat(2000).getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void shouldStreamEncodedBodyFromContent() throws Exception {
+        HttpClientProperties.Compression compression = new HttpClientProperties.Compression();
+        compression.setRequest(true);
+        compression.setRequestThreshold(1024);
+        BasicClassicHttpRequest request = new BasicClassicHttpRequest("POST", "/orders");
+        request.setEntity(new ByteArrayEntity(BODY, ContentType.APPLICATION_JSON));
+        byte[][] read = new byte[2][];
+
+        new RequestCompressionExec(compression).execute(request, null, (encoded, scope) -> {
+            HttpEntity entity = encoded.getEntity();
+            assertThat(entity.getContentEncoding()).isEqualTo("gzip");
+            try (InputStream in = entity.getContent()) {
+                read[0] = in.readAllBytes();
+            }
+            ByteArrayOutputStream written = new ByteArrayOutputStream();
+            entity.writeTo(written);
+            read[1] = written.toByteArray();
+            return null;
+        });
+
+        assertThat(read[0].length).isLessThan(BODY.length / 10);
+        assertThat(gunzip(read[0])).isEqualTo(BODY).isEqualTo(gunzip(read[1]));
+    }
+
+    private static byte[] gunzip(byte[] encoded) throws Exception {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.http.client.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.http.client.property.HttpClientDefaultSettings;
+import com.example.http.client.property.HttpClientProperties;
+import java.time.Duration;
+import java.util.Map;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.Test;
+
+class RouteOverridesTest {
+
+    private static final HttpRoute HEAVY = new HttpRoute(new HttpHost("https", "heavy.example", 443), null, true);
+    private static final HttpRoute LIGHT = new HttpRoute(new HttpHost("http", "light.example", 8080), null, false);
+    private static final HttpRoute OTHER = new HttpRoute(new HttpHost("http", "other.example", 80), null, false);
+
+    @Test
+    void shouldApplyRouteLimitsAndConnectionSettings() {
+        HttpClientProperties props = props();
+        RouteOverrides routes = HttpClientConfigurer.routeOverrides(props);
+
+        var manager = (PoolingHttpClientConnectionManager) HttpClientConfigurer.connectionManager(props, null, routes);
+
+        assertThat(manager.getMaxPerRoute(HEAVY)).isEqualTo(200);
+        assertThat(manager.getMaxPerRoute(LIGHT)).isEqualTo(2);
+        assertThat(manager.getMaxPerRoute(OTHER)).isEqualTo(20);
+        assertThat(routes.resolve(HEAVY).getTimeToLive()).isEqualTo(TimeValue.ofSeconds(30));
+        assertThat(routes.resolve(HEAVY).getValidateAfterInactivity()).isEqualTo(TimeValue.ofSeconds(30));
+        assertThat(routes.resolve(LIGHT).getValidateAfterInactivity()).isEqualTo(TimeValue.ofSeconds(2));
+        assertThat(routes.resolve(OTHER).getTimeToLive()).isEqualTo(TimeValue.ofMinutes(5));
+        manager.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    void shouldReplaceOverridesAtRuntime() {
+        HttpClientProperties props = props();
+        RouteOverrides routes = HttpClientConfigurer.routeOverrides(props);
+        var manager = (PoolingHttpClientConnectionManager) HttpClientConfigurer.connectionManager(props, null, routes);
+
+        routes.update(Map.of(
+                "https://heavy.example:443",
+                HttpClientProperties.Pool.Route.builder().maxConnections(50).build()));
+
+        assertThat(manager.getMaxPerRoute(HEAVY)).isEqualTo(50);
+        assertThat(manager.getMaxPerRoute(LIGHT)).isEqualTo(20);
+        assertThat(routes.resolve(HEAVY).getTimeToLive()).isEqualTo(TimeValue.ofMinutes(5));
+        assertThat(routes.resolve(LIGHT).getValidateAfterInactivity()).isEqualTo(TimeValue.ofSeconds(30));
+        manager.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    void shouldKeepOverridesWhenUpdateHasInvalidOrigin() {
+        HttpClientProperties props = props();
+        RouteOverrides routes = HttpClientConfigurer.routeOverrides(props);
+        var manager = (PoolingHttpClientConnectionManager) HttpClientConfigurer.connectionManager(props, null, routes);
+
+        assertThatThrownBy(() -> routes.update(Map.of(
+                        "heavy.example",
+                        HttpClientProperties.Pool.Route.builder()
+                                .maxConnections(1)
+                                .build())))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(manager.getMaxPerRoute(HEAVY)).isEqualTo(200);
+        manager.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    void shouldLimitClientViewOfSharedPool() {
+        HttpClientProperties props = props();
+        props.getPool().setShared(true);
+        try (ConnectionManagerRegistry registry = new ConnectionManagerRegistry()) {
+            RouteOverrides routes = HttpClientConfigurer.routeOverrides(props);
+            var view = (RouteLimitedConnectionManager) HttpClientConfigurer.connectionManager(props, registry, routes);
+
+            assertThat(view.getMaxPerRoute(LIGHT)).isEqualTo(2);
+            assertThat(view.pool().getMaxPerRoute(HEAVY)).isEqualTo(200);
+
+            routes.update(Map.of());
+            assertThat(view.getMaxPerRoute(LIGHT)).isEqualTo(20);
+            assertThat(view.getMaxPerRoute(HEAVY)).isEqualTo(20);
+            assertThat(routes.maxConnections("http://light.example:8080")).isEqualTo(20);
+        }
+    }
+
+    @Test
+    void shouldApplyOverridesToAsyncPool() {
+        HttpClientProperties props = props();
+        RouteOverrides routes = HttpClientConfigurer.routeOverrides(props);
+
+        PoolingAsyncClientConnectionManager manager = HttpClientConfigurer.asyncConnectionManager(props, routes);
+
+        assertThat(manager.getMaxPerRoute(HEAVY)).isEqualTo(200);
+        assertThat(manager.getMaxPerRoute(OTHER)).isEqualTo(20);
+        manager.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    void shouldPlanRoutesLikeClient() {
+        assertThat(HttpClientConfigurer.route("https://heavy.example/api")).isEqualTo(HEAVY);
+        assertThat(HttpClientConfigurer.route("http://light.example:8080")).isEqualTo(LIGHT);
+        assertThat(HttpClientConfigurer.route("HTTP://Other.Example")).isEqualTo(OTHER);
+        assertThatThrownBy(() -> HttpClientConfigurer.route("/relative")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static HttpClientProperties props() {
+        HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+        props.getPool().setConcurrencyPolicy("STRICT");
+        props.getPool()
+                .getRoutes()
+                .put(
+                        "https://heavy.example",
+                        HttpClientProperties.Pool.Route.builder()
+                                .maxConnections(200)
+                                .timeToLive(Duration.ofSeconds(30))
+                                .build());
+        props.getPool()
+                .getRoutes()
+                .put(
+                        "http://light.example:8080",
+                        HttpClientProperties.Pool.Route.builder()
+                                .maxConnections(2)
+                                .validateAfterInactivity(Duration.ofSeconds(2))
+                                .build());
+        return props;
+    }
+}
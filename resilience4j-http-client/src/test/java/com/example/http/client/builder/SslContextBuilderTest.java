@@ -1,11 +1,13 @@
 package com.example.http.client.builder;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.example.http.client.property.HttpClientProperties;
 import com.example.http.client.property.HttpClientProperties.Store;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
+import java.security.NoSuchProviderException;
 import javax.net.ssl.SSLContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -77,6 +79,34 @@ class SslContextBuilderTest {
         assertThat(context).isNotNull();
     }
 
+    @Test
+    void shouldBuildNewContextWithoutRegistry() {
+        assertThat(SslContextBuilder.from(storeSsl()).build())
+                .isNotNull()
+                .isNotSameAs(SslContextBuilder.from(storeSsl()).build());
+    }
+
+    @Test
+    void shouldBuildContextOfConfiguredProvider() {
+        HttpClientProperties.Ssl sunJsse = storeSsl();
+        sunJsse.setProvider("SunJSSE");
+
+        SSLContext context = SslContextBuilder.from(sunJsse).build();
+
+        assertThat(context.getProvider().getName()).isEqualTo("SunJSSE");
+    }
+
+    @Test
+    void shouldFailForUnknownProvider() {
+        HttpClientProperties.Ssl ssl = storeSsl();
+        ssl.setProvider("NoSuchJsse");
+
+        assertThatThrownBy(() -> SslContextBuilder.from(ssl).build())
+                .isInstanceOf(RuntimeException.class)
+                .hasRootCauseInstanceOf(NoSuchProviderException.class)
+                .hasMessageContaining("NoSuchJsse");
+    }
+
     @Test
     void shouldInvokeValidatorWhenProvided() {
         HttpClientProperties.Ssl ssl =
@@ -86,4 +116,15 @@ class SslContextBuilderTest {
 
         assertThat(context).isNotNull();
     }
+
+    private static HttpClientProperties.Ssl storeSsl() {
+        return HttpClientProperties.Ssl.builder()
+                .enabled(true)
+                .truststore(Store.builder()
+                        .location("classpath:ssl/truststore.p12")
+                        .password("changeit")
+                        .type("PKCS12")
+                        .build())
+                .build();
+    }
 }
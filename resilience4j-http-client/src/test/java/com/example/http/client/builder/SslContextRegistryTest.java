@@ -0,0 +1,175 @@
+package com.example.http.client.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.http.client.property.HttpClientProperties;
+import com.example.http.client.property.HttpClientProperties.Store;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyStore;
+import java.time.Duration;
+import javax.net.ssl.SSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SslContextRegistryTest {
+
+    private final SslContextRegistry registry = new SslContextRegistry();
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    void shouldShareContextOfSameStores() {
+        SSLContext first = registry.context(storeSsl());
+        SSLContext second = registry.context(storeSsl());
+
+        assertThat(second).isSameAs(first);
+        assertThat(registry.sessionStats(second)).isNotNull().isSameAs(registry.sessionStats(first));
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotShareContextsBetweenRegistries() {
+        try (SslContextRegistry other = new SslContextRegistry()) {
+            assertThat(other.context(storeSsl())).isNotSameAs(registry.context(storeSsl()));
+        }
+    }
+
+    @Test
+    void shouldBuildContextPerTrustModeAndSessionSettings() {
+        HttpClientProperties.Ssl otherSessions = storeSsl();
+        otherSessions.setSessionCacheSize(64);
+        otherSessions.setSessionTimeout(Duration.ofMinutes(5));
+        HttpClientProperties.Ssl trustAll = storeSsl();
+        trustAll.setTrustAll(true);
+
+        SSLContext context = registry.context(storeSsl());
+        SSLContext other = registry.context(otherSessions);
+
+        assertThat(other).isNotSameAs(context);
+        assertThat(registry.context(trustAll)).isNotSameAs(context).isNotSameAs(other);
+        assertThat(other.getClientSessionContext().getSessionCacheSize()).isEqualTo(64);
+        assertThat(other.getClientSessionContext().getSessionTimeout()).isEqualTo(300);
+    }
+
+    @Test
+    void shouldBuildNewContextWhenStoreContentChanged() throws Exception {
+        Path truststore = dir.resolve("truststore.p12");
+        copyResource("ssl/truststore.p12", truststore);
+        HttpClientProperties.Ssl ssl = ssl(truststore, "changeit");
+        SSLContext before = registry.context(ssl);
+
+        copyResource("ssl/keystore.p12", truststore);
+
+        assertThat(registry.context(ssl)).isNotSameAs(before);
+    }
+
+    @Test
+    void shouldBuildContextPerStorePassword() throws Exception {
+        Path truststore = dir.resolve("truststore.p12");
+        writeUnprotectedStore(truststore);
+
+        SSLContext context = registry.context(ssl(truststore, "changeit"));
+
+        assertThat(registry.context(ssl(truststore, "secret"))).isNotSameAs(context);
+        assertThat(registry.context(ssl(truststore, "changeit"))).isSameAs(context);
+    }
+
+    @Test
+    void shouldBuildContextOfConfiguredProvider() {
+        HttpClientProperties.Ssl sunJsse = storeSsl();
+        sunJsse.setProvider("SunJSSE");
+
+        SSLContext context = registry.context(sunJsse);
+
+        assertThat(context.getProvider().getName()).isEqualTo("SunJSSE");
+        assertThat(context).isNotSameAs(registry.context(storeSsl()));
+    }
+
+    @Test
+    void shouldNotCountHandshakesOfForeignContext() throws Exception {
+        assertThat(registry.sessionStats(SSLContext.getDefault())).isNull();
+        assertThat(registry.sessionStats(null)).isNull();
+    }
+
+    @Test
+    void shouldEvictContextsAndStopReloadersOnClose() throws Exception {
+        Path truststore = dir.resolve("truststore.p12");
+        copyResource("ssl/truststore.p12", truststore);
+        HttpClientProperties.Ssl ssl = ssl(truststore, "changeit");
+        ssl.setReload(HttpClientProperties.Ssl.Reload.builder()
+                .enabled(true)
+                .interval(Duration.ofMillis(50))
+                .build());
+        SSLContext context = registry.context(ssl);
+        SslStoreReloader reloader = registry.reloader(context);
+        registry.context(storeSsl());
+
+        registry.close();
+
+        assertThat(registry.size()).isZero();
+        assertThat(registry.sessionStats(context)).isNull();
+        assertThat(registry.reloader(context)).isNull();
+        copyResource("ssl/keystore.p12", truststore);
+        Thread.sleep(300);
+        assertThat(reloader.reloads()).isZero();
+        assertThat(registry.context(ssl)).isNotSameAs(context);
+    }
+
+    private static HttpClientProperties.Ssl storeSsl() {
+        return HttpClientProperties.Ssl.builder()
+                .enabled(true)
+                .truststore(Store.builder()
+                        .location("classpath:ssl/truststore.p12")
+                        .password("changeit")
+                        .type("PKCS12")
+                        .build())
+                .build();
+    }
+
+    private static HttpClientProperties.Ssl ssl(Path truststore, String password) {
+        return HttpClientProperties.Ssl.builder()
+                .enabled(true)
+                .truststore(Store.builder()
+                        .location(truststore.toString())
+                        .password(password)
+                        .type("PKCS12")
+                        .build())
+                .build();
+    }
+
+    /**
+     * Writes a store without integrity check or encryption, which loads with any password.
+     */
+    private static void writeUnprotectedStore(Path target) throws Exception {
+        String mac = System.getProperty("keystore.pkcs12.macAlgorithm");
+        System.setProperty("keystore.pkcs12.macAlgorithm", "NONE");
+        try (OutputStream out = Files.newOutputStream(target)) {
+            KeyStore store = KeyStore.getInstance("PKCS12");
+            store.load(null, null);
+            store.store(out, "changeit".toCharArray());
+        } finally {
+            if (mac != null) {
+                System.setProperty("keystore.pkcs12.macAlgorithm", mac);
+            } else {
+                System.clearProperty("keystore.pkcs12.macAlgorithm");
+            }
+        }
+    }
+
+    private static void copyResource(String resource, Path target) throws Exception {
+        try (InputStream in = SslContextRegistryTest.class.getClassLoader().getResourceAsStream(resource)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.http.client.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.example.http.client.property.HttpClientProperties;
+import com.example.http.client.property.HttpClientProperties.Store;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyStore;
+import java.time.Duration;
+import javax.net.ssl.SSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+class SslStoreReloaderTest {
+
+    private final SslContextRegistry registry = new SslContextRegistry();
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    void shouldKeepContextWhenStoreChanges() throws Exception {
+        Path truststore = dir.resolve("truststore.p12");
+        copyResource("ssl/truststore.p12", truststore);
+        HttpClientProperties.Ssl ssl = reloadingSsl(truststore, null);
+        SSLContext context = registry.context(ssl);
+
+        writeEmptyStore(truststore);
+
+        assertThat(registry.context(ssl)).isSameAs(context);
+    }
+
+    @Test
+    void shouldInstallChangedStores() throws Exception {
+        Path truststore = dir.resolve("truststore.p12");
+        Path keystore = dir.resolve("keystore.p12");
+        writeEmptyStore(truststore);
+        copyResource("ssl/keystore.p12", keystore);
+        SslStoreReloader reloader = registry.reloader(registry.context(reloadingSsl(truststore, keystore)));
+
+        assertThat(reloader.reload()).isFalse();
+
+        copyResource("ssl/truststore.p12", truststore);
+        assertThat(reloader.reload()).isTrue();
+
+        writeEmptyStore(keystore);
+        assertThat(reloader.reload()).isTrue();
+        assertThat(reloader.reload()).isFalse();
+        assertThat(reloader.reloads()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepPreviousMaterialWhenStoreIsBroken() throws Exception {
+        Path truststore = dir.resolve("truststore.p12");
+        copyResource("ssl/truststore.p12", truststore);
+        SslStoreReloader reloader = registry.reloader(registry.context(reloadingSsl(truststore, null)));
+
+        Files.writeString(truststore, "half-written", StandardCharsets.US_ASCII);
+        assertThat(reloader.reload()).isFalse();
+        assertThat(reloader.reload()).isFalse();
+
+        writeEmptyStore(truststore);
+        assertThat(reloader.reload()).isTrue();
+        assertThat(reloader.reloads()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReportUnreadableStoreOnceUntilItRecovers() throws Exception {
+        Path truststore = dir.resolve("truststore.p12");
+        copyResource("ssl/truststore.p12", truststore);
+        SslStoreReloader reloader = registry.reloader(registry.context(reloadingSsl(truststore, null)));
+        ListAppender<ILoggingEvent> events = capture(SslStoreReloader.class, SslContextBuilder.class);
+        try {
+            Path rotated = Files.move(truststore, dir.resolve("truststore.p12.old"));
+            assertThat(reloader.reload()).isFalse();
+            assertThat(reloader.reload()).isFalse();
+            assertThat(reloader.reload()).isFalse();
+
+            assertThat(events.list)
+                    .filteredOn(e -> e.getLevel().isGreaterOrEqual(Level.WARN))
+                    .singleElement()
+                    .satisfies(e -> assertThat(e.getLevel()).isEqualTo(Level.WARN));
+
+            Files.move(rotated, truststore);
+            assertThat(reloader.reload()).isFalse();
+            Files.delete(truststore);
+            assertThat(reloader.reload()).isFalse();
+
+            assertThat(events.list)
+                    .filteredOn(e -> e.getLevel().isGreaterOrEqual(Level.WARN))
+                    .hasSize(2);
+        } finally {
+            release(events, SslStoreReloader.class, SslContextBuilder.class);
+        }
+    }
+
+    @Test
+    void shouldNotReloadUnlessEnabled() throws Exception {
+        Path truststore = dir.resolve("truststore.p12");
+        copyResource("ssl/truststore.p12", truststore);
+        HttpClientProperties.Ssl ssl = reloadingSsl(truststore, null);
+        ssl.getReload().setEnabled(false);
+
+        SSLContext context = registry.context(ssl);
+
+        assertThat(registry.reloader(context)).isNull();
+    }
+
+    private static HttpClientProperties.Ssl reloadingSsl(Path truststore, Path keystore) {
+        return HttpClientProperties.Ssl.builder()
+                .enabled(true)
+                .truststore(store(truststore))
+                .keystore(keystore != null ? store(keystore) : null)
+                .reload(HttpClientProperties.Ssl.Reload.builder()
+                        .enabled(true)
+                        .interval(Duration.ofHours(1))
+                        .build())
+                .build();
+    }
+
+    private static Store store(Path path) {
+        return Store.builder()
+                .location(path.toString())
+                .password("changeit")
+                .type("PKCS12")
+                .build();
+    }
+
+    private static ListAppender<ILoggingEvent> capture(Class<?>... sources) {
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        for (Class<?> source : sources) {
+            ((Logger) LoggerFactory.getLogger(source)).addAppender(appender);
+        }
+        return appender;
+    }
+
+    private static void release(ListAppender<ILoggingEvent> appender, Class<?>... sources) {
+        for (Class<?> source : sources) {
+            ((Logger) LoggerFactory.getLogger(source)).detachAppender(appender);
+        }
+        appender.stop();
+    }
+
+    private static void writeEmptyStore(Path target) throws Exception {
+        KeyStore empty = KeyStore.getInstance("PKCS12");
+        empty.load(null, null);
+        try (OutputStream out = Files.newOutputStream(target)) {
+            empty.store(out, "changeit".toCharArray());
+        }
+    }
+
+    private static void copyResource(String resource, Path target) throws Exception {
+        try (InputStream in = SslStoreReloaderTest.class.getClassLoader().getResourceAsStream(resource)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
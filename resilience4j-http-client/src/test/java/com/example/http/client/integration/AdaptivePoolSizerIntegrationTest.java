@@ -0,0 +1,95 @@
+package com.example.http.client.integration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.http.client.builder.AdaptivePoolSizer;
+import com.example.http.client.builder.HttpClientConfigurer;
+import com.example.http.client.property.HttpClientDefaultSettings;
+import com.example.http.client.property.HttpClientProperties;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.io.CloseMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+/**
+ * Drives a fixed number of concurrent callers against a stub with a fixed latency and checks that the route
+ * limit converges on the callers' concurrency, then falls back once they stop.
+ */
+class AdaptivePoolSizerIntegrationTest {
+
+    private static final int CALLERS = 8;
+
+    @RegisterExtension
+    static WireMockExtension wm = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    private final List<Integer> limits = new CopyOnWriteArrayList<>();
+    private AdaptivePoolSizer sizer;
+    private HttpRoute route;
+
+    @BeforeEach
+    void setup() {
+        configureFor("localhost", wm.getRuntimeInfo().getHttpPort());
+        stubFor(get("/slow").willReturn(ok().withBody("ok").withFixedDelay(50)));
+        route = HttpClientConfigurer.route(wm.getRuntimeInfo().getHttpBaseUrl());
+    }
+
+    @AfterEach
+    void close() {
+        sizer.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    void shouldConvergeOnConcurrencyAndReleaseCapacityWhenIdle() throws Exception {
+        HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+        props.getPool().setMaxConnectionsPerRoute(2);
+        HttpClientProperties.Pool.Adaptive adaptive = props.getPool().getAdaptive();
+        adaptive.setEnabled(true);
+        adaptive.setMinPerRoute(1);
+        adaptive.setMaxPerRoute(64);
+        adaptive.setHeadroom(1.25);
+        adaptive.setInterval(Duration.ofMillis(200));
+
+        sizer = (AdaptivePoolSizer) HttpClientConfigurer.connectionManager(props, null);
+        sizer.setResizeListener((r, previous, next) -> limits.add(next));
+        HttpClient client = HttpClientConfigurer.configure(props, sizer);
+
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+        for (int i = 0; i < CALLERS; i++) {
+            callers.submit(() -> {
+                while (System.nanoTime() < end) {
+                    client.execute(
+                            new HttpGet(wm.getRuntimeInfo().getHttpBaseUrl() + "/slow"),
+                            response -> EntityUtils.toString(response.getEntity()));
+                }
+                return null;
+            });
+        }
+        callers.shutdown();
+        assertThat(callers.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        int loaded = sizer.getMaxPerRoute(route);
+        // eight callers keep eight connections busy; the limit settles at about that plus headroom
+        assertThat(loaded).isBetween(CALLERS, 2 * CALLERS);
+        assertThat(limits.stream().mapToInt(Integer::intValue).max().orElse(0)).isLessThanOrEqualTo(2 * CALLERS);
+
+        Thread.sleep(2000);
+        assertThat(sizer.getMaxPerRoute(route)).isLessThan(loaded / 2);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.http.client.integration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.http.client.builder.HttpClientConfigurer;
+import com.example.http.client.property.HttpClientProperties;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class CompressionIntegrationTest {
+
+    @RegisterExtension
+    static WireMockExtension wm = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    private static final String LARGE = "{\"id\":42,\"state\":\"OPEN\"}".repeat(200);
+
+    @BeforeEach
+    void setup() {
+        configureFor("localhost", wm.getRuntimeInfo().getHttpPort());
+        stubFor(post("/orders").willReturn(ok()));
+    }
+
+    @Test
+    void shouldDecodeGzipResponseAndAdvertiseCodings() throws Exception {
+        stubFor(get("/orders")
+                .willReturn(ok().withHeader("Content-Encoding", "gzip").withBody(gzip(LARGE))));
+        HttpClient client = HttpClientConfigurer.configure(new HttpClientProperties());
+
+        String body = client.execute(getOrders(), response -> EntityUtils.toString(response.getEntity()));
+
+        assertThat(body).isEqualTo(LARGE);
+        verify(getRequestedFor(urlEqualTo("/orders"))
+                .withHeader("Accept-Encoding", equalTo("zstd, gzip, x-gzip, deflate")));
+    }
+
+    @Test
+    void shouldLeaveResponsesEncodedWhenResponseCompressionIsOff() throws Exception {
+        stubFor(get("/orders").willReturn(ok().withBody("plain")));
+        HttpClientProperties props = new HttpClientProperties();
+        props.getCompression().setResponse(false);
+        HttpClient client = HttpClientConfigurer.configure(props);
+
+        client.execute(getOrders(), response -> EntityUtils.toString(response.getEntity()));
+
+        verify(getRequestedFor(urlEqualTo("/orders")).withoutHeader("Accept-Encoding"));
+    }
+
+    @Test
+    void shouldCompressRequestBodiesAboveThreshold() throws Exception {
+        HttpClientProperties props = new HttpClientProperties();
+        props.getCompression().setRequest(true);
+        props.getCompression().setRequestThreshold(1024);
+        HttpClient client = HttpClientConfigurer.configure(props);
+
+        client.execute(postOrders(LARGE), response -> EntityUtils.toString(response.getEntity()));
+        client.execute(postOrders("{\"id\":1}"), response -> EntityUtils.toString(response.getEntity()));
+
+        LoggedRequest large =
+                wm.findAll(postRequestedFor(urlEqualTo("/orders"))).get(0);
+        assertThat(large.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(large.getBodyAsString()).isEqualTo(LARGE);
+        LoggedRequest small =
+                wm.findAll(postRequestedFor(urlEqualTo("/orders"))).get(1);
+        assertThat(small.containsHeader("Content-Encoding")).isFalse();
+        assertThat(small.getBodyAsString()).isEqualTo("{\"id\":1}");
+    }
+
+    private HttpGet getOrders() {
+        return new HttpGet(wm.getRuntimeInfo().getHttpBaseUrl() + "/orders");
+    }
+
+    private HttpPost postOrders(String body) {
+        HttpPost post = new HttpPost(wm.getRuntimeInfo().getHttpBaseUrl() + "/orders");
+        post.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+        return post;
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
@@ -4,23 +4,33 @@ import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import com.example.http.client.builder.ConnectionManagerRegistry;
 import com.example.http.client.builder.HttpClientConfigurer;
+import com.example.http.client.builder.TlsSessionStats;
 import com.example.http.client.property.HttpClientProperties;
 import com.example.http.client.property.HttpClientProperties.Ssl;
 import com.example.http.client.property.HttpClientProperties.Store;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyStore;
 import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.*;
 import org.apache.hc.client5.http.classic.HttpClient;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.client5.http.ssl.HostnameVerificationPolicy;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
 
 class HttpClientConfigurerIntegrationTest {
 
@@ -162,6 +172,111 @@ class HttpClientConfigurerIntegrationTest {
         }
     }
 
+    @Test
+    void shouldNegotiateOnlyConfiguredProtocolAndCipherSuite() throws Exception {
+        HttpClientProperties props = new HttpClientProperties();
+        props.setSsl(Ssl.builder()
+                .enabled(true)
+                .hostnameVerificationPolicy(HostnameVerificationPolicy.CLIENT)
+                .hostnameVerifier((host, session) -> true)
+                .protocols(List.of("TLSv1.2"))
+                .cipherSuites(List.of("TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256"))
+                .truststore(Store.builder()
+                        .location("src/test/resources/wiremock-truststore.jks")
+                        .password("changeit")
+                        .type("JKS")
+                        .build())
+                .build());
+        HttpClient client = HttpClientConfigurer.configure(props);
+        HttpClientContext context = HttpClientContext.create();
+
+        try (CloseableHttpResponse response =
+                (CloseableHttpResponse) client.execute(new HttpGet(wireMockHttpsUrl + "/secure-ping"), context)) {
+            assertThat(response.getCode()).isEqualTo(200);
+        }
+
+        assertThat(context.getSSLSession().getProtocol()).isEqualTo("TLSv1.2");
+        assertThat(context.getSSLSession().getCipherSuite()).isEqualTo("TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256");
+    }
+
+    @Test
+    void shouldResumeSessionOfOtherClientWithSameStores() throws Exception {
+        HttpClientProperties props = new HttpClientProperties();
+        props.setSsl(Ssl.builder()
+                .enabled(true)
+                .hostnameVerificationPolicy(HostnameVerificationPolicy.CLIENT)
+                .hostnameVerifier((host, session) -> true)
+                .truststore(Store.builder()
+                        .location("src/test/resources/wiremock-truststore.jks")
+                        .password("changeit")
+                        .type("JKS")
+                        .build())
+                .build());
+        try (ConnectionManagerRegistry registry = new ConnectionManagerRegistry()) {
+            TlsSessionStats stats = HttpClientConfigurer.tlsSessionStats(props, registry.sslContexts());
+
+            for (int i = 0; i < 2; i++) {
+                // each client has a pool of its own, so the second one opens a new connection
+                HttpClient client = HttpClientConfigurer.configure(props, registry);
+                try (CloseableHttpResponse response =
+                        (CloseableHttpResponse) client.execute(new HttpGet(wireMockHttpsUrl + "/secure-ping"))) {
+                    assertThat(response.getCode()).isEqualTo(200);
+                }
+            }
+
+            assertThat(stats.fullHandshakes()).isEqualTo(1);
+            assertThat(stats.resumedHandshakes()).isEqualTo(1);
+            assertThat(stats.resumptionRatio()).isGreaterThan(0);
+        }
+    }
+
+    @Test
+    void shouldTrustReloadedTruststoreWithoutRebuildingClient(@TempDir Path dir) throws Exception {
+        Path truststore = dir.resolve("truststore.jks");
+        KeyStore empty = KeyStore.getInstance("JKS");
+        empty.load(null, null);
+        try (OutputStream out = Files.newOutputStream(truststore)) {
+            empty.store(out, "changeit".toCharArray());
+        }
+        HttpClientProperties props = new HttpClientProperties();
+        props.setSsl(Ssl.builder()
+                .enabled(true)
+                .hostnameVerificationPolicy(HostnameVerificationPolicy.CLIENT)
+                .hostnameVerifier((host, session) -> true)
+                .truststore(Store.builder()
+                        .location(truststore.toString())
+                        .password("changeit")
+                        .type("JKS")
+                        .build())
+                .reload(Ssl.Reload.builder()
+                        .enabled(true)
+                        .interval(Duration.ofSeconds(1))
+                        .build())
+                .build());
+        try (ConnectionManagerRegistry registry = new ConnectionManagerRegistry()) {
+            HttpClient client = HttpClientConfigurer.configure(props, registry);
+            HttpGet request = new HttpGet(wireMockHttpsUrl + "/secure-ping");
+
+            assertThrows(IOException.class, () -> client.execute(request, response -> null));
+
+            Files.copy(
+                    Path.of("src/test/resources/wiremock-truststore.jks"),
+                    truststore,
+                    StandardCopyOption.REPLACE_EXISTING);
+
+            int status = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (status != 200 && System.nanoTime() < deadline) {
+                try {
+                    status = client.execute(request, response -> response.getCode());
+                } catch (IOException notReloadedYet) {
+                    Thread.sleep(200);
+                }
+            }
+            assertThat(status).isEqualTo(200);
+        }
+    }
+
     @Test
     void shouldRejectSslConnectionWithBuiltinHostnamePolicy() {
         HttpClientProperties props = new HttpClientProperties();
@@ -68,5 +68,12 @@ class HttpClientDefaultSettingsTest {
         Assertions.assertThat(ssl.getTruststore()).isNull();
         Assertions.assertThat(ssl.isEnabled()).isFalse();
         Assertions.assertThat(ssl.isTrustAll()).isFalse();
+        Assertions.assertThat(ssl.getSessionCacheSize()).isEqualTo(20480);
+        Assertions.assertThat(ssl.getSessionTimeout()).isEqualTo(Duration.ofHours(24));
+        Assertions.assertThat(ssl.getProtocols()).isEmpty();
+        Assertions.assertThat(ssl.getCipherSuites()).isEmpty();
+        Assertions.assertThat(ssl.getProvider()).isNull();
+        Assertions.assertThat(ssl.getReload().isEnabled()).isFalse();
+        Assertions.assertThat(ssl.getReload().getInterval()).isEqualTo(Duration.ofSeconds(10));
     }
 }
@@ -1,14 +1,23 @@
 package com.example.http.autoconfiguration;
 
 import com.example.http.autoconfiguration.builder.RestClientBuilder;
+import com.example.http.autoconfiguration.builder.RestClientLifecycle;
+import com.example.http.autoconfiguration.observation.UriPathNormalizer;
 import com.example.http.autoconfiguration.property.RestClientProperties;
 import com.example.http.autoconfiguration.property.RestClientsProperties;
+import com.example.http.client.builder.RouteOverrides;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
 import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.observation.ObservationRegistry;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -30,6 +39,51 @@ public class ResilientRestClientAutoConfiguration {
             CircuitBreakerRegistry cbRegistry,
             RetryRegistry retryRegistry,
             RateLimiterRegistry rlRegistry) {
+        this(
+                observationRegistry,
+                clientProperties,
+                cbRegistry,
+                retryRegistry,
+                rlRegistry,
+                (BulkheadRegistry) null,
+                null,
+                null,
+                null);
+    }
+
+    @Autowired
+    public ResilientRestClientAutoConfiguration(
+            ObservationRegistry observationRegistry,
+            RestClientsProperties clientProperties,
+            CircuitBreakerRegistry cbRegistry,
+            RetryRegistry retryRegistry,
+            RateLimiterRegistry rlRegistry,
+            ObjectProvider<BulkheadRegistry> bulkheadRegistry,
+            ObjectProvider<ThreadPoolBulkheadRegistry> threadPoolBulkheadRegistry,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            ObjectProvider<UriPathNormalizer> uriPathNormalizer) {
+        this(
+                observationRegistry,
+                clientProperties,
+                cbRegistry,
+                retryRegistry,
+                rlRegistry,
+                bulkheadRegistry.getIfAvailable(),
+                threadPoolBulkheadRegistry.getIfAvailable(),
+                meterRegistry.getIfAvailable(),
+                uriPathNormalizer.getIfAvailable());
+    }
+
+    private ResilientRestClientAutoConfiguration(
+            ObservationRegistry observationRegistry,
+            RestClientsProperties clientProperties,
+            CircuitBreakerRegistry cbRegistry,
+            RetryRegistry retryRegistry,
+            RateLimiterRegistry rlRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            ThreadPoolBulkheadRegistry threadPoolBulkheadRegistry,
+            MeterRegistry meterRegistry,
+            UriPathNormalizer uriPathNormalizer) {
 
         this.clientProperties = clientProperties;
         this.builder = RestClientBuilder.builder()
@@ -37,6 +91,10 @@ public class ResilientRestClientAutoConfiguration {
                 .circuitBreakerRegistry(cbRegistry)
                 .retryRegistry(retryRegistry)
                 .rateLimiterRegistry(rlRegistry)
+                .bulkheadRegistry(bulkheadRegistry)
+                .threadPoolBulkheadRegistry(threadPoolBulkheadRegistry)
+                .meterRegistry(meterRegistry)
+                .uriPathNormalizer(uriPathNormalizer)
                 .build();
     }
 
@@ -52,6 +110,29 @@ public class ResilientRestClientAutoConfiguration {
             RestClient client = builder.client(name, props).build();
             clients.put(name, client);
         }
+        // open the prewarmed connections of all clients before the context reports ready
+        builder.awaitPrewarm();
         return clients;
     }
+
+    /**
+     * Connection pool route overrides by client name; {@link RouteOverrides#update} changes a client's
+     * route limits and connection settings at runtime.
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = "connectionPoolRouteOverrides")
+    public Map<String, RouteOverrides> connectionPoolRouteOverrides(
+            @Qualifier("resilientRestClients") Map<String, RestClient> resilientRestClients) {
+        return builder.routeOverrides();
+    }
+
+    /**
+     * Drains and closes the clients when the context stops; see {@link RestClientLifecycle}.
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = "resilientRestClientsLifecycle")
+    public RestClientLifecycle resilientRestClientsLifecycle(
+            @Qualifier("resilientRestClients") Map<String, RestClient> resilientRestClients) {
+        return builder.lifecycle();
+    }
 }
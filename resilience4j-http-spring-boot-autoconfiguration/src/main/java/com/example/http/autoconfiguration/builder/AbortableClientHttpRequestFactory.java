@@ -0,0 +1,46 @@
+package com.example.http.autoconfiguration.builder;
+
+import java.net.URI;
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * Request factory that exposes each Apache request to the {@link ExchangeAbortHandle} of the attempt
+ * creating it, so that attempt can be aborted from another thread.
+ */
+final class AbortableClientHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private boolean expectContinue;
+
+    AbortableClientHttpRequestFactory(HttpClient httpClient) {
+        super(httpClient);
+    }
+
+    /**
+     * Sends {@code Expect: 100-continue} with request bodies, see {@link RequestConfig#isExpectContinueEnabled()}.
+     */
+    void setExpectContinue(boolean expectContinue) {
+        this.expectContinue = expectContinue;
+    }
+
+    @Override
+    protected ClassicHttpRequest createHttpUriRequest(HttpMethod httpMethod, URI uri) {
+        ClassicHttpRequest request = super.createHttpUriRequest(httpMethod, uri);
+        if (request instanceof Cancellable cancellable) {
+            ExchangeAbortHandle.attachToCurrent(cancellable);
+        }
+        return request;
+    }
+
+    @Override
+    protected RequestConfig mergeRequestConfig(RequestConfig clientConfig) {
+        RequestConfig config = super.mergeRequestConfig(clientConfig);
+        return expectContinue && !config.isExpectContinueEnabled()
+                ? RequestConfig.copy(config).setExpectContinueEnabled(true).build()
+                : config;
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.http.autoconfiguration.builder;
+
+import com.example.http.client.builder.AsyncExchangeAbort;
+import com.example.http.client.builder.ContentCodings;
+import com.example.http.client.property.HttpClientProperties;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Request factory of the {@code async} engine: executes each request on a started
+ * {@link CloseableHttpAsyncClient}, whose pool may multiplex HTTP/2 streams over few connections.
+ * <p>
+ * {@code RestClient} is blocking, so the calling thread waits for the exchange; request and response
+ * bodies are buffered in memory. Per {@link HttpClientProperties.Compression}, buffered request bodies
+ * are encoded before sending and encoded responses are decoded while the body is read, as the classic
+ * client does. The pending exchange is attached to the attempt's
+ * {@link ExchangeAbortHandle}, so timeouts and hedging cancel it and discard its connection just like
+ * a classic request.
+ */
+final class AsyncClientHttpRequestFactory implements ClientHttpRequestFactory, DisposableBean, AutoCloseable {
+
+    private final CloseableHttpAsyncClient httpClient;
+
+    private Duration connectTimeout;
+    private Duration connectionRequestTimeout;
+    private Duration readTimeout;
+    private boolean expectContinue;
+    private volatile RequestConfig requestConfig;
+    private HttpClientProperties.Compression compression;
+    private String acceptEncoding;
+
+    AsyncClientHttpRequestFactory(CloseableHttpAsyncClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.requestConfig = null;
+    }
+
+    void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+        this.requestConfig = null;
+    }
+
+    void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+        this.requestConfig = null;
+    }
+
+    void setExpectContinue(boolean expectContinue) {
+        this.expectContinue = expectContinue;
+        this.requestConfig = null;
+    }
+
+    void setCompression(HttpClientProperties.Compression compression) {
+        this.compression = compression;
+        this.acceptEncoding = compression != null && compression.isResponse() ? ContentCodings.acceptEncoding() : null;
+        if (compression != null && compression.isRequest()) {
+            // fail at startup rather than on the first large request
+            ContentCodings.token(compression.getRequestEncoding());
+        }
+    }
+
+    CloseableHttpAsyncClient getHttpClient() {
+        return httpClient;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new AsyncClientHttpRequest(uri, httpMethod);
+    }
+
+    @Override
+    public void destroy() {
+        close();
+    }
+
+    @Override
+    public void close() {
+        httpClient.close(CloseMode.GRACEFUL);
+    }
+
+    @SuppressWarnings("deprecation") // the per-request connect timeout mirrors HttpComponentsClientHttpRequestFactory
+    private RequestConfig requestConfig() {
+        RequestConfig config = requestConfig;
+        if (config == null) {
+            RequestConfig.Builder builder = RequestConfig.custom();
+            if (connectTimeout != null) {
+                builder.setConnectTimeout(Timeout.of(connectTimeout));
+            }
+            if (connectionRequestTimeout != null) {
+                builder.setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout));
+            }
+            if (readTimeout != null) {
+                builder.setResponseTimeout(Timeout.of(readTimeout));
+            }
+            config = builder.setExpectContinueEnabled(expectContinue).build();
+            requestConfig = config;
+        }
+        return config;
+    }
+
+    private final class AsyncClientHttpRequest extends AbstractClientHttpRequest {
+
+        private final URI uri;
+        private final HttpMethod method;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+        AsyncClientHttpRequest(URI uri, HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(HttpHeaders headers) {
+            return body;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+            SimpleHttpRequest request = SimpleHttpRequest.create(method.name(), uri);
+            for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                String name = entry.getKey();
+                // framing headers are derived from the body by the client
+                if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)
+                        && !HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)) {
+                    for (String value : entry.getValue()) {
+                        request.addHeader(name, value);
+                    }
+                }
+            }
+            if (acceptEncoding != null && !headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+                request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+            }
+            if (body.size() > 0) {
+                String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+                request.setBody(encode(request, headers), contentType != null ? ContentType.parse(contentType) : null);
+            }
+
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(requestConfig());
+
+            Future<SimpleHttpResponse> future = httpClient.execute(
+                    SimpleRequestProducer.create(request), SimpleResponseConsumer.create(), context, null);
+            ExchangeAbortHandle.attachToCurrent(() -> {
+                AsyncExchangeAbort.abort(context);
+                return future.cancel(true);
+            });
+            try {
+                return new AsyncClientHttpResponse(future.get(), acceptEncoding != null);
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                throw cause instanceof IOException io ? io : new IOException(cause);
+            } catch (CancellationException ex) {
+                throw new IOException("Request to " + uri + " was cancelled", ex);
+            } catch (InterruptedException ex) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                InterruptedIOException interrupted = new InterruptedIOException("Interrupted waiting for " + uri);
+                interrupted.initCause(ex);
+                throw interrupted;
+            }
+        }
+
+        private byte[] encode(SimpleHttpRequest request, HttpHeaders headers) throws IOException {
+            if (compression == null
+                    || !compression.isRequest()
+                    || body.size() < compression.getRequestThreshold()
+                    || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                return body.toByteArray();
+            }
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream(Math.max(256, body.size() / 4));
+            try (OutputStream out = ContentCodings.encode(compression.getRequestEncoding(), encoded)) {
+                body.writeTo(out);
+            }
+            request.addHeader(HttpHeaders.CONTENT_ENCODING, ContentCodings.token(compression.getRequestEncoding()));
+            return encoded.toByteArray();
+        }
+    }
+
+    private static final class AsyncClientHttpResponse implements ClientHttpResponse {
+
+        private final SimpleHttpResponse response;
+        private final boolean decode;
+        private HttpHeaders headers;
+        private InputStream body;
+
+        AsyncClientHttpResponse(SimpleHttpResponse response, boolean decode) {
+            this.response = response;
+            this.decode = decode;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatusCode.valueOf(response.getCode());
+        }
+
+        @Override
+        public String getStatusText() {
+            String reason = response.getReasonPhrase();
+            return reason != null ? reason : "";
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (headers == null) {
+                headers = new HttpHeaders();
+                boolean decoded = decode && contentEncoding() != null;
+                for (Header header : response.getHeaders()) {
+                    // a decoded body no longer has the coding or length the server sent
+                    if (!decoded
+                            || (!HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(header.getName())
+                                    && !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.getName()))) {
+                        headers.add(header.getName(), header.getValue());
+                    }
+                }
+            }
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                byte[] bytes = response.getBodyBytes();
+                InputStream raw = new ByteArrayInputStream(bytes != null ? bytes : new byte[0]);
+                String coding = decode && bytes != null && bytes.length > 0 ? contentEncoding() : null;
+                body = coding != null ? ContentCodings.decode(coding, raw) : raw;
+            }
+            return body;
+        }
+
+        /**
+         * @return the response's content coding if the client decodes it, otherwise {@code null}
+         */
+        private String contentEncoding() {
+            Header header = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+            if (header == null) {
+                return null;
+            }
+            return ContentCodings.decodes(header.getValue()) ? header.getValue() : null;
+        }
+
+        @Override
+        public void close() {
+            // the body is fully buffered; the connection was released when the exchange completed
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.http.autoconfiguration.builder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Request factory that streams bodies set as request attributes, past the buffering of interceptors. Each
+ * attempt the interceptors execute creates a request of its own here.
+ * <p>
+ * The {@link ReplayableBody} of the {@link ReplayableBody#ATTRIBUTE} attribute is sent as the request
+ * body, written again from its source by every attempt. Requests of streaming factories get it as a
+ * repeatable streaming body, written while the request is sent (after {@code 100 Continue} if the request
+ * expects it); others get it copied into their body stream.
+ * <p>
+ * The response body of a request with a {@link ChannelDownload#ATTRIBUTE} attribute is transferred into
+ * the download's channel before the response is returned, so the transfer is part of the attempt. Its
+ * resumed exchanges are sent as new requests of the wrapped factory.
+ */
+final class BodyTransferClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final ClientHttpRequestFactory delegate;
+
+    BodyTransferClientHttpRequestFactory(ClientHttpRequestFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        ClientHttpRequest request = delegate.createRequest(uri, httpMethod);
+        return request instanceof StreamingHttpOutputMessage
+                ? new StreamingBodyTransferRequest(request)
+                : new BodyTransferRequest(request);
+    }
+
+    private class BodyTransferRequest implements ClientHttpRequest {
+
+        final ClientHttpRequest request;
+
+        BodyTransferRequest(ClientHttpRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            if (request.getAttributes().get(ReplayableBody.ATTRIBUTE) instanceof ReplayableBody body) {
+                // a buffering interceptor chain sets the length of the empty body it saw
+                long contentLength = body.contentLength();
+                if (contentLength >= 0) {
+                    request.getHeaders().setContentLength(contentLength);
+                } else {
+                    request.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                }
+                writeBody(body);
+            }
+            if (request.getAttributes().get(ChannelDownload.ATTRIBUTE) instanceof ChannelDownload download) {
+                return download.receive(request, this::resume);
+            }
+            return request.execute();
+        }
+
+        private ClientHttpResponse resume(Consumer<HttpHeaders> headers) throws IOException {
+            ClientHttpRequest resumed = delegate.createRequest(request.getURI(), request.getMethod());
+            resumed.getHeaders().putAll(request.getHeaders());
+            resumed.getAttributes().putAll(request.getAttributes());
+            headers.accept(resumed.getHeaders());
+            return resumed.execute();
+        }
+
+        void writeBody(ReplayableBody body) throws IOException {
+            body.writeTo(request.getBody());
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return request.getBody();
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return request.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return request.getAttributes();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.getHeaders();
+        }
+    }
+
+    /**
+     * Keeps the streaming body support of the wrapped request, for buffered bodies and replayable ones.
+     */
+    private final class StreamingBodyTransferRequest extends BodyTransferRequest implements StreamingHttpOutputMessage {
+
+        StreamingBodyTransferRequest(ClientHttpRequest request) {
+            super(request);
+        }
+
+        @Override
+        public void setBody(Body body) {
+            ((StreamingHttpOutputMessage) request).setBody(body);
+        }
+
+        @Override
+        void writeBody(ReplayableBody body) {
+            setBody(new Body() {
+                @Override
+                public void writeTo(OutputStream outputStream) throws IOException {
+                    body.writeTo(outputStream);
+                }
+
+                @Override
+                public boolean repeatable() {
+                    return true;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.http.autoconfiguration.builder;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.common.bulkhead.configuration.CommonBulkheadConfigurationProperties;
+import io.github.resilience4j.common.bulkhead.configuration.CommonThreadPoolBulkheadConfigurationProperties;
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public final class BulkheadFactory {
+
+    public Bulkhead create(
+            String name, BulkheadRegistry registry, CommonBulkheadConfigurationProperties.InstanceProperties props) {
+        if (props == null) {
+            return null;
+        }
+
+        BulkheadConfig.Builder builder = BulkheadConfig.custom();
+
+        if (props.getMaxConcurrentCalls() != null) {
+            builder.maxConcurrentCalls(props.getMaxConcurrentCalls());
+        }
+        if (props.getMaxWaitDuration() != null) {
+            builder.maxWaitDuration(props.getMaxWaitDuration());
+        }
+        if (props.isWritableStackTraceEnabled() != null) {
+            builder.writableStackTraceEnabled(props.isWritableStackTraceEnabled());
+        }
+
+        BulkheadConfig config = builder.build();
+        return registry.bulkhead(name, config);
+    }
+
+    /**
+     * Sizes left at {@code 0} (the unset value of the Resilience4j properties) keep the library defaults.
+     */
+    public ThreadPoolBulkhead createThreadPool(
+            String name,
+            ThreadPoolBulkheadRegistry registry,
+            CommonThreadPoolBulkheadConfigurationProperties.InstanceProperties props) {
+        if (props == null) {
+            return null;
+        }
+
+        ThreadPoolBulkheadConfig.Builder builder = ThreadPoolBulkheadConfig.custom();
+
+        if (props.getMaxThreadPoolSize() > 0) {
+            builder.maxThreadPoolSize(props.getMaxThreadPoolSize());
+        }
+        if (props.getCoreThreadPoolSize() > 0) {
+            builder.coreThreadPoolSize(props.getCoreThreadPoolSize());
+        }
+        if (props.getQueueCapacity() > 0) {
+            builder.queueCapacity(props.getQueueCapacity());
+        }
+        if (props.getKeepAliveDuration() != null) {
+            builder.keepAliveDuration(props.getKeepAliveDuration());
+        }
+        if (props.getWritableStackTraceEnabled() != null) {
+            builder.writableStackTraceEnabled(props.getWritableStackTraceEnabled());
+        }
+
+        ThreadPoolBulkheadConfig config = builder.build();
+        return registry.bulkhead(name, config);
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.http.autoconfiguration.builder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Response body written straight into a channel while the exchange is still inside the resilience
+ * interceptor, requested by setting it as the {@link #ATTRIBUTE} request attribute:
+ *
+ * <pre>{@code
+ * try (FileChannel file = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING)) {
+ *     ChannelDownload download = ChannelDownload.to(file);
+ *     restClient.get()
+ *             .uri("/archives/{id}", id)
+ *             .attribute(ChannelDownload.ATTRIBUTE, download)
+ *             .retrieve()
+ *             .toBodilessEntity();
+ *     long size = download.transferred();
+ * }
+ * }</pre>
+ * <p>
+ * The body is copied through pooled {@value #BUFFER_SIZE}-byte buffers, written to a {@link FileChannel}
+ * by position, instead of being handed to the caller as a stream. As the transfer is part of the attempt,
+ * a body that fails half-way is an error the circuit breaker records and retry may retry. A failed
+ * transfer resumes where it stopped, up to {@link #maxResumes(int)} times within an attempt and again in
+ * each retry or later call with the same download: with a {@code Range} request guarded by
+ * {@code If-Range} when the first response had a strong {@code ETag} or a {@code Last-Modified} date, or
+ * by skipping what was already written otherwise. If the resource changed meanwhile, a file download
+ * starts over and a channel download fails.
+ * <p>
+ * Error responses are returned as they are, with their bodies; successful ones are returned with an
+ * empty body once transferred, so the caller reads the outcome from {@link #transferred()}. Downloads
+ * ask for the identity encoding, so offsets are those of the resource, and are never hedged. A download
+ * is single-use per channel; concurrent attempts fail instead of interleaving their writes.
+ */
+public final class ChannelDownload {
+
+    /**
+     * Name of the request attribute holding the download.
+     */
+    public static final String ATTRIBUTE = ChannelDownload.class.getName();
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final BlockingQueue<byte[]> BUFFERS = new ArrayBlockingQueue<>(16);
+
+    private final WritableByteChannel channel;
+    private final long start;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int maxResumes = 3;
+    private volatile long transferred;
+    private volatile int resumes;
+    private String validator;
+
+    private ChannelDownload(WritableByteChannel channel, long start) {
+        this.channel = channel;
+        this.start = start;
+    }
+
+    /**
+     * @return a download writing to {@code file} from its current position; the position is moved past the
+     *     body once it is complete
+     */
+    public static ChannelDownload to(FileChannel file) throws IOException {
+        Objects.requireNonNull(file, "file");
+        return new ChannelDownload(file, file.position());
+    }
+
+    /**
+     * @return a download writing to {@code channel} in sequence
+     */
+    public static ChannelDownload to(WritableByteChannel channel) {
+        Objects.requireNonNull(channel, "channel");
+        return new ChannelDownload(channel, 0);
+    }
+
+    /**
+     * Sets how often a transfer that failed is resumed within one attempt, {@code 3} by default.
+     */
+    public ChannelDownload maxResumes(int maxResumes) {
+        if (maxResumes < 0) {
+            throw new IllegalArgumentException("Max resumes must not be negative");
+        }
+        this.maxResumes = maxResumes;
+        return this;
+    }
+
+    /**
+     * @return the bytes of the body written to the channel so far
+     */
+    public long transferred() {
+        return transferred;
+    }
+
+    /**
+     * @return how often the transfer was resumed
+     */
+    public int resumes() {
+        return resumes;
+    }
+
+    /**
+     * Executes {@code request}, continuing a previous transfer, and transfers the body of a successful
+     * response. Resumed exchanges are sent through {@code ranges}.
+     */
+    ClientHttpResponse receive(ClientHttpRequest request, RangeRequests ranges) throws IOException {
+        if (!lock.tryLock()) {
+            throw new IOException("Download to " + channel + " is already in progress");
+        }
+        try {
+            long offset = transferred;
+            prepare(request.getHeaders(), offset);
+            ClientHttpResponse response = request.execute();
+            int resumed = 0;
+            while (true) {
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    return response;
+                }
+                try {
+                    transfer(response, offset);
+                    return new TransferredResponse(response);
+                } catch (IOException ex) {
+                    response.close();
+                    if (resumed++ >= maxResumes) {
+                        throw ex;
+                    }
+                    resumes++;
+                    offset = transferred;
+                    response = ranges.execute(headers -> prepare(headers, transferred));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void prepare(HttpHeaders headers, long offset) {
+        if (!headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, "identity");
+        }
+        if (offset > 0 && validator != null) {
+            headers.set(HttpHeaders.RANGE, "bytes=" + offset + "-");
+            headers.set(HttpHeaders.IF_RANGE, validator);
+        }
+    }
+
+    private void transfer(ClientHttpResponse response, long offset) throws IOException {
+        HttpHeaders headers = response.getHeaders();
+        String current = validator(headers);
+        long skip = 0;
+        if (offset > 0) {
+            if (response.getStatusCode().value() == HttpStatus.PARTIAL_CONTENT.value()) {
+                long rangeStart = rangeStart(headers.getFirst(HttpHeaders.CONTENT_RANGE));
+                if (rangeStart != offset) {
+                    throw new IOException("Expected a range from " + offset + ", got " + rangeStart);
+                }
+            } else if (validator != null && current != null && !validator.equals(current)) {
+                restart();
+            } else {
+                // the server sent the whole body again
+                skip = offset;
+            }
+        }
+        if (validator == null) {
+            validator = current;
+        }
+        boolean complete = false;
+        byte[] buffer = acquire();
+        try (InputStream in = response.getBody()) {
+            ByteBuffer chunk = ByteBuffer.wrap(buffer);
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                int from = (int) Math.min(skip, read);
+                skip -= from;
+                if (from < read) {
+                    write(chunk.limit(read).position(from));
+                    transferred += read - from;
+                }
+            }
+            if (skip > 0) {
+                throw new IOException("Body ended " + skip + " bytes before the resumed position");
+            }
+            complete = true;
+        } finally {
+            release(buffer);
+            if (complete && channel instanceof FileChannel file) {
+                file.position(start + transferred);
+            }
+        }
+    }
+
+    private void write(ByteBuffer chunk) throws IOException {
+        if (channel instanceof FileChannel file) {
+            long position = start + transferred;
+            while (chunk.hasRemaining()) {
+                position += file.write(chunk, position);
+            }
+        } else {
+            while (chunk.hasRemaining()) {
+                channel.write(chunk);
+            }
+        }
+    }
+
+    private void restart() throws IOException {
+        if (!(channel instanceof FileChannel file)) {
+            throw new IOException("Resource changed after " + transferred + " bytes were written to " + channel);
+        }
+        file.truncate(start);
+        transferred = 0;
+        validator = null;
+    }
+
+    /**
+     * @return a strong {@code ETag}, else the {@code Last-Modified} date, else {@code null}
+     */
+    private static String validator(HttpHeaders headers) {
+        String etag = headers.getETag();
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return headers.getFirst(HttpHeaders.LAST_MODIFIED);
+    }
+
+    private static long rangeStart(String contentRange) throws IOException {
+        // bytes <first>-<last>/<length>
+        if (contentRange != null && contentRange.startsWith("bytes ")) {
+            int dash = contentRange.indexOf('-', 6);
+            if (dash > 6) {
+                try {
+                    return Long.parseLong(contentRange.substring(6, dash).trim());
+                } catch (NumberFormatException ex) {
+                    // reported below
+                }
+            }
+        }
+        throw new IOException("Invalid Content-Range: " + contentRange);
+    }
+
+    private static byte[] acquire() {
+        byte[] buffer = BUFFERS.poll();
+        return buffer != null ? buffer : new byte[BUFFER_SIZE];
+    }
+
+    private static void release(byte[] buffer) {
+        BUFFERS.offer(buffer);
+    }
+
+    /**
+     * Sends another exchange of the same request, with headers prepared by the download.
+     */
+    @FunctionalInterface
+    interface RangeRequests {
+
+        ClientHttpResponse execute(Consumer<HttpHeaders> headers) throws IOException;
+    }
+
+    /**
+     * The response of a transferred body: status and headers as received, an empty body.
+     */
+    private static final class TransferredResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+
+        TransferredResponse(ClientHttpResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public void close() {
+            response.close();
+        }
+    }
+}
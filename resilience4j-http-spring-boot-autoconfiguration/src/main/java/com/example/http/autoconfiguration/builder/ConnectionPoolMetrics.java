@@ -0,0 +1,409 @@
+package com.example.http.autoconfiguration.builder;
+
+import com.example.http.client.builder.AdaptivePoolSizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.client5.http.nio.AsyncClientConnectionManager;
+import org.apache.hc.client5.http.nio.AsyncConnectionEndpoint;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.ConnPoolStats;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Publishes a client's connection pool to Micrometer, so saturation shows before calls start failing
+ * with connection-request timeouts.
+ * <p>
+ * Gauges are read from the pool when scraped: {@code http.client.pool.connections} by {@code state}
+ * (leased, available, pending) and {@code http.client.pool.max} for the whole pool, and the same per
+ * {@code route} as {@code http.client.pool.route.*} once the client leased a connection to it. The max is
+ * {@code 0} when the pool has no total limit ({@code LAX} concurrency policy). The
+ * {@code http.client.pool.lease} timer records how long each lease waited, by {@code outcome}. Pools sized
+ * by an {@link AdaptivePoolSizer} count every limit change as {@code http.client.pool.resize}, by
+ * {@code route} and {@code direction} (up, down).
+ * <p>
+ * Lease times come from wrapping the client's connection manager ({@link #decorate}); the wrapper
+ * forwards everything else, including the pool controls the idle-connection evictor relies on. Clients
+ * of a shared pool each report the whole shared pool, with their own route limits.
+ */
+final class ConnectionPoolMetrics implements MeterBinder {
+
+    static final String CONNECTIONS = "http.client.pool.connections";
+    static final String MAX = "http.client.pool.max";
+    static final String ROUTE_CONNECTIONS = "http.client.pool.route.connections";
+    static final String ROUTE_MAX = "http.client.pool.route.max";
+    static final String LEASE = "http.client.pool.lease";
+    static final String RESIZE = "http.client.pool.resize";
+
+    private final String clientName;
+    private final ConnPoolControl<HttpRoute> control;
+    private final ConnPoolStats<HttpRoute> stats;
+    private final Set<HttpRoute> routes = ConcurrentHashMap.newKeySet();
+    private volatile MeterRegistry registry;
+    private volatile Timer acquired;
+    private volatile Timer timedOut;
+    private volatile Timer cancelled;
+    private volatile Timer failed;
+
+    <P extends ConnPoolControl<HttpRoute> & ConnPoolStats<HttpRoute>> ConnectionPoolMetrics(String clientName, P pool) {
+        this.clientName = String.valueOf(clientName);
+        this.control = pool;
+        this.stats = pool;
+    }
+
+    /**
+     * Wraps {@code manager} so its pool is published to {@code registry}; returns it unchanged when there
+     * is no registry or the manager exposes no pool statistics.
+     */
+    static HttpClientConnectionManager decorate(
+            HttpClientConnectionManager manager, String clientName, MeterRegistry registry) {
+        ConnectionPoolMetrics metrics = bind(manager, clientName, registry);
+        if (metrics != null && manager instanceof AdaptivePoolSizer sizer) {
+            sizer.setResizeListener(metrics::resized);
+        }
+        return metrics != null ? new Classic(manager, metrics) : manager;
+    }
+
+    /**
+     * Async counterpart of {@link #decorate(HttpClientConnectionManager, String, MeterRegistry)}.
+     */
+    static AsyncClientConnectionManager decorate(
+            AsyncClientConnectionManager manager, String clientName, MeterRegistry registry) {
+        ConnectionPoolMetrics metrics = bind(manager, clientName, registry);
+        return metrics != null ? new Async(manager, metrics) : manager;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConnectionPoolMetrics bind(Object manager, String clientName, MeterRegistry registry) {
+        if (registry == null || !(manager instanceof ConnPoolControl<?>) || !(manager instanceof ConnPoolStats<?>)) {
+            return null;
+        }
+        ConnectionPoolMetrics metrics =
+                new ConnectionPoolMetrics(clientName, (ConnPoolControl<HttpRoute> & ConnPoolStats<HttpRoute>) manager);
+        metrics.bindTo(registry);
+        return metrics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Tags tags = Tags.of("client", clientName);
+        gauges(registry, CONNECTIONS, tags, s -> s.getTotalStats());
+        Gauge.builder(MAX, control, ConnPoolControl::getMaxTotal)
+                .description("Maximum connections of the pool")
+                .tags(tags)
+                .register(registry);
+
+        this.acquired = timer(registry, tags, "acquired");
+        this.timedOut = timer(registry, tags, "timeout");
+        this.cancelled = timer(registry, tags, "cancelled");
+        this.failed = timer(registry, tags, "failed");
+        this.registry = registry;
+        routes.forEach(this::bindRoute);
+    }
+
+    /**
+     * Records a lease of a connection to {@code route} that started at {@code startNanos}.
+     */
+    void leased(HttpRoute route, long startNanos, Throwable failure) {
+        if (routes.add(route) && registry != null) {
+            bindRoute(route);
+        }
+
+        Timer timer = failure == null
+                ? acquired
+                : failure instanceof TimeoutException
+                        ? timedOut
+                        : failure instanceof CancellationException ? cancelled : failed;
+        if (timer != null) {
+            timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Records a change of the connection limit of {@code route}.
+     */
+    void resized(HttpRoute route, int previousMax, int newMax) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry != null && newMax != previousMax) {
+            Counter.builder(RESIZE)
+                    .description("Connection limit changes made by adaptive pool sizing")
+                    .tags(
+                            "client",
+                            clientName,
+                            "route",
+                            route.getTargetHost().toURI(),
+                            "direction",
+                            newMax > previousMax ? "up" : "down")
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    private void bindRoute(HttpRoute route) {
+        Tags tags = Tags.of("client", clientName, "route", route.getTargetHost().toURI());
+        gauges(registry, ROUTE_CONNECTIONS, tags, s -> s.getStats(route));
+        Gauge.builder(ROUTE_MAX, control, c -> c.getMaxPerRoute(route))
+                .description("Maximum connections of the client to the route")
+                .tags(tags)
+                .register(registry);
+    }
+
+    private void gauges(
+            MeterRegistry registry, String name, Tags tags, Function<ConnPoolStats<HttpRoute>, PoolStats> poolStats) {
+        Gauge.builder(name, stats, s -> poolStats.apply(s).getLeased())
+                .description("Pooled connections by state")
+                .tags(tags.and("state", "leased"))
+                .register(registry);
+        Gauge.builder(name, stats, s -> poolStats.apply(s).getAvailable())
+                .description("Pooled connections by state")
+                .tags(tags.and("state", "available"))
+                .register(registry);
+        Gauge.builder(name, stats, s -> poolStats.apply(s).getPending())
+                .description("Pooled connections by state")
+                .tags(tags.and("state", "pending"))
+                .register(registry);
+    }
+
+    private static Timer timer(MeterRegistry registry, Tags tags, String outcome) {
+        return Timer.builder(LEASE)
+                .description("Time spent waiting for a pooled connection")
+                .tags(tags.and("outcome", outcome))
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Pool controls and statistics forwarded to the decorated connection manager.
+     */
+    private abstract static class ForwardingPool implements ConnPoolControl<HttpRoute>, ConnPoolStats<HttpRoute> {
+
+        final ConnectionPoolMetrics metrics;
+
+        ForwardingPool(ConnectionPoolMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void setMaxTotal(int max) {
+            metrics.control.setMaxTotal(max);
+        }
+
+        @Override
+        public int getMaxTotal() {
+            return metrics.control.getMaxTotal();
+        }
+
+        @Override
+        public void setDefaultMaxPerRoute(int max) {
+            metrics.control.setDefaultMaxPerRoute(max);
+        }
+
+        @Override
+        public int getDefaultMaxPerRoute() {
+            return metrics.control.getDefaultMaxPerRoute();
+        }
+
+        @Override
+        public void setMaxPerRoute(HttpRoute route, int max) {
+            metrics.control.setMaxPerRoute(route, max);
+        }
+
+        @Override
+        public int getMaxPerRoute(HttpRoute route) {
+            return metrics.control.getMaxPerRoute(route);
+        }
+
+        @Override
+        public void closeIdle(TimeValue idleTime) {
+            metrics.control.closeIdle(idleTime);
+        }
+
+        @Override
+        public void closeExpired() {
+            metrics.control.closeExpired();
+        }
+
+        @Override
+        public Set<HttpRoute> getRoutes() {
+            return metrics.control.getRoutes();
+        }
+
+        @Override
+        public PoolStats getTotalStats() {
+            return metrics.stats.getTotalStats();
+        }
+
+        @Override
+        public PoolStats getStats(HttpRoute route) {
+            return metrics.stats.getStats(route);
+        }
+    }
+
+    private static final class Classic extends ForwardingPool implements HttpClientConnectionManager {
+
+        private final HttpClientConnectionManager delegate;
+
+        Classic(HttpClientConnectionManager delegate, ConnectionPoolMetrics metrics) {
+            super(metrics);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+            long start = System.nanoTime();
+            LeaseRequest request = delegate.lease(id, route, requestTimeout, state);
+            return new LeaseRequest() {
+                @Override
+                public ConnectionEndpoint get(Timeout timeout)
+                        throws InterruptedException, ExecutionException, TimeoutException {
+                    try {
+                        ConnectionEndpoint endpoint = request.get(timeout);
+                        metrics.leased(route, start, null);
+                        return endpoint;
+                    } catch (InterruptedException | ExecutionException | TimeoutException | RuntimeException ex) {
+                        metrics.leased(route, start, ex);
+                        throw ex;
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return request.cancel();
+                }
+            };
+        }
+
+        @Override
+        public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+            delegate.release(endpoint, newState, validDuration);
+        }
+
+        @Override
+        public void connect(ConnectionEndpoint endpoint, TimeValue connectTimeout, HttpContext context)
+                throws IOException {
+            delegate.connect(endpoint, connectTimeout, context);
+        }
+
+        @Override
+        public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+            delegate.upgrade(endpoint, context);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public void close(CloseMode closeMode) {
+            delegate.close(closeMode);
+        }
+    }
+
+    private static final class Async extends ForwardingPool implements AsyncClientConnectionManager {
+
+        private final AsyncClientConnectionManager delegate;
+
+        Async(AsyncClientConnectionManager delegate, ConnectionPoolMetrics metrics) {
+            super(metrics);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Future<AsyncConnectionEndpoint> lease(
+                String id,
+                HttpRoute route,
+                Object state,
+                Timeout requestTimeout,
+                FutureCallback<AsyncConnectionEndpoint> callback) {
+            long start = System.nanoTime();
+            return delegate.lease(id, route, state, requestTimeout, new FutureCallback<>() {
+                @Override
+                public void completed(AsyncConnectionEndpoint endpoint) {
+                    metrics.leased(route, start, null);
+                    if (callback != null) {
+                        callback.completed(endpoint);
+                    }
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    metrics.leased(route, start, ex);
+                    if (callback != null) {
+                        callback.failed(ex);
+                    }
+                }
+
+                @Override
+                public void cancelled() {
+                    metrics.leased(route, start, new CancellationException());
+                    if (callback != null) {
+                        callback.cancelled();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void release(AsyncConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+            delegate.release(endpoint, newState, validDuration);
+        }
+
+        @Override
+        public Future<AsyncConnectionEndpoint> connect(
+                AsyncConnectionEndpoint endpoint,
+                ConnectionInitiator connectionInitiator,
+                Timeout connectTimeout,
+                Object attachment,
+                HttpContext context,
+                FutureCallback<AsyncConnectionEndpoint> callback) {
+            return delegate.connect(endpoint, connectionInitiator, connectTimeout, attachment, context, callback);
+        }
+
+        @Override
+        public void upgrade(AsyncConnectionEndpoint endpoint, Object attachment, HttpContext context) {
+            delegate.upgrade(endpoint, attachment, context);
+        }
+
+        @Override
+        public void upgrade(
+                AsyncConnectionEndpoint endpoint,
+                Object attachment,
+                HttpContext context,
+                FutureCallback<AsyncConnectionEndpoint> callback) {
+            delegate.upgrade(endpoint, attachment, context, callback);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public void close(CloseMode closeMode) {
+            delegate.close(closeMode);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.http.autoconfiguration.builder;
+
+import com.example.http.autoconfiguration.property.RestClientProperties;
+import com.example.http.client.builder.HttpClientConfigurer;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Opens a client's connections to its base URL ahead of the first call.
+ * <p>
+ * Each connection is leased, connected (TLS handshake included) and held on its own daemon thread until
+ * all of them settled, so the pool hands out distinct connections, and is then released to the pool to be
+ * kept alive. Failures are logged and leave the remaining connections to be opened on demand.
+ */
+@Slf4j
+final class ConnectionPrewarmer {
+
+    private ConnectionPrewarmer() {}
+
+    /**
+     * Starts prewarming and returns the number of connections parked in the pool; the future completes
+     * normally once every connection settled or {@code timeout} elapsed, whichever comes first.
+     */
+    static CompletableFuture<Integer> start(
+            String clientName,
+            String baseUrl,
+            HttpClientConnectionManager manager,
+            RestClientProperties.Prewarm prewarm) {
+
+        HttpRoute route;
+        try {
+            route = HttpClientConfigurer.route(baseUrl);
+        } catch (RuntimeException ex) {
+            log.warn("Not prewarming client '{}': cannot route to base URL '{}'", clientName, baseUrl, ex);
+            return CompletableFuture.completedFuture(0);
+        }
+
+        int connections = prewarm.getConnections();
+        if (manager instanceof ConnPoolControl<?>) {
+            @SuppressWarnings("unchecked")
+            ConnPoolControl<HttpRoute> control = (ConnPoolControl<HttpRoute>) manager;
+            connections = Math.min(connections, control.getMaxPerRoute(route));
+        }
+        if (connections <= 0) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        Duration timeout = prewarm.getTimeout();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        CountDownLatch settled = new CountDownLatch(connections);
+        AtomicInteger parked = new AtomicInteger();
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[connections];
+        for (int i = 0; i < connections; i++) {
+            CompletableFuture<Void> task = new CompletableFuture<>();
+            String id = "prewarm-" + clientName + "-" + i;
+            Thread thread = new Thread(
+                    () -> {
+                        try {
+                            if (warm(manager, route, id, deadline, settled)) {
+                                parked.incrementAndGet();
+                            }
+                        } finally {
+                            task.complete(null);
+                        }
+                    },
+                    id);
+            thread.setDaemon(true);
+            thread.start();
+            tasks[i] = task;
+        }
+
+        int requested = connections;
+        long start = System.nanoTime();
+        return CompletableFuture.allOf(tasks)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((ignored, ex) -> {
+                    int count = parked.get();
+                    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    if (count < requested) {
+                        log.warn(
+                                "Prewarmed {} of {} connections to {} for client '{}' in {} ms",
+                                count,
+                                requested,
+                                route.getTargetHost(),
+                                clientName,
+                                elapsedMillis);
+                    } else {
+                        log.info(
+                                "Prewarmed {} connections to {} for client '{}' in {} ms",
+                                count,
+                                route.getTargetHost(),
+                                clientName,
+                                elapsedMillis);
+                    }
+                    return count;
+                });
+    }
+
+    private static boolean warm(
+            HttpClientConnectionManager manager, HttpRoute route, String id, long deadline, CountDownLatch settled) {
+        ConnectionEndpoint endpoint = null;
+        boolean connected = false;
+        try {
+            Timeout remaining = remaining(deadline);
+            endpoint = manager.lease(id, route, remaining, null).get(remaining);
+            if (!endpoint.isConnected()) {
+                manager.connect(endpoint, null, HttpClientContext.create());
+            }
+            connected = true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            log.debug("Prewarming connection {} to {} failed", id, route.getTargetHost(), ex);
+        } finally {
+            settled.countDown();
+        }
+
+        if (endpoint == null) {
+            return false;
+        }
+        try {
+            if (connected) {
+                // hold on until the others settled so that no two leases share a connection
+                settled.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // a null keep-alive closes the connection; a negative one keeps it until it expires or idles out
+            manager.release(endpoint, null, connected ? TimeValue.NEG_ONE_MILLISECOND : null);
+        }
+        return connected;
+    }
+
+    private static Timeout remaining(long deadline) {
+        return Timeout.ofMilliseconds(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.http.autoconfiguration.builder;
+
+import com.example.http.autoconfiguration.property.RestClientProperties;
+import io.github.resilience4j.core.functions.CheckedFunction;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Time bounds for a call: a total budget across all attempts and back-off, and a timeout per attempt.
+ * <p>
+ * The {@link #total} part is the {@code DEADLINE} stage; it starts the budget when the call enters it.
+ * The {@link #perAttempt} part sits directly around the exchange and arms a watchdog for the smaller of
+ * the attempt timeout and the remaining budget. When the watchdog fires it aborts the in-flight Apache
+ * exchange through the attempt's {@link ExchangeAbortHandle}, which releases the connection, and the
+ * attempt fails with a {@link TimeoutException}. The attempt finishes its handle before its response is
+ * returned; if the watchdog got there first, the response's request is already cancelled, so the
+ * response is discarded and the attempt times out as well. No extra thread carries the call itself.
+ * <p>
+ * While a call is bound to the thread, {@link #remainingMillis()} exposes what is left of its budget to the
+ * retry interval function, so a retry whose back-off would overrun the deadline is not attempted.
+ */
+final class DeadlineStage {
+
+    private final Duration total;
+    private final Duration perAttempt;
+    private final ScheduledThreadPoolExecutor watchdog;
+
+    DeadlineStage(RestClientProperties.Deadline props, String clientName) {
+        this.total = positive(props.getTotal());
+        this.perAttempt = positive(props.getPerAttempt());
+
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("deadline-" + clientName + "-");
+        threads.setDaemon(true);
+        this.watchdog = new ScheduledThreadPoolExecutor(1, threads);
+        this.watchdog.setRemoveOnCancelPolicy(true);
+    }
+
+    CheckedFunction<ResilientExchange, ClientHttpResponse> total(
+            CheckedFunction<ResilientExchange, ClientHttpResponse> fn) {
+        if (total == null) {
+            return fn;
+        }
+        long totalNanos = total.toNanos();
+        return exchange -> {
+            exchange.deadline(System.nanoTime() + totalNanos);
+            return fn.apply(exchange);
+        };
+    }
+
+    CheckedFunction<ResilientExchange, ClientHttpResponse> perAttempt(
+            CheckedFunction<ResilientExchange, ClientHttpResponse> fn) {
+        long attemptNanos = perAttempt != null ? perAttempt.toNanos() : Long.MAX_VALUE;
+        return exchange -> {
+            long timeout = attemptNanos;
+            boolean byDeadline = false;
+            if (exchange.hasDeadline()) {
+                long remaining = exchange.remainingNanos();
+                if (remaining <= 0) {
+                    throw new TimeoutException("Call deadline of " + total + " exceeded");
+                }
+                if (remaining < timeout) {
+                    timeout = remaining;
+                    byDeadline = true;
+                }
+            }
+            if (timeout == Long.MAX_VALUE) {
+                return fn.apply(exchange);
+            }
+
+            ExchangeAbortHandle handle = new ExchangeAbortHandle();
+            ScheduledFuture<?> timer = watchdog.schedule(handle::abort, timeout, TimeUnit.NANOSECONDS);
+            ClientHttpResponse response;
+            try {
+                response = handle.call(fn, exchange);
+            } catch (Throwable t) {
+                timer.cancel(false);
+                if (!handle.finish()) {
+                    throw timedOut(byDeadline, t);
+                }
+                throw t;
+            }
+            timer.cancel(false);
+            if (!handle.finish()) {
+                // the watchdog cancelled the request before its response was handed on
+                ResponseDrainer.abort(response);
+                throw timedOut(byDeadline, null);
+            }
+            return response;
+        };
+    }
+
+    private TimeoutException timedOut(boolean byDeadline, Throwable cause) {
+        TimeoutException timedOut = new TimeoutException(
+                byDeadline ? "Call deadline of " + total + " exceeded" : "Attempt timed out after " + perAttempt);
+        if (cause != null) {
+            timedOut.initCause(cause);
+        }
+        return timedOut;
+    }
+
+    /**
+     * Stops the watchdog thread; called once the client is drained.
+     */
+    void close() {
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * @return what is left of the current call's budget in milliseconds (at least {@code 0}), or
+     *     {@code -1} if the call on this thread has no deadline
+     */
+    static long remainingMillis() {
+        ResilientExchange exchange = ResilientExchange.current();
+        if (exchange == null || !exchange.hasDeadline()) {
+            return -1L;
+        }
+        return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(exchange.remainingNanos()));
+    }
+
+    private static Duration positive(Duration duration) {
+        return duration != null && !duration.isNegative() && !duration.isZero() ? duration : null;
+    }
+}
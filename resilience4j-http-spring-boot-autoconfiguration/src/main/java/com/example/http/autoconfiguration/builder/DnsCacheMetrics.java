@@ -0,0 +1,53 @@
+package com.example.http.autoconfiguration.builder;
+
+import com.example.http.client.builder.CachingDnsResolver;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes a client's {@link CachingDnsResolver} to Micrometer: {@code http.client.dns.lookups} counts
+ * host lookups by {@code result} (hit when answered from the cache, miss when it waited for DNS), and
+ * {@code http.client.dns.cache.size} is the number of hosts cached.
+ */
+final class DnsCacheMetrics implements MeterBinder {
+
+    static final String LOOKUPS = "http.client.dns.lookups";
+    static final String SIZE = "http.client.dns.cache.size";
+
+    private final String clientName;
+    private final CachingDnsResolver resolver;
+
+    DnsCacheMetrics(String clientName, CachingDnsResolver resolver) {
+        this.clientName = String.valueOf(clientName);
+        this.resolver = resolver;
+    }
+
+    /**
+     * Binds {@code resolver} to {@code registry} unless either is {@code null}.
+     */
+    static void bind(String clientName, CachingDnsResolver resolver, MeterRegistry registry) {
+        if (resolver != null && registry != null) {
+            new DnsCacheMetrics(clientName, resolver).bindTo(registry);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Tags tags = Tags.of("client", clientName);
+        FunctionCounter.builder(LOOKUPS, resolver, CachingDnsResolver::hits)
+                .tags(tags.and("result", "hit"))
+                .description("Host lookups answered from the DNS cache")
+                .register(registry);
+        FunctionCounter.builder(LOOKUPS, resolver, CachingDnsResolver::misses)
+                .tags(tags.and("result", "miss"))
+                .description("Host lookups that waited for DNS")
+                .register(registry);
+        Gauge.builder(SIZE, resolver, CachingDnsResolver::size)
+                .tags(tags)
+                .description("Hosts in the DNS cache")
+                .register(registry);
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.http.autoconfiguration.builder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Request factory that counts a client's exchanges in flight, from {@code execute()} until the response is
+ * closed, so {@link RestClientLifecycle} can let them complete before closing the client's connections.
+ * <p>
+ * After {@link #shutdown()} no exchange starts any more: creating or executing a request fails with an
+ * {@link IOException}, which {@code RestClient} reports as a {@code ResourceAccessException}. Retries and
+ * hedges are exchanges of their own, so a call in flight cannot outlive the drain with new attempts.
+ */
+final class DrainingClientHttpRequestFactory implements ClientHttpRequestFactory, AutoCloseable {
+
+    private final String clientName;
+    private final ClientHttpRequestFactory delegate;
+    private final Object lock = new Object();
+    private int inFlight;
+    private boolean shutdown;
+
+    DrainingClientHttpRequestFactory(String clientName, ClientHttpRequestFactory delegate) {
+        this.clientName = clientName;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        synchronized (lock) {
+            if (shutdown) {
+                throw refused();
+            }
+        }
+        ClientHttpRequest request = delegate.createRequest(uri, httpMethod);
+        return request instanceof StreamingHttpOutputMessage
+                ? new StreamingDrainingRequest(request)
+                : new DrainingRequest(request);
+    }
+
+    /**
+     * Refuses exchanges from now on; the ones in flight continue.
+     */
+    void shutdown() {
+        synchronized (lock) {
+            shutdown = true;
+        }
+    }
+
+    /**
+     * Waits until no exchange is in flight or {@code deadlineNanos} (of {@link System#nanoTime()}) passed.
+     *
+     * @return {@code true} if the client is drained
+     */
+    boolean awaitDrained(long deadlineNanos) throws InterruptedException {
+        synchronized (lock) {
+            while (inFlight > 0) {
+                long remaining = deadlineNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+            return true;
+        }
+    }
+
+    int inFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    /**
+     * Closes the wrapped factory and with it the client's connection manager, aborting what is still in
+     * flight.
+     */
+    @Override
+    public void close() throws Exception {
+        shutdown();
+        if (delegate instanceof DisposableBean disposable) {
+            disposable.destroy();
+        } else if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private void acquire() throws IOException {
+        synchronized (lock) {
+            if (shutdown) {
+                throw refused();
+            }
+            inFlight++;
+        }
+    }
+
+    private void release() {
+        synchronized (lock) {
+            if (--inFlight == 0) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private IOException refused() {
+        return new IOException("Client '" + clientName + "' is shut down");
+    }
+
+    private class DrainingRequest implements ClientHttpRequest {
+
+        final ClientHttpRequest request;
+
+        DrainingRequest(ClientHttpRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            acquire();
+            try {
+                return new DrainingResponse(request.execute());
+            } catch (IOException | RuntimeException | Error ex) {
+                release();
+                throw ex;
+            }
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return request.getBody();
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return request.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return request.getAttributes();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.getHeaders();
+        }
+    }
+
+    /**
+     * Keeps the streaming body support of the wrapped request, so bodies are not buffered on its behalf.
+     */
+    private final class StreamingDrainingRequest extends DrainingRequest implements StreamingHttpOutputMessage {
+
+        StreamingDrainingRequest(ClientHttpRequest request) {
+            super(request);
+        }
+
+        @Override
+        public void setBody(Body body) {
+            ((StreamingHttpOutputMessage) request).setBody(body);
+        }
+    }
+
+    private final class DrainingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        DrainingResponse(ClientHttpResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                if (closed.compareAndSet(false, true)) {
+                    release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.http.autoconfiguration.builder;
+
+import io.github.resilience4j.core.functions.CheckedFunction;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Lets another thread abort the Apache HttpClient exchange of one attempt.
+ * <p>
+ * The attempt runs through Spring's request execution, which creates the underlying request deep
+ * inside the request factory. {@link #call} binds the handle to the current thread for the duration
+ * of the attempt and {@link AbortableClientHttpRequestFactory} attaches the request it creates (the
+ * async and jdk engines' factories attach their pending exchanges), so
+ * {@link #abort()} can cancel it: a pending exchange fails fast and an in-flight one has its
+ * connection shut down instead of returned to the pool.
+ * <p>
+ * Handles nest: a request attached while a handle is bound inside another one is attached to both,
+ * so e.g. a hedged attempt can be aborted by the hedging stage and by its own timeout.
+ * <p>
+ * {@link #abort()} and {@link #finish()} exclude each other: whichever runs first wins, so a request whose
+ * response was handed on is never cancelled, and an aborted attempt never counts as finished.
+ * <p>
+ * With any other request factory nothing is attached and {@link #abort()} has no effect.
+ */
+final class ExchangeAbortHandle {
+
+    private static final ThreadLocal<ExchangeAbortHandle> CURRENT = new ThreadLocal<>();
+
+    private static final int RUNNING = 0;
+    private static final int FINISHED = 1;
+    private static final int ABORTED = 2;
+
+    private final AtomicReference<Cancellable> request = new AtomicReference<>();
+    private final AtomicInteger state = new AtomicInteger(RUNNING);
+    private ExchangeAbortHandle parent;
+
+    /**
+     * Runs {@code attempt} with this handle bound to the current thread.
+     */
+    <R> R call(CheckedFunction<ResilientExchange, R> attempt, ResilientExchange exchange) throws Throwable {
+        ExchangeAbortHandle previous = bind();
+        try {
+            return attempt.apply(exchange);
+        } finally {
+            unbind(previous);
+        }
+    }
+
+    /**
+     * Sends {@code exchange} with this handle bound to the current thread.
+     */
+    ClientHttpResponse execute(ResilientExchange exchange) throws IOException {
+        ExchangeAbortHandle previous = bind();
+        try {
+            return exchange.execute();
+        } finally {
+            unbind(previous);
+        }
+    }
+
+    private ExchangeAbortHandle bind() {
+        ExchangeAbortHandle previous = CURRENT.get();
+        if (previous != this) {
+            parent = previous;
+        }
+        CURRENT.set(this);
+        return previous;
+    }
+
+    private static void unbind(ExchangeAbortHandle previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Cancels the attached request, and any attached later, unless the attempt finished first.
+     *
+     * @return whether this call aborted the attempt
+     */
+    boolean abort() {
+        if (!state.compareAndSet(RUNNING, ABORTED)) {
+            return false;
+        }
+        Cancellable current = request.get();
+        if (current != null) {
+            current.cancel();
+        }
+        return true;
+    }
+
+    /**
+     * Marks the attempt as complete unless it was aborted first; a later {@link #abort()} no longer touches
+     * the request, whose response may still be in use.
+     *
+     * @return {@code false} if the attempt was aborted
+     */
+    boolean finish() {
+        boolean finished = state.compareAndSet(RUNNING, FINISHED);
+        request.set(null);
+        return finished;
+    }
+
+    boolean isAborted() {
+        return state.get() == ABORTED;
+    }
+
+    /**
+     * Called by the request factory on the attempt's thread for every request it creates.
+     */
+    static void attachToCurrent(Cancellable cancellable) {
+        ExchangeAbortHandle handle = CURRENT.get();
+        if (handle != null) {
+            handle.attach(cancellable);
+        }
+    }
+
+    private void attach(Cancellable cancellable) {
+        request.set(cancellable);
+        // abort() may have run before the request existed
+        if (isAborted()) {
+            cancellable.cancel();
+        }
+        if (parent != null) {
+            parent.attach(cancellable);
+        }
+    }
+}
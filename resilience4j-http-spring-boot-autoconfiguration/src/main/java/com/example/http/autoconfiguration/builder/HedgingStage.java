@@ -0,0 +1,262 @@
+package com.example.http.autoconfiguration.builder;
+
+import com.example.http.autoconfiguration.property.RestClientProperties;
+import io.github.resilience4j.core.functions.CheckedFunction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Sends a second, identical attempt when the first one has not completed within a delay, and keeps
+ * whichever succeeds first.
+ * <p>
+ * The first attempt runs on the caller's thread; the hedge runs on a pooled thread and therefore on
+ * its own pooled connection. When one attempt succeeds, the other is aborted through its
+ * {@link ExchangeAbortHandle} so its connection is released immediately, and a response that arrives
+ * too late is closed without reading it. A failed attempt does not decide the call while the other
+ * one is still running.
+ * <p>
+ * The delay is either fixed or the observed p95 of the client's attempts. Hedges are paid for from a
+ * {@link RatioBudget}, so they add at most the configured share of extra load and stop entirely when
+ * every call is slow, e.g. during an outage. At most {@code maxConcurrent} hedges run at a time; a
+ * hedge that finds every hedge thread busy is skipped. Only idempotent methods may be hedged, and
+ * {@link ChannelDownload}s never are.
+ */
+final class HedgingStage {
+
+    static final String METRIC = "http.client.hedge";
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE", "PUT", "DELETE");
+    private static final double PERCENTILE = 0.95;
+    private static final int MIN_SAMPLES = 20;
+    private static final int MAX_BUDGET_TOKENS = 10;
+
+    private static final int PENDING = 0;
+    private static final int STARTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final Set<HttpMethod> methods;
+    private final long fixedDelayNanos;
+    private final LatencyPercentile latency;
+    private final RatioBudget budget;
+    private final ScheduledThreadPoolExecutor timer;
+    private final ThreadPoolExecutor executor;
+    private final Counter issued;
+    private final Counter won;
+    private final Counter denied;
+    private final Counter skipped;
+
+    HedgingStage(RestClientProperties.Hedging props, String clientName, MeterRegistry meterRegistry) {
+        this.methods = Set.copyOf(props.getMethods());
+        for (HttpMethod method : methods) {
+            if (!IDEMPOTENT_METHODS.contains(method.name())) {
+                throw new IllegalStateException("Hedging is only allowed for idempotent methods, not " + method
+                        + " (client " + clientName + ")");
+            }
+        }
+
+        Duration delay = props.getDelay() != null ? props.getDelay() : Duration.ZERO;
+        this.fixedDelayNanos = Math.max(0L, delay.toNanos());
+        this.latency = props.isAdaptiveDelay() ? new LatencyPercentile(PERCENTILE, MIN_SAMPLES) : null;
+        this.budget = new RatioBudget(props.getBudgetRatio(), MAX_BUDGET_TOKENS);
+
+        this.timer = new ScheduledThreadPoolExecutor(1, daemonThreads("hedge-timer-" + clientName + "-"));
+        this.timer.setRemoveOnCancelPolicy(true);
+        int maxConcurrent = Math.max(1, props.getMaxConcurrent());
+        this.executor = new ThreadPoolExecutor(
+                maxConcurrent,
+                maxConcurrent,
+                60L,
+                TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                daemonThreads("hedge-" + clientName + "-"));
+        this.executor.allowCoreThreadTimeOut(true);
+
+        this.issued = counter(meterRegistry, clientName, "issued");
+        this.won = counter(meterRegistry, clientName, "won");
+        this.denied = counter(meterRegistry, clientName, "budget_exhausted");
+        this.skipped = counter(meterRegistry, clientName, "skipped");
+    }
+
+    CheckedFunction<ResilientExchange, ClientHttpResponse> decorate(
+            CheckedFunction<ResilientExchange, ClientHttpResponse> attempt) {
+        return exchange -> methods.contains(exchange.request().getMethod())
+                        && !exchange.request().getAttributes().containsKey(ChannelDownload.ATTRIBUTE)
+                ? new HedgedCall(exchange, attempt).execute()
+                : attempt.apply(exchange);
+    }
+
+    /**
+     * Current hedge delay: the observed p95 once enough attempts were recorded, otherwise the fixed delay.
+     */
+    long delayNanos() {
+        long observed = latency != null ? latency.nanos() : -1L;
+        return observed > 0 ? observed : fixedDelayNanos;
+    }
+
+    /**
+     * Stops the hedge timer and the threads running hedged attempts; called once the client is drained.
+     */
+    void close() {
+        timer.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private static Counter counter(MeterRegistry registry, String clientName, String result) {
+        if (registry == null) {
+            return null;
+        }
+        return Counter.builder(METRIC)
+                .description("Hedged attempts by result")
+                .tag("client", String.valueOf(clientName))
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private static CustomizableThreadFactory daemonThreads(String prefix) {
+        CustomizableThreadFactory factory = new CustomizableThreadFactory(prefix);
+        factory.setDaemon(true);
+        return factory;
+    }
+
+    /**
+     * One hedged call. {@code winner} is completed by the first attempt to succeed; completing it is
+     * what decides the race, so each attempt only has to check the result of that single step.
+     */
+    private final class HedgedCall implements Runnable {
+
+        private final ResilientExchange exchange;
+        private final CheckedFunction<ResilientExchange, ClientHttpResponse> attempt;
+        private final CompletableFuture<ClientHttpResponse> winner = new CompletableFuture<>();
+        private final CompletableFuture<Void> hedgeDone = new CompletableFuture<>();
+        private final AtomicInteger hedgeState = new AtomicInteger(PENDING);
+        private final ExchangeAbortHandle primary = new ExchangeAbortHandle();
+        private final ExchangeAbortHandle hedge = new ExchangeAbortHandle();
+        private volatile Throwable hedgeFailure;
+
+        private HedgedCall(ResilientExchange exchange, CheckedFunction<ResilientExchange, ClientHttpResponse> attempt) {
+            this.exchange = exchange;
+            this.attempt = attempt;
+        }
+
+        ClientHttpResponse execute() throws Throwable {
+            budget.deposit();
+            ScheduledFuture<?> scheduled = timer.schedule(this, delayNanos(), TimeUnit.NANOSECONDS);
+
+            Throwable primaryFailure = null;
+            long start = System.nanoTime();
+            try {
+                ClientHttpResponse response = primary.call(attempt, exchange);
+                if (latency != null) {
+                    latency.record(System.nanoTime() - start);
+                }
+                if (winner.complete(response)) {
+                    if (!preventHedge(scheduled)) {
+                        hedge.abort();
+                    }
+                    return response;
+                }
+                ResponseDrainer.abort(response);
+            } catch (Throwable t) {
+                primaryFailure = t;
+            }
+
+            if (!winner.isDone() && !preventHedge(scheduled)) {
+                awaitHedge();
+            }
+            if (winner.isDone()) {
+                return winner.join();
+            }
+
+            Throwable failure = primaryFailure;
+            if (hedgeFailure != null && hedgeFailure != failure) {
+                failure.addSuppressed(hedgeFailure);
+            }
+            throw failure;
+        }
+
+        /**
+         * Timer callback: start the hedge if the call is still undecided and the budget allows it.
+         */
+        @Override
+        public void run() {
+            if (!hedgeState.compareAndSet(PENDING, STARTED)) {
+                return;
+            }
+            if (!budget.tryAcquire()) {
+                increment(denied);
+                hedgeDone.complete(null);
+                return;
+            }
+
+            try {
+                executor.execute(this::runHedge);
+                increment(issued);
+            } catch (RejectedExecutionException ex) {
+                // every hedge thread is busy, or the client is closing
+                increment(skipped);
+                hedgeDone.complete(null);
+            }
+        }
+
+        private void runHedge() {
+            try {
+                ClientHttpResponse response = hedge.call(attempt, exchange);
+                if (winner.complete(response)) {
+                    increment(won);
+                    primary.abort();
+                } else {
+                    ResponseDrainer.abort(response);
+                }
+            } catch (Throwable t) {
+                hedgeFailure = t;
+            } finally {
+                hedgeDone.complete(null);
+            }
+        }
+
+        /**
+         * @return {@code true} if no hedge is or will be in flight
+         */
+        private boolean preventHedge(ScheduledFuture<?> scheduled) {
+            scheduled.cancel(false);
+            return hedgeState.compareAndSet(PENDING, CANCELLED);
+        }
+
+        private void awaitHedge() throws InterruptedIOException {
+            try {
+                hedgeDone.get();
+            } catch (InterruptedException ex) {
+                hedge.abort();
+                Thread.currentThread().interrupt();
+                InterruptedIOException interrupted =
+                        new InterruptedIOException("Interrupted waiting for hedged attempt");
+                interrupted.initCause(ex);
+                throw interrupted;
+            } catch (ExecutionException ex) {
+                // hedgeDone is never completed exceptionally
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
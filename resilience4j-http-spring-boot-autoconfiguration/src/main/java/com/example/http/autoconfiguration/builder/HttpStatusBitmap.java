@@ -0,0 +1,75 @@
+package com.example.http.autoconfiguration.builder;
+
+import java.util.Collection;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Immutable set of HTTP status codes backed by a bitmap over the {@code 100-599} range.
+ * <p>
+ * Lookups are a shift and a mask on a {@code long[]}, so classifying a response never
+ * resolves an {@link HttpStatus} constant or touches a hashed collection.
+ */
+final class HttpStatusBitmap {
+
+    private static final int MAX_CODE = 599;
+    private static final int WORDS = (MAX_CODE >> 6) + 1;
+
+    static final HttpStatusBitmap EMPTY = new HttpStatusBitmap(new long[WORDS]);
+
+    private final long[] words;
+
+    private HttpStatusBitmap(long[] words) {
+        this.words = words;
+    }
+
+    static HttpStatusBitmap of(Collection<HttpStatus> statuses) {
+        if (statuses == null || statuses.isEmpty()) {
+            return EMPTY;
+        }
+
+        long[] words = new long[WORDS];
+        for (HttpStatus status : statuses) {
+            if (status != null) {
+                set(words, status.value());
+            }
+        }
+        return new HttpStatusBitmap(words);
+    }
+
+    /**
+     * Every {@link HttpStatus} constant in the 5xx series; unregistered codes such as {@code 599} are excluded.
+     */
+    static HttpStatusBitmap knownServerErrors() {
+        long[] words = new long[WORDS];
+        for (HttpStatus status : HttpStatus.values()) {
+            if (status.is5xxServerError()) {
+                set(words, status.value());
+            }
+        }
+        return new HttpStatusBitmap(words);
+    }
+
+    boolean contains(HttpStatusCode code) {
+        return code != null && contains(code.value());
+    }
+
+    boolean contains(int code) {
+        return code >= 0 && code <= MAX_CODE && (words[code >> 6] & (1L << code)) != 0;
+    }
+
+    boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void set(long[] words, int code) {
+        if (code >= 0 && code <= MAX_CODE) {
+            words[code >> 6] |= 1L << code;
+        }
+    }
+}
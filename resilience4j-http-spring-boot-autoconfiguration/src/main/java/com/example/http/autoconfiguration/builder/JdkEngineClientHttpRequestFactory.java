@@ -0,0 +1,160 @@
+package com.example.http.autoconfiguration.builder;
+
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+/**
+ * Request factory of the {@code jdk} engine: Spring's {@link JdkClientHttpRequestFactory} over a
+ * {@code java.net.http.HttpClient}.
+ * <p>
+ * Each exchange is attached to the {@link ExchangeAbortHandle} of the attempt sending it, so deadlines and
+ * hedging cancel it as they do Apache requests; cancelling the JDK client's response future aborts the
+ * exchange. With {@code expectContinue}, requests with a body are sent expecting {@code 100 Continue}, a
+ * header Spring's request cannot set on the JDK client. Closing the factory shuts down the executor the
+ * client runs on, when it owns one, and on Java 21+ the client itself.
+ */
+final class JdkEngineClientHttpRequestFactory extends JdkClientHttpRequestFactory implements AutoCloseable {
+
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+
+    /**
+     * @param executor the executor {@code httpClient} runs on if this factory shuts it down, otherwise
+     *     {@code null}
+     */
+    JdkEngineClientHttpRequestFactory(HttpClient httpClient, ExecutorService executor, boolean expectContinue) {
+        super(new AbortableHttpClient(httpClient, expectContinue));
+        this.httpClient = httpClient;
+        this.executor = executor;
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            // HttpClient is AutoCloseable from Java 21 on; closing waits for exchanges still running
+            if (httpClient instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Forwards to the JDK client, attaching every response future to the current attempt.
+     */
+    private static final class AbortableHttpClient extends HttpClient {
+
+        private final HttpClient delegate;
+        private final boolean expectContinue;
+
+        AbortableHttpClient(HttpClient delegate, boolean expectContinue) {
+            this.delegate = delegate;
+            this.expectContinue = expectContinue;
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(
+                HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) {
+            return attach(delegate.sendAsync(prepare(request), responseBodyHandler));
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(
+                HttpRequest request,
+                HttpResponse.BodyHandler<T> responseBodyHandler,
+                HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+            return attach(delegate.sendAsync(prepare(request), responseBodyHandler, pushPromiseHandler));
+        }
+
+        @Override
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler)
+                throws IOException, InterruptedException {
+            return delegate.send(prepare(request), responseBodyHandler);
+        }
+
+        private HttpRequest prepare(HttpRequest request) {
+            if (!expectContinue
+                    || request.expectContinue()
+                    || request.bodyPublisher()
+                            .map(body -> body.contentLength() == 0)
+                            .orElse(true)) {
+                return request;
+            }
+            return HttpRequest.newBuilder(request, (name, value) -> true)
+                    .expectContinue(true)
+                    .build();
+        }
+
+        private static <T> CompletableFuture<T> attach(CompletableFuture<T> future) {
+            ExchangeAbortHandle.attachToCurrent(() -> future.cancel(true));
+            return future;
+        }
+
+        @Override
+        public Optional<CookieHandler> cookieHandler() {
+            return delegate.cookieHandler();
+        }
+
+        @Override
+        public Optional<Duration> connectTimeout() {
+            return delegate.connectTimeout();
+        }
+
+        @Override
+        public Redirect followRedirects() {
+            return delegate.followRedirects();
+        }
+
+        @Override
+        public Optional<ProxySelector> proxy() {
+            return delegate.proxy();
+        }
+
+        @Override
+        public SSLContext sslContext() {
+            return delegate.sslContext();
+        }
+
+        @Override
+        public SSLParameters sslParameters() {
+            return delegate.sslParameters();
+        }
+
+        @Override
+        public Optional<Authenticator> authenticator() {
+            return delegate.authenticator();
+        }
+
+        @Override
+        public Version version() {
+            return delegate.version();
+        }
+
+        @Override
+        public Optional<Executor> executor() {
+            return delegate.executor();
+        }
+
+        @Override
+        public WebSocket.Builder newWebSocketBuilder() {
+            return delegate.newWebSocketBuilder();
+        }
+    }
+}
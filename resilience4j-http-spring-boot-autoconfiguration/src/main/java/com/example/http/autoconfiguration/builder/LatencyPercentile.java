@@ -0,0 +1,56 @@
+package com.example.http.autoconfiguration.builder;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Percentile of the most recent latencies, kept in a fixed ring of samples.
+ * <p>
+ * Recording is a counter increment and an array store. Every {@link #RECOMPUTE_EVERY} samples the
+ * recording thread sorts a copy of the ring and publishes the new value, so readers only see a
+ * volatile field.
+ */
+final class LatencyPercentile {
+
+    static final int SAMPLES = 256;
+    static final int RECOMPUTE_EVERY = 32;
+
+    private final double percentile;
+    private final int minSamples;
+    private final AtomicLongArray ring = new AtomicLongArray(SAMPLES);
+    private final AtomicLong recorded = new AtomicLong();
+    private volatile long value = -1L;
+
+    LatencyPercentile(double percentile, int minSamples) {
+        this.percentile = percentile;
+        this.minSamples = Math.max(1, Math.min(minSamples, SAMPLES));
+    }
+
+    void record(long nanos) {
+        long n = recorded.getAndIncrement();
+        ring.set((int) (n % SAMPLES), nanos);
+
+        long count = n + 1;
+        if (count >= minSamples && (count % RECOMPUTE_EVERY == 0 || count == minSamples)) {
+            recompute((int) Math.min(count, SAMPLES));
+        }
+    }
+
+    /**
+     * @return the percentile in nanoseconds, or {@code -1} until enough samples were recorded
+     */
+    long nanos() {
+        return value;
+    }
+
+    private void recompute(int size) {
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = ring.get(i);
+        }
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(percentile * size) - 1;
+        value = copy[Math.max(0, Math.min(size - 1, index))];
+    }
+}
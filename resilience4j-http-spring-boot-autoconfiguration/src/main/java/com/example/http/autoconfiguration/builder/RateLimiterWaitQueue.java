@@ -0,0 +1,144 @@
+package com.example.http.autoconfiguration.builder;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, first-come-first-served wait queue in front of a {@link RateLimiter}.
+ * <p>
+ * Plain {@link RateLimiter#waitForPermission(RateLimiter)} lets every throttled caller park for up to
+ * {@code timeoutDuration}, so a slow downstream can pin the whole request thread pool. Here callers
+ * reserve a permit up front (reservations are handed out in arrival order) and wait for it, but at
+ * most {@code maxDepth} callers may be waiting at once. Anyone beyond that only takes a permit that is
+ * free right now, through {@link RateLimiter#acquirePermission()}, and never books a future one; without a
+ * free permit it is rejected immediately with {@link RequestNotPermitted}.
+ */
+final class RateLimiterWaitQueue {
+
+    static final String DEPTH_METRIC = "http.client.ratelimiter.queue.depth";
+    static final String WAIT_METRIC = "http.client.ratelimiter.queue.wait";
+    static final String REJECTED_METRIC = "http.client.ratelimiter.queue.rejected";
+
+    private final RateLimiter rateLimiter;
+    private final int maxDepth;
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter queueFull;
+    private final Counter timedOut;
+    private final Counter interrupted;
+    private final ReentrantLock freePermit = new ReentrantLock();
+
+    RateLimiterWaitQueue(RateLimiter rateLimiter, int maxDepth, String clientName, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Rate limiter queue depth must not be negative: " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+
+        if (meterRegistry != null) {
+            Gauge.builder(DEPTH_METRIC, depth, AtomicInteger::get)
+                    .description("Callers currently waiting for a rate limiter permit")
+                    .tag("client", clientName)
+                    .register(meterRegistry);
+            this.waitTimer = Timer.builder(WAIT_METRIC)
+                    .description("Time spent waiting for a rate limiter permit")
+                    .tag("client", clientName)
+                    .register(meterRegistry);
+            this.queueFull = rejectedCounter(meterRegistry, clientName, "queue_full");
+            this.timedOut = rejectedCounter(meterRegistry, clientName, "timeout");
+            this.interrupted = rejectedCounter(meterRegistry, clientName, "interrupted");
+        } else {
+            this.waitTimer = null;
+            this.queueFull = null;
+            this.timedOut = null;
+            this.interrupted = null;
+        }
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String clientName, String reason) {
+        return Counter.builder(REJECTED_METRIC)
+                .description("Calls rejected while acquiring a rate limiter permit")
+                .tag("client", clientName)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Blocks until a permit is available or rejects the call.
+     *
+     * @throws RequestNotPermitted if the queue is full, the permit cannot be granted within the rate
+     *                             limiter's timeout, or the caller is interrupted while waiting
+     */
+    void acquire() {
+        long start = System.nanoTime();
+        if (depth.incrementAndGet() > maxDepth) {
+            depth.decrementAndGet();
+            // a full queue only turns away callers that would have to wait
+            if (!acquireFreePermit()) {
+                reject(Thread.currentThread().isInterrupted() ? interrupted : queueFull);
+            }
+        } else {
+            try {
+                long nanosToWait = rateLimiter.reservePermission();
+                if (nanosToWait < 0) {
+                    reject(timedOut);
+                }
+                if (nanosToWait > 0 && !park(start + nanosToWait)) {
+                    reject(interrupted);
+                }
+            } finally {
+                depth.decrementAndGet();
+            }
+        }
+
+        if (waitTimer != null) {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Takes a permit only if one is free right now. Callers past a full queue check one at a time, so they
+     * do not race each other into booking permits of a later period; one that still loses the free permit
+     * to another user of the limiter waits for the permit it was given rather than dropping it.
+     */
+    private boolean acquireFreePermit() {
+        if (!freePermit.tryLock()) {
+            return false;
+        }
+        try {
+            return rateLimiter.getMetrics().getAvailablePermissions() > 0 && rateLimiter.acquirePermission();
+        } finally {
+            freePermit.unlock();
+        }
+    }
+
+    int depth() {
+        return depth.get();
+    }
+
+    private static boolean park(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void reject(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+        throw RequestNotPermitted.createRequestNotPermitted(rateLimiter);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.http.autoconfiguration.builder;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket that earns a fraction of a token per call, so the extra work it pays for
+ * (hedges, retries) stays within that fraction of the traffic. The bucket starts empty and holds at
+ * most {@code maxTokens}, which bounds the burst allowed after a quiet period.
+ */
+final class RatioBudget {
+
+    private static final long SCALE = 1000L;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance = new AtomicLong();
+
+    RatioBudget(double ratio, int maxTokens) {
+        this.deposit = Math.max(0L, Math.round(ratio * SCALE));
+        this.capacity = Math.max(1L, maxTokens) * SCALE;
+    }
+
+    void deposit() {
+        if (deposit == 0) {
+            return;
+        }
+        long current;
+        do {
+            current = balance.get();
+            if (current >= capacity) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(capacity, current + deposit)));
+    }
+
+    boolean tryAcquire() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    /**
+     * Whole tokens currently available.
+     */
+    long available() {
+        return balance.get() / SCALE;
+    }
+}
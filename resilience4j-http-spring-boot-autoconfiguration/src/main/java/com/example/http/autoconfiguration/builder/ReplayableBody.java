@@ -0,0 +1,182 @@
+package com.example.http.autoconfiguration.builder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Request body streamed from a source that can be read again, sent instead of a buffered body by setting
+ * it as the {@link #ATTRIBUTE} request attribute:
+ *
+ * <pre>{@code
+ * restClient.put()
+ *         .uri("/archives/{id}", id)
+ *         .contentType(MediaType.APPLICATION_OCTET_STREAM)
+ *         .attribute(ReplayableBody.ATTRIBUTE, ReplayableBody.ofFile(archive))
+ *         .retrieve()
+ *         .toBodilessEntity();
+ * }</pre>
+ * <p>
+ * {@code RestClient} buffers bodies into a {@code byte[]} before the resilience interceptor sees them, so a
+ * large upload would be held in heap for the whole call. A replayable body bypasses that buffer: it is
+ * written when the request is sent, and every retry or hedge writes it again from its source instead of
+ * keeping a copy. Concurrent attempts read the source independently. The {@code async} engine still
+ * buffers each attempt's body in memory.
+ */
+public abstract class ReplayableBody {
+
+    /**
+     * Name of the request attribute holding the body.
+     */
+    public static final String ATTRIBUTE = ReplayableBody.class.getName();
+
+    /**
+     * @return the length of the body in bytes, or {@code -1} if unknown, in which case it is sent chunked
+     */
+    public abstract long contentLength();
+
+    /**
+     * Writes the whole body to {@code out}, once per attempt, without closing it.
+     */
+    public abstract void writeTo(OutputStream out) throws IOException;
+
+    /**
+     * @return a body of the whole of {@code file}, as long as it is when the body is created
+     */
+    public static ReplayableBody ofFile(Path file) throws IOException {
+        return ofFile(file, 0, Files.size(file));
+    }
+
+    /**
+     * @return a body of the {@code count} bytes of {@code file} from {@code position}; the file is opened
+     *     again by each attempt
+     */
+    public static ReplayableBody ofFile(Path file, long position, long count) {
+        Objects.requireNonNull(file, "file");
+        if (position < 0 || count < 0) {
+            throw new IllegalArgumentException("Position and count must not be negative");
+        }
+        return new FileRegionBody(file, position, count);
+    }
+
+    /**
+     * @return a body of the bytes between {@code buffer}'s position and limit; direct (off-heap) buffers are
+     *     written without an on-heap copy of the whole body. The buffer's position and limit are not changed;
+     *     its content must not change, and a pooled buffer must not be released, until the call returned.
+     */
+    public static ReplayableBody ofBuffer(ByteBuffer buffer) {
+        return new BufferBody(buffer.slice());
+    }
+
+    /**
+     * @param contentLength the length of every stream {@code source} opens, or {@code -1} if unknown
+     * @return a body read from a new stream of {@code source} by each attempt
+     */
+    public static ReplayableBody ofSupplier(long contentLength, StreamSource source) {
+        Objects.requireNonNull(source, "source");
+        return new SourceBody(contentLength < 0 ? -1 : contentLength, source);
+    }
+
+    /**
+     * Opens the stream one attempt sends; the stream is closed after the body was written.
+     */
+    @FunctionalInterface
+    public interface StreamSource {
+
+        InputStream open() throws IOException;
+    }
+
+    private static final class FileRegionBody extends ReplayableBody {
+
+        private final Path file;
+        private final long position;
+        private final long count;
+
+        FileRegionBody(Path file, long position, long count) {
+            this.file = file;
+            this.position = position;
+            this.count = count;
+        }
+
+        @Override
+        public long contentLength() {
+            return count;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                // not closed: closing the channel would close the request stream
+                WritableByteChannel target = Channels.newChannel(out);
+                long written = 0;
+                while (written < count) {
+                    long transferred = channel.transferTo(position + written, count - written, target);
+                    if (transferred <= 0) {
+                        throw new IOException(
+                                "File " + file + " ended " + (count - written) + " bytes before the end of the body");
+                    }
+                    written += transferred;
+                }
+            }
+        }
+    }
+
+    private static final class BufferBody extends ReplayableBody {
+
+        private final ByteBuffer buffer;
+
+        BufferBody(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public long contentLength() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            // each attempt reads its own view, so concurrent attempts do not share a position
+            ByteBuffer view = buffer.duplicate();
+            if (view.hasArray()) {
+                out.write(view.array(), view.arrayOffset() + view.position(), view.remaining());
+                return;
+            }
+            WritableByteChannel target = Channels.newChannel(out);
+            while (view.hasRemaining()) {
+                target.write(view);
+            }
+        }
+    }
+
+    private static final class SourceBody extends ReplayableBody {
+
+        private final long contentLength;
+        private final StreamSource source;
+
+        SourceBody(long contentLength, StreamSource source) {
+            this.contentLength = contentLength;
+            this.source = source;
+        }
+
+        @Override
+        public long contentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            try (InputStream in = source.open()) {
+                in.transferTo(out);
+            }
+        }
+    }
+}
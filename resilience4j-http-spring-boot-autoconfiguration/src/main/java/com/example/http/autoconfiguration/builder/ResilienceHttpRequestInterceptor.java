@@ -2,49 +2,90 @@ package com.example.http.autoconfiguration.builder;
 
 import com.example.http.autoconfiguration.logging.ResilienceEventPublisherLogger;
 import com.example.http.autoconfiguration.observation.ResilienceObservationTagContributor;
-import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import com.example.http.autoconfiguration.observation.UriPathNormalizer;
+import com.example.http.autoconfiguration.observation.UriTagResolver;
+import com.example.http.autoconfiguration.property.ResilienceStage;
+import com.example.http.autoconfiguration.property.RestClientDefaultSettings;
+import com.example.http.autoconfiguration.property.RestClientProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
-import io.github.resilience4j.core.functions.CheckedSupplier;
 import io.github.resilience4j.ratelimiter.RateLimiter;
-import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import io.github.resilience4j.retry.Retry;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.observation.Observation;
 import io.micrometer.observation.ObservationRegistry;
 import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.HttpStatusCode;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpServerErrorException;
-import org.springframework.web.client.RestClientException;
+import org.springframework.util.unit.DataSize;
 
 @Slf4j
-public class ResilienceHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+public class ResilienceHttpRequestInterceptor implements ClientHttpRequestInterceptor, AutoCloseable {
+
+    private static final String OBSERVATION_NAME = "http.client.request.resilient";
+    private static final Map<HttpMethod, KeyValue> METHOD_KEY_VALUES = new HashMap<>();
+
+    static {
+        for (HttpMethod method : HttpMethod.values()) {
+            METHOD_KEY_VALUES.put(method, KeyValue.of("http.method", method.name()));
+        }
+    }
 
     private final ObservationRegistry registry;
-    private final Map<String, String> observationTags;
-    private final String clientName;
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
-    private final RateLimiter rateLimiter;
-    private final Set<HttpStatus> retryStatus;
+    private final KeyValues staticKeyValues;
+    private final UriTagResolver uriTagResolver;
+    private final ResiliencePipeline pipeline;
+    private final String clientName;
+    private volatile boolean closed;
 
     private ResilienceHttpRequestInterceptor(Builder builder) {
         this.registry = builder.registry;
-        this.clientName = builder.clientName;
-        this.observationTags = builder.observationTags;
         this.circuitBreaker = builder.circuitBreaker;
-        this.retry = builder.retry;
-        this.rateLimiter = builder.rateLimiter;
-        this.retryStatus = builder.retryStatus;
+        this.clientName = builder.clientName;
+        this.staticKeyValues = ResilienceObservationTagContributor.staticKeyValues(
+                builder.clientName, builder.retry, builder.rateLimiter, builder.observationTags);
+        RestClientProperties.UriTags uriTags =
+                builder.uriTags != null ? builder.uriTags : RestClientDefaultSettings.defaultUriTags();
+        this.uriTagResolver = new UriTagResolver(
+                builder.uriPathNormalizer, uriTags.getMaxDistinctValues(), uriTags.getPathCacheSize());
+        this.pipeline = new ResiliencePipeline(
+                builder.order,
+                builder.circuitBreaker,
+                builder.retry,
+                builder.retry != null && builder.retryBudget != null && builder.retryBudget.isEnabled()
+                        ? new RetryTokenBucket(builder.retryBudget, builder.clientName, builder.meterRegistry)
+                        : null,
+                builder.rateLimiter,
+                builder.rateLimiter != null && builder.rateLimiterQueueDepth != null
+                        ? new RateLimiterWaitQueue(
+                                builder.rateLimiter,
+                                builder.rateLimiterQueueDepth,
+                                builder.clientName,
+                                builder.meterRegistry)
+                        : null,
+                builder.bulkhead,
+                builder.threadPoolBulkhead,
+                builder.hedging != null && builder.hedging.isEnabled()
+                        ? new HedgingStage(builder.hedging, builder.clientName, builder.meterRegistry)
+                        : null,
+                builder.deadline != null && builder.deadline.isEnabled()
+                        ? new DeadlineStage(builder.deadline, builder.clientName)
+                        : null,
+                HttpStatusBitmap.of(builder.retryStatus),
+                builder.responseDrainLimit.toBytes());
     }
 
     public static Builder builder(ObservationRegistry registry) {
@@ -54,69 +95,67 @@ public class ResilienceHttpRequestInterceptor implements ClientHttpRequestInterc
     @Override
     public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
             throws IOException {
+        if (closed) {
+            throw new IOException("Client '" + clientName + "' is shut down");
+        }
+
+        InterceptedExchange exchange = new InterceptedExchange(request, body, execution);
+        if (registry.isNoop()) {
+            return pipeline.execute(exchange);
+        }
+
+        Observation obs = Observation.createNotStarted(OBSERVATION_NAME, registry)
+                .lowCardinalityKeyValues(staticKeyValues)
+                .lowCardinalityKeyValue(ResilienceObservationTagContributor.circuitBreakerState(circuitBreaker))
+                .lowCardinalityKeyValue(methodKeyValue(request.getMethod()))
+                .lowCardinalityKeyValue(uriTagResolver.resolve(request))
+                .start();
+
+        try (Observation.Scope ignored = obs.openScope()) {
+            return pipeline.execute(exchange);
+        } catch (IOException | RuntimeException | Error ex) {
+            obs.error(ex);
+            throw ex;
+        } finally {
+            obs.stop();
+        }
+    }
 
-        Observation obs = Observation.createNotStarted("http.client.request.resilient", registry);
-        ResilienceObservationTagContributor.contribute(
-                obs, clientName, circuitBreaker, retry, rateLimiter, observationTags);
-
-        return Objects.requireNonNull(obs.lowCardinalityKeyValue("client", clientName)
-                .lowCardinalityKeyValue("http.method", request.getMethod().name())
-                .lowCardinalityKeyValue("http.uri", request.getURI().getPath())
-                .observeChecked(() -> {
-                    CheckedSupplier<ClientHttpResponse> supplier = () -> {
-                        ClientHttpResponse rsp = execution.execute(request, body);
-                        HttpStatusCode code = rsp.getStatusCode();
-                        HttpStatus hs = HttpStatus.resolve(code.value());
-
-                        boolean shouldRetry = hs != null && retryStatus != null && retryStatus.contains(hs);
-
-                        if (shouldRetry) {
-                            if (hs.is4xxClientError()) {
-                                throw new HttpClientErrorException(hs, "Client error (retryable): " + hs.value());
-                            } else if (hs.is5xxServerError()) {
-                                throw new HttpServerErrorException(hs, "Server error (retryable): " + hs.value());
-                            } else {
-                                throw new RestClientException("Unexpected retryable status: " + hs);
-                            }
-                        }
-
-                        if (hs != null && hs.is5xxServerError()) {
-                            throw new HttpServerErrorException(hs, "Server error: " + hs.value());
-                        }
-
-                        return rsp;
-                    };
-
-                    // Wrap: Retry → CircuitBreaker → RateLimiter
-                    if (retry != null) {
-                        supplier = Retry.decorateCheckedSupplier(retry, supplier);
-                    }
-                    if (circuitBreaker != null) {
-                        supplier = CircuitBreaker.decorateCheckedSupplier(circuitBreaker, supplier);
-                    }
-                    if (rateLimiter != null) {
-                        supplier = RateLimiter.decorateCheckedSupplier(rateLimiter, supplier);
-                    }
-
-                    try {
-                        return supplier.get();
-                    } catch (UncheckedIOException uio) {
-                        throw uio.getCause();
-                    } catch (CallNotPermittedException
-                            | HttpClientErrorException
-                            | HttpServerErrorException
-                            | RequestNotPermitted ex) {
-                        throw ex;
-                    } catch (Throwable t) {
-                        if (t.getCause() instanceof CallNotPermittedException cnpe) {
-                            throw cnpe;
-                        }
-                        if (t.getCause() instanceof RequestNotPermitted rnpe) {
-                            throw rnpe;
-                        }
-                        throw new RestClientException("Resilience4j call failed", t);
-                    }
-                }));
+    /**
+     * Stops the threads owned by the interceptor (hedging timer and executor, deadline watchdog); calls
+     * made afterwards fail with an {@link IOException}.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        pipeline.close();
+    }
+
+    private static KeyValue methodKeyValue(HttpMethod method) {
+        KeyValue keyValue = METHOD_KEY_VALUES.get(method);
+        return keyValue != null ? keyValue : KeyValue.of("http.method", method.name());
+    }
+
+    private static final class InterceptedExchange extends ResilientExchange {
+        private final HttpRequest request;
+        private final byte[] body;
+        private final ClientHttpRequestExecution execution;
+
+        private InterceptedExchange(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) {
+            this.request = request;
+            this.body = body;
+            this.execution = execution;
+        }
+
+        @Override
+        HttpRequest request() {
+            return request;
+        }
+
+        @Override
+        ClientHttpResponse execute() throws IOException {
+            return execution.execute(request, body);
+        }
     }
 
     public static class Builder {
@@ -126,7 +165,18 @@ public class ResilienceHttpRequestInterceptor implements ClientHttpRequestInterc
         private CircuitBreaker circuitBreaker;
         private Retry retry;
         private RateLimiter rateLimiter;
+        private Bulkhead bulkhead;
+        private ThreadPoolBulkhead threadPoolBulkhead;
+        private RestClientProperties.Hedging hedging;
+        private RestClientProperties.Deadline deadline;
+        private RestClientProperties.RetryBudget retryBudget;
         private Set<HttpStatus> retryStatus;
+        private DataSize responseDrainLimit = RestClientDefaultSettings.defaultResponseDrainLimit();
+        private Integer rateLimiterQueueDepth;
+        private List<ResilienceStage> order;
+        private RestClientProperties.UriTags uriTags;
+        private UriPathNormalizer uriPathNormalizer;
+        private MeterRegistry meterRegistry;
 
         public Builder(ObservationRegistry registry) {
             this.registry = registry;
@@ -137,6 +187,29 @@ public class ResilienceHttpRequestInterceptor implements ClientHttpRequestInterc
             return this;
         }
 
+        /**
+         * Stage order from outermost to innermost; defaults to
+         * {@link RestClientDefaultSettings#defaultStageOrder()}.
+         */
+        public Builder order(List<ResilienceStage> order) {
+            this.order = order;
+            return this;
+        }
+
+        public Builder uriTags(RestClientProperties.UriTags uriTags) {
+            this.uriTags = uriTags;
+            return this;
+        }
+
+        /**
+         * Normalizer for requests that were not built from a URI template; defaults to
+         * {@link com.example.http.autoconfiguration.observation.DefaultUriPathNormalizer}.
+         */
+        public Builder uriPathNormalizer(UriPathNormalizer normalizer) {
+            this.uriPathNormalizer = normalizer;
+            return this;
+        }
+
         public Builder clientName(String clientName) {
             this.clientName = clientName;
             return this;
@@ -162,9 +235,71 @@ public class ResilienceHttpRequestInterceptor implements ClientHttpRequestInterc
             return this;
         }
 
+        public Builder bulkhead(Bulkhead bh) {
+            this.bulkhead = bh;
+            return this;
+        }
+
+        public Builder threadPoolBulkhead(ThreadPoolBulkhead bh) {
+            this.threadPoolBulkhead = bh;
+            return this;
+        }
+
+        /**
+         * Hedge idempotent attempts; the loser is only aborted when the client uses the request
+         * factory built by {@link RestClientBuilder}.
+         */
+        public Builder hedging(RestClientProperties.Hedging hedging) {
+            this.hedging = hedging;
+            return this;
+        }
+
+        /**
+         * Bound each call and each attempt in time; an attempt is only aborted mid-exchange when the
+         * client uses the request factory built by {@link RestClientBuilder}.
+         */
+        public Builder deadline(RestClientProperties.Deadline deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
+        /**
+         * Limit retries to a share of successful calls; only applies to retries whose interval function
+         * was built by {@link RetryFactory}.
+         */
+        public Builder retryBudget(RestClientProperties.RetryBudget retryBudget) {
+            this.retryBudget = retryBudget;
+            return this;
+        }
+
+        /**
+         * Acquire rate limiter permits through a bounded wait queue of this depth instead of parking
+         * every throttled caller; {@code null} keeps the blocking behaviour.
+         */
+        public Builder rateLimiterQueueDepth(Integer maxDepth) {
+            if (maxDepth != null && maxDepth < 0) {
+                throw new IllegalArgumentException("Rate limiter queue depth must not be negative: " + maxDepth);
+            }
+            this.rateLimiterQueueDepth = maxDepth;
+            return this;
+        }
+
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        public Builder responseDrainLimit(DataSize limit) {
+            if (limit != null) {
+                this.responseDrainLimit = limit;
+            }
+            return this;
+        }
+
         public ResilienceHttpRequestInterceptor build() {
             ResilienceHttpRequestInterceptor interceptor = new ResilienceHttpRequestInterceptor(this);
             ResilienceEventPublisherLogger.attach(retry, circuitBreaker, rateLimiter, log);
+            ResilienceEventPublisherLogger.attach(bulkhead, threadPoolBulkhead, log);
             return interceptor;
         }
     }
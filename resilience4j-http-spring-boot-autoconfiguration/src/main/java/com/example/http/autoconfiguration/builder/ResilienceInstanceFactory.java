@@ -1,6 +1,10 @@
 package com.example.http.autoconfiguration.builder;
 
 import com.example.http.autoconfiguration.property.RestClientProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.ratelimiter.RateLimiter;
@@ -9,7 +13,9 @@ import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryRegistry;
 import io.github.resilience4j.springboot3.retry.autoconfigure.RetryProperties;
 import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @UtilityClass
 public class ResilienceInstanceFactory {
 
@@ -26,7 +32,14 @@ public class ResilienceInstanceFactory {
     public Retry getRetry(String clientName, RetryRegistry registry, RestClientProperties.Resilience resilience) {
 
         if (registry.find(clientName).isPresent()) {
-            return registry.retry(clientName);
+            Retry retry = registry.retry(clientName);
+            if (!(retry.getRetryConfig().getIntervalBiFunction() instanceof ResponseAwareIntervalFunction)) {
+                log.info(
+                        "Retry[{}] is configured in the RetryRegistry; Retry-After hints are not applied to its"
+                                + " interval",
+                        clientName);
+            }
+            return retry;
         }
 
         RetryProperties.InstanceProperties props = resilience.getRetry();
@@ -42,4 +55,24 @@ public class ResilienceInstanceFactory {
 
         return RateLimiterFactory.create(clientName, registry, resilience.getRateLimiter());
     }
+
+    public Bulkhead getBulkhead(
+            String clientName, BulkheadRegistry registry, RestClientProperties.Resilience resilience) {
+
+        if (registry.find(clientName).isPresent()) {
+            return registry.bulkhead(clientName);
+        }
+
+        return BulkheadFactory.create(clientName, registry, resilience.getBulkhead());
+    }
+
+    public ThreadPoolBulkhead getThreadPoolBulkhead(
+            String clientName, ThreadPoolBulkheadRegistry registry, RestClientProperties.Resilience resilience) {
+
+        if (registry.find(clientName).isPresent()) {
+            return registry.bulkhead(clientName);
+        }
+
+        return BulkheadFactory.createThreadPool(clientName, registry, resilience.getThreadPoolBulkhead());
+    }
 }
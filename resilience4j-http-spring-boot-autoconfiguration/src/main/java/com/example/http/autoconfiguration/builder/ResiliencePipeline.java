@@ -0,0 +1,307 @@
+package com.example.http.autoconfiguration.builder;
+
+import com.example.http.autoconfiguration.property.ResilienceStage;
+import com.example.http.autoconfiguration.property.RestClientDefaultSettings;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.functions.CheckedFunction;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.retry.Retry;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Resilience decorators compiled once into a single reusable function.
+ * <p>
+ * Decorating a supplier per request allocates a lambda and a wrapper for every stage on every
+ * call. Here the chain is built in the constructor over a {@link CheckedFunction} that takes the
+ * {@link ResilientExchange} as its argument, so the per-call cost is the exchange itself plus
+ * whatever the Resilience4j primitives allocate internally (e.g. a retry context).
+ * <p>
+ * The stage order is configurable ({@link ResilienceStage}, outermost first). Stages outside
+ * {@link ResilienceStage#RETRY} see the whole retried call once; stages inside it see each attempt,
+ * so e.g. a rate limiter placed inside retry takes one permit per attempt.
+ * <p>
+ * {@link ResilienceStage#DEADLINE} starts the call's time budget; the per-attempt timeout that enforces
+ * it, like hedging, always sits directly around the exchange.
+ * <p>
+ * The thread-pool bulkhead hands the rest of the chain to its own pool; the calling thread waits for
+ * the result, but a full pool and queue reject new calls immediately instead of piling them up.
+ */
+final class ResiliencePipeline {
+
+    private static final HttpStatusBitmap SERVER_ERRORS = HttpStatusBitmap.knownServerErrors();
+
+    private final HttpStatusBitmap retryStatus;
+    private final ResponseDrainer drainer;
+    private final List<ResilienceStage> stages;
+    private final RetryTokenBucket retryBudget;
+    private final boolean bindExchange;
+    private final HedgingStage hedging;
+    private final DeadlineStage deadline;
+    private final CheckedFunction<ResilientExchange, ClientHttpResponse> decorated;
+
+    ResiliencePipeline(
+            List<ResilienceStage> order,
+            CircuitBreaker circuitBreaker,
+            Retry retry,
+            RetryTokenBucket retryBudget,
+            RateLimiter rateLimiter,
+            RateLimiterWaitQueue rateLimiterQueue,
+            Bulkhead bulkhead,
+            ThreadPoolBulkhead threadPoolBulkhead,
+            HedgingStage hedging,
+            DeadlineStage deadline,
+            HttpStatusBitmap retryStatus,
+            long responseDrainLimit) {
+        this.retryStatus = retryStatus != null ? retryStatus : HttpStatusBitmap.EMPTY;
+        this.drainer = new ResponseDrainer(responseDrainLimit);
+        this.retryBudget = retry != null ? retryBudget : null;
+        this.hedging = hedging;
+        this.deadline = deadline;
+        // the retry interval function reads the deadline and the retry budget from the bound exchange
+        this.bindExchange = deadline != null || this.retryBudget != null;
+
+        EnumSet<ResilienceStage> enabled = EnumSet.noneOf(ResilienceStage.class);
+        if (deadline != null) {
+            enabled.add(ResilienceStage.DEADLINE);
+        }
+        if (bulkhead != null) {
+            enabled.add(ResilienceStage.BULKHEAD);
+        }
+        if (threadPoolBulkhead != null) {
+            enabled.add(ResilienceStage.THREAD_POOL_BULKHEAD);
+        }
+        if (rateLimiter != null) {
+            enabled.add(ResilienceStage.RATE_LIMITER);
+        }
+        if (circuitBreaker != null) {
+            enabled.add(ResilienceStage.CIRCUIT_BREAKER);
+        }
+        if (retry != null) {
+            enabled.add(ResilienceStage.RETRY);
+        }
+        this.stages = resolveOrder(order, enabled);
+
+        // The per-attempt timeout and hedging act on individual attempts, so they always sit directly
+        // around the exchange (each hedged attempt gets its own timeout); the configurable stages wrap
+        // them from the innermost outwards
+        CheckedFunction<ResilientExchange, ClientHttpResponse> fn = this::attempt;
+        if (deadline != null) {
+            fn = deadline.perAttempt(fn);
+        }
+        if (hedging != null) {
+            fn = hedging.decorate(fn);
+        }
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            switch (stages.get(i)) {
+                case DEADLINE -> fn = deadline.total(fn);
+                case RETRY -> fn = Retry.decorateCheckedFunction(retry, fn);
+                case CIRCUIT_BREAKER -> fn = CircuitBreaker.decorateCheckedFunction(circuitBreaker, fn);
+                case RATE_LIMITER -> fn = rateLimited(rateLimiter, rateLimiterQueue, fn);
+                case BULKHEAD -> fn = Bulkhead.decorateCheckedFunction(bulkhead, fn);
+                case THREAD_POOL_BULKHEAD -> fn = isolated(threadPoolBulkhead, fn);
+            }
+        }
+        this.decorated = fn;
+    }
+
+    /**
+     * Validates the configured order against the enabled stages and drops the disabled ones.
+     *
+     * @throws IllegalStateException if a stage is listed twice or an enabled stage is missing
+     */
+    static List<ResilienceStage> resolveOrder(List<ResilienceStage> order, Set<ResilienceStage> enabled) {
+        List<ResilienceStage> configured =
+                order == null || order.isEmpty() ? RestClientDefaultSettings.defaultStageOrder() : order;
+
+        EnumSet<ResilienceStage> seen = EnumSet.noneOf(ResilienceStage.class);
+        List<ResilienceStage> resolved = new ArrayList<>(configured.size());
+        for (ResilienceStage stage : configured) {
+            if (stage == null) {
+                throw new IllegalStateException("Resilience order must not contain null stages: " + configured);
+            }
+            if (!seen.add(stage)) {
+                throw new IllegalStateException(
+                        "Resilience stage " + stage + " is listed more than once: " + configured);
+            }
+            if (enabled.contains(stage)) {
+                resolved.add(stage);
+            }
+        }
+
+        EnumSet<ResilienceStage> missing = EnumSet.noneOf(ResilienceStage.class);
+        missing.addAll(enabled);
+        missing.removeAll(seen);
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException(
+                    "Resilience stages " + missing + " are enabled but missing from order " + configured);
+        }
+        return List.copyOf(resolved);
+    }
+
+    List<ResilienceStage> stages() {
+        return stages;
+    }
+
+    /**
+     * Same contract as {@link RateLimiter#decorateCheckedFunction(RateLimiter, CheckedFunction)}, which
+     * allocates an intermediate supplier on every call. With a wait queue, permits are acquired through
+     * the bounded queue instead of parking every caller.
+     */
+    private static CheckedFunction<ResilientExchange, ClientHttpResponse> rateLimited(
+            RateLimiter rateLimiter,
+            RateLimiterWaitQueue queue,
+            CheckedFunction<ResilientExchange, ClientHttpResponse> fn) {
+        return exchange -> {
+            if (queue != null) {
+                queue.acquire();
+            } else {
+                RateLimiter.waitForPermission(rateLimiter);
+            }
+            try {
+                ClientHttpResponse result = fn.apply(exchange);
+                rateLimiter.onResult(result);
+                return result;
+            } catch (Exception exception) {
+                rateLimiter.onError(exception);
+                throw exception;
+            }
+        };
+    }
+
+    /**
+     * Runs the rest of the chain on the bulkhead's pool and waits for it, rethrowing the original
+     * failure. {@link BulkheadFullException} is thrown on the calling thread when the pool is saturated.
+     */
+    private static CheckedFunction<ResilientExchange, ClientHttpResponse> isolated(
+            ThreadPoolBulkhead bulkhead, CheckedFunction<ResilientExchange, ClientHttpResponse> fn) {
+        return exchange -> {
+            var result = bulkhead.submit(() -> {
+                try {
+                    // keep the call visible to the retry interval function on the pool thread
+                    return exchange.bind(fn);
+                } catch (Exception ex) {
+                    throw ex;
+                } catch (Throwable t) {
+                    throw new CompletionException(t);
+                }
+            });
+            try {
+                return result.toCompletableFuture().get();
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                throw cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException interrupted = new InterruptedIOException("Interrupted waiting for bulkhead");
+                interrupted.initCause(ex);
+                throw interrupted;
+            }
+        };
+    }
+
+    /**
+     * Stops the threads of the hedging and deadline stages.
+     */
+    void close() {
+        if (hedging != null) {
+            hedging.close();
+        }
+        if (deadline != null) {
+            deadline.close();
+        }
+    }
+
+    ClientHttpResponse execute(ResilientExchange exchange) throws IOException {
+        try {
+            if (!bindExchange) {
+                return decorated.apply(exchange);
+            }
+            exchange.retryBudget(retryBudget);
+            ClientHttpResponse response = exchange.bind(decorated);
+            if (retryBudget != null) {
+                retryBudget.deposit();
+            }
+            return response;
+        } catch (UncheckedIOException uio) {
+            throw uio.getCause();
+        } catch (CallNotPermittedException
+                | HttpClientErrorException
+                | HttpServerErrorException
+                | BulkheadFullException
+                | RequestNotPermitted ex) {
+            throw ex;
+        } catch (Throwable t) {
+            if (t.getCause() instanceof CallNotPermittedException cnpe) {
+                throw cnpe;
+            }
+            if (t.getCause() instanceof RequestNotPermitted rnpe) {
+                throw rnpe;
+            }
+            if (t.getCause() instanceof BulkheadFullException bfe) {
+                throw bfe;
+            }
+            throw new RestClientException("Resilience4j call failed", t);
+        }
+    }
+
+    private ClientHttpResponse attempt(ResilientExchange exchange) throws IOException {
+        // lets the drainer discard the connection of an oversized body whatever stream the engine returns
+        ExchangeAbortHandle handle = new ExchangeAbortHandle();
+        ClientHttpResponse rsp = handle.execute(exchange);
+        HttpStatusCode code = rsp.getStatusCode();
+
+        if (retryStatus.contains(code)) {
+            HttpHeaders headers = copyHeaders(rsp);
+            byte[] body = drainer.discard(rsp, handle);
+            if (code.is4xxClientError()) {
+                throw new HttpClientErrorException(
+                        code, "Client error (retryable): " + code.value(), headers, body, null);
+            } else if (code.is5xxServerError()) {
+                throw new HttpServerErrorException(
+                        code, "Server error (retryable): " + code.value(), headers, body, null);
+            } else {
+                throw new RestClientException("Unexpected retryable status: " + code);
+            }
+        }
+
+        if (SERVER_ERRORS.contains(code)) {
+            HttpHeaders headers = copyHeaders(rsp);
+            byte[] body = drainer.discard(rsp, handle);
+            throw new HttpServerErrorException(code, "Server error: " + code.value(), headers, body, null);
+        }
+
+        return rsp;
+    }
+
+    /**
+     * The response is closed before the exception leaves the attempt, so keep a detached copy of
+     * its headers for callers (and retry policies) that inspect them.
+     */
+    private static HttpHeaders copyHeaders(ClientHttpResponse rsp) {
+        HttpHeaders source = rsp.getHeaders();
+        HttpHeaders copy = new HttpHeaders();
+        if (source != null) {
+            copy.putAll(source);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.http.autoconfiguration.builder;
+
+import io.github.resilience4j.core.functions.CheckedFunction;
+import java.io.IOException;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * A single logical HTTP call travelling through a {@link ResiliencePipeline}.
+ * <p>
+ * The pipeline is compiled once per client and shared by every call, so anything that varies
+ * per call lives here. {@link #execute()} performs one physical attempt and may be invoked
+ * several times when retries are enabled.
+ * <p>
+ * Code that Resilience4j calls without passing the exchange along, such as the retry interval
+ * function, reaches it through {@link #current()} while the call is {@linkplain #bind bound}.
+ */
+abstract class ResilientExchange {
+
+    private static final ThreadLocal<ResilientExchange> CURRENT = new ThreadLocal<>();
+
+    private long deadlineNanos;
+    private boolean hasDeadline;
+    private RetryTokenBucket retryBudget;
+
+    abstract HttpRequest request();
+
+    abstract ClientHttpResponse execute() throws IOException;
+
+    /**
+     * @return the call bound to this thread, or {@code null}
+     */
+    static ResilientExchange current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs {@code fn} with this exchange as the {@link #current()} call on this thread.
+     */
+    <R> R bind(CheckedFunction<ResilientExchange, R> fn) throws Throwable {
+        ResilientExchange previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return fn.apply(this);
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Sets the call's deadline ({@link System#nanoTime()} based); an earlier deadline is kept.
+     */
+    void deadline(long nanoTime) {
+        if (!hasDeadline || nanoTime - deadlineNanos < 0) {
+            deadlineNanos = nanoTime;
+            hasDeadline = true;
+        }
+    }
+
+    boolean hasDeadline() {
+        return hasDeadline;
+    }
+
+    long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    void retryBudget(RetryTokenBucket retryBudget) {
+        this.retryBudget = retryBudget;
+    }
+
+    /**
+     * Takes a token for one more attempt from the client's retry budget, if it has one.
+     */
+    boolean tryAcquireRetry() {
+        return retryBudget == null || retryBudget.tryAcquire();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.http.autoconfiguration.builder;
+
+import io.github.resilience4j.core.IntervalBiFunction;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.core.functions.Either;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.RestClientResponseException;
+
+/**
+ * Retry interval that follows the server's {@code Retry-After} hint when the failed attempt carries
+ * one, and falls back to the configured backoff otherwise.
+ * <p>
+ * The hint may be delta-seconds or an HTTP date. A hint longer than {@code maxWait} fails fast like
+ * one outlasting the deadline below, unless {@code capHint} is set, in which case the retry waits
+ * {@code maxWait}.
+ * <p>
+ * When the call has a deadline (see {@link DeadlineStage}) and either the interval or the server's hint
+ * would not end before it, the function returns a negative interval: Resilience4j then stops retrying
+ * and rethrows the last exception without sleeping. Finally a retry that is going ahead takes a token
+ * from the client's retry budget ({@link RetryTokenBucket}), and is skipped when none is left.
+ */
+final class ResponseAwareIntervalFunction implements IntervalBiFunction<Object> {
+
+    static final long FAIL_FAST = -1L;
+
+    private final IntervalFunction backoff;
+    private final long maxWaitMillis;
+    private final boolean capHint;
+    private final Clock clock;
+
+    ResponseAwareIntervalFunction(IntervalFunction backoff, Duration maxWait, boolean capHint) {
+        this(backoff, maxWait, capHint, Clock.systemUTC());
+    }
+
+    ResponseAwareIntervalFunction(IntervalFunction backoff, Duration maxWait, boolean capHint, Clock clock) {
+        this.backoff = backoff;
+        this.maxWaitMillis = maxWait.toMillis();
+        this.capHint = capHint;
+        this.clock = clock;
+    }
+
+    @Override
+    public Long apply(Integer attempt, Either<Throwable, Object> either) {
+        long hint = either != null && either.isLeft() ? retryAfterMillis(either.getLeft()) : -1L;
+        if (hint > maxWaitMillis && !capHint) {
+            return FAIL_FAST;
+        }
+        long interval = hint < 0 ? backoff.apply(attempt) : Math.min(hint, maxWaitMillis);
+
+        // a server that will not be ready before the deadline is not worth another attempt
+        long remaining = DeadlineStage.remainingMillis();
+        if (remaining >= 0 && Math.max(interval, hint) >= remaining) {
+            return FAIL_FAST;
+        }
+
+        ResilientExchange exchange = ResilientExchange.current();
+        return exchange == null || exchange.tryAcquireRetry() ? interval : FAIL_FAST;
+    }
+
+    /**
+     * @return the server's back-off hint in milliseconds, or {@code -1} if there is none
+     */
+    long retryAfterMillis(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof RestClientResponseException rre) {
+                HttpHeaders headers = rre.getResponseHeaders();
+                return headers != null ? parse(headers.getFirst(HttpHeaders.RETRY_AFTER)) : -1L;
+            }
+        }
+        return -1L;
+    }
+
+    private long parse(String value) {
+        if (value == null || value.isBlank()) {
+            return -1L;
+        }
+
+        String trimmed = value.trim();
+        if (isDigits(trimmed)) {
+            // values this large are far past any sensible budget; avoid overflowing the multiplication
+            return trimmed.length() > 6 ? Long.MAX_VALUE : Long.parseLong(trimmed) * 1000L;
+        }
+
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(
+                    0L, Duration.between(clock.instant(), date.toInstant()).toMillis());
+        } catch (DateTimeParseException ex) {
+            return -1L;
+        }
+    }
+
+    private static boolean isDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
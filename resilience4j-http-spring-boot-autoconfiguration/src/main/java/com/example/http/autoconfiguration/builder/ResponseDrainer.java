@@ -0,0 +1,134 @@
+package com.example.http.autoconfiguration.builder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.http.io.EofSensorInputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Releases a response the pipeline is about to discard (a retryable status or a 5xx) so its pooled
+ * connection goes back to the pool as soon as the attempt ends, instead of staying leased until GC.
+ * <p>
+ * The body is read up to a byte limit; if it ends within the limit the keep-alive connection is
+ * reused. A body that is declared or found to be larger is not worth the bandwidth, so the exchange
+ * is aborted and the connection discarded rather than reading the rest. The classic engine's raw body
+ * stream is aborted directly; any other stream, such as a decompressing wrapper or the jdk engine's, is
+ * closed after the exchange was cancelled through its {@link ExchangeAbortHandle}, since closing a
+ * response reads what is left of its body.
+ */
+@Slf4j
+final class ResponseDrainer {
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final int CHUNK = 4096;
+    private static final long MAX_LIMIT = Integer.MAX_VALUE - 8;
+
+    private final long limit;
+
+    ResponseDrainer(long limit) {
+        this.limit = Math.min(Math.max(0, limit), MAX_LIMIT);
+    }
+
+    /**
+     * Drains and closes {@code response}.
+     *
+     * @return the body if it was read completely within the limit, otherwise an empty array
+     */
+    byte[] discard(ClientHttpResponse response) {
+        return discard(response, null);
+    }
+
+    /**
+     * Drains and closes {@code response}, aborting the exchange through {@code handle} if the body is
+     * too large.
+     *
+     * @param handle the handle the exchange of {@code response} was attached to, or {@code null}
+     * @return the body if it was read completely within the limit, otherwise an empty array
+     */
+    byte[] discard(ClientHttpResponse response, ExchangeAbortHandle handle) {
+        byte[] body = EMPTY;
+        InputStream in = null;
+        try {
+            in = response.getBody();
+            if (in != null) {
+                body = drain(in, declaredLength(response), handle);
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.debug("Failed to drain discarded response; aborting connection", ex);
+            abort(in, handle);
+        } finally {
+            response.close();
+        }
+        return body;
+    }
+
+    /**
+     * Closes {@code response} without reading its body; the connection is discarded rather than
+     * reused. Used for responses that arrive after the exchange was already decided.
+     */
+    static void abort(ClientHttpResponse response) {
+        try {
+            abort(response.getBody(), null);
+        } catch (IOException | RuntimeException ex) {
+            log.debug("Failed to abort discarded response", ex);
+        } finally {
+            response.close();
+        }
+    }
+
+    private byte[] drain(InputStream in, long declaredLength, ExchangeAbortHandle handle) throws IOException {
+        if (declaredLength > limit) {
+            abort(in, handle);
+            return EMPTY;
+        }
+
+        int capacity = (int) Math.min(declaredLength >= 0 ? declaredLength : CHUNK, limit);
+        byte[] buffer = new byte[Math.max(capacity, 1)];
+        int total = 0;
+        while (total <= limit) {
+            if (total == buffer.length) {
+                buffer = Arrays.copyOf(buffer, (int) Math.min((long) buffer.length * 2, limit + 1));
+            }
+            int read = in.read(buffer, total, buffer.length - total);
+            if (read < 0) {
+                // EOF within the limit; the connection is released for reuse.
+                return total == 0 ? EMPTY : Arrays.copyOf(buffer, total);
+            }
+            total += read;
+        }
+
+        abort(in, handle);
+        return EMPTY;
+    }
+
+    private static long declaredLength(ClientHttpResponse response) {
+        HttpHeaders headers = response.getHeaders();
+        return headers != null ? headers.getContentLength() : -1;
+    }
+
+    private static void abort(InputStream in, ExchangeAbortHandle handle) {
+        if (in instanceof EofSensorInputStream eof) {
+            try {
+                eof.abort();
+            } catch (IOException ignored) {
+                // the connection is being discarded anyway
+            }
+            return;
+        }
+        if (handle != null) {
+            handle.abort();
+        }
+        if (in != null) {
+            try {
+                // ends the jdk engine's exchange without reading on; other streams fail fast on the
+                // connection the abort shut down
+                in.close();
+            } catch (IOException ignored) {
+                // the connection is being discarded anyway
+            }
+        }
+    }
+}
@@ -1,21 +1,34 @@
 package com.example.http.autoconfiguration.builder;
 
+import com.example.http.autoconfiguration.observation.UriPathNormalizer;
 import com.example.http.autoconfiguration.property.RestClientDefaultSettings;
 import com.example.http.autoconfiguration.property.RestClientProperties;
+import com.example.http.client.builder.ConnectionManagerRegistry;
 import com.example.http.client.builder.HttpClientConfigurer;
+import com.example.http.client.builder.RouteOverrides;
 import com.example.http.client.property.HttpClientDefaultSettings;
 import com.example.http.client.property.HttpClientProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.ratelimiter.RateLimiter;
 import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.observation.ObservationRegistry;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
 public class RestClientBuilder {
@@ -24,17 +37,42 @@ public class RestClientBuilder {
     private final CircuitBreakerRegistry circuitBreakerRegistry;
     private final RetryRegistry retryRegistry;
     private final RateLimiterRegistry rateLimiterRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final ThreadPoolBulkheadRegistry threadPoolBulkheadRegistry;
+    private final MeterRegistry meterRegistry;
+    private final UriPathNormalizer uriPathNormalizer;
+    private final ConnectionManagerRegistry connectionManagerRegistry;
+    private final List<CompletableFuture<Integer>> prewarms = new CopyOnWriteArrayList<>();
+    private final Map<String, RouteOverrides> routeOverrides = new ConcurrentHashMap<>();
+    private final RestClientLifecycle lifecycle = new RestClientLifecycle();
 
     private RestClientBuilder(
             ObservationRegistry observationRegistry,
             CircuitBreakerRegistry circuitBreakerRegistry,
             RetryRegistry retryRegistry,
-            RateLimiterRegistry rateLimiterRegistry) {
+            RateLimiterRegistry rateLimiterRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            ThreadPoolBulkheadRegistry threadPoolBulkheadRegistry,
+            MeterRegistry meterRegistry,
+            UriPathNormalizer uriPathNormalizer,
+            ConnectionManagerRegistry connectionManagerRegistry) {
 
         this.observationRegistry = observationRegistry;
         this.circuitBreakerRegistry = circuitBreakerRegistry;
         this.retryRegistry = retryRegistry;
         this.rateLimiterRegistry = rateLimiterRegistry;
+        this.bulkheadRegistry = bulkheadRegistry != null ? bulkheadRegistry : BulkheadRegistry.ofDefaults();
+        this.threadPoolBulkheadRegistry = threadPoolBulkheadRegistry != null
+                ? threadPoolBulkheadRegistry
+                : ThreadPoolBulkheadRegistry.ofDefaults();
+        this.meterRegistry = meterRegistry;
+        this.uriPathNormalizer = uriPathNormalizer;
+        if (connectionManagerRegistry != null) {
+            this.connectionManagerRegistry = connectionManagerRegistry;
+        } else {
+            this.connectionManagerRegistry = new ConnectionManagerRegistry();
+            lifecycle.closeLast(this.connectionManagerRegistry);
+        }
     }
 
     /**
@@ -53,6 +91,11 @@ public class RestClientBuilder {
         private CircuitBreakerRegistry circuitBreakerRegistry;
         private RetryRegistry retryRegistry;
         private RateLimiterRegistry rateLimiterRegistry;
+        private BulkheadRegistry bulkheadRegistry;
+        private ThreadPoolBulkheadRegistry threadPoolBulkheadRegistry;
+        private MeterRegistry meterRegistry;
+        private UriPathNormalizer uriPathNormalizer;
+        private ConnectionManagerRegistry connectionManagerRegistry;
 
         public DependenciesBuilder observationRegistry(ObservationRegistry r) {
             this.observationRegistry = r;
@@ -74,9 +117,59 @@ public class RestClientBuilder {
             return this;
         }
 
+        /**
+         * Optional; a private registry is used when not set, so bulkhead metrics bound to the
+         * application's registry are not published.
+         */
+        public DependenciesBuilder bulkheadRegistry(BulkheadRegistry r) {
+            this.bulkheadRegistry = r;
+            return this;
+        }
+
+        /**
+         * Optional; see {@link #bulkheadRegistry(BulkheadRegistry)}.
+         */
+        public DependenciesBuilder threadPoolBulkheadRegistry(ThreadPoolBulkheadRegistry r) {
+            this.threadPoolBulkheadRegistry = r;
+            return this;
+        }
+
+        /**
+         * Optional; client metrics (e.g. rate limiter queue depth) are only published when set.
+         */
+        public DependenciesBuilder meterRegistry(MeterRegistry r) {
+            this.meterRegistry = r;
+            return this;
+        }
+
+        /**
+         * Optional; replaces the default normalization of non-templated paths for the {@code http.uri} tag.
+         */
+        public DependenciesBuilder uriPathNormalizer(UriPathNormalizer n) {
+            this.uriPathNormalizer = n;
+            return this;
+        }
+
+        /**
+         * Optional; clients with {@code http-client.pool.shared} share connection managers through this
+         * registry. A registry private to this builder is used when not set.
+         */
+        public DependenciesBuilder connectionManagerRegistry(ConnectionManagerRegistry r) {
+            this.connectionManagerRegistry = r;
+            return this;
+        }
+
         public RestClientBuilder build() {
             return new RestClientBuilder(
-                    observationRegistry, circuitBreakerRegistry, retryRegistry, rateLimiterRegistry);
+                    observationRegistry,
+                    circuitBreakerRegistry,
+                    retryRegistry,
+                    rateLimiterRegistry,
+                    bulkheadRegistry,
+                    threadPoolBulkheadRegistry,
+                    meterRegistry,
+                    uriPathNormalizer,
+                    connectionManagerRegistry);
         }
     }
 
@@ -87,6 +180,34 @@ public class RestClientBuilder {
         return new ClientBuilder(name, props);
     }
 
+    /**
+     * Waits for the connection prewarming started by the clients built so far. Each prewarm is bounded by
+     * its own {@code prewarm.timeout} and they run in parallel; failures were already logged, so this never
+     * throws.
+     */
+    public void awaitPrewarm() {
+        for (CompletableFuture<Integer> prewarm : prewarms) {
+            prewarm.join();
+            prewarms.remove(prewarm);
+        }
+    }
+
+    /**
+     * @return the connection pool route overrides of the clients built so far, by client name, to change
+     *     route limits and connection settings at runtime
+     */
+    public Map<String, RouteOverrides> routeOverrides() {
+        return Collections.unmodifiableMap(routeOverrides);
+    }
+
+    /**
+     * @return the lifecycle draining and closing the clients built by this builder, to register as a bean
+     *     or to {@linkplain RestClientLifecycle#stop() stop} when the clients are no longer used
+     */
+    public RestClientLifecycle lifecycle() {
+        return lifecycle;
+    }
+
     public class ClientBuilder {
         private final String name;
         private final RestClientProperties props;
@@ -102,12 +223,14 @@ public class RestClientBuilder {
                     ? props.getHttpClient()
                     : HttpClientDefaultSettings.defaultHttpClient();
 
-            // 2) Build underlying request‐factory
-            var httpClient = HttpClientConfigurer.configure(httpProps);
-            var factory = new HttpComponentsClientHttpRequestFactory(httpClient);
-            factory.setConnectTimeout(props.getRequestFactory().getConnectTimeout());
-            factory.setConnectionRequestTimeout(props.getRequestFactory().getConnectionRequestTimeout());
-            factory.setReadTimeout(props.getRequestFactory().getReadTimeout());
+            // 2) Build underlying request‐factory, counting exchanges in flight for the shutdown drain
+            var factory = new DrainingClientHttpRequestFactory(
+                    name,
+                    switch (httpProps.getEngine()) {
+                        case ASYNC -> asyncRequestFactory(httpProps);
+                        case JDK -> jdkRequestFactory(httpProps);
+                        case CLASSIC -> classicRequestFactory(httpProps);
+                    });
 
             // 3) Obtain resilience configuration
             var resilienceConfig = props.getResilience() != null
@@ -124,30 +247,133 @@ public class RestClientBuilder {
             RateLimiter rl = resilienceConfig.isRateLimiterEnabled()
                     ? ResilienceInstanceFactory.getRateLimiter(name, rateLimiterRegistry, resilienceConfig)
                     : null;
+            Bulkhead bh = resilienceConfig.isBulkheadEnabled()
+                    ? ResilienceInstanceFactory.getBulkhead(name, bulkheadRegistry, resilienceConfig)
+                    : null;
+            ThreadPoolBulkhead tpbh = resilienceConfig.isThreadPoolBulkheadEnabled()
+                    ? ResilienceInstanceFactory.getThreadPoolBulkhead(
+                            name, threadPoolBulkheadRegistry, resilienceConfig)
+                    : null;
 
             // 5) Only attach interceptor if any resilience is enabled
-            var restClientBuilder =
-                    RestClient.builder().baseUrl(props.getBaseUrl()).requestFactory(factory);
+            var restClientBuilder = RestClient.builder()
+                    .baseUrl(props.getBaseUrl())
+                    .requestFactory(new BodyTransferClientHttpRequestFactory(factory));
+
+            var hedging = resilienceConfig.getHedging();
+            boolean hedgingEnabled = hedging != null && hedging.isEnabled();
+            var deadline = resilienceConfig.getDeadline();
+            boolean deadlineEnabled = deadline != null && deadline.isEnabled();
 
-            boolean shouldConfigureInterceptor = cb != null || retry != null || rl != null;
+            boolean shouldConfigureInterceptor = cb != null
+                    || retry != null
+                    || rl != null
+                    || bh != null
+                    || tpbh != null
+                    || hedgingEnabled
+                    || deadlineEnabled;
+            ResilienceHttpRequestInterceptor interceptor = null;
             if (shouldConfigureInterceptor) {
                 Set<HttpStatus> statuses =
                         retry != null ? resilienceConfig.getRetry().getRetryStatus() : Collections.emptySet();
 
-                var interceptor = ResilienceHttpRequestInterceptor.builder(observationRegistry)
+                var rlQueue = resilienceConfig.getRateLimiterQueue();
+                Integer rlQueueDepth =
+                        rl != null && rlQueue != null && rlQueue.isEnabled() ? rlQueue.getMaxDepth() : null;
+
+                interceptor = ResilienceHttpRequestInterceptor.builder(observationRegistry)
                         .clientName(name)
                         .observationTags(props.getObservationTags())
+                        .uriTags(props.getUriTags())
+                        .uriPathNormalizer(uriPathNormalizer)
+                        .order(resilienceConfig.getOrder())
                         .circuitBreaker(cb)
                         .retry(retry)
+                        .retryBudget(resilienceConfig.getRetryBudget())
                         .retryStatus(statuses)
                         .rateLimiter(rl)
+                        .rateLimiterQueueDepth(rlQueueDepth)
+                        .bulkhead(bh)
+                        .threadPoolBulkhead(tpbh)
+                        .hedging(hedging)
+                        .deadline(deadline)
+                        .meterRegistry(meterRegistry)
+                        .responseDrainLimit(resilienceConfig.getResponseDrainLimit())
                         .build();
 
                 restClientBuilder.requestInterceptor(interceptor);
             }
 
-            // 6) Return built RestClient
+            // 6) Drain and close the client with the application context
+            var shutdown =
+                    props.getShutdown() != null ? props.getShutdown() : RestClientDefaultSettings.defaultShutdown();
+            lifecycle.register(name, factory, shutdown.getDrainTimeout(), interceptor);
+
+            // 7) Return built RestClient
             return restClientBuilder.build();
         }
+
+        private ClientHttpRequestFactory classicRequestFactory(HttpClientProperties httpProps) {
+            var routes = HttpClientConfigurer.routeOverrides(httpProps);
+            var dnsResolver = HttpClientConfigurer.dnsResolver(httpProps);
+            DnsCacheMetrics.bind(name, dnsResolver, meterRegistry);
+            TlsSessionMetrics.bind(
+                    name,
+                    HttpClientConfigurer.tlsSessionStats(httpProps, connectionManagerRegistry.sslContexts()),
+                    meterRegistry);
+            var connectionManager = ConnectionPoolMetrics.decorate(
+                    HttpClientConfigurer.connectionManager(httpProps, connectionManagerRegistry, routes, dnsResolver),
+                    name,
+                    meterRegistry);
+            routeOverrides.put(name, routes);
+            var prewarm = props.getPrewarm();
+            if (prewarm != null && prewarm.isEnabled() && props.getBaseUrl() != null) {
+                prewarms.add(ConnectionPrewarmer.start(name, props.getBaseUrl(), connectionManager, prewarm));
+            }
+            var factory =
+                    new AbortableClientHttpRequestFactory(HttpClientConfigurer.configure(httpProps, connectionManager));
+            factory.setExpectContinue(props.getRequestFactory().isExpectContinue());
+            factory.setConnectTimeout(props.getRequestFactory().getConnectTimeout());
+            factory.setConnectionRequestTimeout(props.getRequestFactory().getConnectionRequestTimeout());
+            factory.setReadTimeout(props.getRequestFactory().getReadTimeout());
+            return factory;
+        }
+
+        private ClientHttpRequestFactory jdkRequestFactory(HttpClientProperties httpProps) {
+            var executor = HttpClientConfigurer.jdkExecutor(httpProps);
+            var httpClient = HttpClientConfigurer.configureJdk(
+                    httpProps,
+                    props.getRequestFactory().getConnectTimeout(),
+                    executor,
+                    connectionManagerRegistry.sslContexts());
+            var factory = new JdkEngineClientHttpRequestFactory(
+                    httpClient, executor, props.getRequestFactory().isExpectContinue());
+            factory.setReadTimeout(props.getRequestFactory().getReadTimeout());
+            return factory;
+        }
+
+        private ClientHttpRequestFactory asyncRequestFactory(HttpClientProperties httpProps) {
+            var routes = HttpClientConfigurer.routeOverrides(httpProps);
+            var dnsResolver = HttpClientConfigurer.dnsResolver(httpProps);
+            DnsCacheMetrics.bind(name, dnsResolver, meterRegistry);
+            TlsSessionMetrics.bind(
+                    name,
+                    HttpClientConfigurer.tlsSessionStats(httpProps, connectionManagerRegistry.sslContexts()),
+                    meterRegistry);
+            var connectionManager = ConnectionPoolMetrics.decorate(
+                    HttpClientConfigurer.asyncConnectionManager(
+                            httpProps, routes, dnsResolver, connectionManagerRegistry.sslContexts()),
+                    name,
+                    meterRegistry);
+            routeOverrides.put(name, routes);
+            var factory = new AsyncClientHttpRequestFactory(
+                    HttpClientConfigurer.configureAsync(httpProps, connectionManager));
+            factory.setCompression(HttpClientConfigurer.compression(httpProps));
+            factory.setExpectContinue(props.getRequestFactory().isExpectContinue());
+            factory.setConnectTimeout(props.getRequestFactory().getConnectTimeout());
+            factory.setConnectionRequestTimeout(props.getRequestFactory().getConnectionRequestTimeout());
+            factory.setReadTimeout(props.getRequestFactory().getReadTimeout());
+            return factory;
+        }
     }
 }
@@ -0,0 +1,121 @@
+package com.example.http.autoconfiguration.builder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Shuts the clients of a {@link RestClientBuilder} down gracefully when the application context stops.
+ * <p>
+ * Every client refuses new requests at once; then each gets its {@code shutdown.drain-timeout}, counted
+ * from the start of the shutdown, for the exchanges in flight to complete. Afterwards the clients are
+ * closed: connection pools with their idle-connection evictors, async I/O reactors, and the hedging and
+ * deadline threads. The phase is below the web server's graceful shutdown, so inbound requests still
+ * being served can call out until they are done.
+ * <p>
+ * {@link #close()} closes the clients without draining, e.g. when the context fails before starting.
+ */
+@Slf4j
+public final class RestClientLifecycle implements SmartLifecycle {
+
+    /**
+     * Stopped after the web server's graceful shutdown ({@code DEFAULT_PHASE - 1024}) and stop
+     * ({@code DEFAULT_PHASE - 2048}).
+     */
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final List<Client> clients = new ArrayList<>();
+    private final List<AutoCloseable> closeLast = new ArrayList<>();
+    private volatile boolean running;
+
+    RestClientLifecycle() {}
+
+    synchronized void register(
+            String name, DrainingClientHttpRequestFactory factory, Duration drainTimeout, AutoCloseable interceptor) {
+        clients.add(new Client(name, factory, drainTimeout, interceptor));
+    }
+
+    /**
+     * Closes {@code resource} after every client, e.g. the registry of shared pools the clients use.
+     */
+    synchronized void closeLast(AutoCloseable resource) {
+        closeLast.add(resource);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Refuses new requests, waits for the drain timeouts and closes the clients.
+     */
+    @Override
+    public void stop() {
+        List<Client> draining;
+        synchronized (this) {
+            draining = List.copyOf(clients);
+        }
+        long start = System.nanoTime();
+        draining.forEach(client -> client.factory.shutdown());
+        try {
+            for (Client client : draining) {
+                Duration timeout = client.drainTimeout != null ? client.drainTimeout : Duration.ZERO;
+                if (!client.factory.awaitDrained(start + timeout.toNanos())) {
+                    log.warn(
+                            "Client '{}' still has {} exchanges in flight after {}, closing it",
+                            client.name,
+                            client.factory.inFlight(),
+                            timeout);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close();
+            running = false;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Closes every client right away, aborting the exchanges in flight. Clients closed before are skipped.
+     */
+    public synchronized void close() {
+        clients.forEach(Client::close);
+        clients.clear();
+        closeLast.forEach(resource -> close("connection pools", resource));
+        closeLast.clear();
+    }
+
+    private static void close(String name, AutoCloseable resource) {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (Exception ex) {
+            log.warn("Failed to close {}", name, ex);
+        }
+    }
+
+    private record Client(
+            String name, DrainingClientHttpRequestFactory factory, Duration drainTimeout, AutoCloseable interceptor) {
+
+        void close() {
+            RestClientLifecycle.close("client '" + name + "'", factory);
+            RestClientLifecycle.close("resilience stages of client '" + name + "'", interceptor);
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.http.autoconfiguration.builder;
 
+import com.example.http.autoconfiguration.property.RestClientProperties;
+import io.github.resilience4j.core.IntervalBiFunction;
 import io.github.resilience4j.core.IntervalFunction;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import io.github.resilience4j.retry.RetryRegistry;
 import io.github.resilience4j.springboot3.retry.autoconfigure.RetryProperties;
+import java.time.Duration;
 import lombok.experimental.UtilityClass;
 
 @UtilityClass
@@ -25,10 +28,7 @@ public final class RetryFactory {
             builder.ignoreExceptions(props.getIgnoreExceptions());
         }
 
-        IntervalFunction intervalFn = configureIntervalFunction(props);
-        if (intervalFn != null) {
-            builder.intervalFunction(intervalFn);
-        }
+        builder.intervalBiFunction(configureIntervalFunction(props));
 
         if (props.getMaxAttempts() != null) {
             builder.maxAttempts(props.getMaxAttempts());
@@ -38,25 +38,43 @@ public final class RetryFactory {
             builder.retryExceptions(props.getRetryExceptions());
         }
 
-        if (props.getWaitDuration() != null) {
-            builder.waitDuration(props.getWaitDuration());
-        }
-
         RetryConfig config = builder.build();
         return registry.retry(name, config);
     }
 
-    private static IntervalFunction configureIntervalFunction(RetryProperties.InstanceProperties props) {
-        if (props == null || props.getWaitDuration() == null) {
-            return null;
+    /**
+     * The interval Resilience4j would use for these properties: a fixed {@code waitDuration} (its default
+     * when unset), randomized and/or exponential only when {@code enableRandomizedWait} or
+     * {@code enableExponentialBackoff} opt in. The server's {@code Retry-After} hint overrides it per
+     * attempt up to {@code exponentialMaxWaitDuration}; a longer hint fails the call fast, or is capped
+     * when {@code capRetryAfter} is set (see {@link ResponseAwareIntervalFunction}).
+     */
+    private static IntervalBiFunction<Object> configureIntervalFunction(RetryProperties.InstanceProperties props) {
+        Duration waitDuration = props.getWaitDuration() != null
+                ? props.getWaitDuration()
+                : Duration.ofMillis(RetryConfig.DEFAULT_WAIT_DURATION);
+        Duration maxWait = props.getExponentialMaxWaitDuration() != null
+                ? props.getExponentialMaxWaitDuration()
+                : waitDuration.multipliedBy(10);
+        double multiplier =
+                props.getExponentialBackoffMultiplier() != null ? props.getExponentialBackoffMultiplier() : 2.0;
+        double randomizationFactor = props.getRandomizedWaitFactor() != null ? props.getRandomizedWaitFactor() : 0.5;
+
+        boolean exponential = Boolean.TRUE.equals(props.getEnableExponentialBackoff());
+        boolean randomized = Boolean.TRUE.equals(props.getEnableRandomizedWait());
+        IntervalFunction backoff;
+        if (exponential && randomized) {
+            backoff =
+                    IntervalFunction.ofExponentialRandomBackoff(waitDuration, multiplier, randomizationFactor, maxWait);
+        } else if (exponential) {
+            backoff = IntervalFunction.ofExponentialBackoff(waitDuration, multiplier, maxWait);
+        } else if (randomized) {
+            backoff = IntervalFunction.ofRandomized(waitDuration, randomizationFactor);
+        } else {
+            backoff = IntervalFunction.of(waitDuration);
         }
 
-        return IntervalFunction.ofExponentialRandomBackoff(
-                props.getWaitDuration(),
-                props.getExponentialBackoffMultiplier() != null ? props.getExponentialBackoffMultiplier() : 2.0,
-                props.getRandomizedWaitFactor() != null ? props.getRandomizedWaitFactor() : 0.5,
-                props.getExponentialMaxWaitDuration() != null
-                        ? props.getExponentialMaxWaitDuration()
-                        : props.getWaitDuration().multipliedBy(10));
+        boolean capRetryAfter = props instanceof RestClientProperties.RetryWrapper wrapper && wrapper.isCapRetryAfter();
+        return new ResponseAwareIntervalFunction(backoff, maxWait, capRetryAfter);
     }
 }
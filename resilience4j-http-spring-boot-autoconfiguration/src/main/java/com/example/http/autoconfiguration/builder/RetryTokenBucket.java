@@ -0,0 +1,84 @@
+package com.example.http.autoconfiguration.builder;
+
+import com.example.http.autoconfiguration.property.RestClientProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client retry budget: a retry is allowed while retries stay within {@code ratio} of successful
+ * calls, or while fewer than {@code minRetriesPerSecond} were granted in the current second.
+ * <p>
+ * Every success deposits {@code ratio} of a token into a {@link RatioBudget} capped at
+ * {@code maxTokens}; a retry spends one. The per-second floor keeps low-traffic clients able to retry
+ * at all. When the upstream degrades, successes stop earning tokens and retries fall back to the floor
+ * instead of multiplying the load by {@code maxAttempts}. Both paths are single CAS loops.
+ */
+final class RetryTokenBucket {
+
+    static final String METRIC = "http.client.retry.budget";
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int USED_BITS = 20;
+    private static final long USED_MASK = (1L << USED_BITS) - 1;
+
+    private final RatioBudget earned;
+    private final long minPerSecond;
+    private final long origin = System.nanoTime();
+    // current second since origin in the high bits, floor retries granted in it in the low bits
+    private final AtomicLong floor = new AtomicLong();
+    private final Counter granted;
+    private final Counter denied;
+
+    RetryTokenBucket(RestClientProperties.RetryBudget props, String clientName, MeterRegistry meterRegistry) {
+        this.earned = new RatioBudget(props.getRatio(), props.getMaxTokens());
+        this.minPerSecond = Math.min(Math.max(0, props.getMinRetriesPerSecond()), USED_MASK);
+        this.granted = counter(meterRegistry, clientName, "granted");
+        this.denied = counter(meterRegistry, clientName, "denied");
+    }
+
+    /**
+     * Records a successful call.
+     */
+    void deposit() {
+        earned.deposit();
+    }
+
+    boolean tryAcquire() {
+        boolean permitted = tryAcquireFloor() || earned.tryAcquire();
+        Counter counter = permitted ? granted : denied;
+        if (counter != null) {
+            counter.increment();
+        }
+        return permitted;
+    }
+
+    private boolean tryAcquireFloor() {
+        if (minPerSecond == 0) {
+            return false;
+        }
+        long second = (System.nanoTime() - origin) / NANOS_PER_SECOND;
+        long current;
+        long next;
+        do {
+            current = floor.get();
+            long used = (current >>> USED_BITS) == second ? current & USED_MASK : 0L;
+            if (used >= minPerSecond) {
+                return false;
+            }
+            next = (second << USED_BITS) | (used + 1);
+        } while (!floor.compareAndSet(current, next));
+        return true;
+    }
+
+    private static Counter counter(MeterRegistry registry, String clientName, String result) {
+        if (registry == null) {
+            return null;
+        }
+        return Counter.builder(METRIC)
+                .description("Retries checked against the retry budget by result")
+                .tag("client", String.valueOf(clientName))
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.http.autoconfiguration.builder;
+
+import com.example.http.client.builder.TlsSessionStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the TLS handshakes of a client's {@code SSLContext} to Micrometer:
+ * {@code http.client.tls.handshakes} counts them by {@code type} (full, or resumed from the session cache),
+ * and {@code http.client.tls.resumption.ratio} is the share that resumed. Clients sharing a context each
+ * report all of its handshakes.
+ */
+final class TlsSessionMetrics implements MeterBinder {
+
+    static final String HANDSHAKES = "http.client.tls.handshakes";
+    static final String RESUMPTION_RATIO = "http.client.tls.resumption.ratio";
+
+    private final String clientName;
+    private final TlsSessionStats stats;
+
+    TlsSessionMetrics(String clientName, TlsSessionStats stats) {
+        this.clientName = String.valueOf(clientName);
+        this.stats = stats;
+    }
+
+    /**
+     * Binds {@code stats} to {@code registry} unless either is {@code null}.
+     */
+    static void bind(String clientName, TlsSessionStats stats, MeterRegistry registry) {
+        if (stats != null && registry != null) {
+            new TlsSessionMetrics(clientName, stats).bindTo(registry);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Tags tags = Tags.of("client", clientName);
+        FunctionCounter.builder(HANDSHAKES, stats, TlsSessionStats::fullHandshakes)
+                .tags(tags.and("type", "full"))
+                .description("TLS handshakes that established a new session")
+                .register(registry);
+        FunctionCounter.builder(HANDSHAKES, stats, TlsSessionStats::resumedHandshakes)
+                .tags(tags.and("type", "resumed"))
+                .description("TLS handshakes that resumed a cached session")
+                .register(registry);
+        Gauge.builder(RESUMPTION_RATIO, stats, TlsSessionStats::resumptionRatio)
+                .tags(tags)
+                .description("Share of TLS handshakes that resumed a cached session")
+                .register(registry);
+    }
+}
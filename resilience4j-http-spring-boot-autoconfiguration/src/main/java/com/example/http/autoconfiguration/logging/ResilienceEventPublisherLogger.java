@@ -1,5 +1,7 @@
 package com.example.http.autoconfiguration.logging;
 
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.ratelimiter.RateLimiter;
 import io.github.resilience4j.retry.Retry;
@@ -58,4 +60,20 @@ public final class ResilienceEventPublisherLogger {
                     .onEvent(event -> log.info("Rate limiter[{}] full event: {}", rl.getName(), event));
         }
     }
+
+    public static void attach(Bulkhead bulkhead, ThreadPoolBulkhead threadPoolBulkhead, Logger log) {
+        if (bulkhead != null) {
+            bulkhead.getEventPublisher()
+                    .onCallRejected(
+                            event -> log.warn("Bulkhead[{}] call rejected (bulkhead is full)", bulkhead.getName()));
+        }
+
+        if (threadPoolBulkhead != null) {
+            threadPoolBulkhead
+                    .getEventPublisher()
+                    .onCallRejected(event -> log.warn(
+                            "Thread pool bulkhead[{}] call rejected (pool and queue are full)",
+                            threadPoolBulkhead.getName()));
+        }
+    }
 }
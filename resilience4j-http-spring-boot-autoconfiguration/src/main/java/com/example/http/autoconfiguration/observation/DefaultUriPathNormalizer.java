@@ -0,0 +1,76 @@
+package com.example.http.autoconfiguration.observation;
+
+/**
+ * Replaces path segments that look like identifiers with {@code {id}}: all-digit segments, UUIDs,
+ * and hex strings of 16 characters or more (hashes, object ids).
+ */
+public final class DefaultUriPathNormalizer implements UriPathNormalizer {
+
+    public static final String ID_PLACEHOLDER = "{id}";
+
+    private static final int MIN_HEX_ID_LENGTH = 16;
+
+    @Override
+    public String normalize(String path) {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+
+        StringBuilder normalized = null;
+        int start = 0;
+        int length = path.length();
+        while (start <= length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (isIdentifier(path, start, end)) {
+                if (normalized == null) {
+                    normalized = new StringBuilder(length).append(path, 0, start);
+                }
+                normalized.append(ID_PLACEHOLDER);
+            } else if (normalized != null) {
+                normalized.append(path, start, end);
+            }
+            if (end < length && normalized != null) {
+                normalized.append('/');
+            }
+            start = end + 1;
+        }
+        return normalized != null ? normalized.toString() : path;
+    }
+
+    private static boolean isIdentifier(String path, int start, int end) {
+        int length = end - start;
+        if (length == 0) {
+            return false;
+        }
+
+        boolean digitsOnly = true;
+        boolean hexOnly = true;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            boolean digit = c >= '0' && c <= '9';
+            digitsOnly &= digit;
+            hexOnly &= digit || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+        }
+        return digitsOnly || (hexOnly && length >= MIN_HEX_ID_LENGTH) || isUuid(path, start, length);
+    }
+
+    private static boolean isUuid(String path, int start, int length) {
+        if (length != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = path.charAt(start + i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -3,11 +3,23 @@ package com.example.http.autoconfiguration.observation;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.ratelimiter.RateLimiter;
 import io.github.resilience4j.retry.Retry;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
 import io.micrometer.observation.Observation;
+import java.util.EnumMap;
 import java.util.Map;
 
 public final class ResilienceObservationTagContributor {
 
+    private static final KeyValue CB_STATE_NONE = KeyValue.of("cb.state", "none");
+    private static final Map<CircuitBreaker.State, KeyValue> CB_STATES = new EnumMap<>(CircuitBreaker.State.class);
+
+    static {
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            CB_STATES.put(state, KeyValue.of("cb.state", state.name()));
+        }
+    }
+
     public static void contribute(
             Observation observation,
             String clientName,
@@ -25,4 +37,30 @@ public final class ResilienceObservationTagContributor {
             customTags.forEach(observation::lowCardinalityKeyValue);
         }
     }
+
+    /**
+     * The tags that never change for a client, resolved once so they can be attached to every
+     * observation without rebuilding them.
+     */
+    public static KeyValues staticKeyValues(
+            String clientName, Retry retry, RateLimiter rl, Map<String, String> customTags) {
+        KeyValues keyValues = KeyValues.of(
+                KeyValue.of("client", String.valueOf(clientName)),
+                KeyValue.of("retry.enabled", retry != null ? "true" : "false"),
+                KeyValue.of("rl.enabled", rl != null ? "true" : "false"));
+
+        if (customTags != null) {
+            for (Map.Entry<String, String> tag : customTags.entrySet()) {
+                keyValues = keyValues.and(tag.getKey(), tag.getValue());
+            }
+        }
+        return keyValues;
+    }
+
+    /**
+     * The {@code cb.state} tag for the breaker's current state, taken from a pre-built table.
+     */
+    public static KeyValue circuitBreakerState(CircuitBreaker cb) {
+        return cb != null ? CB_STATES.get(cb.getState()) : CB_STATE_NONE;
+    }
 }
@@ -0,0 +1,13 @@
+package com.example.http.autoconfiguration.observation;
+
+/**
+ * Maps a raw request path to a low-cardinality form for the {@code http.uri} tag, used when the
+ * request was not built from a URI template.
+ * <p>
+ * Register a bean of this type to replace {@link DefaultUriPathNormalizer}.
+ */
+@FunctionalInterface
+public interface UriPathNormalizer {
+
+    String normalize(String path);
+}
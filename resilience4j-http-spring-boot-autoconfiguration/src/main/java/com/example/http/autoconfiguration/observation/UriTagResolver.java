@@ -0,0 +1,130 @@
+package com.example.http.autoconfiguration.observation;
+
+import io.micrometer.common.KeyValue;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.http.HttpRequest;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Resolves the low-cardinality {@code http.uri} tag for one client.
+ * <p>
+ * The URI template that {@link RestClient} records on the request ({@code /orders/{id}}) is used when
+ * present, otherwise the raw path. Either one then goes through a {@link UriPathNormalizer}, since
+ * {@code uri("/orders/" + id)} also records a "template" with the id baked in; results are kept in a
+ * bounded LRU so hot paths are normalized once. Either way at most {@code maxDistinctValues} tag
+ * values are ever emitted; anything beyond that is reported as {@value #OVERFLOW_VALUE}.
+ */
+public final class UriTagResolver {
+
+    public static final String TAG_NAME = "http.uri";
+    public static final String OVERFLOW_VALUE = "OTHER";
+
+    /** Request attribute under which {@code DefaultRestClient} stores the URI template. */
+    static final String URI_TEMPLATE_ATTRIBUTE = RestClient.class.getName() + ".uriTemplate";
+
+    private static final KeyValue OVERFLOW = KeyValue.of(TAG_NAME, OVERFLOW_VALUE);
+
+    private final UriPathNormalizer normalizer;
+    private final int maxDistinctValues;
+    private final Map<String, KeyValue> admitted = new ConcurrentHashMap<>();
+    private final AtomicInteger distinct = new AtomicInteger();
+    private final Map<String, KeyValue> normalizedPaths;
+
+    public UriTagResolver(UriPathNormalizer normalizer, int maxDistinctValues, int normalizedPathCacheSize) {
+        this.normalizer = normalizer != null ? normalizer : new DefaultUriPathNormalizer();
+        this.maxDistinctValues = Math.max(0, maxDistinctValues);
+        this.normalizedPaths = new LruMap<>(Math.max(1, normalizedPathCacheSize));
+    }
+
+    public KeyValue resolve(HttpRequest request) {
+        Object template = request.getAttributes().get(URI_TEMPLATE_ATTRIBUTE);
+        String path = template instanceof String uriTemplate
+                ? templatePath(uriTemplate)
+                : request.getURI().getRawPath();
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        }
+
+        KeyValue keyValue;
+        synchronized (normalizedPaths) {
+            keyValue = normalizedPaths.get(path);
+        }
+        if (keyValue == null) {
+            keyValue = admit(normalizer.normalize(path));
+            synchronized (normalizedPaths) {
+                normalizedPaths.put(path, keyValue);
+            }
+        }
+        return keyValue;
+    }
+
+    int distinctValues() {
+        return distinct.get();
+    }
+
+    private KeyValue admit(String value) {
+        if (value == null) {
+            return OVERFLOW;
+        }
+
+        KeyValue keyValue = admitted.get(value);
+        if (keyValue != null) {
+            return keyValue;
+        }
+
+        keyValue = admitted.computeIfAbsent(value, v -> {
+            if (distinct.incrementAndGet() > maxDistinctValues) {
+                distinct.decrementAndGet();
+                return null;
+            }
+            return KeyValue.of(TAG_NAME, v);
+        });
+        return keyValue != null ? keyValue : OVERFLOW;
+    }
+
+    /**
+     * The template is expanded against the base URL, so strip scheme, authority and query:
+     * {@code https://host/orders/{id}?expand={x}} becomes {@code /orders/{id}}.
+     */
+    static String templatePath(String uriTemplate) {
+        int start = 0;
+        int scheme = uriTemplate.indexOf("://");
+        if (scheme >= 0) {
+            int slash = uriTemplate.indexOf('/', scheme + 3);
+            if (slash < 0) {
+                return "/";
+            }
+            start = slash;
+        }
+
+        int end = uriTemplate.length();
+        int query = uriTemplate.indexOf('?', start);
+        if (query >= 0) {
+            end = query;
+        }
+        int fragment = uriTemplate.indexOf('#', start);
+        if (fragment >= 0 && fragment < end) {
+            end = fragment;
+        }
+
+        String path = uriTemplate.substring(start, end);
+        return path.isEmpty() ? "/" : path;
+    }
+
+    private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+        private final int maxSize;
+
+        private LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.http.autoconfiguration.property;
+
+/**
+ * A decorator in the per-client resilience pipeline. {@link RestClientProperties.Resilience#getOrder()}
+ * lists them from outermost to innermost; a stage that wraps {@link #RETRY} sees a single call, a stage
+ * inside it sees every attempt.
+ */
+public enum ResilienceStage {
+    DEADLINE,
+    BULKHEAD,
+    THREAD_POOL_BULKHEAD,
+    RATE_LIMITER,
+    CIRCUIT_BREAKER,
+    RETRY
+}
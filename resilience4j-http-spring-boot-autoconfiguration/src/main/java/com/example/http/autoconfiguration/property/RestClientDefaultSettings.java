@@ -1,16 +1,21 @@
 package com.example.http.autoconfiguration.property;
 
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.common.bulkhead.configuration.CommonBulkheadConfigurationProperties;
+import io.github.resilience4j.common.bulkhead.configuration.CommonThreadPoolBulkheadConfigurationProperties;
 import io.github.resilience4j.springboot3.circuitbreaker.autoconfigure.CircuitBreakerProperties;
 import io.github.resilience4j.springboot3.ratelimiter.autoconfigure.RateLimiterProperties;
 import jakarta.validation.ValidationException;
 import java.net.ConnectException;
 import java.net.SocketTimeoutException;
 import java.time.Duration;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeoutException;
 import lombok.experimental.UtilityClass;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 
@@ -22,12 +27,26 @@ public final class RestClientDefaultSettings {
                 .circuitBreakerEnabled(false)
                 .rateLimiterEnabled(false)
                 .retryEnabled(false)
+                .bulkheadEnabled(false)
+                .threadPoolBulkheadEnabled(false)
                 .circuitBreaker(defaultCircuitBreakerProperties())
                 .rateLimiter(defaultRateLimiterProperties())
+                .bulkhead(defaultBulkheadProperties())
+                .threadPoolBulkhead(defaultThreadPoolBulkheadProperties())
+                .order(defaultStageOrder())
+                .rateLimiterQueue(defaultRateLimiterQueue())
                 .retry(defaultRetryWrapper())
+                .hedging(defaultHedging())
+                .deadline(defaultDeadline())
+                .retryBudget(defaultRetryBudget())
+                .responseDrainLimit(defaultResponseDrainLimit())
                 .build();
     }
 
+    public DataSize defaultResponseDrainLimit() {
+        return DataSize.ofKilobytes(16);
+    }
+
     public CircuitBreakerProperties.InstanceProperties defaultCircuitBreakerProperties() {
         CircuitBreakerProperties.InstanceProperties props = new CircuitBreakerProperties.InstanceProperties();
         props.setAutomaticTransitionFromOpenToHalfOpenEnabled(true);
@@ -54,11 +73,104 @@ public final class RestClientDefaultSettings {
         return props;
     }
 
+    public CommonBulkheadConfigurationProperties.InstanceProperties defaultBulkheadProperties() {
+        CommonBulkheadConfigurationProperties.InstanceProperties props =
+                new CommonBulkheadConfigurationProperties.InstanceProperties();
+        props.setMaxConcurrentCalls(25);
+        props.setMaxWaitDuration(Duration.ZERO);
+        props.setWritableStackTraceEnabled(false);
+        return props;
+    }
+
+    public CommonThreadPoolBulkheadConfigurationProperties.InstanceProperties defaultThreadPoolBulkheadProperties() {
+        CommonThreadPoolBulkheadConfigurationProperties.InstanceProperties props =
+                new CommonThreadPoolBulkheadConfigurationProperties.InstanceProperties();
+        props.setMaxThreadPoolSize(10);
+        props.setCoreThreadPoolSize(5);
+        props.setQueueCapacity(50);
+        props.setKeepAliveDuration(Duration.ofSeconds(30));
+        props.setWritableStackTraceEnabled(false);
+        return props;
+    }
+
+    /**
+     * Deadline outermost so its budget covers queueing for permits as well as the attempts; bulkheads
+     * next so their limit covers the whole call, including rate limiter waits and retry
+     * back-off; rate limiter next and retry innermost, so the whole retried call takes one permit and
+     * counts as one circuit breaker call.
+     */
+    public List<ResilienceStage> defaultStageOrder() {
+        return List.of(
+                ResilienceStage.DEADLINE,
+                ResilienceStage.BULKHEAD,
+                ResilienceStage.THREAD_POOL_BULKHEAD,
+                ResilienceStage.RATE_LIMITER,
+                ResilienceStage.CIRCUIT_BREAKER,
+                ResilienceStage.RETRY);
+    }
+
+    public RestClientProperties.RateLimiterQueue defaultRateLimiterQueue() {
+        return RestClientProperties.RateLimiterQueue.builder()
+                .enabled(false)
+                .maxDepth(20)
+                .build();
+    }
+
+    public RestClientProperties.Hedging defaultHedging() {
+        return RestClientProperties.Hedging.builder()
+                .enabled(false)
+                .delay(Duration.ofMillis(100))
+                .adaptiveDelay(false)
+                .budgetRatio(0.05)
+                .methods(Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS))
+                .maxConcurrent(10)
+                .build();
+    }
+
+    public RestClientProperties.Deadline defaultDeadline() {
+        return RestClientProperties.Deadline.builder()
+                .enabled(false)
+                .total(Duration.ofSeconds(30))
+                .perAttempt(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public RestClientProperties.RetryBudget defaultRetryBudget() {
+        return RestClientProperties.RetryBudget.builder()
+                .enabled(false)
+                .ratio(0.2)
+                .minRetriesPerSecond(10)
+                .maxTokens(100)
+                .build();
+    }
+
+    public RestClientProperties.UriTags defaultUriTags() {
+        return RestClientProperties.UriTags.builder()
+                .maxDistinctValues(100)
+                .pathCacheSize(1000)
+                .build();
+    }
+
     public RestClientProperties.RequestFactory defaultRequestFactory() {
         return RestClientProperties.RequestFactory.builder()
                 .connectTimeout(Duration.ofSeconds(5))
                 .connectionRequestTimeout(Duration.ofSeconds(2))
                 .readTimeout(Duration.ofSeconds(10))
+                .expectContinue(false)
+                .build();
+    }
+
+    public RestClientProperties.Prewarm defaultPrewarm() {
+        return RestClientProperties.Prewarm.builder()
+                .enabled(false)
+                .connections(4)
+                .timeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public RestClientProperties.Shutdown defaultShutdown() {
+        return RestClientProperties.Shutdown.builder()
+                .drainTimeout(Duration.ofSeconds(10))
                 .build();
     }
 
@@ -66,6 +178,7 @@ public final class RestClientDefaultSettings {
         var retry = new RestClientProperties.RetryWrapper();
         retry.setExponentialBackoffMultiplier(2.0);
         retry.setExponentialMaxWaitDuration(Duration.ofSeconds(10));
+        retry.setCapRetryAfter(false);
         retry.setFailAfterMaxAttempts(true);
         retry.setIgnoreExceptions(new Class[] {IllegalArgumentException.class, ValidationException.class});
         retry.setMaxAttempts(4);
@@ -1,11 +1,14 @@
 package com.example.http.autoconfiguration.property;
 
 import com.example.http.client.property.HttpClientProperties;
+import io.github.resilience4j.common.bulkhead.configuration.CommonBulkheadConfigurationProperties;
+import io.github.resilience4j.common.bulkhead.configuration.CommonThreadPoolBulkheadConfigurationProperties;
 import io.github.resilience4j.common.retry.configuration.CommonRetryConfigurationProperties;
 import io.github.resilience4j.springboot3.circuitbreaker.autoconfigure.CircuitBreakerProperties;
 import io.github.resilience4j.springboot3.ratelimiter.autoconfigure.RateLimiterProperties;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import lombok.AllArgsConstructor;
@@ -14,7 +17,9 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
 
 @Data
 @Builder
@@ -37,6 +42,9 @@ public class RestClientProperties {
     @Builder.Default
     private Map<String, String> observationTags = new HashMap<>();
 
+    @Builder.Default
+    private UriTags uriTags = RestClientDefaultSettings.defaultUriTags();
+
     @Builder.Default
     @NestedConfigurationProperty
     private Resilience resilience = RestClientDefaultSettings.defaultResilience();
@@ -44,6 +52,12 @@ public class RestClientProperties {
     @Builder.Default
     private RequestFactory requestFactory = RestClientDefaultSettings.defaultRequestFactory();
 
+    @Builder.Default
+    private Prewarm prewarm = RestClientDefaultSettings.defaultPrewarm();
+
+    @Builder.Default
+    private Shutdown shutdown = RestClientDefaultSettings.defaultShutdown();
+
     public static RestClientProperties defaultConfig() {
         return RestClientProperties.builder().build();
     }
@@ -63,6 +77,12 @@ public class RestClientProperties {
         @Builder.Default
         private boolean rateLimiterEnabled = false;
 
+        @Builder.Default
+        private boolean bulkheadEnabled = false;
+
+        @Builder.Default
+        private boolean threadPoolBulkheadEnabled = false;
+
         @Builder.Default
         private CircuitBreakerProperties.InstanceProperties circuitBreaker =
                 RestClientDefaultSettings.defaultCircuitBreakerProperties();
@@ -71,10 +91,173 @@ public class RestClientProperties {
         private RateLimiterProperties.InstanceProperties rateLimiter =
                 RestClientDefaultSettings.defaultRateLimiterProperties();
 
+        /**
+         * Semaphore bulkhead: caps concurrent calls on the caller's thread.
+         */
+        @Builder.Default
+        private CommonBulkheadConfigurationProperties.InstanceProperties bulkhead =
+                RestClientDefaultSettings.defaultBulkheadProperties();
+
+        /**
+         * Thread-pool bulkhead: runs the call on a dedicated bounded pool and rejects it once the pool
+         * and its queue are full.
+         */
+        @Builder.Default
+        private CommonThreadPoolBulkheadConfigurationProperties.InstanceProperties threadPoolBulkhead =
+                RestClientDefaultSettings.defaultThreadPoolBulkheadProperties();
+
+        /**
+         * Stage order from outermost to innermost. Stages that are disabled are skipped; every enabled
+         * stage must appear exactly once.
+         */
+        @Builder.Default
+        private List<ResilienceStage> order = RestClientDefaultSettings.defaultStageOrder();
+
+        @Builder.Default
+        private RateLimiterQueue rateLimiterQueue = RestClientDefaultSettings.defaultRateLimiterQueue();
+
         @Builder.Default
         private RetryWrapper retry = RestClientDefaultSettings.defaultRetryWrapper();
+
+        @Builder.Default
+        private Hedging hedging = RestClientDefaultSettings.defaultHedging();
+
+        @Builder.Default
+        private Deadline deadline = RestClientDefaultSettings.defaultDeadline();
+
+        @Builder.Default
+        private RetryBudget retryBudget = RestClientDefaultSettings.defaultRetryBudget();
+
+        /**
+         * How much of a discarded response body (retryable status or 5xx) is read to return its
+         * connection to the pool; longer bodies abort the connection instead.
+         */
+        @Builder.Default
+        private DataSize responseDrainLimit = RestClientDefaultSettings.defaultResponseDrainLimit();
+    }
+
+    /**
+     * Limits on the {@code http.uri} observation tag. Requests built from a URI template are tagged with
+     * the template; other paths are normalized, and the normalized results are cached in a per-client
+     * LRU of {@code pathCacheSize} entries. Once {@code maxDistinctValues} values have been emitted,
+     * further values are reported as {@code OTHER}.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UriTags {
+
+        @Builder.Default
+        private int maxDistinctValues = 100;
+
+        @Builder.Default
+        private int pathCacheSize = 1000;
+    }
+
+    /**
+     * Bounded wait queue for rate limiter permits. When enabled, at most {@code maxDepth} callers wait
+     * for a permit at a time and any further caller is rejected immediately, so a throttled downstream
+     * cannot hold more request threads than that.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RateLimiterQueue {
+
+        @Builder.Default
+        private boolean enabled = false;
+
+        @Builder.Default
+        private int maxDepth = 20;
+    }
+
+    /**
+     * Hedged requests: when an attempt of an idempotent call has not completed after {@code delay},
+     * an identical attempt is sent on another connection and the first success wins. With
+     * {@code adaptiveDelay} the delay follows the client's observed p95 once enough attempts were
+     * seen. Each hedgeable call earns {@code budgetRatio} of a hedge, which caps the extra load, and at
+     * most {@code maxConcurrent} hedges run at once.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Hedging {
+
+        @Builder.Default
+        private boolean enabled = false;
+
+        @Builder.Default
+        private Duration delay = Duration.ofMillis(100);
+
+        @Builder.Default
+        private boolean adaptiveDelay = false;
+
+        @Builder.Default
+        private double budgetRatio = 0.05;
+
+        @Builder.Default
+        private Set<HttpMethod> methods = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+        @Builder.Default
+        private int maxConcurrent = 10;
     }
 
+    /**
+     * Retry budget shared by all calls of a client. Each successful call earns {@code ratio} of a retry,
+     * banked up to {@code maxTokens}; on top of that {@code minRetriesPerSecond} retries are always
+     * allowed. A retry that finds the budget empty is skipped and the last failure is returned, so
+     * retries cannot multiply the load on a struggling upstream.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RetryBudget {
+
+        @Builder.Default
+        private boolean enabled = false;
+
+        @Builder.Default
+        private double ratio = 0.2;
+
+        @Builder.Default
+        private int minRetriesPerSecond = 10;
+
+        @Builder.Default
+        private int maxTokens = 100;
+    }
+
+    /**
+     * Time bounds for a call. {@code total} covers every attempt and the back-off between them, counted
+     * from where the {@code deadline} stage sits in the order; {@code perAttempt} bounds each exchange. An
+     * attempt that runs out of time is aborted along with its connection and fails with a
+     * {@link java.util.concurrent.TimeoutException}; a retry whose back-off would overrun {@code total} is
+     * not attempted. A zero or missing duration disables that bound.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Deadline {
+
+        @Builder.Default
+        private boolean enabled = false;
+
+        @Builder.Default
+        private Duration total = Duration.ofSeconds(30);
+
+        @Builder.Default
+        private Duration perAttempt = Duration.ofSeconds(10);
+    }
+
+    /**
+     * Timeouts applied to every request. With {@code expectContinue}, requests with a body send
+     * {@code Expect: 100-continue} and hold the body back until the server accepts it, so a request the
+     * server rejects on its headers never sends its body.
+     */
     @Data
     @Builder
     @NoArgsConstructor
@@ -89,6 +272,46 @@ public class RestClientProperties {
 
         @Builder.Default
         private Duration readTimeout = Duration.ofSeconds(10);
+
+        @Builder.Default
+        private boolean expectContinue = false;
+    }
+
+    /**
+     * Connections opened to {@code baseUrl} while the application starts, before it reports ready. The
+     * {@code connections} are connected in parallel, TLS handshake included, and parked in the pool for
+     * the first calls. Whatever is not connected within {@code timeout} is given up; prewarming never
+     * fails startup. Only the {@code classic} engine is prewarmed.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Prewarm {
+
+        @Builder.Default
+        private boolean enabled = false;
+
+        @Builder.Default
+        private int connections = 4;
+
+        @Builder.Default
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Graceful shutdown of the client when the application context stops: new requests are refused, the
+     * exchanges in flight get up to {@code drainTimeout} to complete and the client's connections are
+     * closed afterwards. A zero duration closes the client without waiting.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Shutdown {
+
+        @Builder.Default
+        private Duration drainTimeout = Duration.ofSeconds(10);
     }
 
     @Data
@@ -104,5 +327,12 @@ public class RestClientProperties {
                 HttpStatus.BAD_GATEWAY,
                 HttpStatus.SERVICE_UNAVAILABLE,
                 HttpStatus.GATEWAY_TIMEOUT);
+
+        /**
+         * Whether a {@code Retry-After} hint longer than {@code exponentialMaxWaitDuration} is capped at it.
+         * By default such a retry is not attempted and the call fails fast with the last error.
+         */
+        @Builder.Default
+        private boolean capRetryAfter = false;
     }
 }
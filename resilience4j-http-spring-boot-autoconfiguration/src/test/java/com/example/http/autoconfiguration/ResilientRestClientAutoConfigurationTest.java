@@ -1,9 +1,13 @@
 package com.example.http.autoconfiguration;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.example.http.autoconfiguration.builder.RestClientLifecycle;
 import com.example.http.autoconfiguration.property.RestClientProperties;
 import com.example.http.autoconfiguration.property.RestClientsProperties;
+import com.example.http.client.builder.RouteOverrides;
+import com.example.http.client.property.HttpClientProperties;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
 import io.github.resilience4j.retry.RetryRegistry;
@@ -12,6 +16,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClient;
 
 class ResilientRestClientAutoConfigurationTest {
@@ -67,4 +72,56 @@ class ResilientRestClientAutoConfigurationTest {
 
         assertThat(clients).isEmpty();
     }
+
+    @Test
+    void shouldExposeRouteOverridesOfBuiltClients() {
+        clientsProperties
+                .getClients()
+                .get("clientA")
+                .getHttpClient()
+                .getPool()
+                .getRoutes()
+                .put(
+                        "https://api.clientA.com",
+                        HttpClientProperties.Pool.Route.builder()
+                                .maxConnections(50)
+                                .build());
+        var config = new ResilientRestClientAutoConfiguration(
+                observationRegistry, clientsProperties, circuitBreakerRegistry, retryRegistry, rateLimiterRegistry);
+
+        Map<String, RouteOverrides> routes = config.connectionPoolRouteOverrides(config.resilientRestClients());
+
+        assertThat(routes).containsOnlyKeys("clientA", "clientB");
+        assertThat(routes.get("clientA").maxConnections("https://api.clientA.com"))
+                .isEqualTo(50);
+
+        routes.get("clientA").update(Map.of());
+
+        // the route reverts to the client's default limit on its pool
+        assertThat(routes.get("clientA").maxConnections("https://api.clientA.com"))
+                .isEqualTo(clientsProperties
+                        .getClients()
+                        .get("clientA")
+                        .getHttpClient()
+                        .getPool()
+                        .getMaxConnectionsPerRoute());
+    }
+
+    @Test
+    void shouldCloseBuiltClientsWhenLifecycleStops() {
+        var config = new ResilientRestClientAutoConfiguration(
+                observationRegistry, clientsProperties, circuitBreakerRegistry, retryRegistry, rateLimiterRegistry);
+        Map<String, RestClient> clients = config.resilientRestClients();
+
+        RestClientLifecycle lifecycle = config.resilientRestClientsLifecycle(clients);
+        lifecycle.start();
+        assertThat(lifecycle.isRunning()).isTrue();
+        assertThat(lifecycle.getPhase()).isEqualTo(RestClientLifecycle.PHASE);
+        lifecycle.stop();
+
+        assertThat(lifecycle.isRunning()).isFalse();
+        assertThatThrownBy(() -> clients.get("clientB").get().retrieve().toBodilessEntity())
+                .isInstanceOf(ResourceAccessException.class)
+                .hasMessageContaining("Client 'clientB' is shut down");
+    }
 }
@@ -0,0 +1,213 @@
+package com.example.http.autoconfiguration.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import com.example.http.client.builder.HttpClientConfigurer;
+import com.example.http.client.property.HttpClientProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares downloading and uploading a large JSON document with and without compression over a local
+ * link throttled to {@link #BYTES_PER_SECOND}, standing in for a bandwidth-limited network path.
+ * <p>
+ * Not part of the test suite; run {@link #main(String[])} from the test classpath and compare the
+ * throughput of {@code identity} against {@code gzip}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(4)
+@Fork(1)
+public class CompressionBenchmark {
+
+    /** 8 MB/s per connection, about a 64 Mbit/s link. */
+    private static final long BYTES_PER_SECOND = 8L * 1024 * 1024;
+
+    private static final int CHUNK = 16 * 1024;
+
+    @Param({"identity", "gzip"})
+    public String coding;
+
+    private final byte[] document = document();
+    private byte[] gzipped;
+    private HttpServer server;
+    private HttpClient client;
+    private String url;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.INFO);
+        gzipped = gzip(document);
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 64);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/document", this::serve);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/document";
+
+        HttpClientProperties props = new HttpClientProperties();
+        boolean gzip = "gzip".equals(coding);
+        props.getCompression().setResponse(gzip);
+        props.getCompression().setRequest(gzip);
+        client = HttpClientConfigurer.configure(props);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (client instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception ex) {
+                throw new IOException(ex);
+            }
+        }
+        server.stop(0);
+    }
+
+    @Benchmark
+    public int download() throws IOException {
+        return client.execute(new HttpGet(url), response -> EntityUtils.toByteArray(response.getEntity()).length);
+    }
+
+    @Benchmark
+    public int upload() throws IOException {
+        HttpPost post = new HttpPost(url);
+        post.setEntity(new ByteArrayEntity(document, ContentType.APPLICATION_JSON));
+        return client.execute(post, response -> {
+            EntityUtils.consume(response.getEntity());
+            return response.getCode();
+        });
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if ("POST".equals(exchange.getRequestMethod())) {
+                throttledRead(exchange.getRequestBody());
+                exchange.sendResponseHeaders(204, -1);
+                return;
+            }
+            String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            boolean gzip = accept != null && accept.contains("gzip");
+            byte[] body = gzip ? gzipped : document;
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            if (gzip) {
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            throttledWrite(exchange.getResponseBody(), body);
+        }
+    }
+
+    private static void throttledWrite(OutputStream out, byte[] body) throws IOException {
+        long start = System.nanoTime();
+        for (int offset = 0; offset < body.length; offset += CHUNK) {
+            int length = Math.min(CHUNK, body.length - offset);
+            out.write(body, offset, length);
+            out.flush();
+            pace(start, offset + length);
+        }
+    }
+
+    private static void throttledRead(InputStream in) throws IOException {
+        byte[] buffer = new byte[CHUNK];
+        long start = System.nanoTime();
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            pace(start, total);
+        }
+    }
+
+    /**
+     * Sleeps until {@code bytes} are due at {@link #BYTES_PER_SECOND} since {@code startNanos}.
+     */
+    private static void pace(long startNanos, long bytes) throws IOException {
+        long dueNanos = startNanos + bytes * 1_000_000_000L / BYTES_PER_SECOND;
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+    }
+
+    /**
+     * About 330 KB of order JSON (30 KB gzipped), repetitive the way real listings are.
+     */
+    private static byte[] document() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 4000; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":")
+                    .append(i)
+                    .append(",\"customer\":\"customer-")
+                    .append(i % 97)
+                    .append("\",\"state\":\"")
+                    .append(i % 3 == 0 ? "OPEN" : "SHIPPED")
+                    .append("\",\"total\":")
+                    .append(i * 7 % 1000)
+                    .append(".50,\"currency\":\"EUR\"}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(CompressionBenchmark.class.getSimpleName())
+                        .addProfiler(GCProfiler.class)
+                        .build())
+                .run();
+    }
+}
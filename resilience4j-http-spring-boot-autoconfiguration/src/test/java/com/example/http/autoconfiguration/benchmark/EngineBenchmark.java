@@ -0,0 +1,129 @@
+package com.example.http.autoconfiguration.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import com.example.http.autoconfiguration.builder.RestClientBuilder;
+import com.example.http.autoconfiguration.property.RestClientProperties;
+import com.example.http.client.property.HttpClientProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Compares the engines behind a {@link RestClient} built by {@link RestClientBuilder}, with resilience
+ * off, calling a local server concurrently: the classic pool against the async and jdk engines.
+ * <p>
+ * Not part of the test suite; run {@link #main(String[])} from the test classpath and compare the
+ * throughput and {@code gc.alloc.rate.norm} (bytes per call) of each {@code engine}. Run it on Java 21+
+ * with {@code virtualThreads} to include the jdk engine on virtual threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class EngineBenchmark {
+
+    private static final byte[] BODY =
+            "{\"id\":42,\"state\":\"OPEN\",\"items\":[1,2,3]}".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"classic", "async", "jdk"})
+    public String engine;
+
+    @Param({"false"})
+    public boolean virtualThreads;
+
+    private HttpServer server;
+    private RestClientBuilder builder;
+    private RestClient client;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.INFO);
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 256);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.createContext("/order", EngineBenchmark::serve);
+        server.start();
+
+        RestClientProperties props = RestClientProperties.defaultConfig();
+        props.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        props.getResilience().setCircuitBreakerEnabled(false);
+        props.getResilience().setRetryEnabled(false);
+        props.getResilience().setRateLimiterEnabled(false);
+        props.getResilience().setBulkheadEnabled(false);
+        HttpClientProperties httpProps = props.getHttpClient();
+        httpProps.setEngine(HttpClientProperties.Engine.valueOf(engine.toUpperCase()));
+        httpProps.getJdk().setVersion(java.net.http.HttpClient.Version.HTTP_1_1);
+        httpProps.getJdk().setVirtualThreads(virtualThreads);
+
+        builder = RestClientBuilder.builder()
+                .observationRegistry(ObservationRegistry.NOOP)
+                .circuitBreakerRegistry(CircuitBreakerRegistry.ofDefaults())
+                .retryRegistry(RetryRegistry.ofDefaults())
+                .rateLimiterRegistry(RateLimiterRegistry.ofDefaults())
+                .build();
+        client = builder.client("bench-" + engine, props).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        builder.lifecycle().close();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public String call() {
+        return client.get().uri("/order").retrieve().body(String.class);
+    }
+
+    private static void serve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, BODY.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(BODY);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(EngineBenchmark.class.getSimpleName())
+                        .addProfiler(GCProfiler.class)
+                        .build())
+                .run();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.http.autoconfiguration.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.http.autoconfiguration.builder.ResilienceHttpRequestInterceptor;
+import com.example.http.autoconfiguration.observation.ResilienceObservationTagContributor;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.functions.CheckedSupplier;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.retry.Retry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+/**
+ * Compares the per-request allocation of the precompiled interceptor pipeline against the
+ * previous decorate-on-every-call implementation, which is reproduced in {@link #legacy()}.
+ * <p>
+ * Not part of the test suite; run {@link #main(String[])} from the test classpath and compare
+ * the {@code gc.alloc.rate.norm} column (bytes per operation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InterceptorAllocationBenchmark {
+
+    private static final Set<HttpStatus> RETRY_STATUS = Set.of(
+            HttpStatus.TOO_MANY_REQUESTS,
+            HttpStatus.BAD_GATEWAY,
+            HttpStatus.SERVICE_UNAVAILABLE,
+            HttpStatus.GATEWAY_TIMEOUT);
+
+    private final byte[] body = new byte[0];
+
+    private CircuitBreaker circuitBreaker;
+    private Retry retry;
+    private RateLimiter rateLimiter;
+    private MockClientHttpRequest request;
+    private ClientHttpResponse response;
+    private ClientHttpRequestExecution execution;
+    private ResilienceHttpRequestInterceptor interceptor;
+
+    @Setup
+    public void setup() {
+        // Outside Spring the root logger defaults to DEBUG; keep per-call debug lines out of the measurement.
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+
+        circuitBreaker = CircuitBreaker.ofDefaults("bench");
+        retry = Retry.ofDefaults("bench");
+        rateLimiter = RateLimiter.of(
+                "bench",
+                RateLimiterConfig.custom()
+                        .limitForPeriod(Integer.MAX_VALUE)
+                        .limitRefreshPeriod(Duration.ofSeconds(1))
+                        .timeoutDuration(Duration.ZERO)
+                        .build());
+
+        request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost/orders/42"));
+        response = new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        execution = (req, bytes) -> response;
+
+        interceptor = ResilienceHttpRequestInterceptor.builder(ObservationRegistry.NOOP)
+                .clientName("bench")
+                .observationTags(Map.of("env", "bench"))
+                .circuitBreaker(circuitBreaker)
+                .retry(retry)
+                .retryStatus(RETRY_STATUS)
+                .rateLimiter(rateLimiter)
+                .build();
+    }
+
+    @Benchmark
+    public ClientHttpResponse precompiled() throws Exception {
+        return interceptor.intercept(request, body, execution);
+    }
+
+    @Benchmark
+    public ClientHttpResponse legacy() throws Throwable {
+        Observation obs = Observation.createNotStarted("http.client.request.resilient", ObservationRegistry.NOOP);
+        ResilienceObservationTagContributor.contribute(
+                obs, "bench", circuitBreaker, retry, rateLimiter, Map.of("env", "bench"));
+
+        return obs.lowCardinalityKeyValue("client", "bench")
+                .lowCardinalityKeyValue("http.method", request.getMethod().name())
+                .lowCardinalityKeyValue("http.uri", request.getURI().getPath())
+                .observeChecked(() -> {
+                    CheckedSupplier<ClientHttpResponse> supplier = () -> {
+                        ClientHttpResponse rsp = execution.execute(request, body);
+                        HttpStatus hs = HttpStatus.resolve(rsp.getStatusCode().value());
+                        if (hs != null && RETRY_STATUS.contains(hs)) {
+                            throw new IllegalStateException("retryable");
+                        }
+                        return rsp;
+                    };
+                    supplier = Retry.decorateCheckedSupplier(retry, supplier);
+                    supplier = CircuitBreaker.decorateCheckedSupplier(circuitBreaker, supplier);
+                    supplier = RateLimiter.decorateCheckedSupplier(rateLimiter, supplier);
+                    return supplier.get();
+                });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(InterceptorAllocationBenchmark.class.getSimpleName())
+                        .addProfiler(GCProfiler.class)
+                        .build())
+                .run();
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.http.autoconfiguration.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import com.example.http.autoconfiguration.builder.RestClientBuilder;
+import com.example.http.autoconfiguration.property.RestClientProperties;
+import com.example.http.client.builder.ConnectionManagerRegistry;
+import com.example.http.client.property.HttpClientProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSessionContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Measures the TLS handshake of a {@link RestClient} built by {@link RestClientBuilder} per configured
+ * protocol and cipher suite: every call asks for {@code Connection: close}, so each one opens a connection
+ * to a local TLS stub with a freshly generated RSA certificate. With {@code resume} off the client
+ * session cache is emptied before each call, so every handshake is a full one.
+ * <p>
+ * Not part of the test suite; run {@link #main(String[])} from the test classpath and compare the average
+ * time per call of each {@code suite}. Needs {@code keytool} of the running JDK.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class TlsHandshakeBenchmark {
+
+    private static final String PASSWORD = "changeit";
+    private static final byte[] RESPONSE = ("HTTP/1.1 200 OK\r\n"
+                    + "Content-Type: text/plain\r\n"
+                    + "Content-Length: 2\r\n"
+                    + "Connection: close\r\n"
+                    + "\r\n"
+                    + "ok")
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final int END_OF_HEADERS = '\r' << 24 | '\n' << 16 | '\r' << 8 | '\n';
+
+    /**
+     * {@code default} for the JSSE defaults, otherwise {@code protocol/cipherSuite}.
+     */
+    @Param({
+        "default",
+        "TLSv1.3/TLS_AES_128_GCM_SHA256",
+        "TLSv1.3/TLS_AES_256_GCM_SHA384",
+        "TLSv1.3/TLS_CHACHA20_POLY1305_SHA256",
+        "TLSv1.2/TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256"
+    })
+    public String suite;
+
+    @Param({"false", "true"})
+    public boolean resume;
+
+    private Path dir;
+    private SSLServerSocket server;
+    private ConnectionManagerRegistry registry;
+    private RestClientBuilder builder;
+    private RestClient client;
+    private SSLSessionContext clientSessions;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.INFO);
+
+        dir = Files.createTempDirectory("tls-handshake-benchmark");
+        Path keystore = dir.resolve("server.p12");
+        Path truststore = dir.resolve("trust.p12");
+        generateStores(keystore, truststore);
+
+        server = (SSLServerSocket) serverContext(keystore)
+                .getServerSocketFactory()
+                .createServerSocket(0, 256, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::accept, "tls-stub");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        RestClientProperties props = RestClientProperties.defaultConfig();
+        props.setBaseUrl("https://localhost:" + server.getLocalPort());
+        props.getResilience().setCircuitBreakerEnabled(false);
+        props.getResilience().setRetryEnabled(false);
+        props.getResilience().setRateLimiterEnabled(false);
+        props.getResilience().setBulkheadEnabled(false);
+        HttpClientProperties.Ssl ssl = props.getHttpClient().getSsl();
+        ssl.setEnabled(true);
+        ssl.setTruststore(HttpClientProperties.Store.builder()
+                .location(truststore.toString())
+                .password(PASSWORD)
+                .type("PKCS12")
+                .build());
+        if (!"default".equals(suite)) {
+            String[] protocolAndCipher = suite.split("/");
+            ssl.setProtocols(List.of(protocolAndCipher[0]));
+            ssl.setCipherSuites(List.of(protocolAndCipher[1]));
+        }
+        registry = new ConnectionManagerRegistry();
+        clientSessions = registry.sslContexts().context(ssl).getClientSessionContext();
+
+        builder = RestClientBuilder.builder()
+                .observationRegistry(ObservationRegistry.NOOP)
+                .circuitBreakerRegistry(CircuitBreakerRegistry.ofDefaults())
+                .retryRegistry(RetryRegistry.ofDefaults())
+                .rateLimiterRegistry(RateLimiterRegistry.ofDefaults())
+                .connectionManagerRegistry(registry)
+                .build();
+        client = builder.client("bench-tls", props).build();
+    }
+
+    @Setup(Level.Invocation)
+    public void forgetSessions() {
+        if (!resume) {
+            for (Enumeration<byte[]> ids = clientSessions.getIds(); ids.hasMoreElements(); ) {
+                var session = clientSessions.getSession(ids.nextElement());
+                if (session != null) {
+                    session.invalidate();
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        builder.lifecycle().close();
+        registry.close();
+        server.close();
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public String handshake() {
+        return client.get()
+                .uri("/ping")
+                .header("Connection", "close")
+                .retrieve()
+                .body(String.class);
+    }
+
+    private static void generateStores(Path keystore, Path truststore) throws Exception {
+        Path keytool = Path.of(System.getProperty("java.home"), "bin", "keytool");
+        Process process = new ProcessBuilder(
+                        keytool.toString(),
+                        "-genkeypair",
+                        "-alias",
+                        "localhost",
+                        "-keyalg",
+                        "RSA",
+                        "-keysize",
+                        "2048",
+                        "-dname",
+                        "CN=localhost",
+                        "-ext",
+                        "SAN=dns:localhost,ip:127.0.0.1",
+                        "-validity",
+                        "1",
+                        "-storetype",
+                        "PKCS12",
+                        "-keystore",
+                        keystore.toString(),
+                        "-storepass",
+                        PASSWORD)
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("keytool failed: " + output);
+        }
+
+        KeyStore trust = KeyStore.getInstance("PKCS12");
+        trust.load(null, null);
+        trust.setCertificateEntry("localhost", load(keystore).getCertificate("localhost"));
+        try (OutputStream out = Files.newOutputStream(truststore)) {
+            trust.store(out, PASSWORD.toCharArray());
+        }
+    }
+
+    private static SSLContext serverContext(Path keystore) throws Exception {
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(load(keystore), PASSWORD.toCharArray());
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keyManagers.getKeyManagers(), null, null);
+        return context;
+    }
+
+    private static KeyStore load(Path path) throws Exception {
+        KeyStore store = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(path)) {
+            store.load(in, PASSWORD.toCharArray());
+        }
+        return store;
+    }
+
+    /**
+     * Answers one request per connection and closes it, so the client's next call handshakes again.
+     */
+    private void accept() {
+        while (!server.isClosed()) {
+            try (Socket socket = server.accept()) {
+                socket.setTcpNoDelay(true);
+                InputStream in = socket.getInputStream();
+                // the benchmark sends bodiless GETs, so a request ends with the blank line after its headers
+                int last4 = 0;
+                for (int b; last4 != END_OF_HEADERS && (b = in.read()) != -1; ) {
+                    last4 = last4 << 8 | b;
+                }
+                OutputStream out = socket.getOutputStream();
+                out.write(RESPONSE);
+                out.flush();
+            } catch (IOException e) {
+                // closed by tearDown, or a client that went away
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(TlsHandshakeBenchmark.class.getSimpleName())
+                        .build())
+                .run();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.http.autoconfiguration.builder;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.common.bulkhead.configuration.CommonBulkheadConfigurationProperties;
+import io.github.resilience4j.common.bulkhead.configuration.CommonThreadPoolBulkheadConfigurationProperties;
+import java.time.Duration;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BulkheadFactoryTest {
+
+    @Test
+    void shouldReturnNullWhenPropertiesAreNull() {
+        Assertions.assertThat(BulkheadFactory.create("null-test", BulkheadRegistry.ofDefaults(), null))
+                .isNull();
+        Assertions.assertThat(
+                        BulkheadFactory.createThreadPool("null-test", ThreadPoolBulkheadRegistry.ofDefaults(), null))
+                .isNull();
+    }
+
+    @Test
+    void shouldCreateBulkheadWithConfiguredLimits() {
+        CommonBulkheadConfigurationProperties.InstanceProperties props =
+                new CommonBulkheadConfigurationProperties.InstanceProperties();
+        props.setMaxConcurrentCalls(3);
+        props.setMaxWaitDuration(Duration.ofMillis(50));
+
+        BulkheadRegistry registry = BulkheadRegistry.ofDefaults();
+        Bulkhead bulkhead = BulkheadFactory.create("semaphore", registry, props);
+
+        BulkheadConfig config = bulkhead.getBulkheadConfig();
+        Assertions.assertThat(bulkhead.getName()).isEqualTo("semaphore");
+        Assertions.assertThat(config.getMaxConcurrentCalls()).isEqualTo(3);
+        Assertions.assertThat(config.getMaxWaitDuration()).isEqualTo(Duration.ofMillis(50));
+        Assertions.assertThat(registry.find("semaphore")).containsSame(bulkhead);
+    }
+
+    @Test
+    void shouldCreateThreadPoolBulkheadWithConfiguredSizes() {
+        CommonThreadPoolBulkheadConfigurationProperties.InstanceProperties props =
+                new CommonThreadPoolBulkheadConfigurationProperties.InstanceProperties();
+        props.setMaxThreadPoolSize(4);
+        props.setCoreThreadPoolSize(2);
+        props.setQueueCapacity(8);
+        props.setKeepAliveDuration(Duration.ofSeconds(5));
+
+        ThreadPoolBulkheadRegistry registry = ThreadPoolBulkheadRegistry.ofDefaults();
+        ThreadPoolBulkhead bulkhead = BulkheadFactory.createThreadPool("pool", registry, props);
+
+        ThreadPoolBulkheadConfig config = bulkhead.getBulkheadConfig();
+        Assertions.assertThat(config.getMaxThreadPoolSize()).isEqualTo(4);
+        Assertions.assertThat(config.getCoreThreadPoolSize()).isEqualTo(2);
+        Assertions.assertThat(config.getQueueCapacity()).isEqualTo(8);
+        Assertions.assertThat(config.getKeepAliveDuration()).isEqualTo(Duration.ofSeconds(5));
+        Assertions.assertThat(registry.find("pool")).containsSame(bulkhead);
+    }
+
+    @Test
+    void shouldKeepLibraryDefaultsForUnsetThreadPoolSizes() {
+        ThreadPoolBulkhead bulkhead = BulkheadFactory.createThreadPool(
+                "partial",
+                ThreadPoolBulkheadRegistry.ofDefaults(),
+                new CommonThreadPoolBulkheadConfigurationProperties.InstanceProperties());
+
+        ThreadPoolBulkheadConfig defaults = ThreadPoolBulkheadConfig.ofDefaults();
+        Assertions.assertThat(bulkhead.getBulkheadConfig().getMaxThreadPoolSize())
+                .isEqualTo(defaults.getMaxThreadPoolSize());
+        Assertions.assertThat(bulkhead.getBulkheadConfig().getQueueCapacity()).isEqualTo(defaults.getQueueCapacity());
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.http.autoconfiguration.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+class ChannelDownloadTest {
+
+    private static final byte[] CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path dir;
+
+    private final Deque<ClientHttpResponse> resumedResponses = new ArrayDeque<>();
+    private final List<HttpHeaders> resumedHeaders = new ArrayList<>();
+
+    @Test
+    void shouldTransferBodyToFileFromItsPosition() throws IOException {
+        try (FileChannel file = open()) {
+            file.write(ByteBuffer.wrap("head:".getBytes(StandardCharsets.US_ASCII)));
+            ChannelDownload download = ChannelDownload.to(file);
+
+            ClientHttpResponse response = download.receive(request(ok(CONTENT, "\"v1\"")), this::resume);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody().readAllBytes()).isEmpty();
+            assertThat(download.transferred()).isEqualTo(CONTENT.length);
+            assertThat(file.position()).isEqualTo(5 + CONTENT.length);
+        }
+        assertThat(Files.readString(dir.resolve("download.bin"))).isEqualTo("head:" + ascii(CONTENT));
+    }
+
+    @Test
+    void shouldResumeWithRangeRequestAfterFailedTransfer() throws IOException {
+        MockClientHttpRequest request = request(failingAfter(10, "\"v1\""));
+        resumedResponses.add(partial(10, "\"v1\""));
+
+        try (FileChannel file = open()) {
+            ChannelDownload download = ChannelDownload.to(file);
+            download.receive(request, this::resume);
+
+            assertThat(download.transferred()).isEqualTo(CONTENT.length);
+            assertThat(download.resumes()).isEqualTo(1);
+        }
+        assertThat(request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING)).isEqualTo("identity");
+        assertThat(resumedHeaders.get(0).getFirst(HttpHeaders.RANGE)).isEqualTo("bytes=10-");
+        assertThat(resumedHeaders.get(0).getFirst(HttpHeaders.IF_RANGE)).isEqualTo("\"v1\"");
+        assertThat(Files.readAllBytes(dir.resolve("download.bin"))).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void shouldSkipWrittenBytesWhenResourceHasNoValidator() throws IOException {
+        resumedResponses.add(ok(CONTENT, null));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ChannelDownload download = ChannelDownload.to(Channels.newChannel(out));
+
+        download.receive(request(failingAfter(10, null)), this::resume);
+
+        assertThat(resumedHeaders.get(0).containsKey(HttpHeaders.RANGE)).isFalse();
+        assertThat(out.toByteArray()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void shouldStartFileOverWhenResourceChanged() throws IOException {
+        byte[] changed = "changed".getBytes(StandardCharsets.US_ASCII);
+        resumedResponses.add(ok(changed, "\"v2\""));
+
+        try (FileChannel file = open()) {
+            ChannelDownload download = ChannelDownload.to(file);
+            download.receive(request(failingAfter(10, "\"v1\"")), this::resume);
+
+            assertThat(download.transferred()).isEqualTo(changed.length);
+        }
+        assertThat(Files.readAllBytes(dir.resolve("download.bin"))).isEqualTo(changed);
+    }
+
+    @Test
+    void shouldFailChannelDownloadWhenResourceChanged() {
+        resumedResponses.add(ok(CONTENT, "\"v2\""));
+        ChannelDownload download = ChannelDownload.to(Channels.newChannel(new ByteArrayOutputStream()))
+                .maxResumes(1);
+
+        assertThatThrownBy(() -> download.receive(request(failingAfter(10, "\"v1\"")), this::resume))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Resource changed after 10 bytes");
+    }
+
+    @Test
+    void shouldFailOnceResumesAreExhausted() {
+        resumedResponses.add(failingAfter(0, "\"v1\""));
+        ChannelDownload download = ChannelDownload.to(Channels.newChannel(new ByteArrayOutputStream()))
+                .maxResumes(1);
+
+        assertThatThrownBy(() -> download.receive(request(failingAfter(10, "\"v1\"")), this::resume))
+                .isInstanceOf(IOException.class)
+                .hasMessage("connection reset");
+        assertThat(download.transferred()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldReturnErrorResponseUntouched() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ChannelDownload download = ChannelDownload.to(Channels.newChannel(out));
+
+        ClientHttpResponse response = download.receive(
+                request(new MockClientHttpResponse(
+                        "missing".getBytes(StandardCharsets.US_ASCII), HttpStatus.NOT_FOUND)),
+                this::resume);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(ascii(response.getBody().readAllBytes())).isEqualTo("missing");
+        assertThat(out.size()).isZero();
+    }
+
+    private ClientHttpResponse resume(Consumer<HttpHeaders> prepare) {
+        HttpHeaders headers = new HttpHeaders();
+        prepare.accept(headers);
+        resumedHeaders.add(headers);
+        return resumedResponses.remove();
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(dir.resolve("download.bin"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    private static MockClientHttpRequest request(ClientHttpResponse response) {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost/f"));
+        request.setResponse(response);
+        return request;
+    }
+
+    private static MockClientHttpResponse ok(byte[] body, String etag) {
+        MockClientHttpResponse response = new MockClientHttpResponse(body, HttpStatus.OK);
+        if (etag != null) {
+            response.getHeaders().setETag(etag);
+        }
+        return response;
+    }
+
+    private static MockClientHttpResponse partial(int from, String etag) {
+        byte[] rest = Arrays.copyOfRange(CONTENT, from, CONTENT.length);
+        MockClientHttpResponse response = new MockClientHttpResponse(rest, HttpStatus.PARTIAL_CONTENT);
+        response.getHeaders().setETag(etag);
+        response.getHeaders()
+                .set(HttpHeaders.CONTENT_RANGE, "bytes " + from + "-" + (CONTENT.length - 1) + "/" + CONTENT.length);
+        return response;
+    }
+
+    /**
+     * A 200 response whose body fails after {@code bytes} bytes, as a connection reset would.
+     */
+    private static MockClientHttpResponse failingAfter(int bytes, String etag) {
+        MockClientHttpResponse response = new MockClientHttpResponse(new ResetStream(bytes), HttpStatus.OK);
+        if (etag != null) {
+            response.getHeaders().setETag(etag);
+        }
+        return response;
+    }
+
+    private static String ascii(byte[] bytes) {
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static final class ResetStream extends InputStream {
+
+        private final int length;
+        private int position;
+
+        ResetStream(int length) {
+            this.length = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == length) {
+                throw new IOException("connection reset");
+            }
+            return CONTENT[position++];
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.http.autoconfiguration.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import com.example.http.client.builder.HttpClientConfigurer;
+import com.example.http.client.property.HttpClientDefaultSettings;
+import com.example.http.client.property.HttpClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.nio.AsyncClientConnectionManager;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.Test;
+
+class ConnectionPoolMetricsTest {
+
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("http", "orders.example", 8080));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldPublishPoolAndRouteStatistics() throws Exception {
+        HttpClientConnectionManager manager = manager(2);
+
+        ConnectionEndpoint endpoint =
+                manager.lease("1", ROUTE, Timeout.ofSeconds(1), null).get(Timeout.ofSeconds(1));
+
+        assertThat(gauge(ConnectionPoolMetrics.CONNECTIONS, "state", "leased")).isEqualTo(1.0);
+        assertThat(gauge(ConnectionPoolMetrics.ROUTE_CONNECTIONS, "state", "leased"))
+                .isEqualTo(1.0);
+        assertThat(gauge(ConnectionPoolMetrics.ROUTE_MAX, "route", "http://orders.example:8080"))
+                .isEqualTo(2.0);
+        assertThat(leases("acquired")).isEqualTo(1L);
+
+        manager.release(endpoint, null, TimeValue.ZERO_MILLISECONDS);
+        assertThat(gauge(ConnectionPoolMetrics.CONNECTIONS, "state", "leased")).isZero();
+        manager.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    void shouldRecordLeasesTimingOutOnExhaustedRoute() throws Exception {
+        HttpClientConnectionManager manager = manager(1);
+        manager.lease("1", ROUTE, Timeout.ofSeconds(1), null).get(Timeout.ofSeconds(1));
+
+        assertThatThrownBy(() -> manager.lease("2", ROUTE, Timeout.ofMilliseconds(50), null)
+                        .get(Timeout.ofMilliseconds(50)))
+                .isInstanceOf(TimeoutException.class);
+
+        assertThat(leases("timeout")).isEqualTo(1L);
+        assertThat(meterRegistry
+                        .get(ConnectionPoolMetrics.LEASE)
+                        .tag("outcome", "timeout")
+                        .timer()
+                        .totalTime(TimeUnit.MILLISECONDS))
+                .isGreaterThanOrEqualTo(40.0);
+        manager.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    void shouldKeepPoolControlsOfDecoratedManager() {
+        HttpClientConnectionManager manager = manager(2);
+
+        assertThat(manager).isInstanceOf(ConnPoolControl.class);
+        @SuppressWarnings("unchecked")
+        ConnPoolControl<HttpRoute> control = (ConnPoolControl<HttpRoute>) manager;
+        control.setMaxPerRoute(ROUTE, 5);
+
+        assertThat(control.getMaxPerRoute(ROUTE)).isEqualTo(5);
+        manager.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    void shouldCountResizesOfAdaptivePool() throws Exception {
+        HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+        props.getPool().setMaxConnectionsPerRoute(2);
+        props.getPool().getAdaptive().setEnabled(true);
+        props.getPool().getAdaptive().setInterval(Duration.ofMillis(100));
+        HttpClientConnectionManager manager = ConnectionPoolMetrics.decorate(
+                HttpClientConfigurer.connectionManager(props, null), "orders", meterRegistry);
+
+        manager.lease("1", ROUTE, Timeout.ofSeconds(1), null).get(Timeout.ofSeconds(1));
+        manager.lease("2", ROUTE, Timeout.ofSeconds(1), null).get(Timeout.ofSeconds(1));
+
+        await().atMost(2, TimeUnit.SECONDS)
+                .until(() -> meterRegistry
+                                .find(ConnectionPoolMetrics.RESIZE)
+                                .tags("client", "orders", "route", "http://orders.example:8080", "direction", "up")
+                                .counter()
+                        != null);
+        assertThat(gauge(ConnectionPoolMetrics.ROUTE_MAX, "route", "http://orders.example:8080"))
+                .isGreaterThan(2.0);
+        manager.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    void shouldLeaveManagerUndecoratedWithoutRegistry() {
+        HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+        HttpClientConnectionManager manager = HttpClientConfigurer.connectionManager(props, null);
+
+        assertThat(ConnectionPoolMetrics.decorate(manager, "orders", null)).isSameAs(manager);
+        manager.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    void shouldPublishAsyncPool() {
+        HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+        AsyncClientConnectionManager manager = ConnectionPoolMetrics.decorate(
+                HttpClientConfigurer.asyncConnectionManager(props), "orders", meterRegistry);
+
+        assertThat(manager).isInstanceOf(ConnPoolControl.class);
+        assertThat(gauge(ConnectionPoolMetrics.CONNECTIONS, "state", "leased")).isZero();
+        manager.close(CloseMode.IMMEDIATE);
+    }
+
+    private HttpClientConnectionManager manager(int maxPerRoute) {
+        HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+        props.getPool().setMaxConnectionsPerRoute(maxPerRoute);
+        return ConnectionPoolMetrics.decorate(
+                HttpClientConfigurer.connectionManager(props, null), "orders", meterRegistry);
+    }
+
+    private double gauge(String name, String tag, String value) {
+        return meterRegistry
+                .get(name)
+                .tag("client", "orders")
+                .tag(tag, value)
+                .gauge()
+                .value();
+    }
+
+    private long leases(String outcome) {
+        return meterRegistry
+                .get(ConnectionPoolMetrics.LEASE)
+                .tag("client", "orders")
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.http.autoconfiguration.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.http.autoconfiguration.property.RestClientProperties;
+import com.example.http.client.builder.HttpClientConfigurer;
+import com.example.http.client.property.HttpClientDefaultSettings;
+import com.example.http.client.property.HttpClientProperties;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import java.net.ServerSocket;
+import java.time.Duration;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.io.CloseMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class ConnectionPrewarmerTest {
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    private final HttpClientProperties httpProps = HttpClientDefaultSettings.defaultHttpClient();
+    private PoolingHttpClientConnectionManager manager;
+
+    @AfterEach
+    void closeManager() {
+        if (manager != null) {
+            manager.close(CloseMode.IMMEDIATE);
+        }
+    }
+
+    @Test
+    void shouldParkConnectedConnectionsInPool() {
+        manager = (PoolingHttpClientConnectionManager) HttpClientConfigurer.connectionManager(httpProps, null);
+        String baseUrl = wiremock.getRuntimeInfo().getHttpBaseUrl();
+
+        int parked = ConnectionPrewarmer.start("orders", baseUrl, manager, prewarm(3, Duration.ofSeconds(5)))
+                .join();
+
+        assertThat(parked).isEqualTo(3);
+        HttpRoute route = HttpClientConfigurer.route(baseUrl);
+        assertThat(manager.getStats(route).getAvailable()).isEqualTo(3);
+        assertThat(manager.getStats(route).getLeased()).isZero();
+    }
+
+    @Test
+    void shouldCapConnectionsAtRouteLimit() {
+        httpProps.getPool().setMaxConnectionsPerRoute(2);
+        manager = (PoolingHttpClientConnectionManager) HttpClientConfigurer.connectionManager(httpProps, null);
+        String baseUrl = wiremock.getRuntimeInfo().getHttpBaseUrl();
+
+        int parked = ConnectionPrewarmer.start("orders", baseUrl, manager, prewarm(5, Duration.ofSeconds(5)))
+                .join();
+
+        assertThat(parked).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotFailWhenHostIsUnreachable() throws Exception {
+        manager = (PoolingHttpClientConnectionManager) HttpClientConfigurer.connectionManager(httpProps, null);
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        int parked = ConnectionPrewarmer.start(
+                        "orders", "http://localhost:" + port, manager, prewarm(2, Duration.ofSeconds(5)))
+                .join();
+
+        assertThat(parked).isZero();
+        assertThat(manager.getTotalStats().getLeased()).isZero();
+    }
+
+    @Test
+    void shouldGiveUpAfterTimeout() throws Exception {
+        manager = (PoolingHttpClientConnectionManager) HttpClientConfigurer.connectionManager(httpProps, null);
+        // accepts TCP connections but never answers the TLS handshake
+        try (ServerSocket silent = new ServerSocket(0)) {
+            long start = System.nanoTime();
+
+            int parked = ConnectionPrewarmer.start(
+                            "orders",
+                            "https://localhost:" + silent.getLocalPort(),
+                            manager,
+                            prewarm(2, Duration.ofMillis(300)))
+                    .join();
+
+            assertThat(parked).isZero();
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(3));
+        }
+    }
+
+    @Test
+    void shouldSkipInvalidBaseUrl() {
+        manager = (PoolingHttpClientConnectionManager) HttpClientConfigurer.connectionManager(httpProps, null);
+
+        assertThat(ConnectionPrewarmer.start("orders", "/relative", manager, prewarm(2, Duration.ofSeconds(1)))
+                        .join())
+                .isZero();
+    }
+
+    private static RestClientProperties.Prewarm prewarm(int connections, Duration timeout) {
+        return RestClientProperties.Prewarm.builder()
+                .enabled(true)
+                .connections(connections)
+                .timeout(timeout)
+                .build();
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.http.autoconfiguration.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.http.autoconfiguration.property.RestClientProperties;
+import io.github.resilience4j.core.functions.CheckedFunction;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+class DeadlineStageTest {
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @Test
+    void shouldAbortAttemptThatOutlivesItsTimeout() {
+        CountDownLatch aborted = new CountDownLatch(1);
+        CheckedFunction<ResilientExchange, ClientHttpResponse> attempt = exchange -> {
+            ExchangeAbortHandle.attachToCurrent(() -> {
+                aborted.countDown();
+                return true;
+            });
+            aborted.await(5, TimeUnit.SECONDS);
+            throw new IOException("aborted");
+        };
+
+        DeadlineStage stage = stage(Duration.ofSeconds(5), Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> stage.perAttempt(attempt).apply(exchange()))
+                .isInstanceOf(TimeoutException.class)
+                .hasMessageContaining("Attempt timed out")
+                .cause()
+                .hasMessage("aborted");
+        assertThat(aborted.getCount()).isZero();
+    }
+
+    @Test
+    void shouldNotAbortCompletedAttempt() throws Throwable {
+        AtomicInteger cancels = new AtomicInteger();
+        CheckedFunction<ResilientExchange, ClientHttpResponse> attempt = exchange -> {
+            ExchangeAbortHandle.attachToCurrent(() -> {
+                cancels.incrementAndGet();
+                return true;
+            });
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+
+        ClientHttpResponse response = stage(Duration.ofSeconds(5), Duration.ofMillis(20))
+                .perAttempt(attempt)
+                .apply(exchange());
+        Thread.sleep(100);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(cancels).hasValue(0);
+    }
+
+    @Test
+    void shouldTimeOutAttemptWhoseRequestWasAbortedBeforeItsResponseWasHandedOn() {
+        CountDownLatch cancelled = new CountDownLatch(1);
+        AtomicInteger closed = new AtomicInteger();
+        CheckedFunction<ResilientExchange, ClientHttpResponse> attempt = exchange -> {
+            ExchangeAbortHandle.attachToCurrent(() -> {
+                cancelled.countDown();
+                return true;
+            });
+            // the response arrives, but the watchdog fires before the stage hands it on
+            assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK) {
+                @Override
+                public void close() {
+                    closed.incrementAndGet();
+                }
+            };
+        };
+
+        assertThatThrownBy(() -> stage(Duration.ofSeconds(5), Duration.ofMillis(20))
+                        .perAttempt(attempt)
+                        .apply(exchange()))
+                .isInstanceOf(TimeoutException.class)
+                .hasMessageContaining("Attempt timed out");
+        assertThat(closed).hasValue(1);
+    }
+
+    @Test
+    void shouldLetAbortAndFinishExcludeEachOther() {
+        AtomicInteger cancels = new AtomicInteger();
+        ExchangeAbortHandle finished = new ExchangeAbortHandle();
+        ExchangeAbortHandle aborted = new ExchangeAbortHandle();
+        for (ExchangeAbortHandle handle : new ExchangeAbortHandle[] {finished, aborted}) {
+            try {
+                handle.call(
+                        exchange -> {
+                            ExchangeAbortHandle.attachToCurrent(() -> {
+                                cancels.incrementAndGet();
+                                return true;
+                            });
+                            return null;
+                        },
+                        exchange());
+            } catch (Throwable t) {
+                throw new AssertionError(t);
+            }
+        }
+
+        assertThat(finished.finish()).isTrue();
+        assertThat(finished.abort()).isFalse();
+        assertThat(finished.isAborted()).isFalse();
+        assertThat(aborted.abort()).isTrue();
+        assertThat(aborted.finish()).isFalse();
+        assertThat(aborted.isAborted()).isTrue();
+        assertThat(cancels).hasValue(1);
+    }
+
+    @Test
+    void shouldBoundAttemptByRemainingBudget() {
+        CheckedFunction<ResilientExchange, ClientHttpResponse> attempt = exchange -> {
+            CountDownLatch aborted = new CountDownLatch(1);
+            ExchangeAbortHandle.attachToCurrent(() -> {
+                aborted.countDown();
+                return true;
+            });
+            aborted.await(5, TimeUnit.SECONDS);
+            throw new IOException("aborted");
+        };
+        DeadlineStage stage = stage(Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> stage.total(stage.perAttempt(attempt)).apply(exchange()))
+                .isInstanceOf(TimeoutException.class)
+                .hasMessageContaining("deadline");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void shouldFailBeforeAttemptWhenBudgetIsSpent() {
+        DeadlineStage stage = stage(Duration.ofSeconds(5), Duration.ofSeconds(5));
+        ResilientExchange exchange = exchange();
+        exchange.deadline(System.nanoTime() - 1);
+
+        assertThatThrownBy(() -> stage.perAttempt(e -> {
+                            attempts.incrementAndGet();
+                            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+                        })
+                        .apply(exchange))
+                .isInstanceOf(TimeoutException.class);
+        assertThat(attempts).hasValue(0);
+    }
+
+    @Test
+    void shouldExposeRemainingBudgetOnlyInsideTheCall() throws Throwable {
+        AtomicLong remaining = new AtomicLong();
+        DeadlineStage stage = stage(Duration.ofSeconds(2), Duration.ZERO);
+
+        exchange().bind(stage.total(exchange -> {
+            remaining.set(DeadlineStage.remainingMillis());
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        }));
+
+        assertThat(remaining.get()).isBetween(1L, 2000L);
+        assertThat(DeadlineStage.remainingMillis()).isEqualTo(-1L);
+    }
+
+    private static DeadlineStage stage(Duration total, Duration perAttempt) {
+        return new DeadlineStage(
+                RestClientProperties.Deadline.builder()
+                        .enabled(true)
+                        .total(total)
+                        .perAttempt(perAttempt)
+                        .build(),
+                "deadline");
+    }
+
+    private static ResilientExchange exchange() {
+        HttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost/"));
+        return new ResilientExchange() {
+            @Override
+            HttpRequest request() {
+                return request;
+            }
+
+            @Override
+            ClientHttpResponse execute() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
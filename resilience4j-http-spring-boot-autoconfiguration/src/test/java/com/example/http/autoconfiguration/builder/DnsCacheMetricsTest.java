@@ -0,0 +1,52 @@
+package com.example.http.autoconfiguration.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.http.client.builder.CachingDnsResolver;
+import com.example.http.client.builder.HttpClientConfigurer;
+import com.example.http.client.property.HttpClientDefaultSettings;
+import com.example.http.client.property.HttpClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+class DnsCacheMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldPublishHitsMissesAndSize() throws Exception {
+        HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+        props.getDns().setEnabled(true);
+        CachingDnsResolver resolver = HttpClientConfigurer.dnsResolver(props);
+        DnsCacheMetrics.bind("orders", resolver, meterRegistry);
+
+        resolver.resolve("localhost");
+        resolver.resolve("localhost");
+        resolver.resolve("localhost");
+
+        assertThat(lookups("hit")).isEqualTo(2.0);
+        assertThat(lookups("miss")).isEqualTo(1.0);
+        assertThat(meterRegistry
+                        .get(DnsCacheMetrics.SIZE)
+                        .tag("client", "orders")
+                        .gauge()
+                        .value())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldSkipClientsWithoutCachingResolver() {
+        DnsCacheMetrics.bind("orders", null, meterRegistry);
+
+        assertThat(meterRegistry.getMeters()).isEmpty();
+    }
+
+    private double lookups(String result) {
+        return meterRegistry
+                .get(DnsCacheMetrics.LOOKUPS)
+                .tag("client", "orders")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
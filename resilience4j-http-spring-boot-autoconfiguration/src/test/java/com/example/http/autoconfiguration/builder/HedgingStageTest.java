@@ -0,0 +1,235 @@
+package com.example.http.autoconfiguration.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import com.example.http.autoconfiguration.property.RestClientProperties;
+import io.github.resilience4j.core.functions.CheckedFunction;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+class HedgingStageTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @Test
+    void shouldRejectNonIdempotentMethods() {
+        RestClientProperties.Hedging props = hedging(Duration.ofMillis(10), 1.0);
+        props.setMethods(Set.of(HttpMethod.GET, HttpMethod.POST));
+
+        assertThatThrownBy(() -> new HedgingStage(props, "hedge", meterRegistry))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("POST");
+    }
+
+    @Test
+    void shouldReturnHedgeAndAbortSlowPrimary() throws Throwable {
+        CountDownLatch primaryAborted = new CountDownLatch(1);
+        CheckedFunction<ResilientExchange, ClientHttpResponse> attempt = exchange -> {
+            if (attempts.incrementAndGet() == 1) {
+                ExchangeAbortHandle.attachToCurrent(() -> {
+                    primaryAborted.countDown();
+                    return true;
+                });
+                primaryAborted.await(5, TimeUnit.SECONDS);
+                throw new IOException("aborted");
+            }
+            return response("hedge");
+        };
+
+        ClientHttpResponse response =
+                stage(hedging(Duration.ofMillis(20), 1.0)).decorate(attempt).apply(exchange(HttpMethod.GET));
+
+        assertThat(body(response)).isEqualTo("hedge");
+        assertThat(primaryAborted.getCount()).isZero();
+        assertThat(count("issued")).isEqualTo(1.0);
+        assertThat(count("won")).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldNotHedgeWhenPrimaryIsFast() throws Throwable {
+        ClientHttpResponse response = stage(hedging(Duration.ofMillis(500), 1.0))
+                .decorate(exchange -> {
+                    attempts.incrementAndGet();
+                    return response("primary");
+                })
+                .apply(exchange(HttpMethod.GET));
+
+        assertThat(body(response)).isEqualTo("primary");
+        assertThat(attempts).hasValue(1);
+        assertThat(count("issued")).isZero();
+    }
+
+    @Test
+    void shouldNotHedgeWithoutBudget() throws Throwable {
+        ClientHttpResponse response = stage(hedging(Duration.ofMillis(10), 0.0))
+                .decorate(exchange -> {
+                    attempts.incrementAndGet();
+                    Thread.sleep(200);
+                    return response("primary");
+                })
+                .apply(exchange(HttpMethod.GET));
+
+        assertThat(body(response)).isEqualTo("primary");
+        assertThat(attempts).hasValue(1);
+        assertThat(count("budget_exhausted")).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldSkipHedgeWhenAllHedgeThreadsAreBusy() throws Exception {
+        RestClientProperties.Hedging props = hedging(Duration.ofMillis(10), 1.0);
+        props.setMaxConcurrent(1);
+        HedgingStage stage = stage(props);
+        CountDownLatch release = new CountDownLatch(1);
+        CheckedFunction<ResilientExchange, ClientHttpResponse> call = stage.decorate(exchange -> {
+            int attempt = attempts.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return response("attempt " + attempt);
+        });
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        try {
+            List<Future<ClientHttpResponse>> calls = List.of(
+                    callers.submit(() -> call.unchecked().apply(exchange(HttpMethod.GET))),
+                    callers.submit(() -> call.unchecked().apply(exchange(HttpMethod.GET))));
+            await().atMost(2, TimeUnit.SECONDS).until(() -> count("issued") + count("skipped") == 2.0);
+            release.countDown();
+
+            for (Future<ClientHttpResponse> response : calls) {
+                assertThat(body(response.get(5, TimeUnit.SECONDS))).startsWith("attempt");
+            }
+        } finally {
+            callers.shutdownNow();
+            stage.close();
+        }
+
+        assertThat(count("issued")).isEqualTo(1.0);
+        assertThat(count("skipped")).isEqualTo(1.0);
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void shouldNotHedgeMethodsOutsideConfiguredSet() throws Throwable {
+        ClientHttpResponse response = stage(hedging(Duration.ofMillis(10), 1.0))
+                .decorate(exchange -> {
+                    attempts.incrementAndGet();
+                    Thread.sleep(100);
+                    return response("primary");
+                })
+                .apply(exchange(HttpMethod.POST));
+
+        assertThat(body(response)).isEqualTo("primary");
+        assertThat(attempts).hasValue(1);
+        assertThat(count("issued")).isZero();
+    }
+
+    @Test
+    void shouldWaitForHedgeWhenPrimaryFails() throws Throwable {
+        CheckedFunction<ResilientExchange, ClientHttpResponse> attempt = exchange -> {
+            if (attempts.incrementAndGet() == 1) {
+                Thread.sleep(100);
+                throw new IOException("primary failed");
+            }
+            Thread.sleep(150);
+            return response("hedge");
+        };
+
+        ClientHttpResponse response =
+                stage(hedging(Duration.ofMillis(20), 1.0)).decorate(attempt).apply(exchange(HttpMethod.GET));
+
+        assertThat(body(response)).isEqualTo("hedge");
+    }
+
+    @Test
+    void shouldThrowPrimaryFailureWhenBothAttemptsFail() {
+        CheckedFunction<ResilientExchange, ClientHttpResponse> attempt = exchange -> {
+            int n = attempts.incrementAndGet();
+            Thread.sleep(100);
+            throw new IOException("attempt " + n);
+        };
+
+        assertThatThrownBy(() -> stage(hedging(Duration.ofMillis(20), 1.0))
+                        .decorate(attempt)
+                        .apply(exchange(HttpMethod.GET)))
+                .isInstanceOf(IOException.class)
+                .hasMessage("attempt 1")
+                .satisfies(ex -> assertThat(ex.getSuppressed())
+                        .singleElement()
+                        .extracting(Throwable::getMessage)
+                        .isEqualTo("attempt 2"));
+    }
+
+    @Test
+    void shouldUseFixedDelayUntilLatencyIsKnown() {
+        RestClientProperties.Hedging props = hedging(Duration.ofMillis(75), 1.0);
+        props.setAdaptiveDelay(true);
+
+        assertThat(stage(props).delayNanos()).isEqualTo(Duration.ofMillis(75).toNanos());
+    }
+
+    private HedgingStage stage(RestClientProperties.Hedging props) {
+        return new HedgingStage(props, "hedge", meterRegistry);
+    }
+
+    private double count(String result) {
+        return meterRegistry
+                .get(HedgingStage.METRIC)
+                .tag("client", "hedge")
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    private static RestClientProperties.Hedging hedging(Duration delay, double budgetRatio) {
+        return RestClientProperties.Hedging.builder()
+                .enabled(true)
+                .delay(delay)
+                .budgetRatio(budgetRatio)
+                .build();
+    }
+
+    private static ClientHttpResponse response(String body) {
+        return new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+    }
+
+    private static String body(ClientHttpResponse response) throws IOException {
+        return StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private static ResilientExchange exchange(HttpMethod method) {
+        HttpRequest request = new MockClientHttpRequest(method, URI.create("http://localhost/"));
+        return new ResilientExchange() {
+            @Override
+            HttpRequest request() {
+                return request;
+            }
+
+            @Override
+            ClientHttpResponse execute() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.http.autoconfiguration.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+
+class HttpStatusBitmapTest {
+
+    @Test
+    void shouldContainOnlyConfiguredStatuses() {
+        HttpStatusBitmap bitmap = HttpStatusBitmap.of(Set.of(HttpStatus.TOO_MANY_REQUESTS, HttpStatus.BAD_GATEWAY));
+
+        assertThat(bitmap.contains(429)).isTrue();
+        assertThat(bitmap.contains(502)).isTrue();
+        assertThat(bitmap.contains(HttpStatusCode.valueOf(502))).isTrue();
+        assertThat(bitmap.contains(500)).isFalse();
+        assertThat(bitmap.contains(200)).isFalse();
+        assertThat(bitmap.isEmpty()).isFalse();
+    }
+
+    @Test
+    void shouldTreatNullOrEmptyAsEmpty() {
+        assertThat(HttpStatusBitmap.of(null)).isSameAs(HttpStatusBitmap.EMPTY);
+        assertThat(HttpStatusBitmap.of(Set.of())).isSameAs(HttpStatusBitmap.EMPTY);
+        assertThat(HttpStatusBitmap.EMPTY.isEmpty()).isTrue();
+        assertThat(HttpStatusBitmap.EMPTY.contains((HttpStatusCode) null)).isFalse();
+    }
+
+    @Test
+    void shouldRejectCodesOutsideRange() {
+        HttpStatusBitmap bitmap = HttpStatusBitmap.of(Set.of(HttpStatus.OK));
+
+        assertThat(bitmap.contains(-1)).isFalse();
+        assertThat(bitmap.contains(600)).isFalse();
+        assertThat(bitmap.contains(200 + 64)).isFalse();
+    }
+
+    @Test
+    void shouldKnowRegisteredServerErrorsOnly() {
+        HttpStatusBitmap serverErrors = HttpStatusBitmap.knownServerErrors();
+
+        assertThat(serverErrors.contains(500)).isTrue();
+        assertThat(serverErrors.contains(503)).isTrue();
+        assertThat(serverErrors.contains(599)).isFalse();
+        assertThat(serverErrors.contains(404)).isFalse();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.http.autoconfiguration.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyPercentileTest {
+
+    @Test
+    void shouldBeUnknownUntilMinimumSamples() {
+        LatencyPercentile p95 = new LatencyPercentile(0.95, 20);
+
+        for (int i = 0; i < 19; i++) {
+            p95.record(1_000);
+        }
+
+        assertThat(p95.nanos()).isEqualTo(-1L);
+
+        p95.record(1_000);
+        assertThat(p95.nanos()).isEqualTo(1_000L);
+    }
+
+    @Test
+    void shouldReportPercentileOfRecentSamples() {
+        LatencyPercentile p95 = new LatencyPercentile(0.95, 20);
+
+        for (int i = 1; i <= LatencyPercentile.SAMPLES; i++) {
+            p95.record(i);
+        }
+
+        // 95% of 256 samples are at most 244
+        assertThat(p95.nanos()).isEqualTo(244L);
+    }
+
+    @Test
+    void shouldForgetSamplesOlderThanTheRing() {
+        LatencyPercentile p95 = new LatencyPercentile(0.95, 20);
+
+        for (int i = 0; i < LatencyPercentile.SAMPLES; i++) {
+            p95.record(5_000_000);
+        }
+        for (int i = 0; i < LatencyPercentile.SAMPLES; i++) {
+            p95.record(1_000);
+        }
+
+        assertThat(p95.nanos()).isEqualTo(1_000L);
+    }
+}
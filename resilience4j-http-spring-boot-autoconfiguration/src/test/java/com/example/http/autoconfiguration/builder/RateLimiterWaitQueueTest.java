@@ -0,0 +1,207 @@
+package com.example.http.autoconfiguration.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterWaitQueueTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldGrantAvailablePermitWithoutWaiting() {
+        RateLimiterWaitQueue queue =
+                new RateLimiterWaitQueue(rateLimiter(5, Duration.ofSeconds(1)), 1, "c", meterRegistry);
+
+        queue.acquire();
+
+        assertThat(queue.depth()).isZero();
+        assertThat(meterRegistry.get(RateLimiterWaitQueue.WAIT_METRIC).timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectImmediatelyWhenQueueIsFull() {
+        RateLimiter rateLimiter = rateLimiter(1, Duration.ofSeconds(5));
+        RateLimiterWaitQueue queue = new RateLimiterWaitQueue(rateLimiter, 1, "c", meterRegistry);
+        queue.acquire(); // consumes the only permit of this period
+
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(queue::acquire);
+        await().atMost(2, TimeUnit.SECONDS).until(() -> queue.depth() == 1);
+        assertThat(meterRegistry.get(RateLimiterWaitQueue.DEPTH_METRIC).gauge().value())
+                .isEqualTo(1.0);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(queue::acquire).isInstanceOf(RequestNotPermitted.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(200));
+
+        assertThat(meterRegistry
+                        .get(RateLimiterWaitQueue.REJECTED_METRIC)
+                        .tag("reason", "queue_full")
+                        .counter()
+                        .count())
+                .isEqualTo(1.0);
+
+        waiter.join();
+        assertThat(queue.depth()).isZero();
+        assertThat(meterRegistry.get(RateLimiterWaitQueue.WAIT_METRIC).timer().max(TimeUnit.MILLISECONDS))
+                .isGreaterThan(0);
+    }
+
+    @Test
+    void shouldRejectWhenPermitCannotBeGrantedWithinTimeout() {
+        RateLimiterWaitQueue queue = new RateLimiterWaitQueue(rateLimiter(1, Duration.ZERO), 4, "c", meterRegistry);
+        queue.acquire();
+
+        assertThatThrownBy(queue::acquire).isInstanceOf(RequestNotPermitted.class);
+
+        assertThat(queue.depth()).isZero();
+        assertThat(meterRegistry
+                        .get(RateLimiterWaitQueue.REJECTED_METRIC)
+                        .tag("reason", "timeout")
+                        .counter()
+                        .count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldGrantAvailablePermitWithZeroDepth() {
+        RateLimiterWaitQueue queue =
+                new RateLimiterWaitQueue(rateLimiter(2, Duration.ofSeconds(1)), 0, "c", meterRegistry);
+
+        queue.acquire();
+        queue.acquire();
+
+        assertThat(queue.depth()).isZero();
+        // without a place in the queue a caller that would have to wait is turned away at once
+        assertThatThrownBy(queue::acquire).isInstanceOf(RequestNotPermitted.class);
+        assertThat(meterRegistry
+                        .get(RateLimiterWaitQueue.REJECTED_METRIC)
+                        .tag("reason", "queue_full")
+                        .counter()
+                        .count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldNotBookFuturePermitsPastAFullQueue() throws Exception {
+        RateLimiter rateLimiter = RateLimiter.of(
+                "queue-test",
+                RateLimiterConfig.custom()
+                        .limitForPeriod(1)
+                        .limitRefreshPeriod(Duration.ofSeconds(30))
+                        .timeoutDuration(Duration.ofSeconds(5))
+                        .build());
+        RateLimiterWaitQueue queue = new RateLimiterWaitQueue(rateLimiter, 0, "c", meterRegistry);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        List<CompletableFuture<Void>> callers = new ArrayList<>();
+        ExecutorService threads = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 16; i++) {
+            callers.add(CompletableFuture.runAsync(
+                    () -> {
+                        try {
+                            start.await();
+                            queue.acquire();
+                            granted.incrementAndGet();
+                        } catch (InterruptedException | RequestNotPermitted ignored) {
+                            // turned away
+                        }
+                    },
+                    threads));
+        }
+
+        start.countDown();
+        try {
+            CompletableFuture.allOf(callers.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertThat(granted).hasValue(1);
+        // nobody past the queue reserved a permit of the next period
+        assertThat(rateLimiter.getMetrics().getAvailablePermissions()).isZero();
+    }
+
+    @Test
+    void shouldCountInterruptedWaiterUnderItsOwnReason() throws Exception {
+        RateLimiterWaitQueue queue =
+                new RateLimiterWaitQueue(rateLimiter(1, Duration.ofSeconds(5)), 1, "c", meterRegistry);
+        queue.acquire();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                queue.acquire();
+            } catch (RequestNotPermitted ex) {
+                failure.set(ex);
+            }
+        });
+        waiter.start();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> queue.depth() == 1);
+
+        waiter.interrupt();
+        waiter.join(2000);
+
+        assertThat(failure.get()).isInstanceOf(RequestNotPermitted.class);
+        assertThat(meterRegistry
+                        .get(RateLimiterWaitQueue.REJECTED_METRIC)
+                        .tag("reason", "interrupted")
+                        .counter()
+                        .count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry
+                        .get(RateLimiterWaitQueue.REJECTED_METRIC)
+                        .tag("reason", "timeout")
+                        .counter()
+                        .count())
+                .isZero();
+    }
+
+    @Test
+    void shouldRejectNegativeDepth() {
+        RateLimiter rateLimiter = rateLimiter(1, Duration.ZERO);
+
+        assertThatThrownBy(() -> new RateLimiterWaitQueue(rateLimiter, -1, "c", meterRegistry))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must not be negative");
+        assertThatThrownBy(() -> ResilienceHttpRequestInterceptor.builder(ObservationRegistry.NOOP)
+                        .rateLimiterQueueDepth(-1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must not be negative");
+    }
+
+    @Test
+    void shouldWorkWithoutMeterRegistry() {
+        RateLimiterWaitQueue queue = new RateLimiterWaitQueue(rateLimiter(1, Duration.ZERO), 0, "c", null);
+        queue.acquire();
+
+        assertThatThrownBy(queue::acquire).isInstanceOf(RequestNotPermitted.class);
+    }
+
+    private static RateLimiter rateLimiter(int limitForPeriod, Duration timeout) {
+        return RateLimiter.of(
+                "queue-test",
+                RateLimiterConfig.custom()
+                        .limitForPeriod(limitForPeriod)
+                        .limitRefreshPeriod(Duration.ofMillis(500))
+                        .timeoutDuration(timeout)
+                        .build());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.http.autoconfiguration.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class RatioBudgetTest {
+
+    @Test
+    void shouldStartEmptyAndEarnOneTokenPerInverseRatioCalls() {
+        RatioBudget budget = new RatioBudget(0.1, 10);
+
+        assertThat(budget.tryAcquire()).isFalse();
+        for (int i = 0; i < 9; i++) {
+            budget.deposit();
+        }
+        assertThat(budget.tryAcquire()).isFalse();
+
+        budget.deposit();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void shouldCapBalanceAtMaxTokens() {
+        RatioBudget budget = new RatioBudget(1.0, 3);
+
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+
+        assertThat(budget.available()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldNeverGrantWithZeroRatio() {
+        RatioBudget budget = new RatioBudget(0.0, 10);
+
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+}
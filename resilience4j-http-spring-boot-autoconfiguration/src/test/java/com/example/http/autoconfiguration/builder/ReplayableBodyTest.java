@@ -0,0 +1,103 @@
+package com.example.http.autoconfiguration.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+class ReplayableBodyTest {
+
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldWriteFileRegionOnEveryAttempt() throws IOException {
+        Path file = Files.write(dir.resolve("upload.bin"), CONTENT);
+        ReplayableBody body = ReplayableBody.ofFile(file, 5, 10);
+
+        assertThat(body.contentLength()).isEqualTo(10);
+        assertThat(write(body)).isEqualTo("56789abcde");
+        assertThat(write(body)).isEqualTo("56789abcde");
+    }
+
+    @Test
+    void shouldFailWhenFileEndsBeforeBody() throws IOException {
+        Path file = Files.write(dir.resolve("upload.bin"), CONTENT);
+        ReplayableBody body = ReplayableBody.ofFile(file);
+        Files.write(file, "short".getBytes(StandardCharsets.US_ASCII));
+
+        assertThatThrownBy(() -> write(body)).isInstanceOf(IOException.class).hasMessageContaining("ended 15 bytes");
+    }
+
+    @Test
+    void shouldWriteDirectBufferWithoutMovingItsPosition() throws IOException {
+        ByteBuffer buffer =
+                ByteBuffer.allocateDirect(CONTENT.length).put(CONTENT).flip();
+        buffer.position(10);
+        ReplayableBody body = ReplayableBody.ofBuffer(buffer);
+
+        assertThat(body.contentLength()).isEqualTo(10);
+        assertThat(write(body)).isEqualTo("abcdefghij");
+        assertThat(write(body)).isEqualTo("abcdefghij");
+        assertThat(buffer.position()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldWriteHeapBufferRegion() throws IOException {
+        ReplayableBody body = ReplayableBody.ofBuffer(ByteBuffer.wrap(CONTENT, 2, 3));
+
+        assertThat(write(body)).isEqualTo("234");
+    }
+
+    @Test
+    void shouldOpenSourceOnEveryAttempt() throws IOException {
+        AtomicInteger opened = new AtomicInteger();
+        ReplayableBody body = ReplayableBody.ofSupplier(-5, () -> {
+            opened.incrementAndGet();
+            return new ByteArrayInputStream(CONTENT);
+        });
+
+        assertThat(body.contentLength()).isEqualTo(-1);
+        assertThat(write(body)).isEqualTo(new String(CONTENT, StandardCharsets.US_ASCII));
+        assertThat(write(body)).isEqualTo(new String(CONTENT, StandardCharsets.US_ASCII));
+        assertThat(opened).hasValue(2);
+    }
+
+    @Test
+    void shouldSendAttributeBodyWithItsLength() throws IOException {
+        MockClientHttpRequest delegate = new MockClientHttpRequest(HttpMethod.PUT, URI.create("http://localhost/x"));
+        ClientHttpRequest request = new BodyTransferClientHttpRequestFactory((uri, method) -> delegate)
+                .createRequest(delegate.getURI(), HttpMethod.PUT);
+        delegate.setResponse(new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+        request.getHeaders().setContentLength(0);
+        request.getAttributes().put(ReplayableBody.ATTRIBUTE, ReplayableBody.ofBuffer(ByteBuffer.wrap(CONTENT)));
+
+        request.execute();
+
+        assertThat(delegate.getHeaders().getContentLength()).isEqualTo(CONTENT.length);
+        assertThat(delegate.getBodyAsBytes()).isEqualTo(CONTENT);
+    }
+
+    private static String write(ReplayableBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.http.autoconfiguration.builder;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -15,11 +16,16 @@ import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
 import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
 import io.micrometer.observation.ObservationRegistry;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.SocketTimeoutException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
@@ -29,8 +35,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
 
 class ResilienceHttpRequestInterceptorTest {
@@ -240,4 +249,93 @@ class ResilienceHttpRequestInterceptorTest {
                 .isInstanceOf(RestClientException.class)
                 .hasCauseInstanceOf(RuntimeException.class);
     }
+
+    @Test
+    void shouldReuseCompiledPipelineAndTagEveryObservation() throws IOException {
+        List<Observation.Context> stopped = new ArrayList<>();
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+
+            @Override
+            public void onStop(Observation.Context context) {
+                stopped.add(context);
+            }
+        });
+
+        ResilienceHttpRequestInterceptor interceptor = ResilienceHttpRequestInterceptor.builder(registry)
+                .clientName(CLIENT_NAME)
+                .observationTags(Map.of("env", "test"))
+                .circuitBreaker(CircuitBreakerRegistry.ofDefaults().circuitBreaker(CLIENT_NAME))
+                .retry(RetryRegistry.ofDefaults().retry(CLIENT_NAME))
+                .retryStatus(Set.of(HttpStatus.BAD_GATEWAY))
+                .build();
+
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getMethod()).thenReturn(HttpMethod.GET);
+        when(request.getURI()).thenReturn(java.net.URI.create("/reuse"));
+
+        ClientHttpResponse response = mock(ClientHttpResponse.class);
+        when(response.getStatusCode()).thenReturn(HttpStatusCode.valueOf(200));
+
+        ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+        when(execution.execute(any(), any())).thenReturn(response);
+
+        assertThat(interceptor.intercept(request, new byte[0], execution)).isSameAs(response);
+        assertThat(interceptor.intercept(request, new byte[0], execution)).isSameAs(response);
+
+        assertThat(stopped).hasSize(2);
+        assertThat(stopped.get(1).getLowCardinalityKeyValues())
+                .extracting(KeyValue::getKey, KeyValue::getValue)
+                .contains(
+                        tuple("client", CLIENT_NAME),
+                        tuple("cb.state", "CLOSED"),
+                        tuple("retry.enabled", "true"),
+                        tuple("rl.enabled", "false"),
+                        tuple("env", "test"),
+                        tuple("http.method", "GET"),
+                        tuple("http.uri", "/reuse"));
+    }
+
+    @Test
+    void shouldTagObservationWithUriTemplateInsteadOfExpandedPath() {
+        List<Observation.Context> stopped = new ArrayList<>();
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return "http.client.request.resilient".equals(context.getName());
+            }
+
+            @Override
+            public void onStop(Observation.Context context) {
+                stopped.add(context);
+            }
+        });
+
+        ResilienceHttpRequestInterceptor interceptor = ResilienceHttpRequestInterceptor.builder(registry)
+                .clientName(CLIENT_NAME)
+                .retry(RetryRegistry.ofDefaults().retry(CLIENT_NAME))
+                .build();
+
+        RestClient client = RestClient.builder()
+                .baseUrl("http://localhost:8080/api")
+                .requestFactory((uri, method) -> {
+                    MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+                    request.setResponse(new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+                    return request;
+                })
+                .requestInterceptor(interceptor)
+                .build();
+
+        client.get().uri("/orders/{id}?expand={field}", 42, "lines").retrieve().toBodilessEntity();
+        client.get().uri("/orders/" + 43).retrieve().toBodilessEntity();
+
+        assertThat(stopped)
+                .map(context -> context.getLowCardinalityKeyValue("http.uri").getValue())
+                .containsExactly("/api/orders/{id}", "/api/orders/{id}");
+    }
 }
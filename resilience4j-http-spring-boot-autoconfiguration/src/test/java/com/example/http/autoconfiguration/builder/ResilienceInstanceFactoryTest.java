@@ -2,6 +2,10 @@ package com.example.http.autoconfiguration.builder;
 
 import com.example.http.autoconfiguration.property.RestClientDefaultSettings;
 import com.example.http.autoconfiguration.property.RestClientProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.ratelimiter.RateLimiter;
@@ -92,4 +96,56 @@ class ResilienceInstanceFactoryTest {
         Assertions.assertThat(rl).isNotNull();
         Assertions.assertThat(registry.find(CLIENT)).isPresent();
     }
+
+    @Test
+    void shouldReturnExistingBulkheadFromRegistry() {
+        BulkheadRegistry registry = BulkheadRegistry.ofDefaults();
+        Bulkhead existing = registry.bulkhead(CLIENT);
+
+        RestClientProperties.Resilience resilience =
+                RestClientProperties.Resilience.builder().build();
+
+        Bulkhead result = ResilienceInstanceFactory.getBulkhead(CLIENT, registry, resilience);
+
+        Assertions.assertThat(result).isSameAs(existing);
+    }
+
+    @Test
+    void shouldCreateBulkheadIfMissing() {
+        BulkheadRegistry registry = BulkheadRegistry.ofDefaults();
+        RestClientProperties.Resilience resilience = RestClientProperties.Resilience.builder()
+                .bulkhead(RestClientDefaultSettings.defaultBulkheadProperties())
+                .build();
+
+        Bulkhead bh = ResilienceInstanceFactory.getBulkhead(CLIENT, registry, resilience);
+
+        Assertions.assertThat(bh).isNotNull();
+        Assertions.assertThat(registry.find(CLIENT)).isPresent();
+    }
+
+    @Test
+    void shouldReturnExistingThreadPoolBulkheadFromRegistry() {
+        ThreadPoolBulkheadRegistry registry = ThreadPoolBulkheadRegistry.ofDefaults();
+        ThreadPoolBulkhead existing = registry.bulkhead(CLIENT);
+
+        RestClientProperties.Resilience resilience =
+                RestClientProperties.Resilience.builder().build();
+
+        ThreadPoolBulkhead result = ResilienceInstanceFactory.getThreadPoolBulkhead(CLIENT, registry, resilience);
+
+        Assertions.assertThat(result).isSameAs(existing);
+    }
+
+    @Test
+    void shouldCreateThreadPoolBulkheadIfMissing() {
+        ThreadPoolBulkheadRegistry registry = ThreadPoolBulkheadRegistry.ofDefaults();
+        RestClientProperties.Resilience resilience = RestClientProperties.Resilience.builder()
+                .threadPoolBulkhead(RestClientDefaultSettings.defaultThreadPoolBulkheadProperties())
+                .build();
+
+        ThreadPoolBulkhead bh = ResilienceInstanceFactory.getThreadPoolBulkhead(CLIENT, registry, resilience);
+
+        Assertions.assertThat(bh).isNotNull();
+        Assertions.assertThat(registry.find(CLIENT)).isPresent();
+    }
 }
@@ -0,0 +1,179 @@
+package com.example.http.autoconfiguration.builder;
+
+import static com.example.http.autoconfiguration.property.ResilienceStage.BULKHEAD;
+import static com.example.http.autoconfiguration.property.ResilienceStage.CIRCUIT_BREAKER;
+import static com.example.http.autoconfiguration.property.ResilienceStage.DEADLINE;
+import static com.example.http.autoconfiguration.property.ResilienceStage.RATE_LIMITER;
+import static com.example.http.autoconfiguration.property.ResilienceStage.RETRY;
+import static com.example.http.autoconfiguration.property.ResilienceStage.THREAD_POOL_BULKHEAD;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.http.autoconfiguration.property.ResilienceStage;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import java.io.IOException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestClientException;
+
+class ResiliencePipelineTest {
+
+    @Test
+    void shouldUseDefaultOrderWhenNoneConfigured() {
+        assertThat(ResiliencePipeline.resolveOrder(null, EnumSet.allOf(ResilienceStage.class)))
+                .containsExactly(DEADLINE, BULKHEAD, THREAD_POOL_BULKHEAD, RATE_LIMITER, CIRCUIT_BREAKER, RETRY);
+        assertThat(ResiliencePipeline.resolveOrder(List.of(), EnumSet.of(RETRY)))
+                .containsExactly(RETRY);
+    }
+
+    @Test
+    void shouldKeepConfiguredOrderAndSkipDisabledStages() {
+        assertThat(ResiliencePipeline.resolveOrder(
+                        List.of(RETRY, RATE_LIMITER, CIRCUIT_BREAKER), EnumSet.of(RETRY, CIRCUIT_BREAKER)))
+                .containsExactly(RETRY, CIRCUIT_BREAKER);
+    }
+
+    @Test
+    void shouldRejectDuplicateStages() {
+        assertThatThrownBy(() -> ResiliencePipeline.resolveOrder(
+                        List.of(RETRY, CIRCUIT_BREAKER, RETRY), EnumSet.of(RETRY, CIRCUIT_BREAKER)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("RETRY is listed more than once");
+    }
+
+    @Test
+    void shouldRejectNullStages() {
+        assertThatThrownBy(() -> ResiliencePipeline.resolveOrder(Arrays.asList(RETRY, null), EnumSet.of(RETRY)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("null");
+    }
+
+    @Test
+    void shouldRejectEnabledStageMissingFromOrder() {
+        assertThatThrownBy(() -> ResiliencePipeline.resolveOrder(List.of(RETRY), EnumSet.of(RETRY, RATE_LIMITER)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("[RATE_LIMITER] are enabled but missing");
+    }
+
+    @Test
+    void shouldCompileOnlyEnabledStagesInOrder() {
+        ResiliencePipeline pipeline = new ResiliencePipeline(
+                List.of(RETRY, RATE_LIMITER, CIRCUIT_BREAKER),
+                CircuitBreaker.ofDefaults("pipeline"),
+                Retry.ofDefaults("pipeline"),
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                HttpStatusBitmap.EMPTY,
+                0);
+
+        assertThat(pipeline.stages()).containsExactly(RETRY, CIRCUIT_BREAKER);
+    }
+
+    @Test
+    void shouldRunThreadPoolBulkheadStageOnItsOwnPool() throws Exception {
+        ThreadPoolBulkhead bulkhead = ThreadPoolBulkhead.ofDefaults("isolated");
+        AtomicReference<String> executingThread = new AtomicReference<>();
+        ResiliencePipeline pipeline = pipeline(null, bulkhead);
+
+        try (ClientHttpResponse response = pipeline.execute(exchange(() -> {
+            executingThread.set(Thread.currentThread().getName());
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        }))) {
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        } finally {
+            bulkhead.close();
+        }
+
+        assertThat(executingThread.get()).isNotEqualTo(Thread.currentThread().getName());
+    }
+
+    @Test
+    void shouldRethrowOriginalFailureFromThreadPoolBulkhead() throws Exception {
+        ThreadPoolBulkhead bulkhead = ThreadPoolBulkhead.ofDefaults("isolated-failure");
+        ResiliencePipeline pipeline = pipeline(null, bulkhead);
+
+        try {
+            assertThatThrownBy(() -> pipeline.execute(exchange(() -> {
+                        throw new UnknownHostException("downstream");
+                    })))
+                    .isInstanceOf(RestClientException.class)
+                    .cause()
+                    .isInstanceOf(UnknownHostException.class)
+                    .hasMessage("downstream");
+        } finally {
+            bulkhead.close();
+        }
+    }
+
+    @Test
+    void shouldRejectWhenSemaphoreBulkheadIsFull() {
+        Bulkhead bulkhead = Bulkhead.of(
+                "full", BulkheadConfig.custom().maxConcurrentCalls(1).build());
+        assertThat(bulkhead.tryAcquirePermission()).isTrue();
+        ResiliencePipeline pipeline = pipeline(bulkhead, null);
+
+        assertThatThrownBy(
+                        () -> pipeline.execute(exchange(() -> new MockClientHttpResponse(new byte[0], HttpStatus.OK))))
+                .isInstanceOf(BulkheadFullException.class);
+
+        bulkhead.onComplete();
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+    }
+
+    private static ResiliencePipeline pipeline(Bulkhead bulkhead, ThreadPoolBulkhead threadPoolBulkhead) {
+        return new ResiliencePipeline(
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                bulkhead,
+                threadPoolBulkhead,
+                null,
+                null,
+                HttpStatusBitmap.EMPTY,
+                0);
+    }
+
+    private static ResilientExchange exchange(Attempt attempt) {
+        HttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost/"));
+        return new ResilientExchange() {
+            @Override
+            HttpRequest request() {
+                return request;
+            }
+
+            @Override
+            ClientHttpResponse execute() throws IOException {
+                return attempt.execute();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface Attempt {
+        ClientHttpResponse execute() throws IOException;
+    }
+}
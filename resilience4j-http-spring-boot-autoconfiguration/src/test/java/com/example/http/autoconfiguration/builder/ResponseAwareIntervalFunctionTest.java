@@ -0,0 +1,149 @@
+package com.example.http.autoconfiguration.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.core.functions.Either;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientException;
+
+class ResponseAwareIntervalFunctionTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-03-01T10:00:00Z"), ZoneOffset.UTC);
+
+    private final ResponseAwareIntervalFunction intervalFn = new ResponseAwareIntervalFunction(
+            IntervalFunction.of(Duration.ofMillis(250)), Duration.ofSeconds(10), true, CLOCK);
+
+    @Test
+    void shouldUseDeltaSecondsHint() {
+        assertThat(intervalFn.apply(1, failure(HttpStatus.TOO_MANY_REQUESTS, "2")))
+                .isEqualTo(2000L);
+        assertThat(intervalFn.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, " 0 ")))
+                .isZero();
+    }
+
+    @Test
+    void shouldUseHttpDateHint() {
+        assertThat(intervalFn.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, "Sun, 01 Mar 2026 10:00:04 GMT")))
+                .isEqualTo(4000L);
+        // a date in the past means "retry now"
+        assertThat(intervalFn.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, "Sun, 01 Mar 2026 09:00:00 GMT")))
+                .isZero();
+    }
+
+    @Test
+    void shouldCapHintAtMaxWait() {
+        assertThat(intervalFn.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, "11")))
+                .isEqualTo(10_000L);
+        assertThat(intervalFn.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, "99999999999999999999")))
+                .isEqualTo(10_000L);
+        assertThat(intervalFn.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, "Sun, 01 Mar 2026 11:00:00 GMT")))
+                .isEqualTo(10_000L);
+    }
+
+    @Test
+    void shouldFailFastWhenHintExceedsMaxWaitUnlessCapped() {
+        ResponseAwareIntervalFunction uncapped = new ResponseAwareIntervalFunction(
+                IntervalFunction.of(Duration.ofMillis(250)), Duration.ofSeconds(10), false, CLOCK);
+
+        assertThat(uncapped.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, "10")))
+                .isEqualTo(10_000L);
+        assertThat(uncapped.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, "11")))
+                .isEqualTo(ResponseAwareIntervalFunction.FAIL_FAST);
+        assertThat(uncapped.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, "99999999999999999999")))
+                .isEqualTo(ResponseAwareIntervalFunction.FAIL_FAST);
+        assertThat(uncapped.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, "Sun, 01 Mar 2026 11:00:00 GMT")))
+                .isEqualTo(ResponseAwareIntervalFunction.FAIL_FAST);
+        assertThat(uncapped.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, null)))
+                .isEqualTo(250L);
+    }
+
+    @Test
+    void shouldFallBackToBackoffWithoutUsableHint() {
+        assertThat(intervalFn.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, null)))
+                .isEqualTo(250L);
+        assertThat(intervalFn.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, "soon")))
+                .isEqualTo(250L);
+        assertThat(intervalFn.apply(1, Either.left(new IOException("reset")))).isEqualTo(250L);
+        assertThat(intervalFn.apply(1, Either.right("result"))).isEqualTo(250L);
+        assertThat(intervalFn.apply(1, null)).isEqualTo(250L);
+    }
+
+    @Test
+    void shouldFailFastWhenIntervalOutlastsDeadline() throws Throwable {
+        ResilientExchange exchange = exchange();
+        exchange.deadline(System.nanoTime() + Duration.ofSeconds(1).toNanos());
+
+        Long[] intervals = exchange.bind(ex -> new Long[] {
+            intervalFn.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, null)),
+            intervalFn.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, "2"))
+        });
+
+        assertThat(intervals).containsExactly(250L, ResponseAwareIntervalFunction.FAIL_FAST);
+        // outside the call the same hint is honoured
+        assertThat(intervalFn.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, "2")))
+                .isEqualTo(2000L);
+    }
+
+    @Test
+    void shouldFailFastWhenHintOutlastsDeadlineEvenIfCapped() throws Throwable {
+        ResilientExchange exchange = exchange();
+        exchange.deadline(System.nanoTime() + Duration.ofSeconds(30).toNanos());
+
+        Long[] intervals = exchange.bind(ex -> new Long[] {
+            intervalFn.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, "20")),
+            intervalFn.apply(1, failure(HttpStatus.SERVICE_UNAVAILABLE, "60"))
+        });
+
+        // the capped 10s would fit, but the server will not be ready before the deadline
+        assertThat(intervals).containsExactly(10_000L, ResponseAwareIntervalFunction.FAIL_FAST);
+    }
+
+    @Test
+    void shouldFindHintOnWrappedResponseException() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        var cause = HttpClientErrorException.create(
+                HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, new byte[0], null);
+
+        assertThat(intervalFn.apply(1, Either.left(new RestClientException("wrapped", cause))))
+                .isEqualTo(1000L);
+    }
+
+    private static ResilientExchange exchange() {
+        return new ResilientExchange() {
+            @Override
+            HttpRequest request() {
+                return null;
+            }
+
+            @Override
+            ClientHttpResponse execute() {
+                return null;
+            }
+        };
+    }
+
+    private static Either<Throwable, Object> failure(HttpStatus status, String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        if (retryAfter != null) {
+            headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return Either.left(
+                status.is4xxClientError()
+                        ? HttpClientErrorException.create(status, status.getReasonPhrase(), headers, new byte[0], null)
+                        : HttpServerErrorException.create(
+                                status, status.getReasonPhrase(), headers, new byte[0], null));
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.http.autoconfiguration.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+class ResponseDrainerTest {
+
+    @Test
+    void shouldReturnBodyThatFitsWithinLimitAndClose() {
+        ClosingResponse response = new ClosingResponse(stream("service unavailable", null), -1);
+
+        byte[] body = new ResponseDrainer(1024).discard(response);
+
+        assertThat(new String(body, StandardCharsets.UTF_8)).isEqualTo("service unavailable");
+        assertThat(response.closed).isTrue();
+    }
+
+    @Test
+    void shouldNotReadBodyWhenDeclaredLengthExceedsLimit() {
+        AtomicInteger reads = new AtomicInteger();
+        ClosingResponse response = new ClosingResponse(stream("x".repeat(2048), reads), 2048);
+
+        byte[] body = new ResponseDrainer(1024).discard(response);
+
+        assertThat(body).isEmpty();
+        assertThat(reads).hasValue(0);
+        assertThat(response.closed).isTrue();
+    }
+
+    @Test
+    void shouldStopReadingUndeclaredBodyOnceLimitIsExceeded() {
+        AtomicInteger reads = new AtomicInteger();
+        ClosingResponse response = new ClosingResponse(stream("x".repeat(64 * 1024), reads), -1);
+
+        byte[] body = new ResponseDrainer(100).discard(response);
+
+        assertThat(body).isEmpty();
+        assertThat(reads.get()).isLessThanOrEqualTo(101);
+        assertThat(response.closed).isTrue();
+    }
+
+    @Test
+    void shouldCancelExchangeAndCloseWrappedBodyOnceLimitIsExceeded() throws Throwable {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        ExchangeAbortHandle handle = new ExchangeAbortHandle();
+        handle.call(
+                exchange -> {
+                    ExchangeAbortHandle.attachToCurrent(() -> cancelled.compareAndSet(false, true));
+                    return null;
+                },
+                null);
+        AtomicInteger reads = new AtomicInteger();
+        AtomicBoolean streamClosed = new AtomicBoolean();
+        // e.g. a decompressing stream, whose close() would read the rest of the body
+        InputStream wrapper = new FilterInputStream(stream("x".repeat(64 * 1024), reads)) {
+            @Override
+            public void close() throws IOException {
+                streamClosed.set(true);
+                super.close();
+            }
+        };
+        ClosingResponse response = new ClosingResponse(wrapper, -1);
+
+        byte[] body = new ResponseDrainer(100).discard(response, handle);
+
+        assertThat(body).isEmpty();
+        assertThat(cancelled).isTrue();
+        assertThat(streamClosed).isTrue();
+        assertThat(reads.get()).isLessThanOrEqualTo(101);
+        assertThat(response.closed).isTrue();
+    }
+
+    @Test
+    void shouldCloseResponseWithoutBody() {
+        ClientHttpResponse response = mock(ClientHttpResponse.class);
+
+        byte[] body = new ResponseDrainer(1024).discard(response);
+
+        assertThat(body).isEmpty();
+        verify(response).close();
+    }
+
+    private static InputStream stream(String content, AtomicInteger reads) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                int read = super.read(b, off, len);
+                if (reads != null && read > 0) {
+                    reads.addAndGet(read);
+                }
+                return read;
+            }
+        };
+    }
+
+    private static final class ClosingResponse extends MockClientHttpResponse {
+        private boolean closed;
+
+        private ClosingResponse(InputStream body, long contentLength) {
+            super(body, HttpStatus.SERVICE_UNAVAILABLE);
+            if (contentLength >= 0) {
+                getHeaders().setContentLength(contentLength);
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            super.close();
+        }
+    }
+}
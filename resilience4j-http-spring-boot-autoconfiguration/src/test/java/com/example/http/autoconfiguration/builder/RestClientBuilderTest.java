@@ -3,11 +3,14 @@ package com.example.http.autoconfiguration.builder;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.example.http.autoconfiguration.property.RestClientProperties;
+import com.example.http.client.builder.ConnectionManagerRegistry;
 import com.example.http.client.property.HttpClientProperties;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
 import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.micrometer.observation.ObservationRegistry;
+import java.net.ServerSocket;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
@@ -168,4 +171,52 @@ class RestClientBuilderTest {
 
         assertThat(client).isNotNull();
     }
+
+    @Test
+    void shouldShareConnectionManagerBetweenCompatibleClients() {
+        ConnectionManagerRegistry registry = new ConnectionManagerRegistry();
+        RestClientBuilder sharing = RestClientBuilder.builder()
+                .observationRegistry(observationRegistry)
+                .circuitBreakerRegistry(circuitBreakerRegistry)
+                .retryRegistry(retryRegistry)
+                .rateLimiterRegistry(rateLimiterRegistry)
+                .connectionManagerRegistry(registry)
+                .build();
+        props.getHttpClient().getPool().setShared(true);
+
+        sharing.client("orders", props).build();
+        sharing.client("payments", props).build();
+
+        assertThat(registry.size()).isEqualTo(1);
+        registry.close();
+    }
+
+    @Test
+    void shouldPrewarmClassicPoolBeforeReturning() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RestClientBuilder metered = RestClientBuilder.builder()
+                .observationRegistry(observationRegistry)
+                .circuitBreakerRegistry(circuitBreakerRegistry)
+                .retryRegistry(retryRegistry)
+                .rateLimiterRegistry(rateLimiterRegistry)
+                .meterRegistry(meterRegistry)
+                .build();
+        // the listen backlog completes TCP connections without the server accepting them
+        try (ServerSocket server = new ServerSocket(0)) {
+            props.setBaseUrl("http://localhost:" + server.getLocalPort());
+            props.getPrewarm().setEnabled(true);
+            props.getPrewarm().setConnections(2);
+
+            metered.client("orders", props).build();
+            metered.awaitPrewarm();
+
+            assertThat(meterRegistry
+                            .get(ConnectionPoolMetrics.CONNECTIONS)
+                            .tag("client", "orders")
+                            .tag("state", "available")
+                            .gauge()
+                            .value())
+                    .isEqualTo(2.0);
+        }
+    }
 }
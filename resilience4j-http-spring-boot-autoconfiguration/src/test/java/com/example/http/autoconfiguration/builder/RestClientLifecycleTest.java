@@ -0,0 +1,106 @@
+package com.example.http.autoconfiguration.builder;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import com.example.http.autoconfiguration.property.RestClientProperties;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+class RestClientLifecycleTest {
+
+    @RegisterExtension
+    static WireMockExtension wm = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    private RestClientBuilder builder;
+
+    @BeforeEach
+    void setup() {
+        configureFor("localhost", wm.getRuntimeInfo().getHttpPort());
+        builder = RestClientBuilder.builder()
+                .observationRegistry(ObservationRegistry.NOOP)
+                .circuitBreakerRegistry(CircuitBreakerRegistry.ofDefaults())
+                .retryRegistry(RetryRegistry.ofDefaults())
+                .rateLimiterRegistry(RateLimiterRegistry.ofDefaults())
+                .build();
+    }
+
+    @AfterEach
+    void close() {
+        builder.lifecycle().close();
+    }
+
+    @Test
+    void shouldDrainInFlightCallsThenRefuseAndClose() throws Exception {
+        stubFor(get("/slow").willReturn(ok("done").withFixedDelay(500)));
+        RestClient client =
+                builder.client("orders", props(Duration.ofSeconds(5))).build();
+        builder.lifecycle().start();
+
+        CompletableFuture<String> inFlight = CompletableFuture.supplyAsync(
+                () -> client.get().uri("/slow").retrieve().body(String.class));
+        await().atMost(2, TimeUnit.SECONDS).until(() -> !wm.getAllServeEvents().isEmpty());
+
+        long start = System.nanoTime();
+        builder.lifecycle().stop();
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(200L);
+        assertThat(inFlight.get(1, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThat(builder.lifecycle().isRunning()).isFalse();
+        assertThatThrownBy(() -> client.get().uri("/slow").retrieve().body(String.class))
+                .isInstanceOf(ResourceAccessException.class)
+                .hasMessageContaining("Client 'orders' is shut down");
+        await().atMost(2, TimeUnit.SECONDS).until(() -> !threadAlive("deadline-orders-"));
+    }
+
+    @Test
+    void shouldCloseClientWhenDrainTimeoutExpires() {
+        stubFor(get("/stuck").willReturn(ok("late").withFixedDelay(5000)));
+        RestClient client =
+                builder.client("stuck", props(Duration.ofMillis(200))).build();
+        builder.lifecycle().start();
+
+        CompletableFuture<String> inFlight = CompletableFuture.supplyAsync(
+                () -> client.get().uri("/stuck").retrieve().body(String.class));
+        await().atMost(2, TimeUnit.SECONDS).until(() -> !wm.getAllServeEvents().isEmpty());
+
+        long start = System.nanoTime();
+        builder.lifecycle().stop();
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2000L);
+        // closing the pool closes the connection the exchange is reading from
+        assertThatThrownBy(() -> inFlight.get(2, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+    }
+
+    private static RestClientProperties props(Duration drainTimeout) {
+        RestClientProperties props = RestClientProperties.defaultConfig();
+        props.setBaseUrl(wm.getRuntimeInfo().getHttpBaseUrl());
+        props.getResilience().getDeadline().setEnabled(true);
+        props.getResilience().getDeadline().setPerAttempt(Duration.ofSeconds(10));
+        props.getShutdown().setDrainTimeout(drainTimeout);
+        return props;
+    }
+
+    private static boolean threadAlive(String prefix) {
+        return Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(thread -> thread.isAlive() && thread.getName().startsWith(prefix));
+    }
+}
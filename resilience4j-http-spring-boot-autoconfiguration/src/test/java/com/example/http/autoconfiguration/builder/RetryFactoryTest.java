@@ -3,13 +3,19 @@ package com.example.http.autoconfiguration.builder;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.example.http.autoconfiguration.property.RestClientProperties;
+import io.github.resilience4j.core.functions.Either;
 import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
 import io.github.resilience4j.retry.RetryRegistry;
 import io.github.resilience4j.springboot3.retry.autoconfigure.RetryProperties;
 import java.net.ConnectException;
 import java.time.Duration;
 import java.util.concurrent.Callable;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
 
 class RetryFactoryTest {
 
@@ -65,6 +71,34 @@ class RetryFactoryTest {
         assertThat(secondDelay).isGreaterThanOrEqualTo(firstDelay).isLessThanOrEqualTo(1000L);
     }
 
+    @Test
+    void shouldApplyExponentialBackoffOnlyWhenEnabled() {
+        RetryProperties.InstanceProperties props = new RetryProperties.InstanceProperties();
+        props.setWaitDuration(Duration.ofMillis(100));
+        props.setExponentialBackoffMultiplier(2.5);
+        props.setExponentialMaxWaitDuration(Duration.ofMillis(1000));
+        props.setEnableExponentialBackoff(true);
+
+        var exponential = RetryFactory.create("exponential-config", RetryRegistry.ofDefaults(), props)
+                .getRetryConfig()
+                .getIntervalBiFunction();
+
+        assertThat(exponential.apply(1, null)).isEqualTo(100L);
+        assertThat(exponential.apply(2, null)).isEqualTo(250L);
+        assertThat(exponential.apply(4, null)).isEqualTo(1000L);
+
+        props.setRandomizedWaitFactor(0.3);
+        props.setEnableRandomizedWait(true);
+
+        var randomized = RetryFactory.create("randomized-config", RetryRegistry.ofDefaults(), props)
+                .getRetryConfig()
+                .getIntervalBiFunction();
+
+        // 100ms and 250ms, each +/- 30%
+        assertThat(randomized.apply(1, null)).isBetween(70L, 130L);
+        assertThat(randomized.apply(2, null)).isBetween(175L, 325L);
+    }
+
     @Test
     void shouldRespectRetryAndIgnoreExceptionsBehaviorally() throws Exception {
         RetryProperties.InstanceProperties props = new RetryProperties.InstanceProperties();
@@ -91,4 +125,55 @@ class RetryFactoryTest {
         assertThatThrownBy(retryableSupplier::call).isInstanceOf(ConnectException.class);
         assertThat(retry.getMetrics().getNumberOfFailedCallsWithRetryAttempt()).isEqualTo(1);
     }
+
+    @Test
+    void shouldHonorRetryAfterHintUpToMaxWait() {
+        RetryProperties.InstanceProperties props = new RetryProperties.InstanceProperties();
+        props.setWaitDuration(Duration.ofMillis(100));
+        props.setExponentialMaxWaitDuration(Duration.ofSeconds(5));
+
+        Retry retry = RetryFactory.create("retry-after-config", RetryRegistry.ofDefaults(), props);
+        var intervalFn = retry.getRetryConfig().getIntervalBiFunction();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "3");
+        var unavailable = HttpServerErrorException.create(
+                HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", headers, new byte[0], null);
+
+        assertThat(intervalFn.apply(1, Either.left(unavailable))).isEqualTo(3000L);
+
+        headers.set(HttpHeaders.RETRY_AFTER, "30");
+        var throttled = HttpServerErrorException.create(
+                HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", headers, new byte[0], null);
+
+        // longer than the cap: not worth waiting for unless the client opts into capping
+        assertThat(intervalFn.apply(1, Either.left(throttled))).isEqualTo(-1L);
+
+        RestClientProperties.RetryWrapper capped = new RestClientProperties.RetryWrapper();
+        capped.setWaitDuration(Duration.ofMillis(100));
+        capped.setExponentialMaxWaitDuration(Duration.ofSeconds(5));
+        capped.setCapRetryAfter(true);
+        var cappedFn = RetryFactory.create("capped-retry-after-config", RetryRegistry.ofDefaults(), capped)
+                .getRetryConfig()
+                .getIntervalBiFunction();
+
+        assertThat(cappedFn.apply(1, Either.left(throttled))).isEqualTo(5000L);
+    }
+
+    @Test
+    void shouldHonorRetryAfterHintWithoutWaitDuration() {
+        RetryProperties.InstanceProperties props = new RetryProperties.InstanceProperties();
+        props.setMaxAttempts(2);
+
+        Retry retry = RetryFactory.create("default-wait-config", RetryRegistry.ofDefaults(), props);
+        var intervalFn = retry.getRetryConfig().getIntervalBiFunction();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "2");
+        var unavailable = HttpServerErrorException.create(
+                HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", headers, new byte[0], null);
+
+        assertThat(intervalFn.apply(1, null)).isEqualTo(RetryConfig.DEFAULT_WAIT_DURATION);
+        assertThat(intervalFn.apply(1, Either.left(unavailable))).isEqualTo(2000L);
+    }
 }
@@ -0,0 +1,79 @@
+package com.example.http.autoconfiguration.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.http.autoconfiguration.property.RestClientProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+class RetryTokenBucketTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldAllowRetriesInProportionToSuccesses() {
+        RetryTokenBucket bucket = bucket(0.5, 0, 100);
+
+        assertThat(bucket.tryAcquire()).isFalse();
+        for (int i = 0; i < 4; i++) {
+            bucket.deposit();
+        }
+
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+        assertThat(count("granted")).isEqualTo(2.0);
+        assertThat(count("denied")).isEqualTo(2.0);
+    }
+
+    @Test
+    void shouldAllowMinimumRetriesPerSecondWithoutSuccesses() {
+        RetryTokenBucket bucket = bucket(0.1, 3, 100);
+
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        // a fourth retry within the same second would need earned tokens; allow for a second boundary
+        long granted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (bucket.tryAcquire()) {
+                granted++;
+            }
+        }
+        assertThat(granted).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void shouldCapBankedTokens() {
+        RetryTokenBucket bucket = bucket(1.0, 0, 2);
+        for (int i = 0; i < 10; i++) {
+            bucket.deposit();
+        }
+
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    private RetryTokenBucket bucket(double ratio, int minRetriesPerSecond, int maxTokens) {
+        return new RetryTokenBucket(
+                RestClientProperties.RetryBudget.builder()
+                        .enabled(true)
+                        .ratio(ratio)
+                        .minRetriesPerSecond(minRetriesPerSecond)
+                        .maxTokens(maxTokens)
+                        .build(),
+                "budget",
+                meterRegistry);
+    }
+
+    private double count(String result) {
+        return meterRegistry
+                .get(RetryTokenBucket.METRIC)
+                .tag("client", "budget")
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+}
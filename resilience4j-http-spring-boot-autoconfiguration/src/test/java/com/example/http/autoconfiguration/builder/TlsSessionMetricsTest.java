@@ -0,0 +1,58 @@
+package com.example.http.autoconfiguration.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.http.client.builder.HttpClientConfigurer;
+import com.example.http.client.builder.SslContextRegistry;
+import com.example.http.client.builder.TlsSessionStats;
+import com.example.http.client.property.HttpClientDefaultSettings;
+import com.example.http.client.property.HttpClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TlsSessionMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SslContextRegistry sslContexts = new SslContextRegistry();
+
+    @AfterEach
+    void tearDown() {
+        sslContexts.close();
+    }
+
+    @Test
+    void shouldPublishHandshakesAndResumptionRatio() {
+        HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+        props.getSsl().setEnabled(true);
+        props.getSsl().setTrustAll(true);
+        TlsSessionStats stats = HttpClientConfigurer.tlsSessionStats(props, sslContexts);
+        TlsSessionMetrics.bind("orders", stats, meterRegistry);
+
+        assertThat(handshakes("full")).isEqualTo(stats.fullHandshakes());
+        assertThat(handshakes("resumed")).isEqualTo(stats.resumedHandshakes());
+        assertThat(meterRegistry
+                        .get(TlsSessionMetrics.RESUMPTION_RATIO)
+                        .tag("client", "orders")
+                        .gauge()
+                        .value())
+                .isEqualTo(stats.resumptionRatio());
+    }
+
+    @Test
+    void shouldSkipClientsWithoutSsl() {
+        HttpClientProperties props = HttpClientDefaultSettings.defaultHttpClient();
+        TlsSessionMetrics.bind("orders", HttpClientConfigurer.tlsSessionStats(props, sslContexts), meterRegistry);
+
+        assertThat(meterRegistry.getMeters()).isEmpty();
+    }
+
+    private double handshakes(String type) {
+        return meterRegistry
+                .get(TlsSessionMetrics.HANDSHAKES)
+                .tag("client", "orders")
+                .tag("type", type)
+                .functionCounter()
+                .count();
+    }
+}
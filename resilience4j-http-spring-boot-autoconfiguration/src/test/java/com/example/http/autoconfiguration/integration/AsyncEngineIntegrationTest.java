@@ -0,0 +1,161 @@
+package com.example.http.autoconfiguration.integration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.http.autoconfiguration.TestApplication;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * The {@code async} client negotiates HTTP/1.1 over a single pooled connection, so a retry after a
+ * timed-out attempt only gets through if the cancelled exchange gave its connection back. The
+ * {@code h2} client speaks HTTP/2 with prior knowledge to WireMock's cleartext connector.
+ */
+@SpringBootTest(classes = TestApplication.class)
+class AsyncEngineIntegrationTest {
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        String async = "group.http.clients.async.";
+        registry.add(async + "base-url", () -> wiremock.getRuntimeInfo().getHttpBaseUrl());
+        registry.add(async + "http-client.engine", () -> "async");
+        registry.add(async + "http-client.async.io-threads", () -> "2");
+        registry.add(async + "resilience.deadline.enabled", () -> "true");
+        registry.add(async + "resilience.deadline.per-attempt", () -> "300ms");
+        registry.add(async + "resilience.retry-enabled", () -> "true");
+        registry.add(async + "resilience.retry.max-attempts", () -> "2");
+        registry.add(async + "resilience.retry.wait-duration", () -> "10ms");
+        registry.add(async + "http-client.pool.max-connections-per-route", () -> "1");
+        registry.add(async + "request-factory.connection-request-timeout", () -> "500ms");
+
+        String h2 = "group.http.clients.h2.";
+        registry.add(h2 + "base-url", () -> wiremock.getRuntimeInfo().getHttpBaseUrl());
+        registry.add(h2 + "http-client.engine", () -> "async");
+        registry.add(h2 + "http-client.async.version-policy", () -> "force-http-2");
+    }
+
+    @Autowired
+    private Map<String, RestClient> clients;
+
+    @BeforeEach
+    void configureStubs() {
+        configureFor("localhost", wiremock.getRuntimeInfo().getHttpPort());
+        wiremock.resetAll();
+    }
+
+    @Test
+    void shouldExchangeHeadersAndBodies() {
+        stubFor(post("/echo")
+                .withHeader("Content-Type", containing("application/json"))
+                .withHeader("X-Trace", equalTo("abc"))
+                .withRequestBody(equalToJson("{\"id\":42}"))
+                .willReturn(aResponse()
+                        .withStatus(201)
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("X-Reply", "yes")
+                        .withBody("{\"ok\":true}")));
+
+        ResponseEntity<String> response = clients.get("async")
+                .post()
+                .uri("/echo")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Trace", "abc")
+                .body("{\"id\":42}")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(201);
+        assertThat(response.getHeaders().getFirst("X-Reply")).isEqualTo("yes");
+        assertThat(response.getBody()).isEqualTo("{\"ok\":true}");
+    }
+
+    @Test
+    void shouldSurfaceErrorStatus() {
+        stubFor(get("/missing").willReturn(aResponse().withStatus(404).withBody("nope")));
+
+        assertThatThrownBy(() ->
+                        clients.get("async").get().uri("/missing").retrieve().body(String.class))
+                .isInstanceOf(HttpClientErrorException.NotFound.class)
+                .hasMessageContaining("nope");
+    }
+
+    @Test
+    void shouldCancelTimedOutExchangeAndRetryOnReleasedConnection() {
+        stubFor(get("/slow")
+                .inScenario("slow")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(200).withBody("late").withFixedDelay(3000))
+                .willSetStateTo("fast"));
+        stubFor(get("/slow")
+                .inScenario("slow")
+                .whenScenarioStateIs("fast")
+                .willReturn(aResponse().withStatus(200).withBody("ok")));
+
+        long start = System.nanoTime();
+        String body = clients.get("async").get().uri("/slow").retrieve().body(String.class);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(body).isEqualTo("ok");
+        assertThat(elapsedMillis).isLessThan(2000L);
+    }
+
+    @Test
+    void shouldFailWithTimeoutWhenEveryAttemptIsSlow() {
+        stubFor(get("/stuck").willReturn(aResponse().withStatus(200).withFixedDelay(3000)));
+
+        assertThatThrownBy(() ->
+                        clients.get("async").get().uri("/stuck").retrieve().body(String.class))
+                .isInstanceOf(RestClientException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void shouldServeConcurrentCallsOverHttp2() {
+        stubFor(get("/item")
+                .willReturn(aResponse().withStatus(200).withBody("item").withFixedDelay(100)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<String>> calls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                calls.add(CompletableFuture.supplyAsync(
+                        () -> clients.get("h2").get().uri("/item").retrieve().body(String.class), executor));
+            }
+            calls.forEach(call -> assertThat(call.join()).isEqualTo("item"));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<LoggedRequest> requests = findAll(getRequestedFor(urlEqualTo("/item")));
+        assertThat(requests).hasSize(8).allSatisfy(request -> assertThat(request.getProtocol())
+                .isEqualTo("HTTP/2.0"));
+    }
+}
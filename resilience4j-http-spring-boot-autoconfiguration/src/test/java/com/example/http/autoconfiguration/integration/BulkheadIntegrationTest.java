@@ -0,0 +1,138 @@
+package com.example.http.autoconfiguration.integration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.http.autoconfiguration.TestApplication;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestClient;
+
+@SpringBootTest(classes = TestApplication.class)
+class BulkheadIntegrationTest {
+
+    private static final int CALLERS = 6;
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        registry.add("group.http.clients.semaphore.base-url", () -> wiremock.getRuntimeInfo()
+                .getHttpBaseUrl());
+        registry.add("group.http.clients.semaphore.resilience.bulkhead-enabled", () -> "true");
+        registry.add("group.http.clients.semaphore.resilience.bulkhead.max-concurrent-calls", () -> "2");
+        registry.add("group.http.clients.semaphore.resilience.bulkhead.max-wait-duration", () -> "0ms");
+
+        registry.add("group.http.clients.pooled.base-url", () -> wiremock.getRuntimeInfo()
+                .getHttpBaseUrl());
+        registry.add("group.http.clients.pooled.resilience.thread-pool-bulkhead-enabled", () -> "true");
+        registry.add("group.http.clients.pooled.resilience.thread-pool-bulkhead.max-thread-pool-size", () -> "1");
+        registry.add("group.http.clients.pooled.resilience.thread-pool-bulkhead.core-thread-pool-size", () -> "1");
+        registry.add("group.http.clients.pooled.resilience.thread-pool-bulkhead.queue-capacity", () -> "1");
+    }
+
+    @Autowired
+    private Map<String, RestClient> clients;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void configureStubs() {
+        configureFor("localhost", wiremock.getRuntimeInfo().getHttpPort());
+        stubFor(get("/slow")
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withBody("done")
+                        .withFixedDelay(500)));
+    }
+
+    @Test
+    void shouldRejectCallsBeyondMaxConcurrentCalls() {
+        int[] outcome = callConcurrently(clients.get("semaphore"));
+
+        assertThat(outcome[0]).isEqualTo(2);
+        assertThat(outcome[1]).isEqualTo(CALLERS - 2);
+        assertThat(meterRegistry
+                        .get("resilience4j.bulkhead.max.allowed.concurrent.calls")
+                        .tag("name", "semaphore")
+                        .gauge()
+                        .value())
+                .isEqualTo(2.0);
+        assertThat(meterRegistry
+                        .get("resilience4j.bulkhead.available.concurrent.calls")
+                        .tag("name", "semaphore")
+                        .gauge()
+                        .value())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void shouldRejectCallsOncePoolAndQueueAreFull() {
+        int[] outcome = callConcurrently(clients.get("pooled"));
+
+        // one call running and one queued; everything else is turned away
+        assertThat(outcome[0]).isBetween(2, CALLERS - 1);
+        assertThat(outcome[1]).isGreaterThanOrEqualTo(1).isEqualTo(CALLERS - outcome[0]);
+        assertThat(meterRegistry
+                        .get("resilience4j.bulkhead.queue.capacity")
+                        .tag("name", "pooled")
+                        .gauge()
+                        .value())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry
+                        .get("resilience4j.bulkhead.queue.depth")
+                        .tag("name", "pooled")
+                        .gauge()
+                        .value())
+                .isZero();
+    }
+
+    /**
+     * @return the number of successful and rejected calls
+     */
+    private static int[] callConcurrently(RestClient client) {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<CompletableFuture<String>> calls = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                calls.add(CompletableFuture.supplyAsync(
+                        () -> client.get().uri("/slow").retrieve().body(String.class), callers));
+            }
+
+            int[] outcome = new int[2];
+            for (CompletableFuture<String> call : calls) {
+                try {
+                    assertThat(call.join()).isEqualTo("done");
+                    outcome[0]++;
+                } catch (CompletionException ex) {
+                    assertThat(ex).hasCauseInstanceOf(BulkheadFullException.class);
+                    outcome[1]++;
+                }
+            }
+            return outcome;
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.http.autoconfiguration.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.http.autoconfiguration.TestApplication;
+import com.example.http.autoconfiguration.builder.ChannelDownload;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Downloads land in the file on every engine; a body cut off half-way is resumed with a range request,
+ * and one that cannot be completed is a failure the circuit breaker records.
+ */
+@SpringBootTest(classes = TestApplication.class)
+class ChannelDownloadIntegrationTest {
+
+    private static final byte[] ARCHIVE = new byte[1024 * 1024];
+    private static final String ETAG = "\"archive-1\"";
+
+    private static HttpServer server;
+    private static final AtomicInteger cuts = new AtomicInteger();
+    private static final List<String> ranges = new CopyOnWriteArrayList<>();
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) throws IOException {
+        new Random(7).nextBytes(ARCHIVE);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 16);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/archive", ChannelDownloadIntegrationTest::serve);
+        server.start();
+
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        for (String engine : List.of("classic", "async", "jdk")) {
+            String client = "group.http.clients." + engine + ".";
+            registry.add(client + "base-url", () -> baseUrl);
+            registry.add(client + "http-client.engine", () -> engine);
+            registry.add(client + "http-client.jdk.version", () -> "http-1-1");
+        }
+        registry.add("group.http.clients.guarded.base-url", () -> baseUrl);
+        registry.add("group.http.clients.guarded.resilience.circuit-breaker-enabled", () -> "true");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    @Autowired
+    private Map<String, RestClient> clients;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void reset() {
+        cuts.set(0);
+        ranges.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"classic", "async", "jdk"})
+    void shouldWriteBodyIntoFile(String engine) throws IOException {
+        Path target = dir.resolve("archive.bin");
+
+        try (FileChannel file = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ChannelDownload download = ChannelDownload.to(file);
+            int status = clients.get(engine)
+                    .get()
+                    .uri("/archive")
+                    .attribute(ChannelDownload.ATTRIBUTE, download)
+                    .retrieve()
+                    .toBodilessEntity()
+                    .getStatusCode()
+                    .value();
+
+            assertThat(status).isEqualTo(200);
+            assertThat(download.transferred()).isEqualTo(ARCHIVE.length);
+        }
+        assertThat(Files.readAllBytes(target)).isEqualTo(ARCHIVE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"classic", "jdk"})
+    void shouldResumeBodyCutOffHalfWay(String engine) throws IOException {
+        Path target = dir.resolve("archive.bin");
+        cuts.set(1);
+
+        try (FileChannel file = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ChannelDownload download = ChannelDownload.to(file);
+            clients.get(engine)
+                    .get()
+                    .uri("/archive")
+                    .attribute(ChannelDownload.ATTRIBUTE, download)
+                    .retrieve()
+                    .toBodilessEntity();
+
+            assertThat(download.resumes()).isEqualTo(1);
+        }
+        assertThat(ranges).hasSize(1);
+        assertThat(ranges.get(0)).startsWith("bytes=").endsWith("-").isNotEqualTo("bytes=0-");
+        assertThat(Files.readAllBytes(target)).isEqualTo(ARCHIVE);
+    }
+
+    @Test
+    void shouldRecordDownloadThatCannotCompleteAsFailure() throws IOException {
+        cuts.set(Integer.MAX_VALUE);
+
+        try (FileChannel file =
+                FileChannel.open(dir.resolve("archive.bin"), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ChannelDownload download = ChannelDownload.to(file).maxResumes(1);
+
+            assertThatThrownBy(() -> clients.get("guarded")
+                            .get()
+                            .uri("/archive")
+                            .attribute(ChannelDownload.ATTRIBUTE, download)
+                            .retrieve()
+                            .toBodilessEntity())
+                    .isInstanceOf(RestClientException.class)
+                    .hasRootCauseInstanceOf(IOException.class);
+        }
+        assertThat(circuitBreakerRegistry.circuitBreaker("guarded").getMetrics().getNumberOfFailedCalls())
+                .isEqualTo(1);
+    }
+
+    /**
+     * Serves {@link #ARCHIVE}, ranges of it when {@code If-Range} matches, and cuts off the body half-way
+     * while {@link #cuts} are left.
+     */
+    private static void serve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            int from = 0;
+            if (range != null && ETAG.equals(exchange.getRequestHeaders().getFirst("If-Range"))) {
+                ranges.add(range);
+                from = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+                exchange.getResponseHeaders()
+                        .set("Content-Range", "bytes " + from + "-" + (ARCHIVE.length - 1) + "/" + ARCHIVE.length);
+            }
+            exchange.getResponseHeaders().set("ETag", ETAG);
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            exchange.sendResponseHeaders(from > 0 ? 206 : 200, ARCHIVE.length - from);
+            OutputStream out = exchange.getResponseBody();
+            if (cuts.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                // leaves the connection with a body shorter than its Content-Length
+                out.write(ARCHIVE, from, (ARCHIVE.length - from) / 2);
+                out.flush();
+                out.close();
+                return;
+            }
+            out.write(ARCHIVE, from, ARCHIVE.length - from);
+            out.close();
+        }
+    }
+}
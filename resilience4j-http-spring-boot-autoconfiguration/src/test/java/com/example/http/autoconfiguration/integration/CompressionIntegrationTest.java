@@ -0,0 +1,110 @@
+package com.example.http.autoconfiguration.integration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.http.autoconfiguration.TestApplication;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Both engines compress request bodies from {@code request-threshold} bytes and decode gzip responses.
+ */
+@SpringBootTest(classes = TestApplication.class)
+class CompressionIntegrationTest {
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    private static final String LARGE = "{\"id\":42,\"state\":\"OPEN\"}".repeat(200);
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        for (String engine : List.of("classic", "async")) {
+            String client = "group.http.clients." + engine + ".";
+            registry.add(client + "base-url", () -> wiremock.getRuntimeInfo().getHttpBaseUrl());
+            registry.add(client + "http-client.engine", () -> engine);
+            registry.add(client + "http-client.compression.request", () -> "true");
+            registry.add(client + "http-client.compression.request-threshold", () -> "1024");
+        }
+    }
+
+    @Autowired
+    private Map<String, RestClient> clients;
+
+    @BeforeEach
+    void configureStubs() {
+        configureFor("localhost", wiremock.getRuntimeInfo().getHttpPort());
+        wiremock.resetAll();
+        stubFor(post("/orders").willReturn(ok()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"classic", "async"})
+    void shouldDecodeGzipResponses(String engine) throws IOException {
+        stubFor(get("/orders")
+                .willReturn(ok().withHeader("Content-Type", "application/json")
+                        .withHeader("Content-Encoding", "gzip")
+                        .withBody(gzip(LARGE))));
+
+        ResponseEntity<String> response =
+                clients.get(engine).get().uri("/orders").retrieve().toEntity(String.class);
+
+        assertThat(response.getBody()).isEqualTo(LARGE);
+        assertThat(response.getHeaders()).doesNotContainKey("Content-Encoding");
+        verify(getRequestedFor(urlEqualTo("/orders")).withHeader("Accept-Encoding", containing("gzip")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"classic", "async"})
+    void shouldCompressOnlyBodiesAboveThreshold(String engine) {
+        RestClient client = clients.get(engine);
+
+        client.post()
+                .uri("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(LARGE)
+                .retrieve()
+                .toBodilessEntity();
+        client.post()
+                .uri("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"id\":1}")
+                .retrieve()
+                .toBodilessEntity();
+
+        List<LoggedRequest> requests = findAll(postRequestedFor(urlEqualTo("/orders")));
+        assertThat(requests.get(0).getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(requests.get(0).getBodyAsString()).isEqualTo(LARGE);
+        assertThat(requests.get(1).containsHeader("Content-Encoding")).isFalse();
+        assertThat(requests.get(1).getBodyAsString()).isEqualTo("{\"id\":1}");
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
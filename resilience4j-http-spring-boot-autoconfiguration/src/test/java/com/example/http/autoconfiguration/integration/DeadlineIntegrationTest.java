@@ -0,0 +1,120 @@
+package com.example.http.autoconfiguration.integration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.http.autoconfiguration.TestApplication;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * The {@code timed} client has a single pooled connection, so a retry after a timed-out attempt only
+ * gets through if the aborted exchange gave its connection back.
+ */
+@SpringBootTest(classes = TestApplication.class)
+class DeadlineIntegrationTest {
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        String timed = "group.http.clients.timed.";
+        registry.add(timed + "base-url", () -> wiremock.getRuntimeInfo().getHttpBaseUrl());
+        registry.add(timed + "resilience.deadline.enabled", () -> "true");
+        registry.add(timed + "resilience.deadline.per-attempt", () -> "300ms");
+        registry.add(timed + "resilience.deadline.total", () -> "5s");
+        registry.add(timed + "resilience.retry-enabled", () -> "true");
+        registry.add(timed + "resilience.retry.max-attempts", () -> "2");
+        registry.add(timed + "resilience.retry.wait-duration", () -> "10ms");
+        registry.add(timed + "http-client.pool.max-connections-per-route", () -> "1");
+        registry.add(timed + "request-factory.connection-request-timeout", () -> "500ms");
+
+        String budget = "group.http.clients.budget.";
+        registry.add(budget + "base-url", () -> wiremock.getRuntimeInfo().getHttpBaseUrl());
+        registry.add(budget + "resilience.deadline.enabled", () -> "true");
+        registry.add(budget + "resilience.deadline.total", () -> "1500ms");
+        registry.add(budget + "resilience.retry-enabled", () -> "true");
+        registry.add(budget + "resilience.retry.max-attempts", () -> "5");
+        registry.add(budget + "resilience.retry.wait-duration", () -> "10ms");
+        registry.add(budget + "resilience.retry.exponential-max-wait-duration", () -> "5s");
+    }
+
+    @Autowired
+    private Map<String, RestClient> clients;
+
+    @BeforeEach
+    void configureStubs() {
+        configureFor("localhost", wiremock.getRuntimeInfo().getHttpPort());
+        wiremock.resetAll();
+    }
+
+    @Test
+    void shouldAbortSlowAttemptAndRetryOnReleasedConnection() {
+        stubFor(get("/slow")
+                .inScenario("slow")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(200).withBody("late").withFixedDelay(3000))
+                .willSetStateTo("fast"));
+        stubFor(get("/slow")
+                .inScenario("slow")
+                .whenScenarioStateIs("fast")
+                .willReturn(aResponse().withStatus(200).withBody("ok")));
+
+        long start = System.nanoTime();
+        String body = clients.get("timed").get().uri("/slow").retrieve().body(String.class);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(body).isEqualTo("ok");
+        assertThat(elapsedMillis).isLessThan(2000L);
+        verify(2, getRequestedFor(urlEqualTo("/slow")));
+    }
+
+    @Test
+    void shouldFailWithTimeoutWhenEveryAttemptIsSlow() {
+        stubFor(get("/stuck").willReturn(aResponse().withStatus(200).withFixedDelay(3000)));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() ->
+                        clients.get("timed").get().uri("/stuck").retrieve().body(String.class))
+                .isInstanceOf(RestClientException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMillis).isLessThan(2000L);
+    }
+
+    @Test
+    void shouldSkipRetryThatWouldOverrunTotalBudget() {
+        stubFor(get("/unavailable").willReturn(aResponse().withStatus(503).withHeader("Retry-After", "1")));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> clients.get("budget")
+                        .get()
+                        .uri("/unavailable")
+                        .retrieve()
+                        .toBodilessEntity())
+                .isInstanceOf(HttpServerErrorException.class);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // attempt, 1s wait, attempt; a second 1s wait would end past the 1.5s deadline
+        verify(2, getRequestedFor(urlEqualTo("/unavailable")));
+        assertThat(elapsedMillis).isLessThan(1500L);
+    }
+}
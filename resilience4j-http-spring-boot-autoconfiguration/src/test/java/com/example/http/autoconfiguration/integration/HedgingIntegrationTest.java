@@ -0,0 +1,109 @@
+package com.example.http.autoconfiguration.integration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.http.autoconfiguration.TestApplication;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestClient;
+
+/**
+ * A slow first response stands in for a slow replica: the hedge answers first, and the aborted
+ * primary must give its connection back even though the server never finishes it in time.
+ */
+@SpringBootTest(classes = TestApplication.class)
+class HedgingIntegrationTest {
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        String prefix = "group.http.clients.hedged.";
+        registry.add(prefix + "base-url", () -> wiremock.getRuntimeInfo().getHttpBaseUrl());
+        registry.add(prefix + "resilience.hedging.enabled", () -> "true");
+        registry.add(prefix + "resilience.hedging.delay", () -> "200ms");
+        registry.add(prefix + "resilience.hedging.budget-ratio", () -> "1.0");
+        registry.add(prefix + "http-client.pool.max-connections-per-route", () -> "2");
+        registry.add(prefix + "request-factory.connection-request-timeout", () -> "500ms");
+    }
+
+    @Autowired
+    private Map<String, RestClient> clients;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void configureStubs() {
+        configureFor("localhost", wiremock.getRuntimeInfo().getHttpPort());
+        wiremock.resetAll();
+    }
+
+    @Test
+    void shouldAnswerFromHedgeAndReleaseTheSlowConnection() {
+        stubFor(get("/replica")
+                .inScenario("replicas")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(200).withBody("slow").withFixedDelay(5000))
+                .willSetStateTo("fast"));
+        stubFor(get("/replica")
+                .inScenario("replicas")
+                .whenScenarioStateIs("fast")
+                .willReturn(aResponse().withStatus(200).withBody("fast")));
+
+        RestClient client = clients.get("hedged");
+        long start = System.nanoTime();
+        String body = client.get().uri("/replica").retrieve().body(String.class);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(body).isEqualTo("fast");
+        assertThat(elapsedMillis).isLessThan(2000L);
+        assertThat(meterRegistry
+                        .get("http.client.hedge")
+                        .tag("client", "hedged")
+                        .tag("result", "won")
+                        .counter()
+                        .count())
+                .isEqualTo(1.0);
+
+        // both pooled connections must be available again: a leaked primary would hold one for 5s
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            List<CompletableFuture<String>> calls = List.of(
+                    CompletableFuture.supplyAsync(
+                            () -> client.get().uri("/replica").retrieve().body(String.class), callers),
+                    CompletableFuture.supplyAsync(
+                            () -> client.get().uri("/replica").retrieve().body(String.class), callers));
+            assertThat(calls).allSatisfy(call -> assertThat(call.join()).isEqualTo("fast"));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldNotHedgeNonIdempotentRequests() {
+        stubFor(post("/orders").willReturn(aResponse().withStatus(201).withFixedDelay(400)));
+
+        clients.get("hedged").post().uri("/orders").retrieve().toBodilessEntity();
+
+        verify(1, postRequestedFor(urlEqualTo("/orders")));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.http.autoconfiguration.integration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.http.autoconfiguration.TestApplication;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * The {@code jdk} client runs on {@code java.net.http.HttpClient}, asking for virtual threads (the JDK
+ * client's default executor where the JVM has none). A retry after a timed-out attempt is only fast if the
+ * deadline cancelled the JDK exchange instead of waiting for it.
+ */
+@SpringBootTest(classes = TestApplication.class)
+class JdkEngineIntegrationTest {
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        String jdk = "group.http.clients.jdk.";
+        registry.add(jdk + "base-url", () -> wiremock.getRuntimeInfo().getHttpBaseUrl());
+        registry.add(jdk + "http-client.engine", () -> "jdk");
+        registry.add(jdk + "http-client.jdk.version", () -> "http-1-1");
+        registry.add(jdk + "http-client.jdk.virtual-threads", () -> "true");
+        registry.add(jdk + "resilience.deadline.enabled", () -> "true");
+        registry.add(jdk + "resilience.deadline.per-attempt", () -> "300ms");
+        registry.add(jdk + "resilience.retry-enabled", () -> "true");
+        registry.add(jdk + "resilience.retry.max-attempts", () -> "2");
+        registry.add(jdk + "resilience.retry.wait-duration", () -> "10ms");
+    }
+
+    @Autowired
+    private Map<String, RestClient> clients;
+
+    @BeforeEach
+    void configureStubs() {
+        configureFor("localhost", wiremock.getRuntimeInfo().getHttpPort());
+        wiremock.resetAll();
+    }
+
+    @Test
+    void shouldExchangeHeadersAndBodies() {
+        stubFor(post("/echo")
+                .withHeader("Content-Type", containing("application/json"))
+                .withHeader("X-Trace", equalTo("abc"))
+                .withRequestBody(equalToJson("{\"id\":42}"))
+                .willReturn(aResponse()
+                        .withStatus(201)
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("X-Reply", "yes")
+                        .withBody("{\"ok\":true}")));
+
+        ResponseEntity<String> response = clients.get("jdk")
+                .post()
+                .uri("/echo")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Trace", "abc")
+                .body("{\"id\":42}")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(201);
+        assertThat(response.getHeaders().getFirst("X-Reply")).isEqualTo("yes");
+        assertThat(response.getBody()).isEqualTo("{\"ok\":true}");
+    }
+
+    @Test
+    void shouldSurfaceErrorStatus() {
+        stubFor(get("/missing").willReturn(aResponse().withStatus(404).withBody("nope")));
+
+        assertThatThrownBy(() ->
+                        clients.get("jdk").get().uri("/missing").retrieve().body(String.class))
+                .isInstanceOf(HttpClientErrorException.NotFound.class)
+                .hasMessageContaining("nope");
+    }
+
+    @Test
+    void shouldCancelTimedOutExchangeAndRetry() {
+        stubFor(get("/slow")
+                .inScenario("slow")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(200).withBody("late").withFixedDelay(3000))
+                .willSetStateTo("fast"));
+        stubFor(get("/slow")
+                .inScenario("slow")
+                .whenScenarioStateIs("fast")
+                .willReturn(aResponse().withStatus(200).withBody("ok")));
+
+        long start = System.nanoTime();
+        String body = clients.get("jdk").get().uri("/slow").retrieve().body(String.class);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(body).isEqualTo("ok");
+        assertThat(elapsedMillis).isLessThan(2000L);
+    }
+
+    @Test
+    void shouldFailWithTimeoutWhenEveryAttemptIsSlow() {
+        stubFor(get("/stuck").willReturn(aResponse().withStatus(200).withFixedDelay(3000)));
+
+        assertThatThrownBy(
+                        () -> clients.get("jdk").get().uri("/stuck").retrieve().body(String.class))
+                .isInstanceOf(RestClientException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.http.autoconfiguration.integration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.http.autoconfiguration.TestApplication;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestClient;
+
+@SpringBootTest(classes = TestApplication.class)
+class RateLimiterQueueIntegrationTest {
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        registry.add("group.http.clients.rl-queue.base-url", () -> wiremock.getRuntimeInfo()
+                .getHttpBaseUrl());
+        registry.add("group.http.clients.rl-queue.resilience.rate-limiter-enabled", () -> "true");
+        registry.add("group.http.clients.rl-queue.resilience.rate-limiter.limit-for-period", () -> "1");
+        registry.add("group.http.clients.rl-queue.resilience.rate-limiter.limit-refresh-period", () -> "2s");
+        registry.add("group.http.clients.rl-queue.resilience.rate-limiter.timeout-duration", () -> "10s");
+        registry.add("group.http.clients.rl-queue.resilience.rate-limiter-queue.enabled", () -> "true");
+        registry.add("group.http.clients.rl-queue.resilience.rate-limiter-queue.max-depth", () -> "2");
+    }
+
+    @Autowired
+    private Map<String, RestClient> clients;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void configureStubs() {
+        configureFor("localhost", wiremock.getRuntimeInfo().getHttpPort());
+        stubFor(get("/ping")
+                .willReturn(aResponse().withStatus(HttpStatus.OK.value()).withBody("pong")));
+    }
+
+    @Test
+    void shouldRejectCallersBeyondQueueDepthInsteadOfParkingThem() {
+        RestClient client = clients.get("rl-queue");
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        // release all callers together so none of them lands in a later refresh period
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<CompletableFuture<String>> calls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                calls.add(CompletableFuture.supplyAsync(
+                        () -> {
+                            awaitQuietly(start);
+                            return client.get().uri("/ping").retrieve().body(String.class);
+                        },
+                        callers));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            int rejected = 0;
+            for (CompletableFuture<String> call : calls) {
+                try {
+                    assertThat(call.join()).isEqualTo("pong");
+                    succeeded++;
+                } catch (CompletionException ex) {
+                    assertThat(ex).hasCauseInstanceOf(RequestNotPermitted.class);
+                    rejected++;
+                }
+            }
+
+            // one permit is free, at most two callers may queue for the next ones
+            assertThat(succeeded).isBetween(1, 3);
+            assertThat(rejected).isEqualTo(8 - succeeded);
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertThat(meterRegistry
+                        .get("http.client.ratelimiter.queue.rejected")
+                        .tag("client", "rl-queue")
+                        .tag("reason", "queue_full")
+                        .counter()
+                        .count())
+                .isGreaterThanOrEqualTo(5.0);
+        assertThat(meterRegistry
+                        .get("http.client.ratelimiter.queue.depth")
+                        .tag("client", "rl-queue")
+                        .gauge()
+                        .value())
+                .isZero();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.http.autoconfiguration.integration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.http.autoconfiguration.TestApplication;
+import com.example.http.autoconfiguration.builder.ReplayableBody;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Replayable bodies are sent in full by every attempt of every engine, and with {@code expect-continue} a
+ * request the server rejects on its headers never sends its body.
+ */
+@SpringBootTest(classes = TestApplication.class)
+class ReplayableBodyIntegrationTest {
+
+    private static final List<String> ENGINES = List.of("classic", "async", "jdk");
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    private static RejectingServer rejectingServer;
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) throws IOException {
+        rejectingServer = new RejectingServer();
+        for (String engine : ENGINES) {
+            String upload = "group.http.clients." + engine + ".";
+            registry.add(upload + "base-url", () -> wiremock.getRuntimeInfo().getHttpBaseUrl());
+            registry.add(upload + "http-client.engine", () -> engine);
+            registry.add(upload + "http-client.jdk.version", () -> "http-1-1");
+            registry.add(upload + "resilience.retry-enabled", () -> "true");
+            registry.add(upload + "resilience.retry.max-attempts", () -> "2");
+            registry.add(upload + "resilience.retry.wait-duration", () -> "10ms");
+
+            String expect = "group.http.clients." + engine + "-expect.";
+            registry.add(expect + "base-url", () -> "http://127.0.0.1:" + rejectingServer.port());
+            registry.add(expect + "http-client.engine", () -> engine);
+            registry.add(expect + "http-client.jdk.version", () -> "http-1-1");
+            registry.add(expect + "request-factory.expect-continue", () -> "true");
+        }
+    }
+
+    @AfterAll
+    static void stopRejectingServer() throws IOException {
+        rejectingServer.close();
+    }
+
+    @Autowired
+    private Map<String, RestClient> clients;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void configureStubs() {
+        configureFor("localhost", wiremock.getRuntimeInfo().getHttpPort());
+        wiremock.resetAll();
+        stubFor(post("/uploads")
+                .inScenario("upload")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503))
+                .willSetStateTo("available"));
+        stubFor(post("/uploads")
+                .inScenario("upload")
+                .whenScenarioStateIs("available")
+                .willReturn(aResponse().withStatus(201)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"classic", "async", "jdk"})
+    void shouldResendFileRegionOnRetry(String engine) throws IOException {
+        byte[] content = new byte[256 * 1024];
+        new Random(42).nextBytes(content);
+        Path file = Files.write(dir.resolve("upload.bin"), content);
+
+        int status = clients.get(engine)
+                .post()
+                .uri("/uploads")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .attribute(ReplayableBody.ATTRIBUTE, ReplayableBody.ofFile(file))
+                .retrieve()
+                .toBodilessEntity()
+                .getStatusCode()
+                .value();
+
+        assertThat(status).isEqualTo(201);
+        List<LoggedRequest> requests = findAll(postRequestedFor(urlEqualTo("/uploads")));
+        assertThat(requests).hasSize(2);
+        for (LoggedRequest request : requests) {
+            assertThat(request.getHeader("Content-Length")).isEqualTo(String.valueOf(content.length));
+            assertThat(request.getBody()).isEqualTo(content);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"classic", "async", "jdk"})
+    void shouldReopenSourceOfUnknownLengthOnRetry(String engine) {
+        byte[] content = "{\"id\":42}".repeat(1000).getBytes(StandardCharsets.UTF_8);
+        AtomicInteger opened = new AtomicInteger();
+
+        clients.get(engine)
+                .post()
+                .uri("/uploads")
+                .contentType(MediaType.APPLICATION_JSON)
+                .attribute(ReplayableBody.ATTRIBUTE, ReplayableBody.ofSupplier(-1, () -> {
+                    opened.incrementAndGet();
+                    return new ByteArrayInputStream(content);
+                }))
+                .retrieve()
+                .toBodilessEntity();
+
+        assertThat(opened).hasValue(2);
+        List<LoggedRequest> requests = findAll(postRequestedFor(urlEqualTo("/uploads")));
+        assertThat(requests).hasSize(2);
+        assertThat(requests).allSatisfy(request -> assertThat(request.getBody()).isEqualTo(content));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"classic", "async", "jdk"})
+    void shouldNotSendBodyOfRejectedRequest(String engine) throws Exception {
+        byte[] content = new byte[64 * 1024];
+
+        assertThatThrownBy(() -> clients.get(engine + "-expect")
+                        .post()
+                        .uri("/uploads")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .attribute(
+                                ReplayableBody.ATTRIBUTE,
+                                ReplayableBody.ofSupplier(content.length, () -> new ByteArrayInputStream(content)))
+                        .retrieve()
+                        .toBodilessEntity())
+                .isInstanceOfSatisfying(
+                        HttpClientErrorException.class,
+                        ex -> assertThat(ex.getStatusCode().value()).isEqualTo(413));
+
+        RejectingServer.Exchange exchange = rejectingServer.exchanges.poll(5, TimeUnit.SECONDS);
+        assertThat(exchange).isNotNull();
+        assertThat(exchange.head().toLowerCase()).contains("expect: 100-continue");
+        assertThat(exchange.bodyBytes()).isZero();
+    }
+
+    /**
+     * Answers every request with {@code 413} as soon as its head arrived, then counts the body bytes the
+     * client still sends before closing.
+     */
+    private static final class RejectingServer implements AutoCloseable {
+
+        record Exchange(String head, int bodyBytes) {}
+
+        final BlockingQueue<Exchange> exchanges = new LinkedBlockingQueue<>();
+        private final ServerSocket serverSocket;
+
+        RejectingServer() throws IOException {
+            serverSocket = new ServerSocket(0, 16, InetAddress.getLoopbackAddress());
+            Thread acceptor = new Thread(this::accept, "rejecting-server");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    socket.setSoTimeout(1000);
+                    InputStream in = socket.getInputStream();
+                    String head = readHead(in);
+                    OutputStream out = socket.getOutputStream();
+                    out.write(("HTTP/1.1 413 Payload Too Large\r\n"
+                                    + "Content-Length: 0\r\n"
+                                    + "Connection: close\r\n\r\n")
+                            .getBytes(StandardCharsets.US_ASCII));
+                    out.flush();
+                    exchanges.add(new Exchange(head, drain(in)));
+                } catch (IOException ex) {
+                    // closed
+                }
+            }
+        }
+
+        private static String readHead(InputStream in) throws IOException {
+            StringBuilder head = new StringBuilder();
+            int b;
+            while ((b = in.read()) != -1) {
+                head.append((char) b);
+                if (head.length() >= 4 && head.lastIndexOf("\r\n\r\n") == head.length() - 4) {
+                    break;
+                }
+            }
+            return head.toString();
+        }
+
+        private static int drain(InputStream in) throws IOException {
+            int count = 0;
+            byte[] buffer = new byte[8192];
+            try {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    count += read;
+                }
+            } catch (SocketTimeoutException ex) {
+                // the client kept the connection open without sending more
+            } catch (IOException ex) {
+                // the client reset the connection it gave up
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.http.autoconfiguration.integration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.http.autoconfiguration.TestApplication;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+
+/**
+ * The same failing call through two clients that differ only in stage order: with retry outermost,
+ * every attempt takes a rate limiter permit and is recorded by the circuit breaker.
+ */
+@SpringBootTest(classes = TestApplication.class)
+class ResilienceOrderIntegrationTest {
+
+    private static final int ATTEMPTS = 3;
+    private static final int PERMITS = 50;
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        configureClient(registry, "per-call", "rate-limiter,circuit-breaker,retry");
+        configureClient(registry, "per-attempt", "retry,rate-limiter,circuit-breaker");
+    }
+
+    private static void configureClient(DynamicPropertyRegistry registry, String name, String order) {
+        String prefix = "group.http.clients." + name + ".";
+        registry.add(prefix + "base-url", () -> wiremock.getRuntimeInfo().getHttpBaseUrl());
+        registry.add(prefix + "resilience.order", () -> order);
+        registry.add(prefix + "resilience.retry-enabled", () -> "true");
+        registry.add(prefix + "resilience.retry.max-attempts", () -> String.valueOf(ATTEMPTS));
+        registry.add(prefix + "resilience.retry.wait-duration", () -> "10ms");
+        registry.add(prefix + "resilience.circuit-breaker-enabled", () -> "true");
+        registry.add(prefix + "resilience.circuit-breaker.minimum-number-of-calls", () -> "100");
+        registry.add(prefix + "resilience.rate-limiter-enabled", () -> "true");
+        registry.add(prefix + "resilience.rate-limiter.limit-for-period", () -> String.valueOf(PERMITS));
+        registry.add(prefix + "resilience.rate-limiter.limit-refresh-period", () -> "1h");
+    }
+
+    @Autowired
+    private Map<String, RestClient> clients;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private RateLimiterRegistry rateLimiterRegistry;
+
+    @BeforeEach
+    void configureStubs() {
+        configureFor("localhost", wiremock.getRuntimeInfo().getHttpPort());
+        stubFor(get("/unavailable").willReturn(aResponse().withStatus(HttpStatus.SERVICE_UNAVAILABLE.value())));
+    }
+
+    @Test
+    void shouldCountWholeRetriedCallOnceWhenRetryIsInnermost() {
+        callAndExpectFailure("per-call");
+
+        assertThat(rateLimiter("per-call").getMetrics().getAvailablePermissions())
+                .isEqualTo(PERMITS - 1);
+        assertThat(circuitBreaker("per-call").getMetrics().getNumberOfFailedCalls())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldCountEveryAttemptWhenRetryIsOutermost() {
+        callAndExpectFailure("per-attempt");
+
+        assertThat(rateLimiter("per-attempt").getMetrics().getAvailablePermissions())
+                .isEqualTo(PERMITS - ATTEMPTS);
+        assertThat(circuitBreaker("per-attempt").getMetrics().getNumberOfFailedCalls())
+                .isEqualTo(ATTEMPTS);
+    }
+
+    private void callAndExpectFailure(String client) {
+        assertThatThrownBy(() ->
+                        clients.get(client).get().uri("/unavailable").retrieve().toBodilessEntity())
+                .isInstanceOf(HttpServerErrorException.class);
+    }
+
+    private RateLimiter rateLimiter(String name) {
+        return rateLimiterRegistry.rateLimiter(name);
+    }
+
+    private CircuitBreaker circuitBreaker(String name) {
+        return circuitBreakerRegistry.circuitBreaker(name);
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.http.autoconfiguration.integration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import com.example.http.autoconfiguration.builder.ResilienceHttpRequestInterceptor;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.micrometer.observation.ObservationRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Runs the interceptor over a real pooled Apache client limited to a single connection, so any
+ * discarded response that is not released would starve the next attempt, and over the JDK client.
+ */
+class ResponseDrainIntegrationTest {
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private final List<Integer> leasedAtAttemptStart = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(1)
+                .setMaxConnPerRoute(1)
+                .build();
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpClient.close();
+    }
+
+    @Test
+    void shouldReleaseConnectionOfEveryDiscardedAttempt() {
+        wiremock.stubFor(get("/unavailable")
+                .willReturn(aResponse()
+                        .withStatus(503)
+                        .withHeader("Retry-After", "1")
+                        .withBody("try again later")));
+
+        RestClient client = client(DataSize.ofKilobytes(16));
+
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> client.get().uri("/unavailable").retrieve().toBodilessEntity())
+                    .isInstanceOfSatisfying(HttpServerErrorException.class, ex -> {
+                        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                        assertThat(ex.getResponseHeaders()).containsKey("Retry-After");
+                        assertThat(ex.getResponseBodyAsString()).isEqualTo("try again later");
+                    });
+        }
+
+        wiremock.verify(15, getRequestedFor(urlEqualTo("/unavailable")));
+        assertThat(leasedAtAttemptStart).hasSize(15).containsOnly(0);
+        assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+        // drained bodies leave the keep-alive connection reusable
+        assertThat(connectionManager.getTotalStats().getAvailable()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAbortConnectionWhenBodyExceedsDrainLimit() {
+        wiremock.stubFor(
+                get("/large-error").willReturn(aResponse().withStatus(502).withBody(new byte[256 * 1024])));
+
+        RestClient client = client(DataSize.ofKilobytes(1));
+
+        assertThatThrownBy(() -> client.get().uri("/large-error").retrieve().toBodilessEntity())
+                .isInstanceOfSatisfying(
+                        HttpServerErrorException.class,
+                        ex -> assertThat(ex.getResponseBodyAsByteArray()).isEmpty());
+
+        assertThat(leasedAtAttemptStart).hasSize(3).containsOnly(0);
+        assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+        // oversized bodies are not read; their connections are discarded instead of pooled
+        assertThat(connectionManager.getTotalStats().getAvailable()).isZero();
+    }
+
+    @Test
+    void shouldReleaseConnectionOfNonRetryableServerError() {
+        wiremock.stubFor(get("/broken").willReturn(aResponse().withStatus(500).withBody("boom")));
+        wiremock.stubFor(get("/ok").willReturn(aResponse().withStatus(200).withBody("fine")));
+
+        RestClient client = client(DataSize.ofKilobytes(16));
+
+        assertThatThrownBy(() -> client.get().uri("/broken").retrieve().toBodilessEntity())
+                .isInstanceOf(HttpServerErrorException.class);
+
+        assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+        assertThat(client.get().uri("/ok").retrieve().body(String.class)).isEqualTo("fine");
+    }
+
+    @Test
+    void shouldNotReadOversizedBodyOfJdkEngine() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        CountDownLatch abandoned = new CountDownLatch(3);
+        server.setExecutor(executor);
+        server.createContext("/endless-error", exchange -> {
+            exchange.sendResponseHeaders(502, 0);
+            byte[] chunk = new byte[8192];
+            try (OutputStream out = exchange.getResponseBody()) {
+                while (true) {
+                    out.write(chunk);
+                    out.flush();
+                }
+            } catch (IOException ex) {
+                abandoned.countDown();
+            }
+        });
+        server.start();
+
+        try {
+            RestClient client = RestClient.builder()
+                    .baseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                    .requestFactory(new JdkClientHttpRequestFactory(java.net.http.HttpClient.newBuilder()
+                            .version(java.net.http.HttpClient.Version.HTTP_1_1)
+                            .build()))
+                    .requestInterceptor(interceptor(DataSize.ofKilobytes(1)))
+                    .build();
+
+            // closing the response would read the endless body forever
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThatThrownBy(
+                            () -> client.get().uri("/endless-error").retrieve().toBodilessEntity())
+                    .isInstanceOfSatisfying(
+                            HttpServerErrorException.class,
+                            ex -> assertThat(ex.getResponseBodyAsByteArray()).isEmpty()));
+            // every attempt's connection was closed rather than drained
+            assertThat(abandoned.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private RestClient client(DataSize drainLimit) {
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        // fail fast instead of waiting out the default if an attempt leaks its lease
+        factory.setConnectionRequestTimeout(Duration.ofMillis(500));
+
+        return RestClient.builder()
+                .baseUrl(wiremock.getRuntimeInfo().getHttpBaseUrl())
+                .requestFactory((uri, method) -> {
+                    // invoked once per attempt, right before the attempt leases a connection
+                    leasedAtAttemptStart.add(connectionManager.getTotalStats().getLeased());
+                    return factory.createRequest(uri, method);
+                })
+                .requestInterceptor(interceptor(drainLimit))
+                .build();
+    }
+
+    private static ResilienceHttpRequestInterceptor interceptor(DataSize drainLimit) {
+        Retry retry = Retry.of(
+                "drain",
+                RetryConfig.custom()
+                        .maxAttempts(3)
+                        .waitDuration(Duration.ofMillis(10))
+                        .retryExceptions(HttpServerErrorException.class)
+                        .build());
+
+        return ResilienceHttpRequestInterceptor.builder(ObservationRegistry.NOOP)
+                .clientName("drain")
+                .retry(retry)
+                .retryStatus(Set.of(HttpStatus.BAD_GATEWAY, HttpStatus.SERVICE_UNAVAILABLE))
+                .responseDrainLimit(drainLimit)
+                .build();
+    }
+}
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.example.http.autoconfiguration.property.RestClientProperties;
 import com.example.http.autoconfiguration.property.RestClientsProperties;
+import java.time.Duration;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +22,8 @@ import org.springframework.test.context.TestPropertySource;
             "group.http.clients.beta.base-url=https://beta.example.com",
             "group.http.clients.beta.client-name=beta-client",
             "group.http.clients.beta.http-client.pool.concurrency-policy=STRICT",
+            "group.http.clients.beta.http-client.pool.routes[https\\://heavy.example].max-connections=200",
+            "group.http.clients.beta.http-client.pool.routes[https\\://heavy.example].time-to-live=30s",
             "group.http.clients.beta.observation-tags.region=us-west",
             "group.http.clients.beta.resilience.circuit-breaker-enabled=true",
             "group.http.clients.beta.resilience.retry-enabled=true",
@@ -74,6 +77,10 @@ class RestClientsPropertiesIntegrationTest {
         assertThat(beta.getClientName()).isEqualTo("beta-client");
 
         assertThat(beta.getHttpClient().getPool().getConcurrencyPolicy()).isEqualTo("STRICT");
+        var heavy = beta.getHttpClient().getPool().getRoutes().get("https://heavy.example");
+        assertThat(heavy.getMaxConnections()).isEqualTo(200);
+        assertThat(heavy.getTimeToLive()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(heavy.getValidateAfterInactivity()).isNull();
 
         assertThat(beta.getObservationTags()).hasSize(1).containsEntry("region", "us-west");
 
@@ -0,0 +1,136 @@
+package com.example.http.autoconfiguration.integration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.http.autoconfiguration.TestApplication;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+
+@SpringBootTest(classes = TestApplication.class)
+class RetryAfterIntegrationTest {
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        registry.add("group.http.clients.retry-after.base-url", () -> wiremock.getRuntimeInfo()
+                .getHttpBaseUrl());
+        registry.add("group.http.clients.retry-after.resilience.retry-enabled", () -> "true");
+        registry.add("group.http.clients.retry-after.resilience.retry.max-attempts", () -> "3");
+        registry.add("group.http.clients.retry-after.resilience.retry.wait-duration", () -> "10ms");
+        registry.add("group.http.clients.retry-after.resilience.retry.exponential-max-wait-duration", () -> "1500ms");
+        registry.add("group.http.clients.retry-after.resilience.deadline.enabled", () -> "true");
+        registry.add("group.http.clients.retry-after.resilience.deadline.total", () -> "5s");
+        registry.add("group.http.clients.retry-after-capped.base-url", () -> wiremock.getRuntimeInfo()
+                .getHttpBaseUrl());
+        registry.add("group.http.clients.retry-after-capped.resilience.retry-enabled", () -> "true");
+        registry.add("group.http.clients.retry-after-capped.resilience.retry.max-attempts", () -> "3");
+        registry.add("group.http.clients.retry-after-capped.resilience.retry.wait-duration", () -> "10ms");
+        registry.add(
+                "group.http.clients.retry-after-capped.resilience.retry.exponential-max-wait-duration", () -> "1500ms");
+        registry.add("group.http.clients.retry-after-capped.resilience.retry.cap-retry-after", () -> "true");
+    }
+
+    @Autowired
+    private Map<String, RestClient> clients;
+
+    @BeforeEach
+    void configureStubs() {
+        configureFor("localhost", wiremock.getRuntimeInfo().getHttpPort());
+        wiremock.resetAll();
+    }
+
+    @Test
+    void shouldWaitForRetryAfterBeforeRetrying() {
+        stubFor(get("/throttled")
+                .inScenario("throttled")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(429).withHeader("Retry-After", "1"))
+                .willSetStateTo("recovered"));
+        stubFor(get("/throttled")
+                .inScenario("throttled")
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withStatus(200).withBody("ok")));
+
+        long start = System.nanoTime();
+        String body =
+                clients.get("retry-after").get().uri("/throttled").retrieve().body(String.class);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(body).isEqualTo("ok");
+        // the 10ms wait duration would have retried almost immediately
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(1000L);
+        verify(2, getRequestedFor(urlEqualTo("/throttled")));
+    }
+
+    @Test
+    void shouldFailFastWhenRetryAfterExceedsMaxWait() {
+        stubFor(get("/busy").willReturn(aResponse().withStatus(503).withHeader("Retry-After", "3")));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() ->
+                        clients.get("retry-after").get().uri("/busy").retrieve().body(String.class))
+                .isInstanceOf(HttpServerErrorException.class)
+                .hasMessageContaining("503");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMillis).isLessThan(1000L);
+        verify(1, getRequestedFor(urlEqualTo("/busy")));
+    }
+
+    @Test
+    void shouldCapRetryAfterAtMaxWaitWhenEnabled() {
+        stubFor(get("/busy")
+                .inScenario("busy")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503).withHeader("Retry-After", "3"))
+                .willSetStateTo("recovered"));
+        stubFor(get("/busy")
+                .inScenario("busy")
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withStatus(200).withBody("ok")));
+
+        long start = System.nanoTime();
+        String body =
+                clients.get("retry-after-capped").get().uri("/busy").retrieve().body(String.class);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(body).isEqualTo("ok");
+        assertThat(elapsedMillis).isBetween(1500L, 2900L);
+        verify(2, getRequestedFor(urlEqualTo("/busy")));
+    }
+
+    @Test
+    void shouldFailFastWhenRetryAfterOutlastsDeadline() {
+        stubFor(get("/unavailable").willReturn(aResponse().withStatus(503).withHeader("Retry-After", "120")));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> clients.get("retry-after")
+                        .get()
+                        .uri("/unavailable")
+                        .retrieve()
+                        .body(String.class))
+                .isInstanceOf(HttpServerErrorException.class)
+                .hasMessageContaining("503");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMillis).isLessThan(1000L);
+        verify(1, getRequestedFor(urlEqualTo("/unavailable")));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.http.autoconfiguration.integration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.http.autoconfiguration.TestApplication;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+
+@SpringBootTest(classes = TestApplication.class)
+class RetryBudgetIntegrationTest {
+
+    @RegisterExtension
+    static WireMockExtension wiremock = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        String prefix = "group.http.clients.budgeted.";
+        registry.add(prefix + "base-url", () -> wiremock.getRuntimeInfo().getHttpBaseUrl());
+        registry.add(prefix + "resilience.retry-enabled", () -> "true");
+        registry.add(prefix + "resilience.retry.max-attempts", () -> "10");
+        registry.add(prefix + "resilience.retry.wait-duration", () -> "10ms");
+        registry.add(prefix + "resilience.retry-budget.enabled", () -> "true");
+        registry.add(prefix + "resilience.retry-budget.ratio", () -> "0.5");
+        registry.add(prefix + "resilience.retry-budget.min-retries-per-second", () -> "0");
+    }
+
+    @Autowired
+    private Map<String, RestClient> clients;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void configureStubs() {
+        configureFor("localhost", wiremock.getRuntimeInfo().getHttpPort());
+        wiremock.resetAll();
+    }
+
+    @Test
+    void shouldOnlyRetryWithinShareOfSuccessfulCalls() {
+        stubFor(get("/up").willReturn(aResponse().withStatus(200).withBody("ok")));
+        stubFor(get("/down").willReturn(aResponse().withStatus(503)));
+        RestClient client = clients.get("budgeted");
+
+        // no successes yet: the budget is empty and the failure is returned without retrying
+        assertThatThrownBy(() -> client.get().uri("/down").retrieve().toBodilessEntity())
+                .isInstanceOf(HttpServerErrorException.class);
+        verify(1, getRequestedFor(urlEqualTo("/down")));
+
+        for (int i = 0; i < 4; i++) {
+            client.get().uri("/up").retrieve().toBodilessEntity();
+        }
+
+        // four successes earned two retries, not the nine that max-attempts would allow
+        wiremock.resetRequests();
+        assertThatThrownBy(() -> client.get().uri("/down").retrieve().toBodilessEntity())
+                .isInstanceOf(HttpServerErrorException.class);
+        verify(3, getRequestedFor(urlEqualTo("/down")));
+
+        assertThat(count("granted")).isEqualTo(2.0);
+        assertThat(count("denied")).isEqualTo(2.0);
+    }
+
+    private double count(String result) {
+        return meterRegistry
+                .get("http.client.retry.budget")
+                .tag("client", "budgeted")
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.http.autoconfiguration.observation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class DefaultUriPathNormalizerTest {
+
+    private final DefaultUriPathNormalizer normalizer = new DefaultUriPathNormalizer();
+
+    @Test
+    void shouldReplaceIdentifierSegments() {
+        assertThat(normalizer.normalize("/orders/42")).isEqualTo("/orders/{id}");
+        assertThat(normalizer.normalize("/orders/42/lines/7")).isEqualTo("/orders/{id}/lines/{id}");
+        assertThat(normalizer.normalize("/users/3f2b6c1e-8d4a-4c1b-9f3e-2a7d5b9c0e11/profile"))
+                .isEqualTo("/users/{id}/profile");
+        assertThat(normalizer.normalize("/blobs/0123456789abcdef0123")).isEqualTo("/blobs/{id}");
+        assertThat(normalizer.normalize("/42/")).isEqualTo("/{id}/");
+    }
+
+    @Test
+    void shouldKeepDescriptiveSegments() {
+        assertThat(normalizer.normalize("/api/v1/orders")).isEqualTo("/api/v1/orders");
+        assertThat(normalizer.normalize("/cafe/deadbeef")).isEqualTo("/cafe/deadbeef");
+        assertThat(normalizer.normalize("")).isEqualTo("/");
+        assertThat(normalizer.normalize(null)).isEqualTo("/");
+    }
+}
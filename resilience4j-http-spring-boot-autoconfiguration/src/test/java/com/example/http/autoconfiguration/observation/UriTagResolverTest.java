@@ -0,0 +1,97 @@
+package com.example.http.autoconfiguration.observation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.common.KeyValue;
+import java.net.URI;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+
+class UriTagResolverTest {
+
+    @Test
+    void shouldPreferUriTemplateAttribute() {
+        UriTagResolver resolver = new UriTagResolver(null, 10, 10);
+        MockClientHttpRequest request = request("/orders/42");
+        request.getAttributes().put(UriTagResolver.URI_TEMPLATE_ATTRIBUTE, "https://api.example.com/orders/{id}?x={x}");
+
+        KeyValue tag = resolver.resolve(request);
+
+        assertThat(tag.getKey()).isEqualTo(UriTagResolver.TAG_NAME);
+        assertThat(tag.getValue()).isEqualTo("/orders/{id}");
+    }
+
+    @Test
+    void shouldNormalizePathsWithoutTemplate() {
+        UriTagResolver resolver = new UriTagResolver(null, 10, 10);
+
+        assertThat(resolver.resolve(request("/orders/42")).getValue()).isEqualTo("/orders/{id}");
+        assertThat(resolver.resolve(request("/orders/43")).getValue()).isEqualTo("/orders/{id}");
+        assertThat(resolver.resolve(request("")).getValue()).isEqualTo("/");
+        assertThat(resolver.distinctValues()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldUseCustomNormalizerAndCacheItsResult() {
+        int[] calls = {0};
+        UriTagResolver resolver = new UriTagResolver(
+                path -> {
+                    calls[0]++;
+                    return path.substring(0, path.lastIndexOf('/'));
+                },
+                10,
+                10);
+
+        KeyValue first = resolver.resolve(request("/users/alice"));
+        KeyValue second = resolver.resolve(request("/users/alice"));
+
+        assertThat(first.getValue()).isEqualTo("/users");
+        assertThat(second).isSameAs(first);
+        assertThat(calls[0]).isEqualTo(1);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedNormalizedPaths() {
+        int[] calls = {0};
+        UriTagResolver resolver = new UriTagResolver(
+                path -> {
+                    calls[0]++;
+                    return path;
+                },
+                10,
+                2);
+
+        resolver.resolve(request("/a"));
+        resolver.resolve(request("/b"));
+        resolver.resolve(request("/a"));
+        resolver.resolve(request("/c")); // evicts /b
+        resolver.resolve(request("/a"));
+        resolver.resolve(request("/b"));
+
+        assertThat(calls[0]).isEqualTo(4);
+    }
+
+    @Test
+    void shouldCapDistinctValuesAndOverflowToOther() {
+        UriTagResolver resolver = new UriTagResolver(path -> path, 2, 100);
+
+        assertThat(resolver.resolve(request("/a")).getValue()).isEqualTo("/a");
+        assertThat(resolver.resolve(request("/b")).getValue()).isEqualTo("/b");
+        assertThat(resolver.resolve(request("/c")).getValue()).isEqualTo(UriTagResolver.OVERFLOW_VALUE);
+        assertThat(resolver.resolve(request("/a")).getValue()).isEqualTo("/a");
+        assertThat(resolver.distinctValues()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldExtractPathFromTemplate() {
+        assertThat(UriTagResolver.templatePath("/orders/{id}")).isEqualTo("/orders/{id}");
+        assertThat(UriTagResolver.templatePath("http://host:8080")).isEqualTo("/");
+        assertThat(UriTagResolver.templatePath("http://host/a/{b}#frag")).isEqualTo("/a/{b}");
+        assertThat(UriTagResolver.templatePath("{base}/a?q=1")).isEqualTo("{base}/a");
+    }
+
+    private static MockClientHttpRequest request(String path) {
+        return new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost" + path));
+    }
+}
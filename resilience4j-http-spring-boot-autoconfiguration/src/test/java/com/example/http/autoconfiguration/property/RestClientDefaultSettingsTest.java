@@ -84,5 +84,6 @@ class RestClientDefaultSettingsTest {
         assertThat(requestFactory.getConnectTimeout()).isEqualTo(Duration.ofSeconds(5));
         assertThat(requestFactory.getConnectionRequestTimeout()).isEqualTo(Duration.ofSeconds(2));
         assertThat(requestFactory.getReadTimeout()).isEqualTo(Duration.ofSeconds(10));
+        assertThat(requestFactory.isExpectContinue()).isFalse();
     }
 }